@@ -0,0 +1,65 @@
+package benchmarks;
+
+import autoOp.AutoOpEngine;
+import autoOp.AutoOpRules;
+import devices.Light;
+import org.openjdk.jmh.annotations.*;
+import sensors.LightSensor;
+import sensors.MeasurementUnit;
+import storage.DeviceStorage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+
+// 📡 One sensor reading fanned out to N linked lights, measured until the AutoOp engine is idle again
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-D" + AutoOpRules.MIN_DWELL_PROPERTY + "=0") // every reading must flip the lights
+public class AutoOpFanOutBenchmark {
+
+    @Param({"1", "100", "1000"})
+    public int linkedDevices;
+
+    private Path file;
+    private LightSensor sensor;
+    private AutoOpEngine engine;
+    private boolean bright;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = SyntheticWorkbook.create(0, 0); // state writes land here, never in the real workbook
+        SyntheticWorkbook.use(file);
+
+        Clock clock = Clock.systemDefaultZone();
+        sensor = new LightSensor("LITs901", "Bench Sensor", MeasurementUnit.LUX, 500, clock);
+        for (int i = 0; i < linkedDevices; i++) {
+            Light light = new Light(SyntheticWorkbook.lightId(i), "Bench Light " + i, clock, false, 400, 400, true);
+            light.setAutomationEnabled(true);
+            DeviceStorage.getDevices().put(light.getId(), light);
+            sensor.linkLinkedDevice(light);
+            light.setLinkedSensor(sensor);
+        }
+
+        engine = AutoOpEngine.getInstance();
+        engine.initialize();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        DeviceStorage.clear();
+        SyntheticWorkbook.delete(file);
+    }
+
+    // Alternating bright/dark readings flip every linked light on each call
+    @Benchmark
+    public boolean notifyLinkedDevices() throws InterruptedException {
+        bright = !bright;
+        sensor.notifyLinkedDevices(bright ? 900 : 100);
+        return engine.awaitIdle(10, TimeUnit.SECONDS);
+    }
+}
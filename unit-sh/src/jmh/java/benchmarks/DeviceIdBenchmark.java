@@ -0,0 +1,46 @@
+package benchmarks;
+
+import devices.DeviceType;
+import org.openjdk.jmh.annotations.*;
+import utils.DeviceIdManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// 🆔 Next-ID generation with N IDs already assigned (reset every iteration so N stays put)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeviceIdBenchmark {
+
+    @Param({"10", "1000", "50000"})
+    public int assigned;
+
+    private final DeviceIdManager ids = DeviceIdManager.getInstance();
+    private List<String> known;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        known = new ArrayList<>(assigned);
+        DeviceType[] types = {DeviceType.LIGHT, DeviceType.SMART_LIGHT, DeviceType.DRYER, DeviceType.WASHING_MACHINE};
+        String[] prefixes = {"LI", "SL", "DR", "WM"};
+        for (int i = 0; i < assigned; i++) {
+            known.add(String.format("%s%03d", prefixes[i % types.length], i / types.length + 1));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        ids.clear();
+        ids.addKnownIds(known);
+    }
+
+    @Benchmark
+    public String generateIdForType() {
+        return ids.generateIdForType(DeviceType.LIGHT);
+    }
+}
@@ -0,0 +1,105 @@
+package benchmarks;
+
+import devices.Device;
+import devices.Light;
+import org.openjdk.jmh.annotations.*;
+import scheduler.Scheduler;
+import storage.DeviceStorage;
+import storage.SensorStorage;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.file.Path;
+import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// ⏰ Scheduler tick with N pending tasks: nothing due, and exactly one daily task due
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class SchedulerBenchmark {
+
+    private static final int DEVICES = 100;
+
+    @Param({"10", "1000", "50000"})
+    public int tasks;
+
+    private Path file;
+    private Scheduler scheduler;
+    private MethodHandle tick;
+    private MutableClock clock;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        file = SyntheticWorkbook.create(DEVICES, tasks);
+        SyntheticWorkbook.use(file);
+
+        clock = new MutableClock(LocalDateTime.of(2030, 1, 1, 7, 0).atZone(ZoneId.systemDefault()).toInstant());
+        for (int i = 0; i < DEVICES; i++) {
+            Device light = new Light(SyntheticWorkbook.lightId(i), "Bench Light " + i, clock, false, 300, 600, true);
+            DeviceStorage.getDevices().put(light.getId(), light);
+        }
+
+        scheduler = new Scheduler(DeviceStorage.getDevices(), SensorStorage.getSensors(), clock);
+        scheduler.loadTasksFromExcel();
+        scheduler.scheduleTask(DeviceStorage.getDevices().get(SyntheticWorkbook.lightId(0)), "on",
+                LocalDateTime.now(clock).plusMinutes(1), "Daily");
+
+        // tick(due) is the pass runSchedulerLoop makes after its blocking take (drain → fire → save);
+        // it is package-private, and only the take itself is left out of the measurement
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(Scheduler.class, MethodHandles.lookup());
+        tick = lookup.findVirtual(Scheduler.class, "tick", MethodType.methodType(void.class, List.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        DeviceStorage.clear();
+        SyntheticWorkbook.delete(file);
+    }
+
+    @Benchmark
+    public void idleTick() throws Throwable {
+        tick.invokeExact(scheduler, (List<?>) new ArrayList<>());
+    }
+
+    // 📅 Advance a day so the daily task fires, runs its action and the task sheet is saved
+    @Benchmark
+    public void dueTick() throws Throwable {
+        clock.advance(Duration.ofDays(1));
+        tick.invokeExact(scheduler, (List<?>) new ArrayList<>());
+    }
+
+    static final class MutableClock extends Clock {
+        private volatile Instant now;
+
+        MutableClock(Instant start) {
+            this.now = start;
+        }
+
+        void advance(Duration by) {
+            now = now.plus(by);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.systemDefault();
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package benchmarks;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import storage.xlc.WorkbookSession;
+import storage.xlc.XlStreamingLoader;
+import storage.xlc.XlWorkbookUtils;
+import storage.xlc.sheetsCommand.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Map;
+
+// 🧪 Throw-away workbook with the production sheet layout, filled with N synthetic rows per sheet
+final class SyntheticWorkbook {
+
+    static final String BRAND = "Philips";
+    static final String LIGHT_MODEL = "LED Bulb";
+    static final String SMART_MODEL = "Hue";
+
+    private static final DateTimeFormatter TASK_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private SyntheticWorkbook() {
+    }
+
+    static String lightId(int i) {
+        return String.format("LI%05d", i + 1);
+    }
+
+    static String smartLightId(int i) {
+        return String.format("SL%05d", i + 1);
+    }
+
+    // 📄 Devices rows are lights, plus one SmartLight control row; tasks fire far in the future
+    static Path create(int rows, int tasks) throws IOException {
+        Path file = Files.createTempFile("phoenix-bench-" + rows + "-", ".xlsx");
+
+        try (XSSFWorkbook wb = new XSSFWorkbook()) {
+            // Scheduler maps task columns by label, not by enum name
+            XlWorkbookUtils.createSheetWithHeaders(wb, "Scheduled_Tasks",
+                    Arrays.stream(ScheduledTasksCommand.values()).map(ScheduledTasksCommand::label).toArray(String[]::new));
+            XlWorkbookUtils.createEnumSheet(wb, "Devices", DeviceSheetCommand.class);
+            XlWorkbookUtils.createEnumSheet(wb, "Smart_Light_Control", SmartLightSheetCommand.class);
+            XlWorkbookUtils.createEnumSheet(wb, "Sensors", SensorSheetCommand.class);
+            XlWorkbookUtils.createEnumSheet(wb, "Sens_Ctrl", AutoOpControlCommand.class);
+
+            Map<DeviceSheetCommand, Integer> cols = DeviceSheetCommand.getColumnMap();
+            Sheet devices = wb.getSheet("Devices");
+            for (int i = 0; i < rows; i++) {
+                Row row = devices.createRow(i + 1);
+                row.createCell(cols.get(DeviceSheetCommand.TYPE)).setCellValue("LIGHT");
+                row.createCell(cols.get(DeviceSheetCommand.DEVICE_ID)).setCellValue(lightId(i));
+                row.createCell(cols.get(DeviceSheetCommand.NAME)).setCellValue("Bench Light " + i);
+                row.createCell(cols.get(DeviceSheetCommand.BRAND)).setCellValue(BRAND);
+                row.createCell(cols.get(DeviceSheetCommand.MODEL)).setCellValue(LIGHT_MODEL);
+                row.createCell(cols.get(DeviceSheetCommand.AUTO_ENABLED)).setCellValue(false);
+                row.createCell(cols.get(DeviceSheetCommand.AUTO_ON)).setCellValue(300);
+                row.createCell(cols.get(DeviceSheetCommand.AUTO_OFF)).setCellValue(600);
+                row.createCell(cols.get(DeviceSheetCommand.STATE)).setCellValue(i % 2 == 0 ? "ON" : "OFF");
+            }
+
+            Map<SmartLightSheetCommand, Integer> slCols = SmartLightSheetCommand.getColumnMap();
+            Row smart = wb.getSheet("Smart_Light_Control").createRow(1);
+            smart.createCell(slCols.get(SmartLightSheetCommand.DEVICE_ID)).setCellValue(smartLightId(0));
+            smart.createCell(slCols.get(SmartLightSheetCommand.NAME)).setCellValue("Bench SmartLight");
+            smart.createCell(slCols.get(SmartLightSheetCommand.BRAND)).setCellValue(BRAND);
+            smart.createCell(slCols.get(SmartLightSheetCommand.MODEL)).setCellValue(SMART_MODEL);
+
+            Sheet taskSheet = wb.getSheet("Scheduled_Tasks");
+            String farFuture = LocalDateTime.of(2099, 1, 1, 8, 0).format(TASK_TIME);
+            for (int i = 0; i < tasks; i++) {
+                Row row = taskSheet.createRow(i + 1);
+                row.createCell(ScheduledTasksCommand.TASK_ID.ordinal()).setCellValue(String.format("TS%05d", i + 1));
+                row.createCell(ScheduledTasksCommand.DEVICE_ID.ordinal()).setCellValue(lightId(i % Math.max(rows, 1)));
+                row.createCell(ScheduledTasksCommand.ACTION.ordinal()).setCellValue("on");
+                row.createCell(ScheduledTasksCommand.TIME.ordinal()).setCellValue(farFuture);
+                row.createCell(ScheduledTasksCommand.REPEAT.ordinal()).setCellValue("None");
+            }
+
+            try (OutputStream out = Files.newOutputStream(file)) {
+                wb.write(out);
+            }
+        }
+        return file;
+    }
+
+    // 🔀 Point every workbook reader at the synthetic file
+    static void use(Path file) {
+        XlWorkbookUtils.overrideFilePath(file);
+        XlStreamingLoader.release();
+        WorkbookSession.invalidate();
+    }
+
+    static void delete(Path file) throws IOException {
+        XlStreamingLoader.release();
+        WorkbookSession.invalidate();
+        if (file != null) Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,82 @@
+package benchmarks;
+
+import devices.Device;
+import devices.Light;
+import devices.SmartLight;
+import devices.actions.ApprovedDeviceModel;
+import org.openjdk.jmh.annotations.*;
+import storage.DeviceStorage;
+import storage.xlc.WorkbookSession;
+import storage.xlc.XlDeviceManager;
+import storage.xlc.XlSmartLightManager;
+import storage.xlc.XlStreamingLoader;
+import ui.gui.PageNavigator;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// 📊 Excel persistence paths against a synthetic Devices sheet of N rows
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class WorkbookBenchmark {
+
+    @Param({"10", "1000", "50000"})
+    public int rows;
+
+    private Path file;
+    private Device device;
+    private SmartLight smartLight;
+    private boolean toggle;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = SyntheticWorkbook.create(rows, 0);
+        SyntheticWorkbook.use(file);
+        PageNavigator.initialize(new JPanel(new CardLayout())); // loading registers device pages
+
+        Clock clock = Clock.systemDefaultZone();
+        device = new Light(SyntheticWorkbook.lightId(rows / 2), "Bench Light", clock, false, 300, 600, true);
+        smartLight = new SmartLight(SyntheticWorkbook.smartLightId(0), "Bench SmartLight",
+                ApprovedDeviceModel.lookup(SyntheticWorkbook.BRAND, SyntheticWorkbook.SMART_MODEL),
+                clock, false, 300, 600, true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        DeviceStorage.clear();
+        SyntheticWorkbook.delete(file);
+    }
+
+    // 🚀 Cold start: nothing cached, the file is streamed once and every row becomes a device
+    @Benchmark
+    public List<Device> loadDevicesFromExcel() {
+        WorkbookSession.invalidate();
+        XlStreamingLoader.preload();
+        try {
+            return XlDeviceManager.loadDevicesFromExcel();
+        } finally {
+            XlStreamingLoader.release();
+        }
+    }
+
+    @Benchmark
+    public boolean updateDevice() throws IOException {
+        device.setState(toggle = !toggle);
+        return XlDeviceManager.updateDevice(device);
+    }
+
+    @Benchmark
+    public boolean updateSmartLight() {
+        smartLight.setAutoThreshold((toggle = !toggle) ? 300 : 350, true);
+        return XlSmartLightManager.updateSmartLight(smartLight);
+    }
+}
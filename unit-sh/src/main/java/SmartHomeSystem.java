@@ -1,10 +1,18 @@
+import autoOp.AutoOpEngine;
+import autoOp.AutoOpRules;
 import devices.Device;
 import devices.actions.LiveDeviceState;
+import metrics.Metrics;
+import metrics.MetricsHttpServer;
+import metrics.MetricsJmx;
+import scenes.SceneManager;
 import scheduler.Scheduler;
 import sensors.Sensor;
+import sensors.ingest.SensorIngestServer;
 import storage.DeviceStorage;
 import storage.SensorStorage;
 import storage.XlCreator;
+import storage.xlc.XlStreamingLoader;
 import storage.xlc.XlTaskSchedulerManager;
 import storage.xlc.XlWorkbookUtils;
 import ui.Menu;
@@ -14,13 +22,13 @@ import ui.gui.PageNavigator;
 import ui.gui.managers.ButtonMapManager;
 import ui.gui.managers.GuiStateManager;
 import utils.DeviceIdManager;
+import utils.StartupPipeline;
 import devices.DeviceType;
 
 
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
-import java.util.Timer;
 
 import storage.xlc.XlAutoOpManager;
 
@@ -31,6 +39,8 @@ import static ui.gui.managers.ButtonMapManager.renderPageForTypes;
 public class SmartHomeSystem {
 
     private static Scheduler scheduler;
+    private static SensorIngestServer ingestServer;
+    private static MetricsHttpServer metricsServer;
 
     public static void main(String[] args) {
         boolean guiMode = args.length > 0 && args[0].equalsIgnoreCase("gui");
@@ -72,28 +82,42 @@ public class SmartHomeSystem {
         try {
             GuiStateManager.refreshGuiFromMemory();
 
-            DeviceStorage.initialize();              // ✅ Devices loaded here
-            SensorStorage.loadSensorsFromExcel();
-            XlTaskSchedulerManager.loadTasks();
-
-            linkDevicesAndSensors();
-            prepareScheduler();
-
-            GuiStateManager.refreshDeviceMatrix();   // ✅ Buttons registered here
-
-            // ✅ NOW the matrix is ready — build and register page 120
-            JPanel lightPage = ButtonMapManager.renderPageForTypes(
-                    new DeviceType[]{DeviceType.LIGHT}, 0, 120
-            );
-            PageNavigator.registerPage(120, lightPage);
-
-            System.out.println("✅ System initialized successfully.");
+            // 🚦 Sheets that do not depend on each other load in parallel; the scheduler starts once devices exist
+            StartupPipeline.Report report = new StartupPipeline()
+                    .phase("metrics", SmartHomeSystem::startMetrics)
+                    .phase("devices", DeviceStorage::initialize)              // ✅ Devices loaded here
+                    .phase("sensors", SensorStorage::loadSensorsFromExcel)
+                    .phase("tasks-sheet", XlTaskSchedulerManager::loadTasks)
+                    .phase("scenes", SceneManager::loadFromExcel, "devices")
+                    .phase("scheduler", SmartHomeSystem::prepareScheduler, "devices", "scenes")
+                    .phase("autoop-links", SmartHomeSystem::linkDevicesAndSensors, "devices", "sensors")
+                    .phase("gui", SmartHomeSystem::buildDevicePages, "devices", "autoop-links")
+                    .phase("ingest", SmartHomeSystem::startIngestion, "autoop-links")
+                    .run();
+
+            if (report.isSuccessful()) {
+                System.out.println("✅ System initialized successfully.");
+            } else {
+                System.err.println("🚨 System initialization finished with failed phases — see log above.");
+            }
         } catch (Exception e) {
             System.err.println("🚨 System initialization failed: " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            XlStreamingLoader.release(); // 🧹 startup snapshot is no longer needed
         }
     }
 
+    private static void buildDevicePages() {
+        GuiStateManager.refreshDeviceMatrix();   // ✅ Buttons registered here
+
+        // ✅ NOW the matrix is ready — build and register page 120
+        JPanel lightPage = ButtonMapManager.renderPageForTypes(
+                new DeviceType[]{DeviceType.LIGHT}, 0, 120
+        );
+        PageNavigator.registerPage(120, lightPage);
+    }
+
     private static boolean ensureExcelFileExists(boolean guiMode) {
         File excelFile = XlWorkbookUtils.getFilePath().toFile();
 
@@ -133,19 +157,41 @@ public class SmartHomeSystem {
 
     private static void prepareScheduler() {
         scheduler = new Scheduler(DeviceStorage.getDevices(), SensorStorage.getSensors());
+        Metrics.gauge("scheduler.pending", scheduler::getPendingCount);
         scheduler.loadTasksFromExcel();
+        scheduler.startSchedulerLoop(); // ⏰ Devices are resolved — no need to wait
+
+        System.out.println("✅ Scheduler initialized and started.");
+    }
 
-        Timer timer = new Timer(true);
-        timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                scheduler.startSchedulerLoop();
-            }
-        }, 3000);
 
-        System.out.println("✅ Scheduler initialized and will start in 3 seconds.");
+    // 📡 Only when -Dphoenix.ingest.port is set; readings need linked sensors to be useful
+    private static void startIngestion() {
+        ingestServer = SensorIngestServer.startFromProperties();
+        if (ingestServer != null) {
+            SensorIngestServer server = ingestServer;
+            Metrics.gauge("ingest.accepted", server::getAcceptedCount);
+            Metrics.gauge("ingest.malformed", server::getMalformedCount);
+            Metrics.gauge("ingest.unknown_sensor", server::getUnknownSensorCount);
+            Metrics.gauge("ingest.connections", server::getConnectionCount);
+        }
     }
 
+    // 📈 Engine gauges + JMX always; the HTTP endpoint only when -Dphoenix.metrics.port is set
+    private static void startMetrics() {
+        AutoOpEngine engine = AutoOpEngine.getInstance();
+        Metrics.gauge("autoop.published", engine::getPublishedCount);
+        Metrics.gauge("autoop.merged", engine::getMergedCount);
+        Metrics.gauge("autoop.dropped", engine::getDroppedCount);
+        Metrics.gauge("autoop.processed", engine::getProcessedCount);
+
+        AutoOpRules rules = AutoOpRules.getInstance();
+        Metrics.gauge("autoop.transitions", rules::getTransitionCount);
+        Metrics.gauge("autoop.suppressed", rules::getSuppressedCount);
+
+        MetricsJmx.register();
+        metricsServer = MetricsHttpServer.startFromProperties();
+    }
 
     private static void launchGui() {
         System.out.println("🖥️ Launching PhoenixSH GUI...");
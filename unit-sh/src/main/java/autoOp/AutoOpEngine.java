@@ -2,28 +2,244 @@ package autoOp;
 
 import devices.Device;
 import sensors.Sensor;
+import storage.SensorStorage;
+import utils.Log;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ⚙️ Asynchronous sensor → device propagation.
+ * <p>
+ * {@link #publish(Sensor, double)} only records the reading and returns. Each sensor is pinned to one worker
+ * stripe (so its readings are evaluated in order) and owns a {@link CoalescingSlot}: a newer reading overwrites
+ * the pending one, so a worker only ever evaluates the latest value per sensor and stale values are merged away
+ * instead of piling up. A sensor sits in its stripe's queue at most once, so a queue only fills up when more
+ * sensors than its capacity hash to that stripe. Then the overflow policy applies: by default the publisher waits
+ * (up to {@link #DEFAULT_OFFER_TIMEOUT}) for room on the same stripe, which throttles producers without ever
+ * evaluating a sensor off its stripe; a reading that still finds no room is dropped and counted.
+ */
 public class AutoOpEngine {
 
+    public enum OverflowPolicy { BLOCK, DROP }
+
+    // 👂 Extra consumers of evaluated readings (e.g. scene triggers); run on the worker after linked devices
+    @FunctionalInterface
+    public interface ReadingListener {
+        void onReading(Sensor sensor, double value);
+    }
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 256;
+    public static final Duration DEFAULT_OFFER_TIMEOUT = Duration.ofMillis(100);
+
+    private static final AutoOpEngine INSTANCE = new AutoOpEngine(
+            Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())),
+            DEFAULT_QUEUE_CAPACITY,
+            OverflowPolicy.BLOCK);
+
+    // 🧵 One worker, one bounded queue of sensors whose slot holds a pending reading
+    private final class Stripe implements Runnable {
+        final BlockingQueue<Sensor> queue;
+
+        Stripe(int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        @Override
+        public void run() {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    Sensor sensor = queue.take();
+                    evaluate(sensor, sensor.getPendingReading().take());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private final Stripe[] stripes;
+    private final List<ReadingListener> listeners = new CopyOnWriteArrayList<>();
+    private final OverflowPolicy overflowPolicy;
+    private final long offerTimeoutNanos;
+    private volatile boolean started;
+
+    // ⏰ At most one pending re-check per sensor (the earliest one wins)
+    private final Map<Sensor, ScheduledFuture<?>> rechecks = new ConcurrentHashMap<>();
+    private volatile ScheduledExecutorService recheckTimer;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong merged = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+
+    public AutoOpEngine(int workers, int queueCapacity, OverflowPolicy overflowPolicy) {
+        this(workers, queueCapacity, overflowPolicy, DEFAULT_OFFER_TIMEOUT);
+    }
+
+    public AutoOpEngine(int workers, int queueCapacity, OverflowPolicy overflowPolicy, Duration offerTimeout) {
+        if (workers <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("❌ Worker count and queue capacity must be positive.");
+        }
+        if (offerTimeout.isNegative()) {
+            throw new IllegalArgumentException("❌ Offer timeout must not be negative.");
+        }
+        this.stripes = new Stripe[workers];
+        for (int i = 0; i < workers; i++) {
+            stripes[i] = new Stripe(queueCapacity);
+        }
+        this.overflowPolicy = overflowPolicy;
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+    }
+
+    public static AutoOpEngine getInstance() {
+        return INSTANCE;
+    }
+
     // 🔧 Core ops
-    public void initialize() {
-        // Load mappings, refresh memory links, etc.
+    public synchronized void initialize() {
+        if (started) return;
+        for (int i = 0; i < stripes.length; i++) {
+            Thread worker = new Thread(stripes[i], "AutoOp-Worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+        started = true;
+        Log.debug("⚙️ AutoOp engine started with " + stripes.length + " workers");
+    }
+
+    // 📡 Hand-off of a sensor reading — only blocks (bounded by the offer timeout) when its stripe is full
+    public void publish(Sensor sensor, double value) {
+        if (sensor == null) return;
+        if (!started) initialize();
+        published.incrementAndGet();
+
+        CoalescingSlot slot = sensor.getPendingReading();
+        if (!slot.offer(value)) {
+            merged.incrementAndGet(); // already queued — the worker will pick up this newer value
+            return;
+        }
+
+        String key = sensor.getSensorId();
+        int hash = key != null ? key.hashCode() : System.identityHashCode(sensor);
+        Stripe stripe = stripes[Math.floorMod(hash, stripes.length)];
+        if (stripe.queue.offer(sensor) || (overflowPolicy == OverflowPolicy.BLOCK && offerWithTimeout(stripe, sensor))) {
+            return;
+        }
+
+        // 🚧 No room — take back the slot (it may hold an even newer reading merged in meanwhile) so the next
+        // reading can schedule the sensor again; never evaluated here, that would race the sensor's own stripe
+        slot.take();
+        dropped.incrementAndGet();
+        Log.warn("⚠️ AutoOp queue full — dropped reading for " + key);
+    }
+
+    private boolean offerWithTimeout(Stripe stripe, Sensor sensor) {
+        try {
+            return stripe.queue.offer(sensor, offerTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void evaluate(Sensor sensor, double value) {
+        try {
+            sensor.evaluateLinkedDevices(value);
+            for (ReadingListener listener : listeners) {
+                listener.onReading(sensor, value);
+            }
+        } catch (RuntimeException e) {
+            Log.error("❌ AutoOp evaluation failed for " + sensor.getSensorId() + ": " + e.getMessage());
+        } finally {
+            processed.incrementAndGet();
+        }
+    }
+
+    // ⏰ Re-publish the sensor's latest reading after the delay (debounce / dwell window ending)
+    public void recheckLater(Sensor sensor, Duration delay) {
+        if (sensor == null) return;
+        long delayMs = Math.max(1, delay.toMillis() + 1);
+
+        rechecks.compute(sensor, (s, existing) -> {
+            if (existing != null) {
+                long left = existing.getDelay(TimeUnit.MILLISECONDS);
+                if (left > 0 && left <= delayMs) return existing; // an earlier re-check is already due
+                existing.cancel(false);
+            }
+            return timer().schedule(() -> publish(s, s.getCurrentReading()), delayMs, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    private ScheduledExecutorService timer() {
+        ScheduledExecutorService timer = recheckTimer;
+        if (timer == null) {
+            synchronized (this) {
+                if (recheckTimer == null) {
+                    recheckTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+                        Thread t = new Thread(r, "AutoOp-Recheck");
+                        t.setDaemon(true);
+                        return t;
+                    });
+                }
+                timer = recheckTimer;
+            }
+        }
+        return timer;
+    }
+
+    // ⏳ Wait until every queued reading has been evaluated (tests, orderly shutdown)
+    public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!isIdle()) {
+            if (System.nanoTime() >= deadline) return false;
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    private boolean isIdle() {
+        for (Stripe stripe : stripes) {
+            if (!stripe.queue.isEmpty()) return false;
+        }
+        return published.get() == processed.get() + merged.get() + dropped.get();
+    }
+
+    public void addListener(ReadingListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(ReadingListener listener) {
+        listeners.remove(listener);
     }
 
     public void link(Device linkedDevice, Sensor master) {
-        // Delegate to AutoOpMemoryRestorer + ExcelSync
+        AutoOpManager.persistLink(linkedDevice, master);
     }
 
     public void unlink(Device linkedDevice) {
-        // Call to AutoOpExcelSync.removeLink(...)
+        AutoOpManager.unlink(linkedDevice);
     }
 
+    // 🔁 Re-publish every sensor's current reading
     public void reevaluate() {
-        // Trigger AutoOpEvaluator
+        for (Sensor sensor : SensorStorage.getSensors().values()) {
+            publish(sensor, sensor.getCurrentReading());
+        }
     }
 
     // 🧠 Diagnostics
     public void logSnapshot() {
-        // Use AutoOpDiagnostics to print current map
+        Log.info(String.format("⚙️ AutoOp engine → published=%d merged=%d dropped=%d processed=%d",
+                published.get(), merged.get(), dropped.get(), processed.get()));
+        AutoOpRules.getInstance().logSnapshot();
     }
+
+    public long getPublishedCount() { return published.get(); }
+    public long getMergedCount() { return merged.get(); }
+    public long getDroppedCount() { return dropped.get(); }
+    public long getProcessedCount() { return processed.get(); }
 }
@@ -1,10 +1,10 @@
 package autoOp;
 
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import storage.xlc.XlWorkbookUtils;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import storage.xlc.XlRow;
+import storage.xlc.XlStreamingLoader;
 
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.*;
 
@@ -19,9 +19,8 @@ public class AutoOpExcelReader {
     private static final int COL_SENSOR_ID = 5;
 
     public static List<AutoOpRecord> readLinks() {
-        try (FileInputStream fis = new FileInputStream(XlWorkbookUtils.getFilePath().toFile());
-             Workbook workbook = new XSSFWorkbook(fis)) {
-            return readLinks(workbook);
+        try {
+            return XlStreamingLoader.readSheet(SHEET_NAME, AutoOpExcelReader::readLinks);
         } catch (IOException e) {
             System.out.println("❌ Failed to read Excel file: " + e.getMessage());
             return Collections.emptyList();
@@ -29,21 +28,25 @@ public class AutoOpExcelReader {
     }
 
     public static List<AutoOpRecord> readLinks(Workbook workbook) {
-        List<AutoOpRecord> records = new ArrayList<>();
         Sheet sheet = workbook.getSheet(SHEET_NAME);
+        return readLinks(sheet == null ? null : XlRow.rows(sheet));
+    }
+
+    private static List<AutoOpRecord> readLinks(Iterable<XlRow> sheet) {
+        List<AutoOpRecord> records = new ArrayList<>();
         if (sheet == null) {
             System.out.println("⚠️ Sheet '" + SHEET_NAME + "' not found in workbook.");
             return records;
         }
 
-        for (Row row : sheet) {
+        for (XlRow row : sheet) {
             if (row.getRowNum() == 0) continue;
 
             try {
-                String deviceId = getCellAsString(row.getCell(COL_LINKED_DEVICE_ID));
-                String sensorId = getCellAsString(row.getCell(COL_SENSOR_ID));
-                double autoOn = getCellAsDouble(row.getCell(COL_THRESHOLD));
-                double autoOff = getCellAsDouble(row.getCell(COL_THRESHOLD)); // Could differentiate if needed
+                String deviceId = row.text(COL_LINKED_DEVICE_ID);
+                String sensorId = row.text(COL_SENSOR_ID);
+                double autoOn = row.number(COL_THRESHOLD, 0.0);
+                double autoOff = autoOn; // Sens_Ctrl has a single THRESHOLD column; the OFF side lives in the Devices sheet
 
                 records.add(new AutoOpRecord(deviceId, sensorId, autoOn, autoOff));
             } catch (Exception e) {
@@ -54,19 +57,5 @@ public class AutoOpExcelReader {
         return records;
     }
 
-    private static String getCellAsString(Cell cell) {
-        if (cell == null) return "";
-        cell.setCellType(CellType.STRING);
-        return cell.getStringCellValue().trim();
-    }
-
-    private static double getCellAsDouble(Cell cell) {
-        if (cell == null) return 0.0;
-        if (cell.getCellType() == CellType.STRING) {
-            return Double.parseDouble(cell.getStringCellValue().trim());
-        }
-        return cell.getNumericCellValue();
-    }
-
     public record AutoOpRecord(String linkedDeviceId, String sensorId, double autoOn, double autoOff) {}
 }
\ No newline at end of file
@@ -5,25 +5,20 @@ import devices.SmartLight;
 import devices.actions.DeviceAction;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import sensors.Sensor;
 import storage.DeviceStorage;
 import storage.SensorStorage;
 import storage.XlCreator;
+import storage.xlc.WorkbookSession;
 import storage.xlc.XlSmartLightManager;
 import utils.Log;
-import storage.xlc.XlWorkbookUtils;
 
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
 
 import static storage.xlc.XlWorkbookUtils.createSheetWithHeaders;
-import static storage.xlc.XlWorkbookUtils.getFilePath;
 
 public final class AutoOpLinker {
     private static final Scanner defaultScanner = new Scanner(System.in);
@@ -79,7 +74,7 @@ public final class AutoOpLinker {
 
         // ✅ Step 1: Link device and enable automation
         sensor.linkLinkedDevice(device);
-        device.setAutomationSensorId(sensor.getSensorId());
+        device.setLinkedSensor(sensor); // sets the sensor ID and updates the link index
         device.setAutomationEnabled(true);
         device.enableAutoMode();
 
@@ -90,17 +85,7 @@ public final class AutoOpLinker {
 
         // ✅ Step 2: Update SmartLight sheet if applicable
         if (device instanceof SmartLight sl) {
-            try {
-                Workbook workbook = XlWorkbookUtils.getWorkbook(XlWorkbookUtils.getFilePath().toString());
-                Sheet controlSheet = workbook.getSheet("Smart_Light_Control");
-                if (controlSheet == null) {
-                    workbook.createSheet("Smart_Light_Control");
-                }
-                updated &= XlSmartLightManager.updateSmartLight(workbook, sl);
-            } catch (IOException e) {
-                e.printStackTrace();
-                updated = false;
-            }
+            updated &= XlSmartLightManager.updateSmartLight(sl);
         }
 
         // ✅ Step 3: Update Devices sheet and persist link
@@ -121,33 +106,30 @@ public final class AutoOpLinker {
             return false;
         }
 
-        try (FileInputStream fis = new FileInputStream(getFilePath().toFile());
-             Workbook workbook = new XSSFWorkbook(fis)) {
-
-            Sheet sheet = workbook.getSheet(SENS_CTRL);
-            if (sheet == null) {
-                sheet = workbook.createSheet(SENS_CTRL);
-                String[] headers = {
-                        "SLAVE_ID", "SLAVE_NAME", "THRESHOLD",
-                        "CRNT_VAL", "SENSOR_NAME", "SENSOR_ID", "UPDATED_TS"
-                };
-                createSheetWithHeaders(workbook, SENS_CTRL, headers);
-            }
-
-            removeRowIfExists(sheet, slave.getId());
-            Row row = sheet.createRow(sheet.getLastRowNum() + 1);
+        try {
+            WorkbookSession.write(workbook -> {
+                Sheet sheet = workbook.getSheet(SENS_CTRL);
+                if (sheet == null) {
+                    String[] headers = {
+                            "SLAVE_ID", "SLAVE_NAME", "THRESHOLD",
+                            "CRNT_VAL", "SENSOR_NAME", "SENSOR_ID", "UPDATED_TS"
+                    };
+                    createSheetWithHeaders(workbook, SENS_CTRL, headers);
+                    sheet = workbook.getSheet(SENS_CTRL);
+                }
 
-            row.createCell(0).setCellValue(slave.getId());
-            row.createCell(1).setCellValue(slave.getName());
-            row.createCell(2).setCellValue(slave.getAutoThreshold());
-            row.createCell(3).setCellValue(master.getCurrentValue());
-            row.createCell(4).setCellValue(master.getSensorName());
-            row.createCell(5).setCellValue(master.getSensorId());
-            row.createCell(6).setCellValue(master.getUpdatedTimestamp());
+                removeRowIfExists(sheet, slave.getId());
+                Row row = sheet.createRow(sheet.getLastRowNum() + 1);
 
-            try (FileOutputStream fos = new FileOutputStream(getFilePath().toFile())) {
-                workbook.write(fos);
-            }
+                row.createCell(0).setCellValue(slave.getId());
+                row.createCell(1).setCellValue(slave.getName());
+                row.createCell(2).setCellValue(slave.getAutoThreshold());
+                row.createCell(3).setCellValue(master.getCurrentValue());
+                row.createCell(4).setCellValue(master.getSensorName());
+                row.createCell(5).setCellValue(master.getSensorId());
+                row.createCell(6).setCellValue(master.getUpdatedTimestamp());
+                return true;
+            });
 
             if (!master.getLinkedDevice().contains(slave)) {
                 Log.warn("❌ SensorLinkManager aborted: device " + slave.getId() +
@@ -155,9 +137,6 @@ public final class AutoOpLinker {
                 return false;
             }
 
-// continue with the sheet logic...
-            removeRowIfExists(sheet, slave.getId());
-// [sheet updates]
             Log.debug("✅ Linked " + slave.getName() + " → " + master.getSensorName());
             return true;
 
@@ -51,13 +51,17 @@ public class AutoOpManager {
 
             System.out.printf("🔗 Restored link → %s → %s | AutoOp: %b | Thresholds: ON=%.1f OFF=%.1f%n",
                     device.getId(), sensor.getSensorId(), device.isAutomationEnabled(),
-                    device.getAutoThreshold(), device.getAutoThreshold());
+                    device.getAutoThreshold(), device.getAutoOffThreshold());
         }
     }
 
     private static void restoreGenericLink(Device device, Sensor sensor, double autoOn, double autoOff) {
-        device.setAutoThreshold(autoOn, true);
-        device.setAutoThreshold(autoOff, true); // Optional: differentiate ON/OFF if supported
+        if (autoOff != autoOn) {
+            device.setAutoOnThreshold(autoOn, true);
+            device.setAutoOffThreshold(autoOff);
+        } else {
+            device.setAutoThreshold(autoOn, true); // Sens_Ctrl holds one value — keep the band from the Devices sheet
+        }
         device.setAutomationEnabled(true);
         device.setAutomationSensorId(sensor.getSensorId());
         sensor.linkLinkedDevice(device);
@@ -114,11 +118,10 @@ public class AutoOpManager {
             }
 
             device.setAutomationEnabled(true);
-            device.setAutomationSensorId(sensorId);
             device.setAutoThreshold(autoOn, true);
 
             sensor.linkLinkedDevice(device);       // Sensor knows device
-            device.setLinkedSensor(sensor);        // Device knows sensor ✅
+            device.setLinkedSensor(sensor);        // Device knows sensor ✅ (and the link index)
 
             System.out.printf("✅ Restored link → %s → %s | Threshold: %.2f%n",
                     deviceId, sensorId, autoOn);
@@ -154,11 +157,11 @@ public class AutoOpManager {
 
                 System.out.printf("   🔍 %s → AutoOp: %b | ON: %.1f | OFF: %.1f | Ref: %s%n",
                         liveDevice.getId(), liveDevice.isAutomationEnabled(),
-                        liveDevice.getAutoThreshold(), liveDevice.getAutoThreshold(),
+                        liveDevice.getAutoThreshold(), liveDevice.getAutoOffThreshold(),
                         System.identityHashCode(liveDevice));
-
-                sensor.notifyLinkedDevices(value); // ✅ Use live reference
             }
+
+            sensor.notifyLinkedDevices(value); // ✅ One reading per sensor — the engine fans out to every linked device
         }
     }
 
@@ -0,0 +1,199 @@
+package autoOp;
+
+import devices.Device;
+import metrics.Counter;
+import sensors.Sensor;
+import metrics.Metrics;
+import utils.Log;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 🎚️ Decides what a sensor reading does to a linked device.
+ * <p>
+ * A device switches ON below its ON threshold and OFF at or above its OFF threshold; readings inside the band
+ * keep the current state. A wanted transition must also survive the device's debounce window (the same
+ * direction seen on consecutive readings for that long) and respect its minimum dwell time since the last
+ * ON/OFF change. Every transition held back by one of these rules is counted, and
+ * {@link #apply(Sensor, Device, double)} asks the engine to re-check the sensor when the window ends, so a
+ * steady reading still gets its transition without waiting for the next sample.
+ * <p>
+ * Defaults come from {@code -Dphoenix.autoop.debounceMs} (0) and {@code -Dphoenix.autoop.minDwellMs} (2000);
+ * {@link #setPolicy(String, Policy)} overrides them per device.
+ */
+public class AutoOpRules {
+
+    private static final Counter TOGGLES = Metrics.counter("autoop.toggles");
+
+    public static final String DEBOUNCE_PROPERTY = "phoenix.autoop.debounceMs";
+    public static final String MIN_DWELL_PROPERTY = "phoenix.autoop.minDwellMs";
+
+    public enum Decision { TURN_ON, TURN_OFF, HOLD, HELD_IN_BAND, DEBOUNCED, DWELLING }
+
+    public record Policy(Duration debounce, Duration minDwell) {
+        public Policy {
+            if (debounce.isNegative() || minDwell.isNegative()) {
+                throw new IllegalArgumentException("❌ Debounce and dwell must not be negative.");
+            }
+        }
+    }
+
+    // First reading that asked for the pending direction
+    private record Pending(boolean on, Instant since) {}
+
+    private static final AutoOpRules INSTANCE = new AutoOpRules(new Policy(
+            Duration.ofMillis(Long.getLong(DEBOUNCE_PROPERTY, 0L)),
+            Duration.ofMillis(Long.getLong(MIN_DWELL_PROPERTY, 2_000L))));
+
+    private final Policy defaultPolicy;
+    private final Map<String, Policy> policies = new ConcurrentHashMap<>();
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong transitions = new AtomicLong();
+    private final AtomicLong heldInBand = new AtomicLong();
+    private final AtomicLong debounced = new AtomicLong();
+    private final AtomicLong dwelling = new AtomicLong();
+
+    public AutoOpRules(Policy defaultPolicy) {
+        this.defaultPolicy = defaultPolicy;
+    }
+
+    public static AutoOpRules getInstance() {
+        return INSTANCE;
+    }
+
+    // 🔧 Per-device overrides
+    public void setPolicy(String deviceId, Policy policy) {
+        if (policy == null) {
+            policies.remove(deviceId);
+        } else {
+            policies.put(deviceId, policy);
+        }
+        pending.remove(deviceId);
+    }
+
+    public Policy getPolicy(String deviceId) {
+        return policies.getOrDefault(deviceId, defaultPolicy);
+    }
+
+    // ⚡ Evaluate and switch the device if the rules allow it
+    public Decision apply(Device device, double value) {
+        Decision decision = evaluate(device, value);
+        if (decision == Decision.TURN_ON) {
+            device.turnOn();
+            TOGGLES.increment();
+        } else if (decision == Decision.TURN_OFF) {
+            device.turnOff();
+            TOGGLES.increment();
+        }
+        return decision;
+    }
+
+    // ⚡ Same, for a reading from a sensor: a held-back transition is re-checked once its window has passed
+    public Decision apply(Sensor sensor, Device device, double value) {
+        Decision decision = apply(device, value);
+        if (decision == Decision.DEBOUNCED || decision == Decision.DWELLING) {
+            AutoOpEngine.getInstance().recheckLater(sensor, retryDelay(device));
+        }
+        return decision;
+    }
+
+    // ⏰ Time until a held-back transition for this device could go through (zero when nothing holds it)
+    public Duration retryDelay(Device device) {
+        Policy policy = getPolicy(device.getId());
+        Instant now = Instant.now(device.getClock());
+        Duration wait = Duration.ZERO;
+
+        Pending first = pending.get(device.getId());
+        if (first != null && !policy.debounce().isZero()) {
+            wait = policy.debounce().minus(Duration.between(first.since(), now));
+        }
+        Instant lastChange = lastChange(device);
+        if (lastChange != null) {
+            Duration dwell = policy.minDwell().minus(Duration.between(lastChange, now));
+            if (dwell.compareTo(wait) > 0) wait = dwell;
+        }
+        return wait.isNegative() ? Duration.ZERO : wait;
+    }
+
+    // 🧠 Pure decision — only the pending-debounce bookkeeping and the counters change
+    public Decision evaluate(Device device, double value) {
+        String id = device.getId();
+        boolean isOn = device.isOn();
+        double on = device.getAutoThreshold();
+        double off = device.getAutoOffThreshold();
+
+        if (value >= on && value < off) {
+            pending.remove(id);
+            if (isOn) {
+                heldInBand.incrementAndGet(); // a single threshold would have switched OFF here
+                return Decision.HELD_IN_BAND;
+            }
+            return Decision.HOLD;
+        }
+
+        boolean wantOn = value < on;
+        if (wantOn == isOn) {
+            pending.remove(id);
+            return Decision.HOLD;
+        }
+
+        Policy policy = getPolicy(id);
+        Instant now = Instant.now(device.getClock());
+
+        if (!policy.debounce().isZero()) {
+            Pending first = pending.get(id);
+            if (first == null || first.on() != wantOn) {
+                pending.put(id, new Pending(wantOn, now));
+                debounced.incrementAndGet();
+                return Decision.DEBOUNCED;
+            }
+            if (Duration.between(first.since(), now).compareTo(policy.debounce()) < 0) {
+                debounced.incrementAndGet();
+                return Decision.DEBOUNCED;
+            }
+        }
+
+        Instant lastChange = lastChange(device);
+        if (lastChange != null && Duration.between(lastChange, now).compareTo(policy.minDwell()) < 0) {
+            dwelling.incrementAndGet();
+            return Decision.DWELLING;
+        }
+
+        pending.remove(id);
+        transitions.incrementAndGet();
+        return wantOn ? Decision.TURN_ON : Decision.TURN_OFF;
+    }
+
+    private static Instant lastChange(Device device) {
+        Instant lastOn = device.getLastOnTimestamp();
+        Instant lastOff = device.getLastOffTimestamp();
+        if (lastOn == null) return lastOff;
+        if (lastOff == null) return lastOn;
+        return lastOn.isAfter(lastOff) ? lastOn : lastOff;
+    }
+
+    public void forget(String deviceId) {
+        policies.remove(deviceId);
+        pending.remove(deviceId);
+    }
+
+    // 🧠 Diagnostics
+    public void logSnapshot() {
+        Log.info(String.format("🎚️ AutoOp rules → transitions=%d suppressed=%d (band=%d debounce=%d dwell=%d)",
+                transitions.get(), getSuppressedCount(), heldInBand.get(), debounced.get(), dwelling.get()));
+    }
+
+    public long getTransitionCount() { return transitions.get(); }
+    public long getHeldInBandCount() { return heldInBand.get(); }
+    public long getDebouncedCount() { return debounced.get(); }
+    public long getDwellingCount() { return dwelling.get(); }
+
+    public long getSuppressedCount() {
+        return heldInBand.get() + debounced.get() + dwelling.get();
+    }
+}
@@ -0,0 +1,40 @@
+package autoOp;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 📥 Latest-value-wins cell for one sensor's pending reading.
+ * <p>
+ * The value and its dirty flag live in a single {@link AtomicLong}: the raw bits of the reading, or a reserved
+ * NaN pattern when nothing is pending. Offering into a full slot overwrites the older reading and counts it as
+ * merged; taking empties the slot. No locks, no allocation per reading.
+ */
+public final class CoalescingSlot {
+
+    // A NaN payload Double.doubleToLongBits never produces (it canonicalises every NaN to 0x7ff8000000000000L)
+    private static final long EMPTY = 0x7ff8_dead_0000_0001L;
+
+    private final AtomicLong cell = new AtomicLong(EMPTY);
+    private final AtomicLong merged = new AtomicLong();
+
+    /** Stores the reading; true when the slot was empty (the caller must schedule it), false when merged. */
+    public boolean offer(double value) {
+        if (cell.getAndSet(Double.doubleToLongBits(value)) == EMPTY) return true;
+        merged.incrementAndGet();
+        return false;
+    }
+
+    /** Empties the slot; {@code NaN} when nothing was pending (the scheduling side never sees that). */
+    public double take() {
+        long bits = cell.getAndSet(EMPTY);
+        return bits == EMPTY ? Double.NaN : Double.longBitsToDouble(bits);
+    }
+
+    public boolean isPending() {
+        return cell.get() != EMPTY;
+    }
+
+    public long getMergedCount() {
+        return merged.get();
+    }
+}
@@ -3,11 +3,11 @@ package controllers;
 import autoOp.AutoOpUnlinker;
 import devices.SmartLight;
 import devices.actions.DeviceAction;
-import org.apache.poi.ss.usermodel.Workbook;
 import sensors.Sensor;
 import storage.DeviceStorage;
 import storage.SensorStorage;
 import storage.XlCreator;
+import storage.xlc.WorkbookSession;
 import storage.xlc.XlDeviceManager;
 import storage.xlc.XlSmartLightManager;
 import storage.xlc.XlWorkbookUtils;
@@ -39,12 +39,6 @@ public class SmartLightController {
             return false;
         }
 
-        Workbook workbook = XlWorkbookUtils.loadWorkbook();
-        if (workbook == null) {
-            Log.error("❌ Failed to load workbook.");
-            return false;
-        }
-
         // 🛡️ Restore supported actions only if missing — without reconstructing the device
 //        if (light.getSupportedActionsAsText() == null || light.getSupportedActionsAsText().isBlank()) {
 //            List<DeviceAction> actions = DeviceAction.getActionsForDevice(light.getId());
@@ -59,16 +53,23 @@ public class SmartLightController {
 //            }
 //        }
 
-        boolean controlUpdated = XlSmartLightManager.updateSmartLight(workbook, light);
-        boolean deviceUpdated;
+        // 💾 Both sheets change inside one session write → a single save
+        boolean[] updated = new boolean[2];
         try {
-            deviceUpdated = XlDeviceManager.updateDevice(light);
+            WorkbookSession.write(workbook -> {
+                updated[0] = XlSmartLightManager.updateSmartLight(workbook, light);
+                updated[1] = XlDeviceManager.updateDevice(light);
+                return updated[0] || updated[1];
+            });
         } catch (IOException e) {
             e.printStackTrace();
             Log.error("❌ Failed to update device row for SmartLight: " + light.getId());
             return false;
         }
 
+        boolean controlUpdated = updated[0];
+        boolean deviceUpdated = updated[1];
+
         if (controlUpdated && deviceUpdated) {
             Log.info("✅ SmartLight updated in both sheets: " + light.getId());
             return true;
@@ -153,8 +154,7 @@ public class SmartLightController {
         light.setAutomationSensorId(sensor.getSensorId());
         sensor.linkLinkedDevice(light);
 
-        Workbook workbook = XlWorkbookUtils.loadWorkbook();
-        boolean controlWritten = XlSmartLightManager.updateSmartLight(workbook, light);
+        boolean controlWritten = XlSmartLightManager.updateSmartLight(light);
         boolean senseWritten = XlCreator.appendToSenseControl(light, sensor);
 
         if (controlWritten && senseWritten) {
@@ -179,10 +179,14 @@ public class SmartLightController {
         }
 
         try {
-            light.setAutoThreshold(autoOn, true);
-            light.setAutoThreshold(autoOff, true);
+            if (autoOff != autoOn) {
+                light.setAutoOnThreshold(autoOn, true);
+                light.setAutoOffThreshold(autoOff);
+            } else {
+                light.setAutoThreshold(autoOn, true);
+            }
             light.setAutomationEnabled(true);
-            light.setAutomationSensorId(sensor.getSensorId());
+            light.setLinkedSensor(sensor); // also sets the sensor ID and updates the link index
 
             if (!sensor.getLinkedDevice().contains(light)) {
                 sensor.linkLinkedDevice(light);
@@ -1,8 +1,13 @@
 package devices;
 
 import devices.actions.DeviceAction;
+import devices.actions.LiveDeviceState;
+import metrics.Counter;
+import metrics.LatencyHistogram;
+import metrics.Metrics;
 import sensors.Sensor;
 import storage.DeviceStorage;
+import utils.Log;
 
 import java.time.Clock;
 import java.time.Instant;
@@ -14,6 +19,10 @@ public abstract class Device implements Runnable {
     // 🔐 ID enforcement
     private static final Set<String> REGISTERED_IDS = new HashSet<>();
 
+    // 📈 State changes and what they cost (storage update included)
+    private static final Counter TOGGLES = Metrics.counter("device.toggles");
+    private static final LatencyHistogram SET_ON_LATENCY = Metrics.histogram("device.setOn");
+
     // 🧾 Identity & Metadata
     protected String deviceId;
     protected String name;
@@ -48,7 +57,6 @@ public abstract class Device implements Runnable {
     private Sensor linkedSensor;
     private double autoOnThreshold;
     private double autoOffThreshold;
-    private boolean isOffThresholdUsed = false;
     private boolean autoOnUserDefined = false;
 
     // 🧪 Misc
@@ -125,7 +133,7 @@ public abstract class Device implements Runnable {
 
 
     public void performAction(String action) {
-        System.out.println("🎯 Performing action: " + action + " on " + name);
+        Log.debug("🎯 Performing action: {} on {}", action, name);
         simulate(action);
         DeviceStorage.updateDeviceState(getId(), action);
     }
@@ -138,6 +146,7 @@ public abstract class Device implements Runnable {
 
     public void setOn(boolean isOn) {
         if (this.state != isOn) {
+            long start = System.nanoTime();
             this.state = isOn;
 
             if (isOn) {
@@ -149,6 +158,9 @@ public abstract class Device implements Runnable {
             updateTimestamp();
             DeviceStorage.getDevices().put(deviceId, this);
             DeviceStorage.updateDeviceState(deviceId, isOn ? "ON" : "OFF");
+            LiveDeviceState.set(deviceId, isOn); // 📣 GUI pages patch their button from the change event
+            TOGGLES.increment();
+            Metrics.recordSince(SET_ON_LATENCY, start);
         }
     }
 
@@ -176,29 +188,51 @@ public abstract class Device implements Runnable {
 
     public void setAutomationEnabled(boolean enabled) {
         this.automationEnabled = enabled;
+        DeviceStorage.reindex(this); // keep the automation index in step
     }
 
-    // 🎚️ Threshold Handling (AutoOn used for both directions now)
+    // 🎚️ Threshold Handling — ON below autoOn, OFF at/above autoOff, hold in between (hysteresis band)
 
-    public void setAutoThreshold(double value, boolean userSet) {
+    public void setAutoOnThreshold(double value, boolean userSet) {
         this.autoOnThreshold = value;
         this.autoOnUserDefined = userSet;
     }
 
+    public void setAutoOffThreshold(double value) {
+        this.autoOffThreshold = value;
+    }
+
+    // Single-value edit (menus, Sens_Ctrl): moves ON and keeps the current band width
+    public void setAutoThreshold(double value, boolean userSet) {
+        double band = Math.max(0, autoOffThreshold - autoOnThreshold);
+        setAutoOnThreshold(value, userSet);
+        this.autoOffThreshold = value + band;
+    }
+
     public void resetAutoThreshold() {
         this.autoOnThreshold = DeviceDefaults.getDefaultAutoOn(type);
+        this.autoOffThreshold = DeviceDefaults.getDefaultAutoOff(type);
     }
 
     public double getAutoThreshold() {
         return autoOnThreshold;
     }
 
+    // An OFF threshold below ON collapses the band to a single switching point
+    public double getAutoOffThreshold() {
+        return Math.max(autoOnThreshold, autoOffThreshold);
+    }
+
     // 🔗 Sensor Linking
     public String getAutomationSensorId() { return automationSensorId; }
-    public void setAutomationSensorId(String id) { this.automationSensorId = id; }
+    public void setAutomationSensorId(String id) {
+        this.automationSensorId = id;
+        DeviceStorage.reindex(this); // keep the sensor link index in step
+    }
     public void setLinkedSensor(Sensor sensor) {
         this.linkedSensor = sensor;
         this.automationSensorId = (sensor != null) ? sensor.getSensorId() : null;
+        DeviceStorage.reindex(this); // keep the linked-sensor index in step
     }
 
 
@@ -0,0 +1,157 @@
+package devices;
+
+import devices.actions.DeviceAction;
+import storage.DeviceStorage;
+import utils.Log;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 📦 Applies many device commands at once.
+ * <p>
+ * Commands for different devices run in parallel; commands for the same device run one after another in the
+ * order they were added. Per-device writes are collected while the batch runs and saved with a single batched
+ * persistence write and flush at the end, so "all lights off" costs one workbook rewrite instead of N.
+ * {@link #execute()} returns one {@link Result} per command, in submission order.
+ */
+public class DeviceCommandBatch {
+
+    public enum Status { APPLIED, UNKNOWN_DEVICE, FAILED }
+
+    public record Result(String deviceId, String action, Status status, String message) {
+        public boolean isApplied() {
+            return status == Status.APPLIED;
+        }
+    }
+
+    private record Command(String deviceId, Device device, String action, Consumer<? super Device> operation) {}
+
+    private static final int WORKERS = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+    private static final ExecutorService pool = Executors.newFixedThreadPool(WORKERS, r -> {
+        Thread t = new Thread(r, "Device-Command-" + threadCounter.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final List<Command> commands = new ArrayList<>();
+
+    // ➕ Resolved against DeviceStorage when the batch runs
+    public DeviceCommandBatch add(String deviceId, String action) {
+        commands.add(new Command(deviceId, null, action, null));
+        return this;
+    }
+
+    public DeviceCommandBatch add(String deviceId, DeviceAction action) {
+        return add(deviceId, action.name());
+    }
+
+    // ➕ For callers that already hold the instance (scheduler tasks, GUI pages)
+    public DeviceCommandBatch add(Device device, String action) {
+        commands.add(new Command(device.getId(), device, action, null));
+        return this;
+    }
+
+    // ➕ Pre-compiled command (e.g. a scene step): 'operation' runs instead of performAction, 'label' is reported
+    public DeviceCommandBatch add(Device device, String label, Consumer<? super Device> operation) {
+        commands.add(new Command(device.getId(), device, label, operation));
+        return this;
+    }
+
+    // 🌐 Same action for every device, e.g. all lights OFF
+    public static DeviceCommandBatch forAll(Collection<? extends Device> devices, DeviceAction action) {
+        DeviceCommandBatch batch = new DeviceCommandBatch();
+        for (Device device : devices) {
+            batch.add(device, action.name());
+        }
+        return batch;
+    }
+
+    public int size() {
+        return commands.size();
+    }
+
+    // ▶️ Run every command, persist once, report per command
+    public List<Result> execute() {
+        Result[] results = new Result[commands.size()];
+        if (results.length == 0) return List.of();
+
+        // 🧵 One lane per device keeps that device's commands in submission order
+        Map<String, List<Integer>> lanes = new LinkedHashMap<>();
+        for (int i = 0; i < commands.size(); i++) {
+            String key = commands.get(i).deviceId() != null ? commands.get(i).deviceId() : "#" + i;
+            lanes.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+        }
+
+        Set<Device> touched = ConcurrentHashMap.newKeySet();
+        if (lanes.size() == 1) {
+            runLane(lanes.values().iterator().next(), results, touched); // nothing to parallelise
+        } else {
+            List<Callable<Void>> work = new ArrayList<>(lanes.size());
+            for (List<Integer> lane : lanes.values()) {
+                work.add(() -> {
+                    runLane(lane, results, touched);
+                    return null;
+                });
+            }
+            try {
+                pool.invokeAll(work);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                Log.warn("⚠️ Device command batch interrupted; persisting what already ran.");
+            }
+        }
+
+        DeviceStorage.persistBatch(touched);
+
+        List<Result> ordered = new ArrayList<>(results.length);
+        for (int i = 0; i < results.length; i++) {
+            Command c = commands.get(i);
+            ordered.add(results[i] != null ? results[i]
+                    : new Result(c.deviceId(), c.action(), Status.FAILED, "Not executed"));
+        }
+        Log.debug("📦 Device command batch → " + ordered.stream().filter(Result::isApplied).count()
+                + "/" + ordered.size() + " applied, " + touched.size() + " device(s) persisted");
+        return ordered;
+    }
+
+    private void runLane(List<Integer> lane, Result[] results, Set<Device> touched) {
+        DeviceStorage.runBatched(touched, () -> {
+            for (int index : lane) {
+                results[index] = run(commands.get(index), touched);
+            }
+        });
+    }
+
+    private static Result run(Command command, Set<Device> touched) {
+        Device device = command.device() != null ? command.device() : DeviceStorage.getDevice(command.deviceId());
+        if (device == null) {
+            return new Result(command.deviceId(), command.action(), Status.UNKNOWN_DEVICE, "Device not found");
+        }
+
+        try {
+            if (command.operation() != null) {
+                command.operation().accept(device);
+            } else {
+                device.performAction(command.action());
+            }
+
+            if (command.operation() == null && isPowerAction(command.action())) {
+                DeviceStorage.updateDeviceState(device.getId(), command.action()); // ✅ keep the power flag in step
+            } else if (DeviceStorage.getDevice(device.getId()) == device) {
+                touched.add(device); // stored devices only — nothing to write for detached instances
+            }
+            return new Result(device.getId(), command.action(), Status.APPLIED, device.getState());
+        } catch (RuntimeException e) {
+            Log.error("❌ Command " + command.action() + " failed on " + device.getId() + ": " + e.getMessage());
+            return new Result(device.getId(), command.action(), Status.FAILED, e.getMessage());
+        }
+    }
+
+    private static boolean isPowerAction(String action) {
+        return action.equalsIgnoreCase(DeviceAction.ON.name()) || action.equalsIgnoreCase(DeviceAction.OFF.name());
+    }
+}
@@ -0,0 +1,62 @@
+package devices;
+
+import utils.Log;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 📣 Change stream for device state: a device was added (or replaced by a new instance), removed,
+ * switched ON/OFF, or the whole device map was reset — plus "sensor value changed" for readings.
+ * Readings are the hottest path in the system, so with no listeners a publish returns before allocating.
+ * <p>
+ * Events are delivered synchronously on the thread that made the change (AutoOp workers, the scheduler,
+ * loaders, the GUI), so listeners must be quick and must not block — hand the work off, as the GUI does.
+ * Publishing with no listeners costs one empty-list check.
+ */
+public final class DeviceEvents {
+
+    public enum Kind { DEVICE_ADDED, DEVICE_REMOVED, DEVICE_STATE, SENSOR_VALUE, RESET }
+
+    // 🏷️ type is set for DEVICE_ADDED / DEVICE_REMOVED (so pages can tell whether their layout changed)
+    public record Change(Kind kind, String id, DeviceType type) {}
+
+    @FunctionalInterface
+    public interface Listener {
+        void onChange(Change change);
+    }
+
+    private static final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private DeviceEvents() {
+    }
+
+    public static void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public static void unsubscribe(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    public static boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
+    public static void publish(Kind kind, String id) {
+        publish(kind, id, null);
+    }
+
+    public static void publish(Kind kind, String id, DeviceType type) {
+        if (listeners.isEmpty()) return;
+
+        Change change = new Change(kind, id, type);
+        for (Listener listener : listeners) {
+            try {
+                listener.onChange(change);
+            } catch (RuntimeException e) {
+                Log.warn("⚠️ Device event listener failed on " + change + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -3,16 +3,15 @@ package devices;
 import devices.actions.ApprovedDeviceModel;
 import devices.actions.SmartLightColorMode;
 import devices.actions.SmartLightEffect;
-import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import storage.xlc.XlSmartLightManager;
-import storage.xlc.XlWorkbookUtils;
+import storage.xlc.XlRow;
+import storage.xlc.XlStreamingLoader;
 import storage.xlc.sheetsCommand.DeviceSheetCommand;
 import storage.xlc.sheetsCommand.SmartLightSheetCommand;
 import utils.Log;
 import utils.NotificationService;
 
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -38,8 +37,6 @@ public static Device createDevice(
         String brand,
         String model
 ) {
-    boolean skipIdCheck = true;
-
     if (overrideDeviceCreator != null) {
         return overrideDeviceCreator.create(id, name, clock, allDevices);
     }
@@ -53,37 +50,17 @@ public static Device createDevice(
     double autoOff = 1050.0;
     boolean autoEnabled = false;
 
-    // 📥 Load thresholds and automation flags from Excel
-    try (Workbook workbook = WorkbookFactory.create(new FileInputStream(XlWorkbookUtils.getFilePath().toFile()))) {
-        Sheet sheet = workbook.getSheet("Devices");
-        if (sheet != null) {
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0) continue;
-                String sheetId = XlWorkbookUtils.getCellValue(row, DeviceSheetCommand.DEVICE_ID.ordinal()).trim();
-                if (!id.equals(sheetId)) continue;
-
-                autoOn = Optional.ofNullable(row.getCell(DeviceSheetCommand.AUTO_ON.ordinal()))
-                        .map(Cell::getNumericCellValue).orElse(autoOn);
-
-                autoOff = Optional.ofNullable(row.getCell(DeviceSheetCommand.AUTO_OFF.ordinal()))
-                        .map(Cell::getNumericCellValue).orElse(autoOff);
-
-                autoEnabled = Optional.ofNullable(row.getCell(DeviceSheetCommand.AUTO_ENABLED.ordinal()))
-                        .map(cell -> switch (cell.getCellType()) {
-                            case BOOLEAN -> cell.getBooleanCellValue();
-                            case STRING -> Boolean.parseBoolean(cell.getStringCellValue().trim());
-                            default -> false;
-                        }).orElse(false);
-
-                // 🧠 Fallback brand/model from sheet if missing
-                brand = Optional.ofNullable(row.getCell(DeviceSheetCommand.BRAND.ordinal()))
-                        .map(Cell::getStringCellValue).orElse(brand);
-
-                model = Optional.ofNullable(row.getCell(DeviceSheetCommand.MODEL.ordinal()))
-                        .map(Cell::getStringCellValue).orElse(model);
-
-                break;
-            }
+    // 📥 Load thresholds and automation flags from the shared workbook (no per-device file parse)
+    try {
+        SheetDefaults saved = XlStreamingLoader.readSheet("Devices", sheet -> readSheetDefaults(sheet, id));
+        if (saved != null) {
+            autoOn = saved.autoOn() != null ? saved.autoOn() : autoOn;
+            autoOff = saved.autoOff() != null ? saved.autoOff() : autoOff;
+            autoEnabled = saved.autoEnabled();
+
+            // 🧠 Fallback brand/model from sheet if missing
+            brand = saved.brand() != null ? saved.brand() : brand;
+            model = saved.model() != null ? saved.model() : model;
         }
     } catch (IOException e) {
         Log.warn("⚠️ Failed to read device sheet: " + e.getMessage());
@@ -95,40 +72,79 @@ public static Device createDevice(
         throw new IllegalArgumentException("❌ Device creation failed: Unapproved model → " + brand + " / " + model);
     }
 
-    // 🎯 Create device by type
-    Device device = switch (type) {
-        case LIGHT -> {
-            boolean savedState = getSavedState(id);
-            Light light = new Light(id, name, clock, savedState, autoOn, autoOff, skipIdCheck);
-            light.setAutomationEnabled(autoEnabled);
-            yield light;
-        }
+    Device device = build(type, id, name, clock, resolvedModel, brand, model, autoOn, autoOff, autoEnabled, getSavedState(id));
 
-        case SMART_LIGHT -> {
-            boolean savedState = getSavedState(id);
-            SmartLight smartLight = new SmartLight(id, name, resolvedModel, clock, savedState, autoOn, autoOff, skipIdCheck);
-            smartLight.setAutomationEnabled(autoEnabled);
-            // 🌈 Optional: write config if needed
-            XlSmartLightManager.writeSmartLight(smartLight);
-            yield smartLight;
-        }
+    // 🌈 Optional: write config if needed
+    if (device instanceof SmartLight smartLight) {
+        XlSmartLightManager.writeSmartLight(smartLight);
+    }
 
-        case DRYER -> new Dryer(id, name, brand, model, clock, false, autoOn, autoOff, skipIdCheck);
-        case WASHING_MACHINE -> new WashingMachine(id, name, brand, model, clock, false, autoOn, autoOff, skipIdCheck);
-        case THERMOSTAT -> {
-            NotificationService ns = new NotificationService();
-            yield new Thermostat(id, name, 25.0, ns, clock, skipIdCheck);
+    return device;
+}
+
+    // 📦 Bulk import path: thresholds come from the caller, the workbook is neither read nor written
+    public static Device createImportedDevice(
+            DeviceType type,
+            String id,
+            String name,
+            Clock clock,
+            ApprovedDeviceModel approvedModel,
+            double autoOn,
+            double autoOff,
+            boolean autoEnabled
+    ) {
+        if (approvedModel == null || approvedModel.getDeviceType() != type) {
+            throw new IllegalArgumentException("❌ Model not approved for " + type + ": " + approvedModel);
         }
+        return build(type, id, name, clock, approvedModel, approvedModel.getBrand(), approvedModel.getModel(),
+                autoOn, autoOff, autoEnabled, false);
+    }
 
-        default -> throw new IllegalArgumentException("❌ Unknown device type: " + type);
-    };
+    // 🎯 Create device by type
+    private static Device build(
+            DeviceType type,
+            String id,
+            String name,
+            Clock clock,
+            ApprovedDeviceModel resolvedModel,
+            String brand,
+            String model,
+            double autoOn,
+            double autoOff,
+            boolean autoEnabled,
+            boolean savedState
+    ) {
+        boolean skipIdCheck = true;
 
-    // 🧾 Apply brand/model to all devices
-    device.setBrand(brand);
-    device.setModel(model);
+        Device device = switch (type) {
+            case LIGHT -> {
+                Light light = new Light(id, name, clock, savedState, autoOn, autoOff, skipIdCheck);
+                light.setAutomationEnabled(autoEnabled);
+                yield light;
+            }
 
-    return device;
-}
+            case SMART_LIGHT -> {
+                SmartLight smartLight = new SmartLight(id, name, resolvedModel, clock, savedState, autoOn, autoOff, skipIdCheck);
+                smartLight.setAutomationEnabled(autoEnabled);
+                yield smartLight;
+            }
+
+            case DRYER -> new Dryer(id, name, brand, model, clock, false, autoOn, autoOff, skipIdCheck);
+            case WASHING_MACHINE -> new WashingMachine(id, name, brand, model, clock, false, autoOn, autoOff, skipIdCheck);
+            case THERMOSTAT -> {
+                NotificationService ns = new NotificationService();
+                yield new Thermostat(id, name, 25.0, ns, clock, skipIdCheck);
+            }
+
+            default -> throw new IllegalArgumentException("❌ Unknown device type: " + type);
+        };
+
+        // 🧾 Apply brand/model to all devices
+        device.setBrand(brand);
+        device.setModel(model);
+
+        return device;
+    }
 
     public static Device createDeviceByType(
             DeviceType type,
@@ -158,6 +174,33 @@ public static Device createDevice(
     }
 
 
+    // 🧾 Values a Devices-sheet row contributes to a freshly created device
+    private record SheetDefaults(Double autoOn, Double autoOff, boolean autoEnabled, String brand, String model) {}
+
+    private static SheetDefaults readSheetDefaults(Iterable<XlRow> sheet, String id) {
+        if (sheet == null) return null;
+
+        for (XlRow row : sheet) {
+            if (row.getRowNum() == 0) continue;
+            String sheetId = row.text(DeviceSheetCommand.DEVICE_ID.ordinal());
+            if (!id.equals(sheetId)) continue;
+
+            double autoOn = row.number(DeviceSheetCommand.AUTO_ON.ordinal(), Double.NaN);
+            double autoOff = row.number(DeviceSheetCommand.AUTO_OFF.ordinal(), Double.NaN);
+            boolean autoEnabled = Boolean.parseBoolean(row.text(DeviceSheetCommand.AUTO_ENABLED.ordinal()));
+            String brand = row.text(DeviceSheetCommand.BRAND.ordinal());
+            String model = row.text(DeviceSheetCommand.MODEL.ordinal());
+
+            return new SheetDefaults(
+                    Double.isNaN(autoOn) ? null : autoOn,
+                    Double.isNaN(autoOff) ? null : autoOff,
+                    autoEnabled,
+                    brand.isEmpty() ? null : brand,
+                    model.isEmpty() ? null : model);
+        }
+        return null;
+    }
+
     public static boolean getSavedState(String deviceId) {
         Device device = devices.get(deviceId);
         return device != null && device.isOn();
@@ -1,28 +1,147 @@
 package devices.actions;
 
 import devices.Device;
+import devices.DeviceEvents;
 
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * 🟢 Which devices are ON right now, shared by the loaders, the GUI, the CLI and AutoOp.
+ * <p>
+ * Every device ID is interned once to a small ordinal; the ON set is an immutable bitset indexed by that
+ * ordinal, published through one atomic reference together with a version. Writers copy-and-CAS (a few
+ * longs), so they never block; every state change bumps the version by one. Readers take a {@link Snapshot}
+ * and get a consistent, unchanging view they can iterate at leisure — compare versions to skip redraws
+ * when nothing changed. Each real change is also announced as a {@code DEVICE_STATE} event on {@link DeviceEvents}.
+ */
 public class LiveDeviceState {
-    private static final Set<String> activeDeviceIds = new HashSet<>();
+
+    // 📸 Immutable view of the ON set at one version
+    public static final class Snapshot {
+        private final long version;
+        private final long[] bits;
+        private final String[] ids;
+
+        private Snapshot(long version, long[] bits, String[] ids) {
+            this.version = version;
+            this.bits = bits;
+            this.ids = ids;
+        }
+
+        public long version() {
+            return version;
+        }
+
+        public boolean isOn(String deviceId) {
+            Integer ordinal = ordinals.get(deviceId);
+            return ordinal != null && test(bits, ordinal);
+        }
+
+        public boolean isOn(Device device) {
+            return isOn(device.getId());
+        }
+
+        public int count() {
+            int n = 0;
+            for (long word : bits) n += Long.bitCount(word);
+            return n;
+        }
+
+        // 🔤 ON device IDs in interning order
+        public Set<String> activeIds() {
+            Set<String> out = new LinkedHashSet<>();
+            for (int w = 0; w < bits.length; w++) {
+                long word = bits[w];
+                while (word != 0) {
+                    out.add(ids[(w << 6) + Long.numberOfTrailingZeros(word)]);
+                    word &= word - 1;
+                }
+            }
+            return Collections.unmodifiableSet(out);
+        }
+    }
+
+    private static final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+    private static volatile String[] idsByOrdinal = new String[16]; // capacity, grown by doubling
+    private static int interned; // ordinals handed out so far — guarded by `ordinals`
+    private static final AtomicReference<Snapshot> current =
+            new AtomicReference<>(new Snapshot(0, new long[0], idsByOrdinal));
 
     public static void turnOn(Device device) {
-        activeDeviceIds.add(device.getId());
+        set(device.getId(), true);
     }
 
     public static void turnOff(Device device) {
-        activeDeviceIds.remove(device.getId());
+        set(device.getId(), false);
+    }
+
+    // 🔁 Mirror a device's own state
+    public static void sync(Device device) {
+        set(device.getId(), device.isOn());
+    }
+
+    // ⚡ Lock-free; returns false (and keeps the version, publishes nothing) when the device was already in that state
+    public static boolean set(String deviceId, boolean on) {
+        int ordinal = intern(deviceId);
+        while (true) {
+            Snapshot snap = current.get();
+            if (test(snap.bits, ordinal) == on) return false;
+
+            long[] bits = Arrays.copyOf(snap.bits, Math.max(snap.bits.length, (ordinal >>> 6) + 1));
+            if (on) {
+                bits[ordinal >>> 6] |= 1L << ordinal;
+            } else {
+                bits[ordinal >>> 6] &= ~(1L << ordinal);
+            }
+            if (current.compareAndSet(snap, new Snapshot(snap.version + 1, bits, idsByOrdinal))) {
+                DeviceEvents.publish(DeviceEvents.Kind.DEVICE_STATE, deviceId);
+                return true;
+            }
+        }
     }
 
     public static boolean isOn(Device device) {
-        return activeDeviceIds.contains(device.getId());
+        return current.get().isOn(device.getId());
+    }
+
+    public static Snapshot snapshot() {
+        return current.get();
+    }
+
+    public static long getVersion() {
+        return current.get().version;
     }
 
+    // 📋 Immutable copy — safe to iterate while other threads switch devices
     public static Set<String> getActiveDevices() {
-        return Collections.unmodifiableSet(activeDeviceIds);
+        return current.get().activeIds();
+    }
+
+    private static boolean test(long[] bits, int ordinal) {
+        int word = ordinal >>> 6;
+        return word < bits.length && (bits[word] & (1L << ordinal)) != 0;
     }
-}
 
+    // 🏷️ IDs are never un-interned, so an ordinal stays valid for the life of the process
+    private static int intern(String deviceId) {
+        Integer ordinal = ordinals.get(deviceId);
+        if (ordinal != null) return ordinal;
+
+        synchronized (ordinals) {
+            ordinal = ordinals.get(deviceId);
+            if (ordinal == null) {
+                ordinal = interned++;
+                String[] ids = idsByOrdinal;
+                if (ordinal == ids.length) {
+                    ids = Arrays.copyOf(ids, ids.length * 2); // geometric growth → amortised O(1) per new ID
+                }
+                ids[ordinal] = deviceId;
+                idsByOrdinal = ids; // (re)published before the ordinal becomes visible
+                ordinals.put(deviceId, ordinal);
+            }
+            return ordinal;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 🔢 Monotonic counter with a sliding one-minute rate (60 one-second slots).
+ * The rate is an estimate: an increment racing with a slot rollover can be lost from it, never from the total.
+ */
+public final class Counter {
+
+    private static final int SLOTS = 60;
+
+    private final LongAdder total = new LongAdder();
+    private final AtomicLongArray slotCounts = new AtomicLongArray(SLOTS);
+    private final AtomicLongArray slotSeconds = new AtomicLongArray(SLOTS);
+
+    Counter() {
+    }
+
+    public void increment() {
+        add(1);
+    }
+
+    public void add(long n) {
+        total.add(n);
+
+        long second = System.currentTimeMillis() / 1000;
+        int slot = (int) (second % SLOTS);
+        long stamp = slotSeconds.get(slot);
+        if (stamp != second && slotSeconds.compareAndSet(slot, stamp, second)) {
+            slotCounts.set(slot, 0);
+        }
+        slotCounts.addAndGet(slot, n);
+    }
+
+    public long get() {
+        return total.sum();
+    }
+
+    // ⏱️ Increments seen in the last 60 seconds
+    public long lastMinute() {
+        long now = System.currentTimeMillis() / 1000;
+        long sum = 0;
+        for (int i = 0; i < SLOTS; i++) {
+            if (now - slotSeconds.get(i) < SLOTS) sum += slotCounts.get(i);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,73 @@
+package metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+
+/**
+ * 📈 In-process metrics registry: counters, gauges and latency histograms by dotted name.
+ * <p>
+ * Hot paths look their metric up once and keep it in a static field; recording is then a few atomic
+ * adds with no locking or allocation. {@link #snapshot()} flattens everything into one sorted map, which
+ * the stats menu, {@link MetricsHttpServer} and {@link MetricsJmx} all render.
+ */
+public final class Metrics {
+
+    private static final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private static final Map<String, DoubleSupplier> gauges = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, k -> new Counter());
+    }
+
+    public static LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, k -> new LatencyHistogram());
+    }
+
+    // 🌡️ Read on demand; re-registering a name replaces the previous supplier
+    public static void gauge(String name, DoubleSupplier supplier) {
+        gauges.put(name, supplier);
+    }
+
+    // ⏱️ Record the time since a System.nanoTime() start
+    public static void recordSince(LatencyHistogram histogram, long startNanos) {
+        histogram.recordNanos(System.nanoTime() - startNanos);
+    }
+
+    // 📋 name → value, sorted; histograms expand to .count/.mean_us/.p50_us/.p99_us/.max_us
+    public static Map<String, Number> snapshot() {
+        Map<String, Number> out = new TreeMap<>();
+        counters.forEach((name, c) -> {
+            out.put(name + ".total", c.get());
+            out.put(name + ".per_min", c.lastMinute());
+        });
+        histograms.forEach((name, h) -> {
+            out.put(name + ".count", h.getCount());
+            out.put(name + ".mean_us", Math.round(h.getMean()));
+            out.put(name + ".p50_us", h.percentile(0.50));
+            out.put(name + ".p99_us", h.percentile(0.99));
+            out.put(name + ".max_us", h.getMax());
+        });
+        gauges.forEach((name, g) -> {
+            try {
+                double v = g.getAsDouble();
+                out.put(name, v == Math.rint(v) ? (Number) (long) v : (Number) v);
+            } catch (RuntimeException e) {
+                out.put(name, Double.NaN); // a broken gauge must not break the whole snapshot
+            }
+        });
+        return out;
+    }
+
+    // 🧾 One "name value" line per entry
+    public static String render() {
+        StringBuilder sb = new StringBuilder();
+        snapshot().forEach((name, value) -> sb.append(name).append(' ').append(value).append('\n'));
+        return sb.toString();
+    }
+}
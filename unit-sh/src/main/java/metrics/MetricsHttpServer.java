@@ -0,0 +1,75 @@
+package metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import utils.Log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+/**
+ * 🌐 Serves {@link Metrics#render()} as plain text on {@code GET /metrics}.
+ * Off unless {@code -Dphoenix.metrics.port} is set; binds loopback unless {@code -Dphoenix.metrics.host} says otherwise.
+ */
+public class MetricsHttpServer implements Closeable {
+
+    public static final String PORT_PROPERTY = "phoenix.metrics.port";
+    public static final String HOST_PROPERTY = "phoenix.metrics.host";
+
+    private final HttpServer server;
+
+    public MetricsHttpServer(InetSocketAddress address) throws IOException {
+        server = HttpServer.create(address, 0);
+        server.createContext("/metrics", this::handle);
+        server.setExecutor(Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "Metrics-HTTP");
+            t.setDaemon(true);
+            return t;
+        }));
+        server.start();
+        Log.info("📈 Metrics available at http://" + server.getAddress().getHostString() + ":" + getPort() + "/metrics");
+    }
+
+    // 🚦 Startup hook: returns null when the endpoint is not configured
+    public static MetricsHttpServer startFromProperties() {
+        Integer port = Integer.getInteger(PORT_PROPERTY);
+        if (port == null) return null;
+
+        String host = System.getProperty(HOST_PROPERTY, InetAddress.getLoopbackAddress().getHostAddress());
+        try {
+            return new MetricsHttpServer(new InetSocketAddress(host, port));
+        } catch (IOException e) {
+            Log.error("❌ Metrics endpoint could not bind " + host + ":" + port + " — " + e.getMessage());
+            return null;
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = Metrics.render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
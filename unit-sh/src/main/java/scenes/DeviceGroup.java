@@ -0,0 +1,94 @@
+package scenes;
+
+import devices.Device;
+import storage.DeviceStorage;
+import utils.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 🏠 A named set of devices (a room, "all downstairs lights", ...).
+ * Members are resolved to {@link Device} handles once and re-resolved only when storage swapped an instance.
+ */
+public class DeviceGroup {
+
+    private final String id;
+    private String name;
+    private final List<String> memberIds = new ArrayList<>();
+    private volatile List<Device> members;
+
+    public DeviceGroup(String id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public DeviceGroup addMember(String deviceId) {
+        boolean added = false;
+        synchronized (this) {
+            if (deviceId != null && !deviceId.isBlank() && !memberIds.contains(deviceId)) {
+                memberIds.add(deviceId);
+                members = null;
+                added = true;
+            }
+        }
+        if (added) membersChanged();
+        return this;
+    }
+
+    public boolean removeMember(String deviceId) {
+        boolean removed;
+        synchronized (this) {
+            removed = memberIds.remove(deviceId);
+            if (removed) members = null;
+        }
+        if (removed) membersChanged();
+        return removed;
+    }
+
+    // Outside the lock — saving reads every group and scene
+    private void membersChanged() {
+        SceneManager.groupChanged();
+        SceneManager.changed(this);
+    }
+
+    // 🔗 Pre-resolved handles (missing devices are skipped)
+    public List<Device> getMembers() {
+        List<Device> resolved = members;
+        if (resolved == null || !SceneManager.isCurrent(resolved)) {
+            resolved = resolve();
+        }
+        return resolved;
+    }
+
+    private synchronized List<Device> resolve() {
+        List<Device> resolved = new ArrayList<>(memberIds.size());
+        for (String deviceId : memberIds) {
+            Device device = DeviceStorage.getDevice(deviceId);
+            if (device != null) {
+                resolved.add(device);
+            } else {
+                Log.warn("⚠️ Group " + id + ": device " + deviceId + " not found.");
+            }
+        }
+        members = Collections.unmodifiableList(resolved);
+        return members;
+    }
+
+    public String getId() { return id; }
+    public String getName() { return name; }
+    public void setName(String name) {
+        this.name = name;
+        SceneManager.changed(this);
+    }
+
+    public synchronized List<String> getMemberIds() {
+        return List.copyOf(memberIds);
+    }
+
+    @Override
+    public String toString() {
+        return "🏠 " + name + " [" + id + "] → " + memberIds;
+    }
+}
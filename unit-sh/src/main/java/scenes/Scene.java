@@ -0,0 +1,204 @@
+package scenes;
+
+import devices.Device;
+import devices.DeviceCommandBatch;
+import devices.SmartLight;
+import devices.Thermostat;
+import devices.actions.DeviceAction;
+import devices.actions.SmartLightColorMode;
+import devices.actions.SmartLightEffect;
+import storage.DeviceStorage;
+import utils.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 🎬 A named list of steps, e.g. "Living room evening": lights to Warm White, thermostat to 22°C.
+ * <p>
+ * A step targets a device or a group and carries one action: {@code ON}, {@code OFF}, {@code COLOR=<mode>},
+ * {@code EFFECT=<effect>}, {@code TEMP=<°C>} or any {@link DeviceAction}. Steps are compiled once into device
+ * handles plus ready-to-run operations, so activation is a single {@link DeviceCommandBatch} with no lookups
+ * or parsing; the scene recompiles itself only when a handle no longer matches storage.
+ */
+public class Scene {
+
+    public static final String SCHEDULE_ACTION = "SCENE";
+
+    public record Step(String target, String action) {}
+
+    // device + label; operation null → performAction(label)
+    private record CompiledStep(Device device, String label, Consumer<Device> operation) {}
+
+    private final String id;
+    private String name;
+    private final List<Step> steps = new ArrayList<>();
+    private volatile List<CompiledStep> compiled;
+
+    public Scene(String id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    public Scene addStep(String target, String action) {
+        synchronized (this) {
+            steps.add(new Step(target, action.trim()));
+            compiled = null;
+        }
+        SceneManager.changed(this); // outside the lock — saving reads every group and scene
+        return this;
+    }
+
+    public void clearSteps() {
+        synchronized (this) {
+            steps.clear();
+            compiled = null;
+        }
+        SceneManager.changed(this);
+    }
+
+    // ▶️ Apply every step in one batch (parallel across devices, step order per device)
+    public List<DeviceCommandBatch.Result> activate() {
+        DeviceCommandBatch batch = new DeviceCommandBatch();
+        appendTo(batch);
+        Log.info("🎬 Activating scene '" + name + "' (" + batch.size() + " command(s))");
+        return batch.execute();
+    }
+
+    // ➕ Lets callers fold a scene into a larger batch (e.g. scheduler tasks due together)
+    public void appendTo(DeviceCommandBatch batch) {
+        for (CompiledStep step : getCompiled()) {
+            if (step.operation() == null) {
+                batch.add(step.device(), step.label());
+            } else {
+                batch.add(step.device(), step.label(), step.operation());
+            }
+        }
+    }
+
+    // 🔁 Recompile on next use (group membership changed)
+    void invalidate() {
+        compiled = null;
+    }
+
+    public int getCompiledSize() {
+        return getCompiled().size();
+    }
+
+    private List<CompiledStep> getCompiled() {
+        List<CompiledStep> current = compiled;
+        if (current == null || !isCurrent(current)) {
+            current = compile();
+        }
+        return current;
+    }
+
+    private static boolean isCurrent(List<CompiledStep> steps) {
+        for (CompiledStep step : steps) {
+            if (!SceneManager.isCurrent(step.device())) return false;
+        }
+        return true;
+    }
+
+    // 🧠 Resolve targets and parse actions once
+    private synchronized List<CompiledStep> compile() {
+        List<CompiledStep> result = new ArrayList<>();
+        for (Step step : steps) {
+            DeviceGroup group = SceneManager.getGroup(step.target());
+            List<Device> targets;
+            if (group != null) {
+                targets = group.getMembers();
+            } else {
+                Device device = DeviceStorage.getDevice(step.target());
+                targets = device != null ? List.of(device) : List.of();
+            }
+            if (targets.isEmpty()) {
+                Log.warn("⚠️ Scene " + id + ": target " + step.target() + " not found — step skipped.");
+                continue;
+            }
+
+            for (Device device : targets) {
+                CompiledStep compiledStep = compileStep(device, step.action());
+                if (compiledStep != null) result.add(compiledStep);
+            }
+        }
+        compiled = Collections.unmodifiableList(result);
+        return compiled;
+    }
+
+    private CompiledStep compileStep(Device device, String action) {
+        int eq = action.indexOf('=');
+        if (eq < 0) {
+            try {
+                DeviceAction.fromString(action);
+                return new CompiledStep(device, action.toUpperCase(), null);
+            } catch (IllegalArgumentException e) {
+                return skip(device, action, "unknown action");
+            }
+        }
+
+        String key = action.substring(0, eq).trim().toUpperCase();
+        String value = action.substring(eq + 1).trim();
+        switch (key) {
+            case "COLOR" -> {
+                if (!(device instanceof SmartLight)) return skip(device, action, "not a smart light");
+                SmartLightColorMode mode = parseColor(value);
+                return new CompiledStep(device, "COLOR=" + mode.name(), d -> ((SmartLight) d).setColorMode(mode));
+            }
+            case "EFFECT" -> {
+                if (!(device instanceof SmartLight)) return skip(device, action, "not a smart light");
+                SmartLightEffect effect = parseEffect(value);
+                return new CompiledStep(device, "EFFECT=" + effect.name(), d -> ((SmartLight) d).setLiteFx(effect));
+            }
+            case "TEMP" -> {
+                if (!(device instanceof Thermostat)) return skip(device, action, "not a thermostat");
+                try {
+                    double temp = Double.parseDouble(value);
+                    return new CompiledStep(device, "TEMP=" + temp, d -> ((Thermostat) d).setUserTemp(temp));
+                } catch (NumberFormatException e) {
+                    return skip(device, action, "bad temperature");
+                }
+            }
+            default -> {
+                return skip(device, action, "unknown action");
+            }
+        }
+    }
+
+    private CompiledStep skip(Device device, String action, String reason) {
+        Log.warn("⚠️ Scene " + id + ": '" + action + "' on " + device.getId() + " skipped (" + reason + ").");
+        return null;
+    }
+
+    private static SmartLightColorMode parseColor(String value) {
+        for (SmartLightColorMode mode : SmartLightColorMode.values()) {
+            if (mode.name().equalsIgnoreCase(value)) return mode;
+        }
+        return SmartLightColorMode.fromLabel(value);
+    }
+
+    private static SmartLightEffect parseEffect(String value) {
+        for (SmartLightEffect effect : SmartLightEffect.values()) {
+            if (effect.name().equalsIgnoreCase(value)) return effect;
+        }
+        return SmartLightEffect.fromLabel(value);
+    }
+
+    public String getId() { return id; }
+    public String getName() { return name; }
+    public void setName(String name) {
+        this.name = name;
+        SceneManager.changed(this);
+    }
+
+    public synchronized List<Step> getSteps() {
+        return List.copyOf(steps);
+    }
+
+    @Override
+    public String toString() {
+        return "🎬 " + name + " [" + id + "] → " + steps.size() + " step(s)";
+    }
+}
@@ -0,0 +1,227 @@
+package scenes;
+
+import autoOp.AutoOpEngine;
+import devices.Device;
+import devices.DeviceCommandBatch;
+import sensors.Sensor;
+import storage.DeviceStorage;
+import storage.xlc.XlDeviceManager;
+import storage.xlc.XlSceneManager;
+import utils.DeviceIdManager;
+import utils.Log;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * 🎬 In-memory home of groups, scenes and scene triggers, persisted to the "Scenes" sheet.
+ * <p>
+ * Row kinds: {@code GROUP | GRxxx | name | deviceId}, {@code SCENE | SCxxx | name | device-or-group | action}
+ * and {@code TRIGGER | SCxxx | | sensorId | <300}. Every group and scene also has one header row with an empty
+ * target, so an empty group or a scene without steps is still on the sheet. Triggers are evaluated on the AutoOp workers, after the
+ * sensor's linked devices. Every change to a registered group, scene or trigger rewrites the sheet.
+ */
+public class SceneManager {
+
+    public static final String GROUP_PREFIX = "GR";
+    public static final String SCENE_PREFIX = "SC";
+
+    private static final Map<String, DeviceGroup> groups = new ConcurrentHashMap<>();
+    private static final Map<String, Scene> scenes = new ConcurrentHashMap<>();
+    private static final Map<String, List<SceneTrigger>> triggersBySensor = new ConcurrentHashMap<>();
+    private static final AutoOpEngine.ReadingListener triggerListener = SceneManager::onReading;
+    private static volatile boolean listening;
+    private static volatile boolean loading; // no write-back while the sheet itself is being read
+
+    private SceneManager() {
+    }
+
+    // 📥 Startup: rebuild everything from the sheet (devices must already be loaded)
+    public static synchronized void loadFromExcel() {
+        clear();
+        loading = true;
+        try {
+            for (String[] row : XlSceneManager.loadRows()) {
+                String kind = row[0].toUpperCase();
+                String id = row[1];
+                try {
+                    switch (kind) {
+                        case "GROUP" -> {
+                            DeviceGroup group = groups.computeIfAbsent(id, k -> new DeviceGroup(id, row[2]));
+                            if (!row[3].isEmpty()) group.addMember(row[3]);
+                        }
+                        case "SCENE" -> {
+                            Scene scene = scenes.computeIfAbsent(id, k -> new Scene(id, row[2]));
+                            if (!row[3].isEmpty()) scene.addStep(row[3], row[4]);
+                        }
+                        case "TRIGGER" -> registerTrigger(SceneTrigger.parse(id, row[3], row[4]));
+                        default -> Log.warn("⚠️ Unknown scene row kind: " + kind);
+                    }
+                } catch (IllegalArgumentException e) {
+                    Log.warn("⚠️ Skipping scene row " + Arrays.toString(row) + ": " + e.getMessage());
+                }
+            }
+        } finally {
+            loading = false;
+        }
+        DeviceIdManager.getInstance().addKnownIds(groups.keySet());
+        DeviceIdManager.getInstance().addKnownIds(scenes.keySet());
+        startListening();
+        System.out.println("🎬 Loaded " + groups.size() + " group(s), " + scenes.size() + " scene(s).");
+    }
+
+    // 💾 Write every group, scene and trigger back
+    public static boolean save() {
+        List<String[]> rows = new ArrayList<>();
+        for (DeviceGroup group : sorted(groups.values(), DeviceGroup::getId)) {
+            rows.add(new String[]{"GROUP", group.getId(), group.getName(), "", ""}); // header row
+            for (String member : group.getMemberIds()) {
+                rows.add(new String[]{"GROUP", group.getId(), group.getName(), member, ""});
+            }
+        }
+        for (Scene scene : sorted(scenes.values(), Scene::getId)) {
+            rows.add(new String[]{"SCENE", scene.getId(), scene.getName(), "", ""}); // header row
+            for (Scene.Step step : scene.getSteps()) {
+                rows.add(new String[]{"SCENE", scene.getId(), scene.getName(), step.target(), step.action()});
+            }
+        }
+        for (List<SceneTrigger> triggers : triggersBySensor.values()) {
+            for (SceneTrigger trigger : triggers) {
+                rows.add(new String[]{"TRIGGER", trigger.getSceneId(), "", trigger.getSensorId(), trigger.expression()});
+            }
+        }
+        return XlSceneManager.saveRows(rows);
+    }
+
+    // ➕ Creation with generated IDs (members are added before the group is registered → one write)
+    public static DeviceGroup createGroup(String name, String... deviceIds) {
+        String id = XlDeviceManager.getNextAvailableId(GROUP_PREFIX);
+        DeviceGroup group = new DeviceGroup(id, name);
+        for (String deviceId : deviceIds) {
+            group.addMember(deviceId);
+        }
+        groups.put(id, group);
+        groupChanged();
+        persist();
+        return group;
+    }
+
+    public static Scene createScene(String name) {
+        String id = XlDeviceManager.getNextAvailableId(SCENE_PREFIX);
+        Scene scene = new Scene(id, name);
+        scenes.put(id, scene);
+        persist();
+        return scene;
+    }
+
+    public static void addTrigger(SceneTrigger trigger) {
+        registerTrigger(trigger);
+        persist();
+    }
+
+    private static void registerTrigger(SceneTrigger trigger) {
+        triggersBySensor.computeIfAbsent(trigger.getSensorId(), k -> new CopyOnWriteArrayList<>()).add(trigger);
+    }
+
+    public static boolean removeScene(String sceneId) {
+        triggersBySensor.values().forEach(list -> list.removeIf(t -> t.getSceneId().equals(sceneId)));
+        boolean removed = scenes.remove(sceneId) != null;
+        if (removed) persist();
+        return removed;
+    }
+
+    public static boolean removeGroup(String groupId) {
+        boolean removed = groups.remove(groupId) != null;
+        if (removed) {
+            groupChanged();
+            persist();
+        }
+        return removed;
+    }
+
+    // ▶️ Activate by ID; empty list when the scene does not exist
+    public static List<DeviceCommandBatch.Result> activate(String sceneId) {
+        Scene scene = scenes.get(sceneId);
+        if (scene == null) {
+            Log.warn("⚠️ Scene not found: " + sceneId);
+            return List.of();
+        }
+        return scene.activate();
+    }
+
+    // ⚡ AutoOp hook — only sensors that have triggers cost more than one map lookup
+    static void onReading(Sensor sensor, double value) {
+        List<SceneTrigger> triggers = triggersBySensor.get(sensor.getSensorId());
+        if (triggers == null) return;
+
+        for (SceneTrigger trigger : triggers) {
+            if (trigger.shouldFire(value)) {
+                Log.info("⚡ " + trigger + " fired at " + value);
+                activate(trigger.getSceneId());
+            }
+        }
+    }
+
+    public static synchronized void startListening() {
+        if (listening) return;
+        AutoOpEngine.getInstance().addListener(triggerListener);
+        listening = true;
+    }
+
+    // 🔁 Membership changed → every scene re-resolves on next use
+    static void groupChanged() {
+        scenes.values().forEach(Scene::invalidate);
+    }
+
+    // 💾 Edits made on a group / scene object reach the sheet only if that object is the registered one
+    static void changed(DeviceGroup group) {
+        if (groups.get(group.getId()) == group) persist();
+    }
+
+    static void changed(Scene scene) {
+        if (scenes.get(scene.getId()) == scene) persist();
+    }
+
+    private static void persist() {
+        if (loading) return;
+        if (!save()) {
+            Log.warn("⚠️ Scenes sheet not updated — the change is kept in memory only.");
+        }
+    }
+
+    static boolean isCurrent(Device device) {
+        return DeviceStorage.getDevice(device.getId()) == device;
+    }
+
+    static boolean isCurrent(List<Device> devices) {
+        for (Device device : devices) {
+            if (!isCurrent(device)) return false;
+        }
+        return true;
+    }
+
+    // 🔍 Lookups
+    public static Scene getScene(String id) { return id == null ? null : scenes.get(id); }
+    public static DeviceGroup getGroup(String id) { return id == null ? null : groups.get(id); }
+    public static Collection<Scene> getScenes() { return sorted(scenes.values(), Scene::getId); }
+    public static Collection<DeviceGroup> getGroups() { return sorted(groups.values(), DeviceGroup::getId); }
+
+    public static List<SceneTrigger> getTriggers(String sensorId) {
+        return List.copyOf(triggersBySensor.getOrDefault(sensorId, List.of()));
+    }
+
+    // 🧪 Clear in-memory state (reload, tests)
+    public static void clear() {
+        groups.clear();
+        scenes.clear();
+        triggersBySensor.clear();
+    }
+
+    private static <T> List<T> sorted(Collection<T> values, Function<T, String> key) {
+        List<T> list = new ArrayList<>(values);
+        list.sort(Comparator.comparing(key));
+        return list;
+    }
+}
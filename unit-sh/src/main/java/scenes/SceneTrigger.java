@@ -0,0 +1,77 @@
+package scenes;
+
+/**
+ * ⚡ Activates a scene when a sensor reading crosses a threshold, e.g. "Evening" when the porch
+ * light sensor drops below 300 lux. Edge-triggered: it fires once on entering the condition and
+ * re-arms only after a reading outside it.
+ */
+public class SceneTrigger {
+
+    public enum Condition {
+        BELOW("<"), AT_OR_BELOW("<="), ABOVE(">"), AT_OR_ABOVE(">=");
+
+        private final String symbol;
+
+        Condition(String symbol) {
+            this.symbol = symbol;
+        }
+
+        public String symbol() {
+            return symbol;
+        }
+    }
+
+    private final String sceneId;
+    private final String sensorId;
+    private final Condition condition;
+    private final double threshold;
+    private boolean inCondition;
+
+    public SceneTrigger(String sceneId, String sensorId, Condition condition, double threshold) {
+        this.sceneId = sceneId;
+        this.sensorId = sensorId;
+        this.condition = condition;
+        this.threshold = threshold;
+    }
+
+    // 🔤 "<300", "<=300", ">25" or ">=800"
+    public static SceneTrigger parse(String sceneId, String sensorId, String expression) {
+        String expr = expression.replace(" ", "");
+        Condition condition;
+        if (expr.startsWith("<=")) condition = Condition.AT_OR_BELOW;
+        else if (expr.startsWith(">=")) condition = Condition.AT_OR_ABOVE;
+        else if (expr.startsWith("<")) condition = Condition.BELOW;
+        else if (expr.startsWith(">")) condition = Condition.ABOVE;
+        else throw new IllegalArgumentException("❌ Trigger condition must start with <, <=, > or >=: " + expression);
+
+        return new SceneTrigger(sceneId, sensorId, condition,
+                Double.parseDouble(expr.substring(condition.symbol().length())));
+    }
+
+    // 🎯 True only on the reading that enters the condition
+    public synchronized boolean shouldFire(double value) {
+        boolean met = switch (condition) {
+            case BELOW -> value < threshold;
+            case AT_OR_BELOW -> value <= threshold;
+            case ABOVE -> value > threshold;
+            case AT_OR_ABOVE -> value >= threshold;
+        };
+        boolean fire = met && !inCondition;
+        inCondition = met;
+        return fire;
+    }
+
+    public String expression() {
+        return condition.symbol() + threshold;
+    }
+
+    public String getSceneId() { return sceneId; }
+    public String getSensorId() { return sensorId; }
+    public Condition getCondition() { return condition; }
+    public double getThreshold() { return threshold; }
+
+    @Override
+    public String toString() {
+        return "⚡ " + sensorId + " " + expression() + " → " + sceneId;
+    }
+}
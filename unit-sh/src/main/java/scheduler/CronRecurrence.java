@@ -0,0 +1,151 @@
+package scheduler;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 🕰️ Five-field cron ({@code minute hour day-of-month month day-of-week}) compiled into bitmasks.
+ * Fields accept {@code *}, lists, ranges, {@code /step} and month/day names; day-of-week 0 and 7 are Sunday.
+ * When both day fields are restricted a day matches either of them, as in classic cron.
+ * <p>
+ * {@link #next} walks day by day and then picks the first matching hour/minute from the masks,
+ * so finding the next fire is a few bit operations per candidate day.
+ */
+final class CronRecurrence implements Recurrence {
+
+    private static final String[] MONTHS = {"jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct", "nov", "dec"};
+    private static final String[] DAYS = {"sun", "mon", "tue", "wed", "thu", "fri", "sat"};
+    private static final int MAX_DAYS_AHEAD = 5 * 366; // e.g. "0 0 29 2 *" still finds a leap day
+
+    private final String spec;
+    private final long minutes;   // bits 0-59
+    private final int hours;      // bits 0-23
+    private final long daysOfMonth; // bits 1-31
+    private final int months;     // bits 1-12
+    private final int daysOfWeek; // bits 0-6, Sunday = 0
+    private final boolean domRestricted;
+    private final boolean dowRestricted;
+
+    private CronRecurrence(String spec, long minutes, int hours, long daysOfMonth, int months, int daysOfWeek,
+                           boolean domRestricted, boolean dowRestricted) {
+        this.spec = spec;
+        this.minutes = minutes;
+        this.hours = hours;
+        this.daysOfMonth = daysOfMonth;
+        this.months = months;
+        this.daysOfWeek = daysOfWeek;
+        this.domRestricted = domRestricted;
+        this.dowRestricted = dowRestricted;
+    }
+
+    static CronRecurrence parse(String spec, String expression) {
+        String[] f = expression.trim().split("\\s+");
+        if (f.length != 5) {
+            throw new IllegalArgumentException("❌ Cron needs 5 fields (min hour day month weekday): " + expression);
+        }
+        long dow = field(f[4], 0, 7, DAYS);
+        if ((dow & (1L << 7)) != 0) dow = (dow | 1) & 0x7F; // 7 → Sunday
+
+        return new CronRecurrence(spec,
+                field(f[0], 0, 59, null),
+                (int) field(f[1], 0, 23, null),
+                field(f[2], 1, 31, null),
+                (int) field(f[3], 1, 12, MONTHS),
+                (int) dow,
+                !f[2].equals("*"),
+                !f[4].equals("*"));
+    }
+
+    // 🔤 One field → bitmask
+    private static long field(String text, int min, int max, String[] names) {
+        long mask = 0;
+        for (String part : text.split(",")) {
+            int step = 1;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = number(part.substring(slash + 1), 1, max, null, text);
+                part = part.substring(0, slash);
+            }
+
+            int from;
+            int to;
+            if (part.equals("*")) {
+                from = min;
+                to = max;
+            } else {
+                int dash = part.indexOf('-');
+                from = number(dash < 0 ? part : part.substring(0, dash), min, max, names, text);
+                to = dash < 0 ? (slash >= 0 ? max : from) : number(part.substring(dash + 1), min, max, names, text);
+            }
+            if (from > to) throw new IllegalArgumentException("❌ Bad cron range: " + text);
+
+            for (int v = from; v <= to; v += step) {
+                mask |= 1L << v;
+            }
+        }
+        return mask;
+    }
+
+    private static int number(String text, int min, int max, String[] names, String field) {
+        if (names != null) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(text)) return names == MONTHS ? i + 1 : i;
+            }
+        }
+        try {
+            int v = Integer.parseInt(text);
+            if (v < min || v > max) throw new IllegalArgumentException("❌ Cron value out of range: " + field);
+            return v;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("❌ Bad cron field: " + field);
+        }
+    }
+
+    @Override
+    public LocalDateTime next(LocalDateTime previous, LocalDateTime now, ZoneId zone) {
+        LocalDateTime from = now.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        LocalDate day = from.toLocalDate();
+
+        for (int i = 0; i < MAX_DAYS_AHEAD; i++, day = day.plusDays(1)) {
+            if (!matchesDay(day)) continue;
+
+            int startMinute = i == 0 ? from.getHour() * 60 + from.getMinute() : 0;
+            LocalTime time = firstTimeFrom(startMinute);
+            if (time != null) return LocalDateTime.of(day, time);
+        }
+        return null;
+    }
+
+    private boolean matchesDay(LocalDate day) {
+        if ((months & (1 << day.getMonthValue())) == 0) return false;
+
+        boolean dom = (daysOfMonth & (1L << day.getDayOfMonth())) != 0;
+        boolean dow = (daysOfWeek & (1 << (day.getDayOfWeek().getValue() % 7))) != 0;
+        if (domRestricted && dowRestricted) return dom || dow;
+        return dom && dow;
+    }
+
+    private LocalTime firstTimeFrom(int minuteOfDay) {
+        for (int h = minuteOfDay / 60; h < 24; h++) {
+            if ((hours & (1 << h)) == 0) continue;
+
+            int m0 = h == minuteOfDay / 60 ? minuteOfDay % 60 : 0;
+            long candidates = minutes & (-1L << m0);
+            if (candidates != 0) return LocalTime.of(h, Long.numberOfTrailingZeros(candidates));
+        }
+        return null;
+    }
+
+    @Override
+    public String spec() {
+        return spec;
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+}
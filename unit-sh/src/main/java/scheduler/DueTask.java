@@ -0,0 +1,51 @@
+package scheduler;
+
+import java.time.Clock;
+import java.time.ZoneId;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+// ⏳ DelayQueue entry for one firing of a ScheduledTask — cancelled entries are skipped when they surface
+class DueTask implements Delayed {
+
+    private final ScheduledTask task;
+    private final long dueAtMs;
+    private final Clock clock;
+    private volatile boolean cancelled;
+
+    DueTask(ScheduledTask task, Clock clock) {
+        this.task = task;
+        this.clock = clock;
+        ZoneId zone = clock.getZone();
+        this.dueAtMs = task.getTime().atZone(zone).toInstant().toEpochMilli();
+    }
+
+    ScheduledTask getTask() {
+        return task;
+    }
+
+    long getDueAtMs() {
+        return dueAtMs;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    void cancel() {
+        cancelled = true;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+        return unit.convert(dueAtMs - clock.millis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+        if (other instanceof DueTask d) {
+            return Long.compare(dueAtMs, d.dueAtMs);
+        }
+        return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,124 @@
+package scheduler;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * 🔁 When a scheduled task fires next. Parsed once from the task's repeat string and kept on the task,
+ * so the scheduler loop only asks for the next time and never re-reads the spec.
+ * <p>
+ * Supported specs:
+ * <ul>
+ *   <li>{@code none}, {@code daily}, {@code weekly}, {@code monthly} — step from the previous fire time</li>
+ *   <li>{@code cron:<min> <hour> <day-of-month> <month> <day-of-week>} — e.g. {@code cron:*&#47;15 7-9 * * mon-fri}</li>
+ *   <li>{@code days:<weekdays>@HH:mm} — e.g. {@code days:mon,wed,fri@07:30}</li>
+ *   <li>{@code sunrise}, {@code sunset}, with an optional offset such as {@code sunset-30m} or {@code sunrise+1h};
+ *       the location comes from {@code -Dphoenix.location.lat} / {@code -Dphoenix.location.lon}</li>
+ * </ul>
+ */
+public interface Recurrence {
+
+    String LAT_PROPERTY = "phoenix.location.lat";
+    String LON_PROPERTY = "phoenix.location.lon";
+
+    Recurrence NONE = new Recurrence() {
+        @Override
+        public LocalDateTime next(LocalDateTime previous, LocalDateTime now, ZoneId zone) {
+            return null;
+        }
+
+        @Override
+        public String spec() {
+            return "none";
+        }
+    };
+
+    /** First fire time after {@code now}; {@code previous} anchors step recurrences. Null = never again. */
+    LocalDateTime next(LocalDateTime previous, LocalDateTime now, ZoneId zone);
+
+    String spec();
+
+    // 🔤 Throws IllegalArgumentException for anything it cannot understand
+    static Recurrence parse(String spec) {
+        String s = spec == null ? "none" : spec.trim().toLowerCase(Locale.ROOT);
+        if (s.isEmpty() || s.equals("none")) return NONE;
+
+        switch (s) {
+            case "daily" -> { return new Step(s, ChronoUnit.DAYS); }
+            case "weekly" -> { return new Step(s, ChronoUnit.WEEKS); }
+            case "monthly" -> { return new Step(s, ChronoUnit.MONTHS); }
+        }
+
+        if (s.startsWith("cron:")) {
+            return CronRecurrence.parse(s, s.substring(5));
+        }
+        if (s.startsWith("days:")) {
+            int at = s.indexOf('@');
+            if (at < 0) throw new IllegalArgumentException("❌ Weekday recurrence needs a time, e.g. days:mon-fri@07:30");
+            String[] hm = s.substring(at + 1).split(":");
+            if (hm.length != 2) throw new IllegalArgumentException("❌ Bad time in weekday recurrence: " + spec);
+            return CronRecurrence.parse(s, hm[1] + " " + hm[0] + " * * " + s.substring(5, at));
+        }
+        if (s.startsWith("sunrise") || s.startsWith("sunset")) {
+            return Sun.parse(s);
+        }
+        throw new IllegalArgumentException("❌ Unknown repeat: " + spec);
+    }
+
+    // ⏭️ daily / weekly / monthly: keep the time of day, skip occurrences that were missed
+    record Step(String spec, ChronoUnit unit) implements Recurrence {
+        @Override
+        public LocalDateTime next(LocalDateTime previous, LocalDateTime now, ZoneId zone) {
+            LocalDateTime t = previous;
+            do t = t.plus(1, unit); while (!t.isAfter(now));
+            return t;
+        }
+    }
+
+    // 🌅 Sunrise / sunset with an offset, computed offline for the configured location
+    record Sun(String spec, boolean sunrise, Duration offset, double latitude, double longitude) implements Recurrence {
+
+        static Sun parse(String s) {
+            boolean sunrise = s.startsWith("sunrise");
+            String rest = s.substring(sunrise ? 7 : 6);
+            Duration offset = rest.isEmpty() ? Duration.ZERO : parseOffset(rest);
+
+            String lat = System.getProperty(LAT_PROPERTY);
+            String lon = System.getProperty(LON_PROPERTY);
+            if (lat == null || lon == null) {
+                throw new IllegalArgumentException("❌ " + s + " needs -D" + LAT_PROPERTY + " and -D" + LON_PROPERTY);
+            }
+            return new Sun(s, sunrise, offset, Double.parseDouble(lat), Double.parseDouble(lon));
+        }
+
+        // +30m, -1h, +1h15m
+        private static Duration parseOffset(String text) {
+            char sign = text.charAt(0);
+            if (sign != '+' && sign != '-') throw new IllegalArgumentException("❌ Bad sun offset: " + text);
+            try {
+                Duration d = Duration.parse("PT" + text.substring(1).toUpperCase(Locale.ROOT));
+                return sign == '-' ? d.negated() : d;
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("❌ Bad sun offset: " + text);
+            }
+        }
+
+        @Override
+        public LocalDateTime next(LocalDateTime previous, LocalDateTime now, ZoneId zone) {
+            LocalDate day = now.toLocalDate().minusDays(1); // a negative offset can pull tomorrow's event into today
+            for (int i = 0; i < 370; i++, day = day.plusDays(1)) {
+                LocalDateTime event = sunrise
+                        ? SolarCalculator.sunrise(day, latitude, longitude, zone)
+                        : SolarCalculator.sunset(day, latitude, longitude, zone);
+                if (event == null) continue; // polar day / night
+                LocalDateTime fire = event.plus(offset).truncatedTo(ChronoUnit.MINUTES);
+                if (fire.isAfter(now)) return fire;
+            }
+            return null;
+        }
+    }
+}
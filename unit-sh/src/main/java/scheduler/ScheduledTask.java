@@ -1,7 +1,9 @@
 package scheduler;
 
 import devices.Device;
+import scenes.Scene;
 import storage.xlc.sheetsCommand.ScheduledTasksCommand;
+import utils.Log;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -17,22 +19,30 @@ public class ScheduledTask {
 
     private String taskId;
     private Device device;
+    private Scene scene;      // set instead of device for scene tasks
     private String action;
     private LocalDateTime time;
-    private String repeat; // "daily", "weekly", etc.
+    private String repeat; // "daily", "weekly", "cron:...", "sunset-30m", etc.
+    private Recurrence recurrence; // parsed once from repeat
 
     public ScheduledTask(String taskId, Device device, String action, LocalDateTime time, String repeat) {
         this.taskId = taskId;
         this.device = device;
         this.action = action;
         this.time = time;
-        this.repeat = repeat != null ? repeat.toLowerCase() : "none";
+        setRepeat(repeat);
     }
 
     public ScheduledTask(Device device, String action, LocalDateTime time, String repeat) {
         this("TS-UNASSIGNED", device, action, time, repeat);
     }
 
+    // 🎬 Activates a whole scene instead of one device action
+    public ScheduledTask(String taskId, Scene scene, LocalDateTime time, String repeat) {
+        this(taskId, (Device) null, Scene.SCHEDULE_ACTION, time, repeat);
+        this.scene = scene;
+    }
+
 
     // Getters
     public String getTaskId() {
@@ -43,6 +53,23 @@ public class ScheduledTask {
         return device;
     }
 
+    public Scene getScene() {
+        return scene;
+    }
+
+    public boolean isSceneTask() {
+        return scene != null;
+    }
+
+    // 🎯 Device or scene this task acts on
+    public String getTargetId() {
+        return scene != null ? scene.getId() : device.getId();
+    }
+
+    public String getTargetName() {
+        return scene != null ? scene.getName() : device.getName();
+    }
+
     public String getAction() {
         return action;
     }
@@ -55,6 +82,10 @@ public class ScheduledTask {
         return repeat;
     }
 
+    public Recurrence getRecurrence() {
+        return recurrence;
+    }
+
     // Setters
     public void setTaskId(String taskId) {
         this.taskId = taskId;
@@ -72,8 +103,15 @@ public class ScheduledTask {
         this.time = time;
     }
 
+    // 🔁 An unparseable repeat is kept as text but behaves as a one-shot
     public void setRepeat(String repeat) {
         this.repeat = repeat != null ? repeat.toLowerCase() : "none";
+        try {
+            this.recurrence = Recurrence.parse(this.repeat);
+        } catch (IllegalArgumentException e) {
+            Log.warn("⚠️ " + e.getMessage() + " — task " + taskId + " will run once.");
+            this.recurrence = Recurrence.NONE;
+        }
     }
 
     /**
@@ -82,7 +120,7 @@ public class ScheduledTask {
     public String[] toExcelRow() {
         return new String[] {
                 taskId,
-                device.getId(),
+                getTargetId(),
                 action,
                 FORMATTER.format(time),
                 repeat
@@ -92,11 +130,11 @@ public class ScheduledTask {
     @Override
     public String toString() {
         return "[" + time.format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")) + "] "
-                + device.getName() + " - " + action + " (Repeat: " + repeat + ")";
+                + getTargetName() + " - " + action + " (Repeat: " + repeat + ")";
     }
 
     public String toFileString() {
-        return taskId + "|" + device.getId() + "|" + action + "|" + FORMATTER.format(time) + "|" + repeat;
+        return taskId + "|" + getTargetId() + "|" + action + "|" + FORMATTER.format(time) + "|" + repeat;
     }
 
     @Override
@@ -105,7 +143,7 @@ public class ScheduledTask {
         if (!(o instanceof ScheduledTask)) return false;
         ScheduledTask that = (ScheduledTask) o;
         return Objects.equals(taskId, that.taskId)
-                && Objects.equals(device.getId(), that.device.getId())
+                && Objects.equals(getTargetId(), that.getTargetId())
                 && Objects.equals(action, that.action)
                 && Objects.equals(time, that.time)
                 && Objects.equals(repeat, that.repeat);
@@ -113,7 +151,7 @@ public class ScheduledTask {
 
     @Override
     public int hashCode() {
-        return Objects.hash(taskId, device.getId(), action, time, repeat);
+        return Objects.hash(taskId, getTargetId(), action, time, repeat);
     }
     public Set<String> getExistingTaskIds() {
         return scheduledTasks.stream()
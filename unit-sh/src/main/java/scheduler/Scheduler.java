@@ -1,29 +1,48 @@
 package scheduler;
 
 import devices.Device;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import devices.DeviceCommandBatch;
+import metrics.Counter;
+import metrics.LatencyHistogram;
+import metrics.Metrics;
+import scenes.Scene;
+import scenes.SceneManager;
 import sensors.Sensor;
 import storage.DeviceStorage;
 import storage.xlc.XlDeviceManager;
-import storage.xlc.sheetsCommand.ScheduledTasksCommand;
+import storage.xlc.XlScheduledTaskStore;
+import storage.xlc.XlScheduledTaskStore.TaskRow;
+import utils.DeviceIdManager;
 import utils.Log;
 
 import java.io.*;
 import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.DelayQueue;
 
 public class Scheduler {
 
-    private static final String EXCEL_FILE = "/home/nira/Documents/Shay/Fleur/unit-sh/unit-sh/shsXl.xlsx";
-    private static final String TASKS_SHEET = "Scheduled_Tasks";
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-    private static final long CHECK_INTERVAL_MS = 30 * 1000;
+
+    // 📈 How late tasks fire relative to their due time, and how many fired
+    private static final LatencyHistogram LAG = Metrics.histogram("scheduler.lag");
+    private static final Counter FIRED = Metrics.counter("scheduler.fired");
     private final List<ScheduledTask> scheduledTasks = new ArrayList<>();
-    private Timer schedulerTimer;
+
+    // 💾 Task IDs changed / removed since the last save; only these rows are written
+    private final Set<String> dirtyTaskIds = new LinkedHashSet<>();
+    private final Set<String> removedTaskIds = new LinkedHashSet<>();
+    private boolean rewriteAll; // sheet needs migrating, or the last save failed
+    private final Object saveLock = new Object(); // snapshot + write as one step, so saves land in order; taken before `this`
+
+    // ⏳ One pending firing per task, ordered by due time; the loop thread sleeps until the head is due
+    private final DelayQueue<DueTask> dueQueue = new DelayQueue<>();
+    private final Map<ScheduledTask, DueTask> pending = new IdentityHashMap<>();
+    private final Clock clock;
+    private Thread schedulerThread;
 
 
     // 🔹 **Single Constructor: Guarantees deviceRegistry is initialized properly**
@@ -31,25 +50,57 @@ public class Scheduler {
     private final Map<String, Sensor> sensorRegistry;
 
     public Scheduler(Map<String, Device> deviceRegistry, Map<String, Sensor> sensorRegistry) {
+        this(deviceRegistry, sensorRegistry, Clock.systemDefaultZone());
+    }
+
+    public Scheduler(Map<String, Device> deviceRegistry, Map<String, Sensor> sensorRegistry, Clock clock) {
         this.deviceRegistry = (deviceRegistry != null) ? deviceRegistry : new HashMap<>();
         this.sensorRegistry = (sensorRegistry != null) ? sensorRegistry : new HashMap<>();
+        this.clock = clock;
         System.out.println("📅 Scheduler initialized with access to devices and sensors.");
     }
 
     // 🔹 Schedules a new task and saves it to Excel
     public void scheduleTask(Device device, String action, LocalDateTime time, String repeat) {
-        String taskId = XlDeviceManager.getNextAvailableId("TS", getExistingTaskIds());
-        ScheduledTask task = new ScheduledTask(taskId, device, action, time, repeat);
-        scheduledTasks.add(task);
+        ScheduledTask task;
+        synchronized (this) {
+            String taskId = XlDeviceManager.getNextAvailableId("TS");
+            task = new ScheduledTask(taskId, device, action, time, repeat);
+            scheduledTasks.add(task);
+            enqueue(task);
+            markChanged(task);
+        }
         saveTasksToExcel();
         System.out.println("✅ Task scheduled: " + task);
     }
 
 
+    // 🎬 Schedules a scene activation (fires in the same batch as device tasks due with it)
+    public void scheduleScene(Scene scene, LocalDateTime time, String repeat) {
+        ScheduledTask task;
+        synchronized (this) {
+            String taskId = XlDeviceManager.getNextAvailableId("TS");
+            task = new ScheduledTask(taskId, scene, time, repeat);
+            scheduledTasks.add(task);
+            enqueue(task);
+            markChanged(task);
+        }
+        saveTasksToExcel();
+        System.out.println("✅ Scene scheduled: " + task);
+    }
+
     // 🔹 Removes a task and updates the Excel file
     public void removeTask(int index) {
-        if (index >= 0 && index < scheduledTasks.size()) {
-            scheduledTasks.remove(index);
+        boolean removed = false;
+        synchronized (this) {
+            if (index >= 0 && index < scheduledTasks.size()) {
+                ScheduledTask task = scheduledTasks.remove(index);
+                dequeue(task);
+                markRemoved(task);
+                removed = true;
+            }
+        }
+        if (removed) {
             saveTasksToExcel();
             System.out.println("🗑️ Task removed.");
         }
@@ -69,187 +120,226 @@ public class Scheduler {
         }
     }
 
-    // 🔹 Starts the automatic scheduler loop to check due tasks
-    public void startSchedulerLoop() {
-        schedulerTimer = new Timer(true);
-        schedulerTimer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                checkAndRunDueTasks();
-            }
-        }, 0, CHECK_INTERVAL_MS);
+    // 🔹 Starts the scheduler thread — it blocks until the earliest task is due, no polling
+    public synchronized void startSchedulerLoop() {
+        if (schedulerThread != null && schedulerThread.isAlive()) return;
 
-        System.out.println("🕒 Scheduler loop started (checking every " + (CHECK_INTERVAL_MS / 1000) + " seconds).");
-    }
+        schedulerThread = new Thread(this::runSchedulerLoop, "Scheduler-Loop");
+        schedulerThread.setDaemon(true);
+        schedulerThread.start();
 
-    // 🔹 Runs tasks that are due
-    private void checkAndRunDueTasks() {
-        LocalDateTime now = LocalDateTime.now();
-        List<ScheduledTask> dueTasks = new ArrayList<>();
+        System.out.println("🕒 Scheduler loop started (" + dueQueue.size() + " task(s) queued).");
+    }
 
-        for (ScheduledTask task : scheduledTasks) {
-            if (!task.getTime().isAfter(now)) {
-                dueTasks.add(task);
-            }
+    public synchronized void stopSchedulerLoop() {
+        if (schedulerThread != null) {
+            schedulerThread.interrupt();
+            schedulerThread = null;
         }
+    }
 
-        for (ScheduledTask task : dueTasks) {
-            System.out.println("⏰ Running task: " + task);
-            task.getDevice().performAction(task.getAction());
-            DeviceStorage.updateDeviceState(task.getDevice().getId(), task.getAction()); // ✅ Sync state after executionScheduled tasks saved to Excel without deleting other sheets.
-            rescheduleTask(task);
+    private void runSchedulerLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                List<ScheduledTask> due = new ArrayList<>();
+                claim(dueQueue.take(), due);
+                tick(due);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                Log.error("❌ Scheduled task failed: " + e.getMessage());
+            }
         }
+        Log.debug("🛑 Scheduler loop stopped.");
+    }
 
-        saveTasksToExcel();
+    // 🔹 One loop pass after the blocking take: claims anything else already due, fires it all as one batch
+    // and saves only if something ran (tests and the benchmark drive this same pass with an empty list)
+    void tick(List<ScheduledTask> due) {
+        drainDueTasks(due); // anything else due at the same instant
+        if (fire(due)) saveTasksToExcel();
     }
 
-    // 🔹 Reschedules recurring tasks
-    private void rescheduleTask(ScheduledTask task) {
-        switch (task.getRepeat().toLowerCase()) {
-            case "daily" -> task.setTime(task.getTime().plusDays(1));
-            case "weekly" -> task.setTime(task.getTime().plusWeeks(1));
-            case "monthly" -> task.setTime(task.getTime().plusMonths(1));
-            case "none" -> scheduledTasks.remove(task);
-            default -> System.out.println("⚠️ Unknown repeat value: " + task.getRepeat());
+    private void drainDueTasks(List<ScheduledTask> into) {
+        DueTask due;
+        while ((due = dueQueue.poll()) != null) {
+            claim(due, into);
         }
     }
 
-    // 🔹 Saves tasks to Excel without wiping other sheets
-    private void saveTasksToExcel() {
-        Log.debug("📍 saveTasksToExcel() invoked — checking workbook integrity...");
-        File file = new File(EXCEL_FILE);
-        Workbook workbook;
-
-        try (FileInputStream fis = new FileInputStream(file)) {
-            workbook = new XSSFWorkbook(fis);
-        } catch (IOException e) {
-            System.err.println("❌ Failed to open Excel file for saving tasks. Scheduled tasks will NOT be saved to avoid data loss.");
-            return;
+    private void claim(DueTask due, List<ScheduledTask> into) {
+        ScheduledTask task = due.getTask();
+        synchronized (this) {
+            if (due.isCancelled() || pending.get(task) != due) return;
+            pending.remove(task);
         }
+        into.add(task);
+    }
 
-        // ✅ Define required sheets using enum-friendly strings
-        String[] requiredSheets = {
-                "Devices",
-                "Sensors",
-                "Sens_Ctrl",
-                "Scheduled_Tasks",
-                "Smart_Light_Control"
-        };
-
-        boolean missingSheet = false;
-        for (String sheetName : requiredSheets) {
-            if (workbook.getSheet(sheetName) == null) {
-                System.err.println("🚫 Missing critical sheet: " + sheetName);
-                missingSheet = true;
-            }
-        }
+    // 📦 Tasks due together run as one command batch (parallel across devices, in due order per device)
+    private boolean fire(List<ScheduledTask> due) {
+        if (due.isEmpty()) return false;
 
-        if (missingSheet) {
-            System.out.println("🧾 Sheets currently loaded in workbook:");
-            for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
-                System.out.println(" - " + workbook.getSheetName(i));
+        DeviceCommandBatch batch = new DeviceCommandBatch();
+        LocalDateTime now = LocalDateTime.now(clock);
+        for (ScheduledTask task : due) {
+            System.out.println("⏰ Running task: " + task);
+            LAG.recordMillis(Duration.between(task.getTime(), now).toMillis());
+            FIRED.increment();
+            if (task.isSceneTask()) {
+                task.getScene().appendTo(batch);
+            } else {
+                batch.add(task.getDevice(), task.getAction());
             }
-            return;
         }
-
-        Sheet sheet = workbook.getSheet(TASKS_SHEET);
-        if (sheet == null) sheet = workbook.createSheet(TASKS_SHEET);
-
-        ScheduledTasksCommand[] fields = {
-                ScheduledTasksCommand.DEVICE_ID,
-                ScheduledTasksCommand.DEVICE_ID, // 2nd column for name
-                ScheduledTasksCommand.ACTION,
-                ScheduledTasksCommand.TIME,
-                ScheduledTasksCommand.REPEAT
-        };
-
-        Row headerRow = sheet.getRow(0);
-        if (headerRow == null) {
-            headerRow = sheet.createRow(0);
-            for (int i = 0; i < fields.length; i++) {
-                headerRow.createCell(i).setCellValue(fields[i].label());
+        for (DeviceCommandBatch.Result result : batch.execute()) {
+            if (!result.isApplied()) {
+                Log.warn("⚠️ Scheduled " + result.action() + " on " + result.deviceId() + " → " + result.status());
             }
         }
 
-        // 🔄 Clear old rows
-        for (int i = sheet.getLastRowNum(); i > 0; i--) {
-            Row row = sheet.getRow(i);
-            if (row != null) sheet.removeRow(row);
+        synchronized (this) {
+            due.forEach(this::rescheduleTask);
         }
+        return true;
+    }
 
-        // 📝 Write task data
-        int rowIndex = 1;
-        for (ScheduledTask task : scheduledTasks) {
-            Row row = sheet.createRow(rowIndex++);
-            row.createCell(0).setCellValue(task.getDevice().getId());
-            row.createCell(1).setCellValue(task.getDevice().getName());
-            row.createCell(2).setCellValue(task.getAction());
-            row.createCell(3).setCellValue(task.getTime().format(FORMATTER));
-            row.createCell(4).setCellValue(task.getRepeat());
-        }
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
 
-        // 🔍 Log workbook sheets
-        Log.debug("💾 ScheduledTasks: Writing workbook with these sheets:");
-        if (Log.DEBUG_MODE) {
-            for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
-                System.out.println(" - " + workbook.getSheetName(i));
-            }
+    // 🔹 Reschedules recurring tasks in place (missed occurrences are skipped, not replayed)
+    private void rescheduleTask(ScheduledTask task) {
+        LocalDateTime next = task.getRecurrence().next(task.getTime(), LocalDateTime.now(clock), clock.getZone());
+        if (next == null) {
+            scheduledTasks.remove(task);
+            markRemoved(task);
+            return;
         }
+        task.setTime(next);
+        enqueue(task);
+        markChanged(task);
+    }
 
-        try (FileOutputStream fos = new FileOutputStream(EXCEL_FILE)) {
-            workbook.write(fos);
-            Log.debug("✅ Scheduled tasks saved successfully.");
-        } catch (IOException e) {
-            System.err.println("❌ Failed to save scheduled tasks: " + e.getMessage());
-        }
+    // ⏳ (Re)queue the next firing of a task; any older entry is cancelled lazily
+    private void enqueue(ScheduledTask task) {
+        dequeue(task);
+        DueTask due = new DueTask(task, clock);
+        pending.put(task, due);
+        dueQueue.add(due);
     }
 
+    private void dequeue(ScheduledTask task) {
+        DueTask previous = pending.remove(task);
+        if (previous != null) previous.cancel();
+    }
 
-//<----
+    private void markChanged(ScheduledTask task) {
+        removedTaskIds.remove(task.getTaskId());
+        dirtyTaskIds.add(task.getTaskId());
+    }
 
-    // 🔹 Loads tasks from Excel and correctly links them to registered devices
-    public void loadTasksFromExcel() {
-        scheduledTasks.clear();
+    private void markRemoved(ScheduledTask task) {
+        dirtyTaskIds.remove(task.getTaskId());
+        removedTaskIds.add(task.getTaskId());
+    }
 
-        try (Workbook workbook = new XSSFWorkbook(new FileInputStream(EXCEL_FILE))) {
-            Sheet sheet = workbook.getSheet(TASKS_SHEET);
-            if (sheet == null) {
-                System.out.println("📭 No task sheet found.");
-                return;
+    // 🔹 Writes only the rows of tasks added, fired, rescheduled or removed since the last save
+    private void saveTasksToExcel() {
+        synchronized (saveLock) {
+            List<TaskRow> upserts = new ArrayList<>();
+            List<String> removed;
+            boolean full;
+            synchronized (this) {
+                if (dirtyTaskIds.isEmpty() && removedTaskIds.isEmpty() && !rewriteAll) return;
+
+                full = rewriteAll;
+                for (ScheduledTask task : scheduledTasks) {
+                    if (full || dirtyTaskIds.contains(task.getTaskId())) upserts.add(toRow(task));
+                }
+                removed = full ? List.of() : new ArrayList<>(removedTaskIds);
+                dirtyTaskIds.clear();
+                removedTaskIds.clear();
+                rewriteAll = false;
             }
 
-            // Build column mapping from header
-            Map<String, Integer> columnMap = new HashMap<>();
-            Row headerRow = sheet.getRow(0);
-            if (headerRow != null) {
-                for (Cell cell : headerRow) {
-                    String label = cell.getStringCellValue().trim();
-                    columnMap.put(label, cell.getColumnIndex());
+            // 🔒 Still under saveLock: an older snapshot can never be written after a newer one
+            if (XlScheduledTaskStore.apply(upserts, removed, full)) {
+                Log.debug("✅ Scheduled tasks saved (" + upserts.size() + " written, " + removed.size() + " removed).");
+            } else {
+                synchronized (this) {
+                    rewriteAll = true; // 🔁 changes may be lost — the next save writes the whole sheet
                 }
             }
+        }
+    }
 
-            for (int rowIndex = 1; rowIndex <= sheet.getLastRowNum(); rowIndex++) {
-                Row row = sheet.getRow(rowIndex);
-                if (row == null) continue;
-
-                String id = row.getCell(columnMap.get(ScheduledTasksCommand.DEVICE_ID.label())).getStringCellValue().trim();
-                String action = row.getCell(columnMap.get(ScheduledTasksCommand.ACTION.label())).getStringCellValue();
-                LocalDateTime time = LocalDateTime.parse(row.getCell(columnMap.get(ScheduledTasksCommand.TIME.label())).getStringCellValue(), FORMATTER);
-                String repeat = row.getCell(columnMap.get(ScheduledTasksCommand.REPEAT.label())).getStringCellValue();
+    private static TaskRow toRow(ScheduledTask task) {
+        return new TaskRow(task.getTaskId(), task.getTargetId(), task.getAction(),
+                task.getTime().format(FORMATTER), task.getRepeat());
+    }
 
-                Device device = DeviceStorage.getDevices().get(id);
-                if (device == null) {
-                    DeviceStorage.getDevices().keySet();
-                    continue;
-                }
 
-                scheduledTasks.add(new ScheduledTask(device, action, time, repeat));
-            }
+//<----
 
-            System.out.println("✅ Loaded " + scheduledTasks.size() + " task(s) from Excel.");
+    // 🔹 Loads tasks from Excel and correctly links them to registered devices
+    public synchronized void loadTasksFromExcel() {
+        scheduledTasks.clear();
+        pending.values().forEach(DueTask::cancel);
+        pending.clear();
+        dueQueue.clear();
+        dirtyTaskIds.clear();
+        removedTaskIds.clear();
+        rewriteAll = false;
+
+        List<TaskRow> rows;
+        try {
+            rows = XlScheduledTaskStore.loadRows();
         } catch (IOException e) {
             System.err.println("❌ Failed to load scheduled tasks: " + e.getMessage());
+            return;
+        }
+        if (rows == null) {
+            System.out.println("📭 No task sheet found.");
+            return;
         }
+
+        // 🆔 Register the sheet's IDs once, so new ones come straight from the counter
+        DeviceIdManager.getInstance().addKnownIds(rows.stream()
+                .map(TaskRow::taskId)
+                .filter(id -> !id.isEmpty())
+                .toList());
+
+        Set<String> seenIds = new HashSet<>();
+        for (TaskRow row : rows) {
+            LocalDateTime time = LocalDateTime.parse(row.time(), FORMATTER);
+
+            // 🆔 Rows without a (unique) TaskID get one; the sheet is then rewritten on the next save
+            String taskId = row.taskId();
+            if (taskId.isEmpty() || !seenIds.add(taskId)) {
+                taskId = XlDeviceManager.getNextAvailableId("TS");
+                seenIds.add(taskId);
+                rewriteAll = true;
+            }
+
+            ScheduledTask task;
+            if (Scene.SCHEDULE_ACTION.equalsIgnoreCase(row.action())) {
+                Scene scene = SceneManager.getScene(row.targetId());
+                if (scene == null) {
+                    Log.warn("⚠️ Skipping task " + taskId + ": scene " + row.targetId() + " is not on the Scenes sheet");
+                    continue;
+                }
+                task = new ScheduledTask(taskId, scene, time, row.repeat());
+            } else {
+                Device device = DeviceStorage.getDevices().get(row.targetId());
+                if (device == null) continue;
+                task = new ScheduledTask(taskId, device, row.action(), time, row.repeat());
+            }
+            scheduledTasks.add(task);
+            enqueue(task);
+        }
+
+        System.out.println("✅ Loaded " + scheduledTasks.size() + " task(s) from Excel.");
     }
 
     // 🔹 Updates an existing scheduled task
@@ -259,36 +349,45 @@ public class Scheduler {
             return;
         }
 
-        ScheduledTask task = scheduledTasks.get(index);
-        task.setTime(newTime);
-        task.setRepeat(newRepeat);
+        ScheduledTask task;
+        synchronized (this) {
+            task = scheduledTasks.get(index);
+            task.setTime(newTime);
+            task.setRepeat(newRepeat);
+            enqueue(task);
+            markChanged(task);
+        }
 
         saveTasksToExcel();  // ✅ Persist changes
         System.out.println("✅ Task updated successfully: " + task);
     }
     // 🔹 Removes any conflicting scheduled tasks for a device
     public void removeTaskIfConflicts(String deviceId, String action) {
-        Iterator<ScheduledTask> iterator = scheduledTasks.iterator();
-        while (iterator.hasNext()) {
-            ScheduledTask task = iterator.next();
-
-            // ✅ Conflicts happen when trying to turn ON/OFF but task has the opposite action
-            boolean conflictingAction = !task.getAction().equalsIgnoreCase(action) && task.getDevice().getId().equals(deviceId);
-
-            if (conflictingAction) {
-                System.out.println("⚠️ Removing conflicting task: " + task);
-                iterator.remove();
+        boolean removed = false;
+        synchronized (this) {
+            Iterator<ScheduledTask> iterator = scheduledTasks.iterator();
+            while (iterator.hasNext()) {
+                ScheduledTask task = iterator.next();
+
+                // ✅ Conflicts happen when trying to turn ON/OFF but task has the opposite action
+                boolean conflictingAction = !task.isSceneTask()
+                        && !task.getAction().equalsIgnoreCase(action) && task.getDevice().getId().equals(deviceId);
+
+                if (conflictingAction) {
+                    System.out.println("⚠️ Removing conflicting task: " + task);
+                    iterator.remove();
+                    dequeue(task);
+                    markRemoved(task);
+                    removed = true;
+                }
             }
         }
 
-        saveTasksToExcel();  // ✅ Persist changes to ensure full system synchronization
+        if (removed) {
+            saveTasksToExcel();  // ✅ Persist only when the task set actually changed
+        }
     }
-    private Set<String> getExistingTaskIds() {
-        return scheduledTasks.stream()
-                .map(ScheduledTask::getTaskId)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
-    }public void printTaskQueue() {
+public void printTaskQueue() {
         if (scheduledTasks.isEmpty()) {
             System.out.println("📭 No scheduled tasks.");
         } else {
@@ -0,0 +1,51 @@
+package scheduler;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * 🌞 Offline sunrise/sunset using the standard sunrise equation (NOAA approximation, ±1-2 minutes
+ * at mid latitudes). Latitude north and longitude east are positive.
+ */
+public final class SolarCalculator {
+
+    private static final double J2000 = 2451545.0;
+    private static final double UNIX_EPOCH_JD = 2440587.5;
+    private static final double AXIAL_TILT = Math.toRadians(23.4397);
+    private static final double HORIZON = Math.toRadians(-0.833); // refraction + solar disc
+
+    private SolarCalculator() {
+    }
+
+    // 🌅 Null when the sun does not rise that day (polar night / midnight sun)
+    public static LocalDateTime sunrise(LocalDate date, double latitude, double longitude, ZoneId zone) {
+        return event(date, latitude, longitude, zone, -1);
+    }
+
+    // 🌇
+    public static LocalDateTime sunset(LocalDate date, double latitude, double longitude, ZoneId zone) {
+        return event(date, latitude, longitude, zone, +1);
+    }
+
+    private static LocalDateTime event(LocalDate date, double latitude, double longitude, ZoneId zone, int sign) {
+        double n = date.toEpochDay() + UNIX_EPOCH_JD + 0.5 - J2000 + 0.0008;
+        double meanSolarNoon = n - longitude / 360.0;
+
+        double m = Math.toRadians((357.5291 + 0.98560028 * meanSolarNoon) % 360);
+        double center = 1.9148 * Math.sin(m) + 0.02 * Math.sin(2 * m) + 0.0003 * Math.sin(3 * m);
+        double lambda = Math.toRadians((Math.toDegrees(m) + center + 180 + 102.9372) % 360);
+        double transit = J2000 + meanSolarNoon + 0.0053 * Math.sin(m) - 0.0069 * Math.sin(2 * lambda);
+
+        double declination = Math.asin(Math.sin(lambda) * Math.sin(AXIAL_TILT));
+        double phi = Math.toRadians(latitude);
+        double cosHourAngle = (Math.sin(HORIZON) - Math.sin(phi) * Math.sin(declination))
+                / (Math.cos(phi) * Math.cos(declination));
+        if (cosHourAngle < -1 || cosHourAngle > 1) return null;
+
+        double julian = transit + sign * Math.toDegrees(Math.acos(cosHourAngle)) / 360.0;
+        long epochMillis = Math.round((julian - UNIX_EPOCH_JD) * 86_400_000L);
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zone);
+    }
+}
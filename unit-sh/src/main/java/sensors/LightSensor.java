@@ -1,14 +1,18 @@
 package sensors;
 
+import autoOp.AutoOpRules;
 import devices.Device;
 import devices.DeviceType;
+import utils.Log;
+
 import java.time.Clock;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class LightSensor extends Sensor {
 
     // ✅ Slave device collection
-    private final Set<Device> linkedDevices = new HashSet<>();
+    private final Set<Device> linkedDevices = ConcurrentHashMap.newKeySet(); // iterated by AutoOp workers
 
     public LightSensor(String sensorId, String name, MeasurementUnit unit, double currentValue, Clock clock) {
         super(sensorId, SensorType.LIGHT, name, unit, currentValue, clock);
@@ -22,29 +26,29 @@ public class LightSensor extends Sensor {
     @Override
     public void simulateValue(double value) {
         this.currentValue = value;
-        System.out.println("🔆 [LightSensor] " + sensorName + " simulated value: " + value + " " + unit);
+        recordReading(value);
         updateTimestamp();
-        System.out.println("📦 Sensor '" + sensorName + "' has " + getLinkedDevice().size() + " slaves at simulation");
+        valueChanged();
+        if (Log.isDebugEnabled()) {
+            Log.debug("🔆 [LightSensor] {} simulated value: {} {} ({} linked)", sensorName, value, unit, linkedDevices.size());
+        }
         notifyLinkedDevices(value);
     }
 
-    public void notifyLinkedDevices(double value) {
-        System.out.printf("📣 [LightSensor] Broadcasting value %.2f %s to linkedDevices...%n", value, unit);
+    @Override
+    public void evaluateLinkedDevices(double value) {
+        if (Log.isDebugEnabled()) {
+            Log.debug("📣 [LightSensor] Broadcasting value {} {} to linkedDevices...", value, unit);
+        }
 
         for (Device slave : linkedDevices) {
             if (slave == null || !slave.isAutomationEnabled()) continue;
 
             if (slave.getType() == DeviceType.LIGHT) {
-                double threshold = slave.getAutoThreshold();
-                boolean shouldTurnOn = value < threshold && !slave.isOn();
-                boolean shouldTurnOff = value >= threshold && slave.isOn();
-
-                if (shouldTurnOn) {
-                    slave.turnOn();
-                    System.out.println("💡 Auto ON triggered for: " + slave.getName());
-                } else if (shouldTurnOff) {
-                    slave.turnOff();
-                    System.out.println("🌙 Auto OFF triggered for: " + slave.getName());
+                switch (AutoOpRules.getInstance().apply(this, slave, value)) {
+                    case TURN_ON -> Log.info("💡 Auto ON triggered for: {}", slave.getName());
+                    case TURN_OFF -> Log.info("🌙 Auto OFF triggered for: {}", slave.getName());
+                    default -> { }
                 }
             }
         }
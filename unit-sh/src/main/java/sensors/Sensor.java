@@ -1,12 +1,23 @@
 package sensors;
 
+import autoOp.AutoOpEngine;
+import autoOp.AutoOpRules;
+import autoOp.CoalescingSlot;
 import devices.Device;
+import devices.DeviceEvents;
+import metrics.Counter;
+import metrics.Metrics;
+import utils.Log;
+
 import java.time.Clock;
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public abstract class Sensor implements Runnable {
 
+    private static final Counter READINGS = Metrics.counter("sensor.readings");
+
     // ─── 🔑 Identity ───
     protected final String sensorId;
     protected String sensorName;
@@ -16,9 +27,12 @@ public abstract class Sensor implements Runnable {
     // ─── ⚙️ Runtime ───
     protected double currentValue;
     protected final Clock clock;
+    private SensorHistory history;        // opened on first reading
+    private boolean historyUnavailable;
 
     // ─── 🔗 Device Linkage ───
-    private final List<Device> linkedDevices = new ArrayList<>();
+    private final List<Device> linkedDevices = new CopyOnWriteArrayList<>(); // iterated by AutoOp workers
+    private final CoalescingSlot pendingReading = new CoalescingSlot();     // newest reading not yet evaluated
 
     // ─── 🕒 Timestamps ───
     protected final ZonedDateTime createdTimestamp;
@@ -67,28 +81,70 @@ public abstract class Sensor implements Runnable {
     }
 
     // ─── 📡 Automation ───
+    // Hands the reading to the AutoOp engine; device commands run on its workers, not the caller's thread
     public void notifyLinkedDevices(double value) {
-        System.out.println("🔔 Notifying " + linkedDevices.size() + " linked devices");
+        READINGS.increment();
+        AutoOpEngine.getInstance().publish(this, value);
+    }
+
+    public CoalescingSlot getPendingReading() {
+        return pendingReading;
+    }
+
+    // Called by the AutoOp engine with the latest reading for this sensor
+    public void evaluateLinkedDevices(double value) {
+        Log.debug("🔔 Notifying {} linked devices", linkedDevices.size());
 
         for (Device device : linkedDevices) {
             if (!device.isAutomationEnabled()) continue;
 
-            if (value < device.getAutoThreshold()) {
-                device.turnOn();
-            } else {
-                device.turnOff();
-            }
+            AutoOpRules.getInstance().apply(this, device, value);
         }
     }
 
     // ─── 🎛 Sensor Mechanics ───
     public abstract double readCurrentValue();
     public abstract double getCurrentReading();
-    public abstract void simulateValue(double value);
+    public abstract void simulateValue(double value);  // records the value and notifies linked devices
 
     public void setCurrentValue(double value) {
         this.currentValue = value;
+        recordReading(value);
         updateTimestamp();
+        valueChanged();
+    }
+
+    // 📥 Reading from a hardware feed: keeps the gateway's timestamp in the history and runs AutoOp
+    public void acceptReading(long timestampMs, double value) {
+        this.currentValue = value;
+        SensorHistory h = getHistory();
+        if (h != null) {
+            h.record(timestampMs, value);
+        }
+        updateTimestamp();
+        valueChanged();
+        notifyLinkedDevices(value);
+    }
+
+    // 📣 "Sensor value changed" — skipped outright when nobody listens
+    protected void valueChanged() {
+        if (DeviceEvents.hasListeners()) DeviceEvents.publish(DeviceEvents.Kind.SENSOR_VALUE, sensorId);
+    }
+
+    // 📈 Append to the mapped history ring (no allocation once the history is open)
+    protected void recordReading(double value) {
+        SensorHistory h = getHistory();
+        if (h != null) {
+            h.record(clock.millis(), value);
+        }
+    }
+
+    public SensorHistory getHistory() {
+        if (history == null && !historyUnavailable) {
+            history = SensorHistory.of(sensorId);
+            historyUnavailable = history == null;
+        }
+        return history;
     }
 
     public void setSensorName(String name) {
@@ -119,9 +175,7 @@ public abstract class Sensor implements Runnable {
         double step = (to - from) / steps;
         for (int i = 0; i <= steps; i++) {
             double value = from + i * step;
-            simulateValue(value);
-            notifyLinkedDevices(value);
-            updateTimestamp();
+            simulateValue(value); // already notifies — a second publish would evaluate each step twice
             Thread.sleep(100);
         }
     }
@@ -0,0 +1,259 @@
+package sensors;
+
+import storage.xlc.XlWorkbookUtils;
+import utils.Log;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 📈 Per-sensor reading history kept in a memory-mapped ring buffer.
+ * <p>
+ * Each sensor gets one file: a small header (magic, capacity, write count) followed by fixed 16-byte
+ * slots of {@code (long timestampMs, double value)}. The file is mapped as a handful of fixed-size segments
+ * and written with absolute puts, so {@link #record(long, double)} never allocates. When the ring is full the
+ * oldest slot is overwritten. Timestamps are kept non-decreasing, which lets range queries binary-search.
+ */
+public class SensorHistory {
+
+    public static final String DIR_PROPERTY = "phoenix.history.dir";
+    public static final int DEFAULT_SLOTS_PER_SEGMENT = 4096; // 64 KiB per segment
+    public static final int DEFAULT_SEGMENTS = 16;
+
+    private static final int MAGIC = 0x50485348; // "PHSH"
+    private static final int HEADER_BYTES = 32;
+    private static final int SLOT_BYTES = 16;
+    private static final int OFF_CAPACITY = 4;
+    private static final int OFF_COUNT = 8;
+
+    private static final Map<String, SensorHistory> registry = new ConcurrentHashMap<>();
+
+    private final Path file;
+    private final int slotsPerSegment;
+    private final int capacity;
+    private final MappedByteBuffer header;
+    private final MappedByteBuffer[] segments;
+
+    private long count;   // total readings ever recorded
+    private long lastTimestamp = Long.MIN_VALUE;
+
+    // 📊 One downsampled bucket
+    public record Window(long startMs, long endMs, double min, double max, double avg, int samples) {}
+
+    @FunctionalInterface
+    public interface ReadingConsumer {
+        void accept(long timestampMs, double value);
+    }
+
+    private SensorHistory(Path file, int slotsPerSegment, int segmentCount) throws IOException {
+        this.file = file;
+        this.slotsPerSegment = slotsPerSegment;
+        this.capacity = slotsPerSegment * segmentCount;
+        this.segments = new MappedByteBuffer[segmentCount];
+
+        long segmentBytes = (long) slotsPerSegment * SLOT_BYTES;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            boolean fresh = channel.size() < HEADER_BYTES;
+            header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+
+            if (!fresh && (header.getInt(0) != MAGIC || header.getInt(OFF_CAPACITY) != capacity)) {
+                Log.warn("⚠️ Sensor history layout changed, starting over: " + file);
+                fresh = true;
+                channel.truncate(HEADER_BYTES);
+            }
+            if (fresh) {
+                header.putInt(0, MAGIC);
+                header.putInt(OFF_CAPACITY, capacity);
+                header.putLong(OFF_COUNT, 0);
+            }
+
+            // Mappings stay valid after the channel is closed
+            for (int i = 0; i < segmentCount; i++) {
+                segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + i * segmentBytes, segmentBytes);
+            }
+        }
+
+        count = header.getLong(OFF_COUNT);
+        if (count > 0) {
+            lastTimestamp = timestampAt(count - 1);
+        }
+    }
+
+    // 🗂️ Shared history for a sensor ID (null if the history directory is unusable)
+    public static SensorHistory of(String sensorId) {
+        if (sensorId == null || sensorId.isBlank()) return null;
+        try {
+            return registry.computeIfAbsent(sensorId, id -> {
+                try {
+                    return open(historyDir().resolve(id + ".hist"));
+                } catch (IOException e) {
+                    throw new IllegalStateException(e.getMessage(), e);
+                }
+            });
+        } catch (IllegalStateException e) {
+            Log.warn("⚠️ Sensor history unavailable for " + sensorId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    public static SensorHistory open(Path file) throws IOException {
+        return open(file, DEFAULT_SLOTS_PER_SEGMENT, DEFAULT_SEGMENTS);
+    }
+
+    public static SensorHistory open(Path file, int slotsPerSegment, int segmentCount) throws IOException {
+        if (slotsPerSegment <= 0 || segmentCount <= 0) {
+            throw new IllegalArgumentException("❌ Segment size and count must be positive.");
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        return new SensorHistory(file, slotsPerSegment, segmentCount);
+    }
+
+    // 📁 -Dphoenix.history.dir, else a "history" folder next to the workbook (like the journal) so it survives reboots
+    private static Path historyDir() {
+        String configured = System.getProperty(DIR_PROPERTY);
+        if (configured != null) return Paths.get(configured);
+
+        Path parent = XlWorkbookUtils.getFilePath().toAbsolutePath().getParent();
+        return parent != null ? parent.resolve("history") : Paths.get("history");
+    }
+
+    // ✍️ Allocation-free append; overwrites the oldest reading once full
+    public synchronized void record(long timestampMs, double value) {
+        long ts = Math.max(timestampMs, lastTimestamp);
+        int slot = (int) (count % capacity);
+        MappedByteBuffer segment = segments[slot / slotsPerSegment];
+        int offset = (slot % slotsPerSegment) * SLOT_BYTES;
+
+        segment.putLong(offset, ts);
+        segment.putDouble(offset + 8, value);
+
+        lastTimestamp = ts;
+        count++;
+        header.putLong(OFF_COUNT, count);
+    }
+
+    // 🔎 Visit every reading with from <= timestamp <= to, oldest first
+    public synchronized int forEachInRange(long fromMs, long toMs, ReadingConsumer consumer) {
+        int visited = 0;
+        for (long i = lowerBound(fromMs); i < count; i++) {
+            long ts = timestampAt(i);
+            if (ts > toMs) break;
+            consumer.accept(ts, valueAt(i));
+            visited++;
+        }
+        return visited;
+    }
+
+    // 🔎 Copy a range into caller-owned arrays; returns the number of readings written
+    public synchronized int range(long fromMs, long toMs, long[] timestamps, double[] values) {
+        int n = 0;
+        int limit = Math.min(timestamps.length, values.length);
+        for (long i = lowerBound(fromMs); i < count && n < limit; i++) {
+            long ts = timestampAt(i);
+            if (ts > toMs) break;
+            timestamps[n] = ts;
+            values[n] = valueAt(i);
+            n++;
+        }
+        return n;
+    }
+
+    // 📊 Min/max/avg per bucket of bucketMs, empty buckets skipped
+    public synchronized List<Window> downsample(long fromMs, long toMs, long bucketMs) {
+        if (bucketMs <= 0) {
+            throw new IllegalArgumentException("❌ Bucket size must be positive.");
+        }
+
+        List<Window> windows = new ArrayList<>();
+        long bucketStart = Long.MIN_VALUE;
+        double min = 0, max = 0, sum = 0;
+        int samples = 0;
+
+        for (long i = lowerBound(fromMs); i < count; i++) {
+            long ts = timestampAt(i);
+            if (ts > toMs) break;
+            double value = valueAt(i);
+            long start = fromMs + ((ts - fromMs) / bucketMs) * bucketMs;
+
+            if (start != bucketStart) {
+                if (samples > 0) {
+                    windows.add(new Window(bucketStart, bucketStart + bucketMs, min, max, sum / samples, samples));
+                }
+                bucketStart = start;
+                min = max = sum = value;
+                samples = 1;
+            } else {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+                sum += value;
+                samples++;
+            }
+        }
+        if (samples > 0) {
+            windows.add(new Window(bucketStart, bucketStart + bucketMs, min, max, sum / samples, samples));
+        }
+        return windows;
+    }
+
+    public synchronized double latest() {
+        return count == 0 ? Double.NaN : valueAt(count - 1);
+    }
+
+    public synchronized int size() {
+        return (int) Math.min(count, capacity);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    // 💾 Push dirty pages to disk (the OS does this eventually anyway)
+    public synchronized void force() {
+        header.force();
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    // ─── 🔧 Ring indexing (logical index = position in the all-time sequence) ───
+
+    private long oldestIndex() {
+        return Math.max(0, count - capacity);
+    }
+
+    private long lowerBound(long fromMs) {
+        long lo = oldestIndex();
+        long hi = count;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (timestampAt(mid) < fromMs) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private long timestampAt(long index) {
+        int slot = (int) (index % capacity);
+        return segments[slot / slotsPerSegment].getLong((slot % slotsPerSegment) * SLOT_BYTES);
+    }
+
+    private double valueAt(long index) {
+        int slot = (int) (index % capacity);
+        return segments[slot / slotsPerSegment].getDouble((slot % slotsPerSegment) * SLOT_BYTES + 8);
+    }
+}
@@ -0,0 +1,103 @@
+package sensors.ingest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 🛰️ Stand-in for an edge gateway: writes readings to a {@link SensorIngestServer} in its line protocol.
+ * <p>
+ * Run {@code java sensors.ingest.IngestClient <port> <sensorId> <count> [tcp|udp]} to push a synthetic wave.
+ */
+public class IngestClient implements Closeable {
+
+    private static final int MAX_DATAGRAM = 1_400; // stay under a typical MTU
+
+    private final InetSocketAddress server;
+    private final boolean udp;
+    private final ByteBuffer out = ByteBuffer.allocate(16 * 1024);
+    private SocketChannel tcpChannel;
+    private DatagramChannel udpChannel;
+
+    public IngestClient(InetSocketAddress server, boolean udp) {
+        this.server = server;
+        this.udp = udp;
+    }
+
+    public static IngestClient tcp(int port) {
+        return new IngestClient(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), false);
+    }
+
+    public static IngestClient udp(int port) {
+        return new IngestClient(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), true);
+    }
+
+    // ➕ Buffer one reading; a full buffer (or datagram) is flushed first
+    public IngestClient send(String sensorId, long timestampMs, double value) throws IOException {
+        return sendRaw(sensorId + "," + timestampMs + "," + BigDecimal.valueOf(value).toPlainString() + "\n");
+    }
+
+    // ➕ Raw protocol text — handy for malformed input and split lines
+    public IngestClient sendRaw(String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        int limit = udp ? MAX_DATAGRAM : out.capacity();
+        if (out.position() + bytes.length > limit) flush();
+        if (bytes.length > limit) {
+            writeNow(ByteBuffer.wrap(bytes));
+        } else {
+            out.put(bytes);
+        }
+        return this;
+    }
+
+    public void flush() throws IOException {
+        if (out.position() == 0) return;
+        out.flip();
+        writeNow(out);
+        out.clear();
+    }
+
+    private void writeNow(ByteBuffer buf) throws IOException {
+        if (udp) {
+            if (udpChannel == null) udpChannel = DatagramChannel.open();
+            udpChannel.send(buf, server);
+        } else {
+            if (tcpChannel == null) tcpChannel = SocketChannel.open(server);
+            while (buf.hasRemaining()) tcpChannel.write(buf);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        if (tcpChannel != null) tcpChannel.close();
+        if (udpChannel != null) udpChannel.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage: IngestClient <port> <sensorId> <count> [tcp|udp]");
+            return;
+        }
+        int port = Integer.parseInt(args[0]);
+        String sensorId = args[1];
+        int count = Integer.parseInt(args[2]);
+        boolean useUdp = args.length > 3 && args[3].equalsIgnoreCase("udp");
+
+        long start = System.currentTimeMillis();
+        try (IngestClient client = useUdp ? udp(port) : tcp(port)) {
+            for (int i = 0; i < count; i++) {
+                double value = 500 + 400 * Math.sin(i / 50.0);
+                client.send(sensorId, start + i, Math.round(value * 10) / 10.0);
+            }
+        }
+        long elapsed = Math.max(1, System.currentTimeMillis() - start);
+        System.out.printf("📤 Sent %d readings for %s in %d ms (%.0f/s)%n", count, sensorId, elapsed, count * 1000.0 / elapsed);
+    }
+}
@@ -0,0 +1,132 @@
+package sensors.ingest;
+
+import java.nio.ByteBuffer;
+
+/**
+ * ✂️ Decodes the ingestion line protocol straight out of a {@link ByteBuffer}.
+ * <p>
+ * One reading per line: {@code <sensorId>,<epochMillis>,<value>\n}. The timestamp may be left empty (the
+ * receiver's clock is used), {@code \r\n} is accepted, and the value is a plain decimal ({@code -12.5}, {@code 400}).
+ * Nothing is copied: the handler gets the ID as a byte range of the buffer it was read into.
+ */
+final class ReadingDecoder {
+
+    static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private static final int MAX_DIGITS = 18;
+    private static final double[] POW10 = new double[MAX_DIGITS + 1];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i <= MAX_DIGITS; i++) POW10[i] = POW10[i - 1] * 10;
+    }
+
+    interface Handler {
+        void reading(ByteBuffer buf, int idFrom, int idTo, long timestampMs, double value);
+
+        void malformed();
+    }
+
+    private ReadingDecoder() {
+    }
+
+    /**
+     * Consumes every complete line between the buffer's position and limit. With {@code endOfInput}
+     * (a datagram) the last line does not need a newline. The position is left on the first unconsumed byte.
+     */
+    static void decode(ByteBuffer buf, boolean endOfInput, Handler handler) {
+        int pos = buf.position();
+        int limit = buf.limit();
+        int lineStart = pos;
+
+        for (int i = pos; i < limit; i++) {
+            if (buf.get(i) == '\n') {
+                decodeLine(buf, lineStart, i, handler);
+                lineStart = i + 1;
+            }
+        }
+        if (endOfInput && lineStart < limit) {
+            decodeLine(buf, lineStart, limit, handler);
+            lineStart = limit;
+        }
+        buf.position(lineStart);
+    }
+
+    private static void decodeLine(ByteBuffer buf, int from, int to, Handler handler) {
+        if (to > from && buf.get(to - 1) == '\r') to--;
+        if (to == from) return; // blank line (keep-alive)
+
+        int firstComma = indexOf(buf, from, to, ',');
+        int secondComma = firstComma < 0 ? -1 : indexOf(buf, firstComma + 1, to, ',');
+        if (firstComma <= from || secondComma < 0) {
+            handler.malformed();
+            return;
+        }
+
+        long timestamp = NO_TIMESTAMP;
+        if (secondComma > firstComma + 1) {
+            timestamp = parseLong(buf, firstComma + 1, secondComma);
+            if (timestamp < 0) {
+                handler.malformed();
+                return;
+            }
+        }
+
+        double value = parseDecimal(buf, secondComma + 1, to);
+        if (Double.isNaN(value)) {
+            handler.malformed();
+            return;
+        }
+        handler.reading(buf, from, firstComma, timestamp, value);
+    }
+
+    private static int indexOf(ByteBuffer buf, int from, int to, char c) {
+        for (int i = from; i < to; i++) {
+            if (buf.get(i) == c) return i;
+        }
+        return -1;
+    }
+
+    // Non-negative decimal integer, or -1 when the field is not one
+    private static long parseLong(ByteBuffer buf, int from, int to) {
+        if (to - from > MAX_DIGITS) return -1;
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            int d = buf.get(i) - '0';
+            if (d < 0 || d > 9) return -1;
+            result = result * 10 + d;
+        }
+        return result;
+    }
+
+    // [-+]digits[.digits], NaN when malformed
+    private static double parseDecimal(ByteBuffer buf, int from, int to) {
+        if (from >= to) return Double.NaN;
+
+        boolean negative = false;
+        byte first = buf.get(from);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            from++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (int i = from; i < to; i++) {
+            byte b = buf.get(i);
+            if (b == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+                continue;
+            }
+            int d = b - '0';
+            if (d < 0 || d > 9 || ++digits > MAX_DIGITS) return Double.NaN;
+            mantissa = mantissa * 10 + d;
+            if (fractionDigits >= 0) fractionDigits++;
+        }
+        if (digits == 0) return Double.NaN;
+
+        double value = fractionDigits > 0 ? mantissa / POW10[fractionDigits] : mantissa;
+        return negative ? -value : value;
+    }
+}
@@ -0,0 +1,77 @@
+package sensors.ingest;
+
+import sensors.Sensor;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * 🗂️ Immutable open-addressing table from sensor-ID bytes to {@link Sensor}, so the decoder can resolve an ID
+ * straight from the receive buffer without building a String. Rebuilt (copy-on-write) when sensors change.
+ */
+final class SensorIdTable {
+
+    private final byte[][] keys;
+    private final Sensor[] values;
+    private final int mask;
+    private final int size;
+
+    SensorIdTable(Collection<Sensor> sensors) {
+        int capacity = Integer.highestOneBit(Math.max(4, sensors.size() * 2 - 1)) << 1;
+        this.keys = new byte[capacity][];
+        this.values = new Sensor[capacity];
+        this.mask = capacity - 1;
+
+        int count = 0;
+        for (Sensor sensor : sensors) {
+            String id = sensor.getSensorId();
+            if (id == null || id.isEmpty()) continue;
+
+            byte[] key = id.getBytes(StandardCharsets.US_ASCII);
+            int slot = hash(key) & mask;
+            while (keys[slot] != null && !Arrays.equals(keys[slot], key)) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == null) count++;
+            keys[slot] = key;
+            values[slot] = sensor;
+        }
+        this.size = count;
+    }
+
+    int size() {
+        return size;
+    }
+
+    Sensor find(ByteBuffer buf, int from, int to) {
+        int h = 0x811C9DC5;
+        for (int i = from; i < to; i++) {
+            h = (h ^ buf.get(i)) * 0x01000193;
+        }
+
+        int length = to - from;
+        for (int slot = h & mask; ; slot = (slot + 1) & mask) {
+            byte[] key = keys[slot];
+            if (key == null) return null;
+            if (key.length == length && matches(key, buf, from)) return values[slot];
+        }
+    }
+
+    private static boolean matches(byte[] key, ByteBuffer buf, int from) {
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] != buf.get(from + i)) return false;
+        }
+        return true;
+    }
+
+    // FNV-1a, identical to the loop in find()
+    private static int hash(byte[] key) {
+        int h = 0x811C9DC5;
+        for (byte b : key) {
+            h = (h ^ b) * 0x01000193;
+        }
+        return h;
+    }
+}
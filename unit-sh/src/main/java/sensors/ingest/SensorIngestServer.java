@@ -0,0 +1,259 @@
+package sensors.ingest;
+
+import sensors.Sensor;
+import storage.SensorStorage;
+import utils.Log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.time.Clock;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 📡 Receives sensor readings from edge gateways over TCP and UDP on the same port.
+ * <p>
+ * One selector thread serves every connection. Each TCP connection owns one receive buffer and every
+ * datagram reuses a single one; lines are decoded in place by {@link ReadingDecoder} and the sensor is
+ * resolved from the ID bytes, so a reading costs no String. The ID table is rebuilt only when the sensor
+ * registry's version moves. Accepted readings go to {@link Sensor#acceptReading(long, double)} — history
+ * ring plus the AutoOp engine.
+ * <p>
+ * Off unless {@code -Dphoenix.ingest.port=<port>} is set; binds to loopback unless
+ * {@code -Dphoenix.ingest.host} says otherwise.
+ */
+public class SensorIngestServer implements Closeable {
+
+    public static final String PORT_PROPERTY = "phoenix.ingest.port";
+    public static final String HOST_PROPERTY = "phoenix.ingest.host";
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final Supplier<Collection<Sensor>> sensors;
+    private final LongSupplier sensorsVersion;
+    private final Clock clock;
+    private final ByteBuffer datagram = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final ReadingDecoder.Handler handler = new Dispatcher();
+
+    private Selector selector;
+    private ServerSocketChannel tcp;
+    private DatagramChannel udp;
+    private Thread loop;
+    private volatile boolean running;
+
+    private SensorIdTable table = new SensorIdTable(List.of());
+    private long tableVersion = Long.MIN_VALUE;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong malformed = new AtomicLong();
+    private final AtomicLong unknown = new AtomicLong();
+    private final AtomicLong connections = new AtomicLong(); // open TCP connections
+
+    public SensorIngestServer() {
+        this(() -> SensorStorage.getSensors().values(), SensorStorage::getVersion, Clock.systemDefaultZone());
+    }
+
+    // sensorsVersion must change whenever the collection returned by sensors does
+    public SensorIngestServer(Supplier<Collection<Sensor>> sensors, LongSupplier sensorsVersion, Clock clock) {
+        this.sensors = sensors;
+        this.sensorsVersion = sensorsVersion;
+        this.clock = clock;
+    }
+
+    // 🚦 Startup hook: returns null when ingestion is not configured
+    public static SensorIngestServer startFromProperties() {
+        Integer port = Integer.getInteger(PORT_PROPERTY);
+        if (port == null) return null;
+
+        String host = System.getProperty(HOST_PROPERTY, InetAddress.getLoopbackAddress().getHostAddress());
+        SensorIngestServer server = new SensorIngestServer();
+        try {
+            server.start(new InetSocketAddress(host, port));
+            return server;
+        } catch (IOException e) {
+            Log.error("❌ Sensor ingestion could not bind " + host + ":" + port + " — " + e.getMessage());
+            server.close();
+            return null;
+        }
+    }
+
+    // 🔌 Bind TCP, then UDP on the same port number (port 0 picks a free one)
+    public synchronized void start(InetSocketAddress address) throws IOException {
+        if (running) return;
+
+        selector = Selector.open();
+        tcp = ServerSocketChannel.open();
+        tcp.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        tcp.bind(address);
+        tcp.configureBlocking(false);
+        tcp.register(selector, SelectionKey.OP_ACCEPT);
+
+        udp = DatagramChannel.open();
+        udp.setOption(StandardSocketOptions.SO_RCVBUF, 1 << 20);
+        udp.bind(new InetSocketAddress(address.getAddress(), getPort()));
+        udp.configureBlocking(false);
+        udp.register(selector, SelectionKey.OP_READ);
+
+        running = true;
+        loop = new Thread(this::runLoop, "Sensor-Ingest");
+        loop.setDaemon(true);
+        loop.start();
+        Log.info("📡 Sensor ingestion listening on " + tcp.getLocalAddress() + " (tcp+udp)");
+    }
+
+    public int getPort() {
+        return tcp.socket().getLocalPort();
+    }
+
+    private void runLoop() {
+        while (running) {
+            try {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else if (key.channel() == udp) {
+                        readDatagrams();
+                    } else if (key.isReadable()) {
+                        readStream(key);
+                    }
+                }
+            } catch (ClosedSelectorException e) {
+                return;
+            } catch (IOException e) {
+                Log.warn("⚠️ Sensor ingestion loop: " + e.getMessage());
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = tcp.accept();
+        if (channel == null) return;
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        channel.register(selector, SelectionKey.OP_READ, ByteBuffer.allocateDirect(BUFFER_SIZE));
+        connections.incrementAndGet();
+    }
+
+    private void readStream(SelectionKey key) {
+        SocketChannel channel = (SocketChannel) key.channel();
+        ByteBuffer buf = (ByteBuffer) key.attachment();
+        try {
+            int read = channel.read(buf);
+            buf.flip();
+            ReadingDecoder.decode(buf, read < 0, handler);
+
+            if (read < 0) {
+                close(key);
+                return;
+            }
+            if (buf.position() == 0 && buf.limit() == buf.capacity()) {
+                malformed.incrementAndGet(); // a single line filled the whole buffer — drop it
+                buf.clear();
+            } else {
+                buf.compact();
+            }
+        } catch (IOException e) {
+            close(key);
+        }
+    }
+
+    private void readDatagrams() throws IOException {
+        while (true) {
+            datagram.clear();
+            if (udp.receive(datagram) == null) return;
+            datagram.flip();
+            ReadingDecoder.decode(datagram, true, handler);
+        }
+    }
+
+    private void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+        }
+        connections.decrementAndGet();
+    }
+
+    // 🔎 Rebuild the ID table only when the registry changed (version read first, so a change during the rebuild
+    // is picked up by the next reading); added, removed and replaced sensors are all seen
+    private Sensor lookup(ByteBuffer buf, int from, int to) {
+        long version = sensorsVersion.getAsLong();
+        if (version != tableVersion) {
+            table = new SensorIdTable(sensors.get());
+            tableVersion = version;
+        }
+        return table.find(buf, from, to);
+    }
+
+    // One instance for the server's lifetime — the selector thread is the only caller
+    private final class Dispatcher implements ReadingDecoder.Handler {
+        @Override
+        public void reading(ByteBuffer buf, int idFrom, int idTo, long timestampMs, double value) {
+            Sensor sensor = lookup(buf, idFrom, idTo);
+            if (sensor == null) {
+                unknown.incrementAndGet();
+                return;
+            }
+            try {
+                sensor.acceptReading(timestampMs == ReadingDecoder.NO_TIMESTAMP ? clock.millis() : timestampMs, value);
+                accepted.incrementAndGet();
+            } catch (RuntimeException e) {
+                Log.error("❌ Ingested reading failed for " + sensor.getSensorId() + ": " + e.getMessage());
+            }
+        }
+
+        @Override
+        public void malformed() {
+            malformed.incrementAndGet();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        try {
+            if (selector != null) {
+                selector.wakeup();
+                if (loop != null) loop.join(2_000);
+                for (SelectionKey key : selector.keys()) {
+                    key.channel().close();
+                }
+                selector.close();
+                connections.set(0);
+            }
+            if (tcp != null) tcp.close();
+            if (udp != null) udp.close();
+        } catch (IOException e) {
+            Log.warn("⚠️ Closing sensor ingestion: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 🧠 Diagnostics
+    public void logSnapshot() {
+        Log.info(String.format("📡 Ingestion → accepted=%d malformed=%d unknown=%d connections=%d",
+                accepted.get(), malformed.get(), unknown.get(), connections.get()));
+    }
+
+    public long getAcceptedCount() { return accepted.get(); }
+    public long getMalformedCount() { return malformed.get(); }
+    public long getUnknownSensorCount() { return unknown.get(); }
+    public long getConnectionCount() { return connections.get(); }
+}
@@ -0,0 +1,300 @@
+package storage;
+
+import devices.Device;
+import devices.DeviceDefaults;
+import devices.DeviceFactory;
+import devices.DeviceType;
+import devices.actions.ApprovedDeviceModel;
+import devices.actions.LiveDeviceState;
+import sensors.MeasurementUnit;
+import sensors.Sensor;
+import sensors.SensorFactory;
+import sensors.SensorType;
+import storage.xlc.nxl.DeviceWriteCoordinator;
+import utils.DeviceIdManager;
+import utils.Log;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * 📦 BulkImporter - provisions many devices and sensors from a CSV file in one go.
+ *
+ * <p>Every row is validated first (types, approved brand/model, numbers, unique names); if any row is
+ * rejected nothing is created. IDs are reserved per prefix in one step, devices are built without
+ * touching the workbook, and all Devices / Smart_Light_Control / Sensors rows are saved in a single write.
+ *
+ * <p>Header (case-insensitive, any order): {@code type,name,brand,model,auto_on,auto_off,auto_enabled,sensor_type,unit,value}.
+ * Device rows need type, name, brand and model; sensor rows use {@code type=SENSOR} plus sensor_type.
+ * Blank lines and lines starting with {@code #} are ignored.
+ */
+public final class BulkImporter {
+
+    private static final List<String> COLUMNS = List.of(
+            "type", "name", "brand", "model", "auto_on", "auto_off", "auto_enabled", "sensor_type", "unit", "value");
+
+    private BulkImporter() {
+    }
+
+    // 🧾 Outcome of an import — on any error both lists are empty and nothing was written
+    public record Result(List<Device> devices, List<Sensor> sensors, List<String> errors) {
+        public boolean isSuccess() {
+            return errors.isEmpty();
+        }
+    }
+
+    // One validated CSV line, waiting for its ID
+    private record DeviceRow(DeviceType type, String name, ApprovedDeviceModel model,
+                             double autoOn, double autoOff, boolean autoEnabled) {}
+
+    private record SensorRow(SensorType type, String name, MeasurementUnit unit, double value) {}
+
+    public static Result importCsv(Path file, Clock clock) {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importCsv(reader, clock);
+        } catch (IOException e) {
+            Log.error("❌ Bulk import failed to read " + file + ": " + e.getMessage());
+            return failed(List.of("Cannot read " + file + ": " + e.getMessage()));
+        }
+    }
+
+    public static Result importCsv(Reader reader, Clock clock) throws IOException {
+        List<String> errors = new ArrayList<>();
+        List<DeviceRow> deviceRows = new ArrayList<>();
+        List<SensorRow> sensorRows = new ArrayList<>();
+
+        parse(reader, deviceRows, sensorRows, errors);
+        if (!errors.isEmpty()) {
+            errors.forEach(e -> Log.warn("⚠️ Bulk import: " + e));
+            return failed(errors);
+        }
+        if (deviceRows.isEmpty() && sensorRows.isEmpty()) {
+            return failed(List.of("No device or sensor rows found"));
+        }
+
+        long started = System.nanoTime();
+        DeviceIdManager ids = DeviceIdManager.getInstance();
+        ids.addKnownIds(DeviceStorage.getDevices().keySet());
+        ids.addKnownIds(SensorStorage.getSensors().keySet());
+
+        // 🆔 One reservation per prefix instead of one allocation per row
+        Map<DeviceType, Iterator<String>> deviceIds = new EnumMap<>(DeviceType.class);
+        countBy(deviceRows, DeviceRow::type).forEach((type, count) ->
+                deviceIds.put(type, ids.reserveRangeForType(type, count).iterator()));
+        Map<SensorType, Iterator<String>> sensorIds = new EnumMap<>(SensorType.class);
+        countBy(sensorRows, SensorRow::type).forEach((type, count) ->
+                sensorIds.put(type, ids.reserveRangeForSensorType(type, count).iterator()));
+
+        List<Device> devices = new ArrayList<>(deviceRows.size());
+        List<Sensor> sensors = new ArrayList<>(sensorRows.size());
+        try {
+            for (DeviceRow row : deviceRows) {
+                devices.add(DeviceFactory.createImportedDevice(row.type(), deviceIds.get(row.type()).next(), row.name(),
+                        clock, row.model(), row.autoOn(), row.autoOff(), row.autoEnabled()));
+            }
+            for (SensorRow row : sensorRows) {
+                sensors.add(SensorFactory.createSensor(row.type(), sensorIds.get(row.type()).next(), row.name(),
+                        row.unit(), row.value(), clock));
+            }
+        } catch (RuntimeException e) {
+            sensors.forEach(s -> SensorFactory.clearSensorById(s.getSensorId()));
+            Log.error("❌ Bulk import aborted: " + e.getMessage());
+            return failed(List.of(e.getMessage()));
+        }
+
+        // 💾 Single workbook commit for every row
+        if (!DeviceWriteCoordinator.writeBatchToWorkbook(devices, sensors)) {
+            sensors.forEach(s -> SensorFactory.clearSensorById(s.getSensorId()));
+            return failed(List.of("Workbook write failed — nothing was imported"));
+        }
+
+        for (Device device : devices) {
+            DeviceStorage.getDevices().put(device.getId(), device);
+            LiveDeviceState.turnOff(device);
+        }
+        for (Sensor sensor : sensors) {
+            SensorStorage.addSensor(sensor.getSensorId(), sensor);
+        }
+
+        Log.info("📦 Bulk import: " + devices.size() + " device(s), " + sensors.size() + " sensor(s) in "
+                + (System.nanoTime() - started) / 1_000_000 + " ms");
+        return new Result(List.copyOf(devices), List.copyOf(sensors), List.of());
+    }
+
+    // 🔍 Read and validate every line; rows are only collected, nothing is created here
+    private static void parse(Reader reader, List<DeviceRow> deviceRows, List<SensorRow> sensorRows,
+                              List<String> errors) throws IOException {
+        BufferedReader in = reader instanceof BufferedReader br ? br : new BufferedReader(reader);
+
+        Set<String> names = new HashSet<>();
+        DeviceStorage.getDevices().values().forEach(d -> {
+            if (d.getName() != null) names.add(d.getName().trim().toLowerCase());
+        });
+        SensorStorage.getSensors().values().forEach(s -> {
+            if (s.getSensorName() != null) names.add(s.getSensorName().trim().toLowerCase());
+        });
+
+        Map<String, Integer> header = null;
+        String line;
+        int lineNo = 0;
+        while ((line = in.readLine()) != null) {
+            lineNo++;
+            if (line.isBlank() || line.stripLeading().startsWith("#")) continue;
+
+            List<String> cells = splitCsv(line);
+            if (header == null) {
+                header = readHeader(cells, errors);
+                if (header == null) return;
+                continue;
+            }
+
+            Map<String, Integer> cols = header;
+            Function<String, String> cell = col -> {
+                Integer idx = cols.get(col);
+                return idx == null || idx >= cells.size() ? "" : cells.get(idx).trim();
+            };
+
+            String name = cell.apply("name");
+            if (name.isEmpty()) {
+                errors.add("line " + lineNo + ": name is required");
+                continue;
+            }
+            if (!names.add(name.toLowerCase())) {
+                errors.add("line " + lineNo + ": name already in use → " + name);
+                continue;
+            }
+
+            DeviceType type = DeviceType.fromString(cell.apply("type"));
+            if (type == DeviceType.UNKNOWN) {
+                errors.add("line " + lineNo + ": unknown type '" + cell.apply("type") + "'");
+            } else if (type == DeviceType.SENSOR) {
+                SensorRow row = readSensor(lineNo, name, cell, errors);
+                if (row != null) sensorRows.add(row);
+            } else {
+                DeviceRow row = readDevice(lineNo, type, name, cell, errors);
+                if (row != null) deviceRows.add(row);
+            }
+        }
+
+        if (header == null) errors.add("Missing header row");
+    }
+
+    private static Map<String, Integer> readHeader(List<String> cells, List<String> errors) {
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < cells.size(); i++) {
+            String col = cells.get(i).trim().toLowerCase().replace(' ', '_');
+            if (COLUMNS.contains(col)) header.put(col, i);
+        }
+        if (!header.containsKey("type") || !header.containsKey("name")) {
+            errors.add("Header must contain at least 'type' and 'name' columns");
+            return null;
+        }
+        return header;
+    }
+
+    private static DeviceRow readDevice(int lineNo, DeviceType type, String name,
+                                        Function<String, String> cell, List<String> errors) {
+        String brand = cell.apply("brand");
+        String model = cell.apply("model");
+        ApprovedDeviceModel approved = ApprovedDeviceModel.lookup(brand, model);
+        if (approved == null || approved.getDeviceType() != type) {
+            errors.add("line " + lineNo + ": " + brand + " / " + model + " is not an approved " + type);
+            return null;
+        }
+
+        Double autoOn = number(cell.apply("auto_on"), DeviceDefaults.getDefaultAutoOn(type));
+        Double autoOff = number(cell.apply("auto_off"), DeviceDefaults.getDefaultAutoOff(type));
+        if (autoOn == null || autoOff == null) {
+            errors.add("line " + lineNo + ": auto_on / auto_off must be numbers");
+            return null;
+        }
+
+        String enabled = cell.apply("auto_enabled");
+        boolean autoEnabled = "1".equals(enabled) || "true".equalsIgnoreCase(enabled);
+        return new DeviceRow(type, name, approved, autoOn, autoOff, autoEnabled);
+    }
+
+    private static SensorRow readSensor(int lineNo, String name,
+                                        Function<String, String> cell, List<String> errors) {
+        SensorType type;
+        try {
+            type = SensorType.valueOf(cell.apply("sensor_type").toUpperCase().replace(' ', '_'));
+        } catch (IllegalArgumentException e) {
+            errors.add("line " + lineNo + ": unknown sensor_type '" + cell.apply("sensor_type") + "'");
+            return null;
+        }
+
+        String unitText = cell.apply("unit");
+        MeasurementUnit unit = unitText.isEmpty()
+                ? MeasurementUnit.fromString(type.getDefaultUnit())
+                : MeasurementUnit.fromString(unitText);
+        if (!unitText.isEmpty() && unit == MeasurementUnit.UNKNOWN) {
+            errors.add("line " + lineNo + ": unknown unit '" + unitText + "'");
+            return null;
+        }
+
+        Double value = number(cell.apply("value"), type.getDefaultValue());
+        if (value == null) {
+            errors.add("line " + lineNo + ": value must be a number");
+            return null;
+        }
+        return new SensorRow(type, name, unit, value);
+    }
+
+    // Blank → fallback, unparsable → null
+    private static Double number(String text, double fallback) {
+        if (text.isEmpty()) return fallback;
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // ✂️ Comma split with "quoted, fields" and "" escapes
+    static List<String> splitCsv(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        cells.add(current.toString());
+        return cells;
+    }
+
+    private static <R, K extends Enum<K>> Map<K, Integer> countBy(List<R> rows, Function<R, K> key) {
+        Map<K, Integer> counts = new LinkedHashMap<>();
+        for (R row : rows) counts.merge(key.apply(row), 1, Integer::sum);
+        return counts;
+    }
+
+    private static Result failed(List<String> errors) {
+        return new Result(List.of(), List.of(), List.copyOf(errors));
+    }
+}
@@ -2,7 +2,27 @@ package storage;
 
 import devices.Device;
 
+import java.util.Collection;
+
 public interface DevicePersistence {
     boolean updateDevice(Device device);
     boolean removeSensorLink(String deviceId);
+
+    // 🗑️ Forget a deleted device — drop anything queued for it, then delete its stored row
+    default boolean removeDevice(String deviceId) {
+        return true;
+    }
+
+    // 📦 Batched write — backends that can commit many rows at once should override this
+    default boolean updateDevices(Collection<Device> devices) {
+        boolean success = true;
+        for (Device device : devices) {
+            success &= updateDevice(device);
+        }
+        return success;
+    }
+
+    // 💾 Push any pending writes to the backing store (no-op for write-through backends)
+    default void flush() {
+    }
 }
@@ -0,0 +1,307 @@
+package storage;
+
+import devices.Device;
+import devices.DeviceEvents;
+import devices.DeviceType;
+import sensors.Sensor;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 🗂️ Thread-safe device map with secondary indexes by {@link DeviceType}, by linked sensor
+ * (a {@link SensorLinkIndex}, both directions) and by automation flag. Reads are lock-free; every write
+ * (put/remove/reindex) updates the primary map and all indexes under one lock, so a completed write is
+ * visible consistently everywhere.
+ * Adds, removals and clears are announced on {@link DeviceEvents} once the write is done.
+ * <p>
+ * It is still a {@code Map<String, Device>} — existing callers that put/remove through
+ * {@link DeviceStorage#getDevices()} keep the indexes correct without changes.
+ */
+public class DeviceRegistry extends AbstractMap<String, Device> implements ConcurrentMap<String, Device> {
+
+    // 🏷️ Where a device currently sits in the secondary indexes
+    private record IndexKeys(DeviceType type, boolean automation) {
+        static IndexKeys of(Device device) {
+            return new IndexKeys(device.getType(), device.isAutomationEnabled());
+        }
+    }
+
+    private final ConcurrentHashMap<String, Device> devices = new ConcurrentHashMap<>();
+    private final Map<String, IndexKeys> indexed = new HashMap<>(); // guarded by writeLock
+
+    private final ConcurrentHashMap<DeviceType, ConcurrentSkipListMap<String, Device>> byType = new ConcurrentHashMap<>();
+    private final SensorLinkIndex links = new SensorLinkIndex();
+    private final ConcurrentSkipListMap<String, Device> automationEnabled = new ConcurrentSkipListMap<>();
+
+    private final Object writeLock = new Object();
+
+    // ─── 🔍 Indexed lookups ───
+
+    // Sorted by device ID
+    public List<Device> getByType(DeviceType type) {
+        ConcurrentSkipListMap<String, Device> bucket = byType.get(type);
+        return bucket == null ? List.of() : new ArrayList<>(bucket.values());
+    }
+
+    // Sorted by device ID, merged across the requested types
+    public List<Device> getByTypes(DeviceType... types) {
+        if (types.length == 1) return getByType(types[0]);
+
+        TreeMap<String, Device> merged = new TreeMap<>();
+        for (DeviceType type : new HashSet<>(Arrays.asList(types))) {
+            ConcurrentSkipListMap<String, Device> bucket = byType.get(type);
+            if (bucket != null) merged.putAll(bucket);
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    // Sorted by device ID
+    public List<Device> getLinkedTo(String sensorId) {
+        List<Device> linked = new ArrayList<>();
+        for (String id : links.getDeviceIds(sensorId)) {
+            Device device = devices.get(id);
+            if (device != null) linked.add(device);
+        }
+        return linked;
+    }
+
+    public Device getFirstLinkedTo(String sensorId) {
+        for (String id : links.getDeviceIds(sensorId)) {
+            Device device = devices.get(id);
+            if (device != null) return device;
+        }
+        return null;
+    }
+
+    public SensorLinkIndex getLinkIndex() {
+        return links;
+    }
+
+    public List<Device> getAutomationEnabled() {
+        return new ArrayList<>(automationEnabled.values());
+    }
+
+    // 🔁 Re-file a device after its link or automation flag changed
+    public void reindex(Device device) {
+        if (device == null || device.getId() == null) return;
+        synchronized (writeLock) {
+            if (devices.get(device.getId()) != device) return; // not the registered instance
+            unindex(device.getId());
+            index(device);
+        }
+    }
+
+    // ─── 🗺️ Map contract ───
+
+    @Override
+    public Device get(Object key) {
+        return key == null ? null : devices.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key != null && devices.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return devices.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return devices.isEmpty();
+    }
+
+    // 📣 Every mutator changes the maps under writeLock and publishes only after releasing it,
+    // so listeners never run inside the registry's lock (they may read the registry back)
+
+    @Override
+    public Device put(String id, Device device) {
+        Objects.requireNonNull(id, "device ID");
+        Objects.requireNonNull(device, "device");
+        Device previous;
+        synchronized (writeLock) {
+            previous = putLocked(id, device);
+        }
+        announcePut(id, device, previous);
+        return previous;
+    }
+
+    @Override
+    public Device putIfAbsent(String id, Device device) {
+        Objects.requireNonNull(id, "device ID");
+        Objects.requireNonNull(device, "device");
+        synchronized (writeLock) {
+            Device existing = devices.get(id);
+            if (existing != null) return existing;
+            putLocked(id, device);
+        }
+        announcePut(id, device, null);
+        return null;
+    }
+
+    @Override
+    public Device remove(Object key) {
+        if (key == null) return null;
+        Device removed;
+        synchronized (writeLock) {
+            removed = removeLocked((String) key);
+        }
+        announceRemove((String) key, removed);
+        return removed;
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (key == null) return false;
+        Device removed;
+        synchronized (writeLock) {
+            if (!Objects.equals(devices.get(key), value)) return false;
+            removed = removeLocked((String) key);
+        }
+        announceRemove((String) key, removed);
+        return true;
+    }
+
+    @Override
+    public boolean replace(String key, Device oldValue, Device newValue) {
+        Objects.requireNonNull(newValue, "device");
+        Device previous;
+        synchronized (writeLock) {
+            if (!Objects.equals(devices.get(key), oldValue)) return false;
+            previous = putLocked(key, newValue);
+        }
+        announcePut(key, newValue, previous);
+        return true;
+    }
+
+    @Override
+    public Device replace(String key, Device value) {
+        Objects.requireNonNull(value, "device");
+        Device previous;
+        synchronized (writeLock) {
+            if (!devices.containsKey(key)) return null;
+            previous = putLocked(key, value);
+        }
+        announcePut(key, value, previous);
+        return previous;
+    }
+
+    // Caller holds writeLock
+    private Device putLocked(String id, Device device) {
+        Device previous = devices.put(id, device);
+        unindex(id);
+        index(id, device);
+        return previous;
+    }
+
+    // Caller holds writeLock
+    private Device removeLocked(String id) {
+        Device removed = devices.remove(id);
+        if (removed != null) unindex(id);
+        return removed;
+    }
+
+    private static void announcePut(String id, Device device, Device previous) {
+        if (previous != device) DeviceEvents.publish(DeviceEvents.Kind.DEVICE_ADDED, id, device.getType());
+    }
+
+    private static void announceRemove(String id, Device removed) {
+        if (removed != null) DeviceEvents.publish(DeviceEvents.Kind.DEVICE_REMOVED, id, removed.getType());
+    }
+
+    @Override
+    public void clear() {
+        synchronized (writeLock) {
+            devices.clear();
+            indexed.clear();
+            byType.clear();
+            links.clear();
+            automationEnabled.clear();
+        }
+        DeviceEvents.publish(DeviceEvents.Kind.RESET, null);
+    }
+
+    @Override
+    public Set<Entry<String, Device>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Device>> iterator() {
+                Iterator<Entry<String, Device>> it = devices.entrySet().iterator();
+                return new Iterator<>() {
+                    private Entry<String, Device> current;
+
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, Device> next() {
+                        current = it.next();
+                        return new SimpleImmutableEntry<>(current);
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (current == null) throw new IllegalStateException();
+                        DeviceRegistry.this.remove(current.getKey(), current.getValue());
+                        current = null;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return devices.size();
+            }
+        };
+    }
+
+    // ─── 🔧 Index maintenance (callers hold writeLock) ───
+
+    private void index(Device device) {
+        index(device.getId(), device);
+    }
+
+    private void index(String id, Device device) {
+        IndexKeys keys = IndexKeys.of(device);
+        indexed.put(id, keys);
+        if (keys.type() != null) {
+            byType.computeIfAbsent(keys.type(), t -> new ConcurrentSkipListMap<>()).put(id, device);
+        }
+        links.link(id, linkedSensorId(device));
+        if (keys.automation()) {
+            automationEnabled.put(id, device);
+        }
+    }
+
+    private void unindex(String id) {
+        IndexKeys keys = indexed.remove(id);
+        if (keys == null) return;
+        if (keys.type() != null) {
+            removeFromBucket(byType, keys.type(), id);
+        }
+        links.unlink(id);
+        automationEnabled.remove(id);
+    }
+
+    // The Sens_Ctrl sensor ID wins; fall back to the in-memory sensor reference
+    private static String linkedSensorId(Device device) {
+        String sensorId = device.getAutomationSensorId();
+        if (sensorId != null && !sensorId.isBlank()) return sensorId;
+        Sensor linked = device.getLinkedSensor();
+        return linked != null ? linked.getSensorId() : null;
+    }
+
+    private static <K> void removeFromBucket(ConcurrentHashMap<K, ConcurrentSkipListMap<String, Device>> index, K key, String id) {
+        ConcurrentSkipListMap<String, Device> bucket = index.get(key);
+        if (bucket == null) return;
+        bucket.remove(id);
+        if (bucket.isEmpty()) index.remove(key, bucket);
+    }
+}
@@ -1,22 +1,47 @@
 package storage;
 
 import devices.Device;
+import devices.DeviceType;
 import devices.SmartLight;
 import devices.actions.DeviceAction;
-import sensors.Sensor;
+import storage.journal.JournalDevicePersistence;
 import storage.xlc.XlDeviceManager;
 import ui.gui.managers.GuiStateManager;
+import utils.DeviceIdManager;
+import utils.Log;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class DeviceStorage {
 
-    // 🔧 Static storage for all devices
-    private static final Map<String, Device> devices = new HashMap<>();
+    // 🔧 Static storage for all devices (concurrent, indexed by type / linked sensor / automation)
+    private static final DeviceRegistry devices = new DeviceRegistry();
 
     // 🔧 Track active threads (if any)
-    private static final List<Thread> deviceThreads = new ArrayList<>();
-    private static final DevicePersistence persistence = new ExcelDevicePersistence();
+    private static final List<Thread> deviceThreads = new CopyOnWriteArrayList<>();
+    // 🗄️ Backend chosen by -Dphoenix.storage=excel|journal (Excel write-behind by default)
+    public static final String STORAGE_PROPERTY = "phoenix.storage";
+    private static final DevicePersistence persistence = createPersistence();
+
+    // 📦 Devices changed inside runBatched() on this thread — the batch owner persists them in one go
+    private static final ThreadLocal<Set<Device>> batchScope = new ThreadLocal<>();
+
+    private static DevicePersistence createPersistence() {
+        if ("journal".equalsIgnoreCase(System.getProperty(STORAGE_PROPERTY))) {
+            try {
+                return JournalDevicePersistence.openDefault();
+            } catch (IOException e) {
+                Log.error("❌ Journal storage unavailable, falling back to Excel: " + e.getMessage());
+            }
+        }
+
+        // 🕰️ State toggles are coalesced and written to Excel in batches (-Dphoenix.writebehind.flushMs / batchSize)
+        WriteBehindDevicePersistence excel = WriteBehindDevicePersistence.fromProperties(new ExcelDevicePersistence());
+        excel.start();
+        return excel;
+    }
 
     // 🧪 Clear in-memory state for clean test execution
     public static void clear() {
@@ -48,15 +73,21 @@ public class DeviceStorage {
                 continue;
             }
 
-            System.out.println("🧠 Automation state for " + device.getId() + " → " + device.isAutomationEnabled());
+            Log.debug("🧠 Automation state for {} → {}", device.getId(), device.isAutomationEnabled());
+        }
+
+        // 📒 Journal backend: the log is authoritative for state recorded since the last export
+        if (persistence instanceof JournalDevicePersistence journal) {
+            journal.restoreInto(devices);
         }
 
+        // 🆔 Known IDs are registered once here; allocation afterwards is counter-only
+        DeviceIdManager.getInstance().addKnownIds(devices.keySet());
+
         System.out.println("📦 Successfully loaded " + devices.size() + " devices into memory.");
         ExcelDevicePersistence.setInitFlag(false);
 
-        // 🔁 Refresh GUI again just to be safe
-        GuiStateManager.refreshDeviceMatrix();
-        // 🔁 Refresh GUI again just to be safe
+        // 🔁 One matrix build for the loaded set; later changes reach the GUI as DeviceEvents
         syncGuiWithMemory();
     }
     public static void syncGuiWithMemory() {
@@ -72,6 +103,16 @@ public class DeviceStorage {
         return devices.get(id);
     }
 
+    // 🗑️ Drop a deleted device from memory, then from the persistence backend (queued writes and its row)
+    public static boolean removeDevice(String id) {
+        devices.remove(id);
+        boolean removed = persistence.removeDevice(id);
+        if (!removed) {
+            Log.warn("⚠️ Backend kept a record of removed device " + id);
+        }
+        return removed;
+    }
+
     // 🚪 Expose all devices
     public static Map<String, Device> getDevices() {
         return devices;
@@ -109,10 +150,16 @@ public class DeviceStorage {
         device.setState(turnOn ? DeviceAction.ON.name() : DeviceAction.OFF.name());
         devices.put(device.getId(), device);
 
-        System.out.printf("🔄 Power toggled for '%s' → %s%n", device.getName(), turnOn ? "ON" : "OFF");
+        Log.info("🔄 Power toggled for '{}' → {}", device.getName(), turnOn ? "ON" : "OFF");
     }
 
     public static void updateDeviceExcelState(Device device) {
+        Set<Device> batch = batchScope.get();
+        if (batch != null) {
+            batch.add(device); // written by persistBatch() once the whole batch has run
+            return;
+        }
+
         boolean success = persistence.updateDevice(device);
 
         if (!success) {
@@ -120,6 +167,39 @@ public class DeviceStorage {
         }
     }
 
+    // 📦 Run work with per-device writes collected into 'touched' instead of persisted one by one
+    public static void runBatched(Set<Device> touched, Runnable work) {
+        Set<Device> outer = batchScope.get();
+        batchScope.set(touched);
+        try {
+            work.run();
+        } finally {
+            if (outer == null) {
+                batchScope.remove();
+            } else {
+                batchScope.set(outer);
+            }
+        }
+    }
+
+    // 💾 One batched write plus flush for everything a batch touched
+    public static boolean persistBatch(Collection<Device> touched) {
+        if (touched.isEmpty()) return true;
+
+        boolean success = persistence.updateDevices(touched);
+        persistence.flush();
+
+        if (!success) {
+            System.err.println("🚨 Excel update failed for a batch of " + touched.size() + " device(s).");
+        }
+        return success;
+    }
+
+    // 💾 Force pending device writes out now (e.g. before a reload or exit)
+    public static void flushPersistence() {
+        persistence.flush();
+    }
+
     public static List<Thread> getDeviceThreads() {
         return deviceThreads;
     }
@@ -145,6 +225,7 @@ public class DeviceStorage {
     }
 
     public static void reloadFromExcel() {
+        flushPersistence(); // Don't read back rows that still have queued changes
         List<Device> loadedDevices = XlCreator.loadDevicesFromExcel();
 
         if (loadedDevices == null) {
@@ -181,20 +262,45 @@ public class DeviceStorage {
 
         if (saved) {
             reloadFromExcel();
-            System.out.println("🔁 Memory updated with device: " + device.getId());
+            Log.debug("🔁 Memory updated with device: {}", device.getId());
         } else {
             System.err.println("❌ Failed to update Excel with device: " + device.getId());
         }
     }
 
+    // 🔗 Link index lookups (both directions)
     public static Device getLinkedDevice(String sensorId) {
-        for (Device device : devices.values()) {
-            Sensor linkedSensor = device.getLinkedSensor();
-            if (linkedSensor != null && linkedSensor.getSensorId().equalsIgnoreCase(sensorId)) {
-                return device;
-            }
-        }
-        return null;
+        return devices.getFirstLinkedTo(sensorId);
+    }
+
+    public static List<Device> getLinkedDevices(String sensorId) {
+        return devices.getLinkedTo(sensorId);
+    }
+
+    public static Set<String> getLinkedDeviceIds(String sensorId) {
+        return devices.getLinkIndex().getDeviceIds(sensorId);
+    }
+
+    public static String getLinkedSensorId(String deviceId) {
+        return devices.getLinkIndex().getSensorId(deviceId);
+    }
+
+    // 🗂️ Indexed views — sorted by device ID
+    public static List<Device> getDevicesByType(DeviceType type) {
+        return devices.getByType(type);
+    }
+
+    public static List<Device> getDevicesByTypes(DeviceType... types) {
+        return devices.getByTypes(types);
+    }
+
+    public static List<Device> getAutomationEnabledDevices() {
+        return devices.getAutomationEnabled();
+    }
+
+    // 🔁 Called by Device when its link or automation flag changes
+    public static void reindex(Device device) {
+        devices.reindex(device);
     }
 
     // 🧘 Calm pass-through to DeviceAction
@@ -3,6 +3,8 @@ package storage;
 import devices.Device;
 import utils.Log;
 
+import java.util.Collection;
+
 public class ExcelDevicePersistence implements DevicePersistence {
 
     private static boolean systemInitializing = true;
@@ -21,9 +23,24 @@ public class ExcelDevicePersistence implements DevicePersistence {
         return XlCreator.delegateDeviceUpdate(device); // Already wrapped internally
     }
 
+    @Override
+    public boolean updateDevices(Collection<Device> devices) {
+        if (systemInitializing) {
+            Log.debug("🛡️ Skipping batched Excel write during system initialization.");
+            return true;
+        }
+
+        return XlCreator.delegateDeviceUpdates(devices); // One workbook write for the whole batch
+    }
+
     @Override
     public boolean removeSensorLink(String deviceId) {
         XlCreator.removeSensorLink(deviceId); // void method
         return true; // fudge a success return value
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean removeDevice(String deviceId) {
+        return XlCreator.removeDevice(deviceId);
+    }
+}
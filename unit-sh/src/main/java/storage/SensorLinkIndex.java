@@ -0,0 +1,76 @@
+package storage;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * 🔗 Bidirectional sensor ↔ device link index by ID: sensor → every linked device, device → its one sensor.
+ * Both directions change together under one lock; lookups are lock-free and return live read-only views.
+ * Sensor IDs are matched case-insensitively, as the Sens_Ctrl sheet has never been strict about case.
+ */
+public class SensorLinkIndex {
+
+    private final Map<String, NavigableSet<String>> devicesBySensor = new ConcurrentHashMap<>(); // key: upper-cased sensor ID
+    private final Map<String, String> sensorByDevice = new ConcurrentHashMap<>();
+
+    // ➕ Link (or move) a device to a sensor; a null sensor ID unlinks
+    public synchronized void link(String deviceId, String sensorId) {
+        if (deviceId == null) return;
+        if (sensorId == null || sensorId.isBlank()) {
+            unlink(deviceId);
+            return;
+        }
+
+        String previous = sensorByDevice.put(deviceId, sensorId);
+        if (previous != null && !key(previous).equals(key(sensorId))) {
+            removeFromSensor(previous, deviceId);
+        }
+        devicesBySensor.computeIfAbsent(key(sensorId), k -> new ConcurrentSkipListSet<>()).add(deviceId);
+    }
+
+    // ➖ Drop whatever link the device has
+    public synchronized void unlink(String deviceId) {
+        if (deviceId == null) return;
+        String previous = sensorByDevice.remove(deviceId);
+        if (previous != null) {
+            removeFromSensor(previous, deviceId);
+        }
+    }
+
+    public synchronized void clear() {
+        devicesBySensor.clear();
+        sensorByDevice.clear();
+    }
+
+    // 🔍 Device IDs linked to a sensor, sorted (empty if none)
+    public Set<String> getDeviceIds(String sensorId) {
+        if (sensorId == null) return Set.of();
+        NavigableSet<String> ids = devicesBySensor.get(key(sensorId));
+        return ids == null ? Set.of() : Collections.unmodifiableNavigableSet(ids);
+    }
+
+    // 🔍 Sensor a device is linked to (null if none)
+    public String getSensorId(String deviceId) {
+        return deviceId == null ? null : sensorByDevice.get(deviceId);
+    }
+
+    public boolean isLinked(String deviceId) {
+        return deviceId != null && sensorByDevice.containsKey(deviceId);
+    }
+
+    private void removeFromSensor(String sensorId, String deviceId) {
+        String key = key(sensorId);
+        NavigableSet<String> ids = devicesBySensor.get(key);
+        if (ids == null) return;
+        ids.remove(deviceId);
+        if (ids.isEmpty()) devicesBySensor.remove(key, ids);
+    }
+
+    private static String key(String sensorId) {
+        return sensorId.trim().toUpperCase();
+    }
+}
@@ -0,0 +1,135 @@
+package storage;
+
+import sensors.Sensor;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 🗂️ Thread-safe sensor map that counts its own changes. Every put, remove or clear that actually changes
+ * the map bumps {@link #getVersion()}, so caches built from the sensor set (e.g. the ingest ID table) can tell
+ * they are stale with one volatile read instead of re-scanning.
+ * <p>
+ * It is still a {@code Map<String, Sensor>} — callers that put/remove through {@link SensorStorage#getSensors()}
+ * keep the version correct without changes.
+ */
+public class SensorRegistry extends AbstractMap<String, Sensor> implements ConcurrentMap<String, Sensor> {
+
+    private final ConcurrentHashMap<String, Sensor> sensors = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    // ─── 🗺️ Map contract ───
+
+    @Override
+    public Sensor get(Object key) {
+        return key == null ? null : sensors.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key != null && sensors.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return sensors.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return sensors.isEmpty();
+    }
+
+    @Override
+    public Sensor put(String id, Sensor sensor) {
+        Objects.requireNonNull(id, "sensor ID");
+        Objects.requireNonNull(sensor, "sensor");
+        Sensor previous = sensors.put(id, sensor);
+        if (previous != sensor) version.incrementAndGet();
+        return previous;
+    }
+
+    @Override
+    public Sensor putIfAbsent(String id, Sensor sensor) {
+        Sensor existing = sensors.putIfAbsent(id, sensor);
+        if (existing == null) version.incrementAndGet();
+        return existing;
+    }
+
+    @Override
+    public Sensor remove(Object key) {
+        if (key == null) return null;
+        Sensor removed = sensors.remove(key);
+        if (removed != null) version.incrementAndGet();
+        return removed;
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (key == null || value == null || !sensors.remove(key, value)) return false;
+        version.incrementAndGet();
+        return true;
+    }
+
+    @Override
+    public boolean replace(String key, Sensor oldValue, Sensor newValue) {
+        if (!sensors.replace(key, oldValue, newValue)) return false;
+        if (oldValue != newValue) version.incrementAndGet();
+        return true;
+    }
+
+    @Override
+    public Sensor replace(String key, Sensor value) {
+        Sensor previous = sensors.replace(key, value);
+        if (previous != null && previous != value) version.incrementAndGet();
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        sensors.clear();
+        version.incrementAndGet();
+    }
+
+    @Override
+    public Set<Entry<String, Sensor>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Sensor>> iterator() {
+                Iterator<Entry<String, Sensor>> it = sensors.entrySet().iterator();
+                return new Iterator<>() {
+                    private Entry<String, Sensor> current;
+
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, Sensor> next() {
+                        current = it.next();
+                        return new SimpleImmutableEntry<>(current);
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (current == null) throw new IllegalStateException();
+                        SensorRegistry.this.remove(current.getKey(), current.getValue());
+                        current = null;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return sensors.size();
+            }
+        };
+    }
+}
@@ -1,31 +1,27 @@
 package storage;
 
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import sensors.MeasurementUnit;
 import sensors.Sensor;
 import sensors.SensorFactory;
 import sensors.SensorType;
+import storage.xlc.XlRow;
+import storage.xlc.XlStreamingLoader;
 import storage.xlc.sheetsCommand.SensorSheetCommand;
 import utils.ClockUtil;
 import utils.Log;
-import utils.XlUtils;
 
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.time.Clock;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
-import static storage.xlc.XlWorkbookUtils.getFilePath;
 
 public class SensorStorage {
 
-    private static final Map<String, Sensor> sensors = new HashMap<>();
+    private static final SensorRegistry sensors = new SensorRegistry();
     private static final String SHEET_SENSORS = "Sensors";
 
 
@@ -49,6 +45,11 @@ public class SensorStorage {
         return sensors;
     }
 
+    // 🔢 Bumped by every add / remove / replace / clear — cheap staleness check for caches of the sensor set
+    public static long getVersion() {
+        return sensors.getVersion();
+    }
+
     // 📦 Get unmodifiable view (for safe display)
     public static Map<String, Sensor> getUnmodifiableSensors() {
         return Collections.unmodifiableMap(sensors);
@@ -61,59 +62,78 @@ public class SensorStorage {
     public static void loadSensorsFromExcel() {
         Map<String, Sensor> existingSensors = getSensors(); // existing map
 
-        try (FileInputStream fis = new FileInputStream(getFilePath().toFile());
-             Workbook workbook = new XSSFWorkbook(fis)) {
-
-            Sheet sheet = workbook.getSheet(SHEET_SENSORS);
-            if (sheet == null) {
-                Log.warn("⚠️ Sheet 'Sensors' not found.");
-                return;
-            }
+        // 📖 Snapshot the rows first; sensors are updated outside the workbook lock
+        List<String[]> rows;
+        try {
+            rows = XlStreamingLoader.readSheet(SHEET_SENSORS, SensorStorage::readSensorRows);
+        } catch (IOException e) {
+            Log.error("❌ Failed to load sensors from Excel: " + e.getMessage());
+            return;
+        }
+        if (rows == null) {
+            Log.warn("⚠️ Sheet 'Sensors' not found.");
+            return;
+        }
 
-            Map<SensorSheetCommand, Integer> columnMap = SensorSheetCommand.getColumnMap();
-
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0) continue;
-
-                try {
-                    String typeStr  = XlUtils.getCellValue(row, columnMap.get(SensorSheetCommand.TYPE));
-                    String id       = XlUtils.getCellValue(row, columnMap.get(SensorSheetCommand.ID));
-                    String name     = XlUtils.getCellValue(row, columnMap.get(SensorSheetCommand.NAME));
-                    String unitStr  = XlUtils.getCellValue(row, columnMap.get(SensorSheetCommand.UNIT));
-                    String valueStr = XlUtils.getCellValue(row, columnMap.get(SensorSheetCommand.CURRENT_VALUE));
-
-                    SensorType type = SensorType.valueOf(typeStr.trim().toUpperCase());
-                    MeasurementUnit unit = MeasurementUnit.valueOf(unitStr.trim().toUpperCase());
-                    int value = (int) Double.parseDouble(valueStr);
-
-                    Sensor existing = existingSensors.get(id);
-
-                    if (existing != null) {
-                        // 🧠 Update existing sensor
-                        existing.setSensorName(name);
-                        if (!existing.getSensorType().equals(type)) {
-                            Log.warn("⚠️ Sensor type mismatch for ID " + id + ": existing=" + existing.getSensorType() + ", Excel=" + type);
-                        }
-                        existing.setUnit(unit);
-                        existing.setCurrentValue(value);
-                        Log.debug("🔄 Sensor updated: " + id);
-                    } else {
-                        // 🆕 Create new sensor
-                        Clock clock = ClockUtil.getClock();
-                        Sensor sensor = SensorFactory.createSensor(type, id, name, unit, value, clock);
-                        existingSensors.put(id, sensor);
-                        Log.debug("📥 Sensor loaded: " + id);
+        for (String[] r : rows) {
+            try {
+                String typeStr  = r[1];
+                String id       = r[2];
+                String name     = r[3];
+                String unitStr  = r[4];
+                String valueStr = r[5];
+
+                SensorType type = SensorType.valueOf(typeStr.trim().toUpperCase());
+                MeasurementUnit unit = MeasurementUnit.valueOf(unitStr.trim().toUpperCase());
+                int value = (int) Double.parseDouble(valueStr);
+
+                Sensor existing = existingSensors.get(id);
+
+                if (existing != null) {
+                    // 🧠 Update existing sensor
+                    existing.setSensorName(name);
+                    if (!existing.getSensorType().equals(type)) {
+                        Log.warn("⚠️ Sensor type mismatch for ID " + id + ": existing=" + existing.getSensorType() + ", Excel=" + type);
                     }
-
-                } catch (Exception e) {
-                    Log.warn("❌ Skipping invalid sensor row #" + row.getRowNum() + ": " + e.getMessage());
+                    existing.setUnit(unit);
+                    existing.setCurrentValue(value);
+                    Log.debug("🔄 Sensor updated: " + id);
+                } else {
+                    // 🆕 Create new sensor
+                    Clock clock = ClockUtil.getClock();
+                    Sensor sensor = SensorFactory.createSensor(type, id, name, unit, value, clock);
+                    existingSensors.put(id, sensor);
+                    Log.debug("📥 Sensor loaded: " + id);
                 }
+
+            } catch (Exception e) {
+                Log.warn("❌ Skipping invalid sensor row #" + r[0] + ": " + e.getMessage());
             }
+        }
+    }
 
-        } catch (IOException e) {
-            Log.error("❌ Failed to load sensors from Excel: " + e.getMessage());
+    // 🧾 [rowNum, TYPE, ID, NAME, UNIT, CURRENT_VALUE] per data row; null when the sheet is missing
+    private static List<String[]> readSensorRows(Iterable<XlRow> sheet) {
+        if (sheet == null) return null;
+
+        Map<SensorSheetCommand, Integer> columnMap = SensorSheetCommand.getColumnMap();
+        List<String[]> rows = new ArrayList<>();
+
+        for (XlRow row : sheet) {
+            if (row.getRowNum() == 0) continue;
+
+            rows.add(new String[]{
+                    String.valueOf(row.getRowNum()),
+                    row.text(columnMap.get(SensorSheetCommand.TYPE)),
+                    row.text(columnMap.get(SensorSheetCommand.ID)),
+                    row.text(columnMap.get(SensorSheetCommand.NAME)),
+                    row.text(columnMap.get(SensorSheetCommand.UNIT)),
+                    row.text(columnMap.get(SensorSheetCommand.CURRENT_VALUE))
+            });
         }
+        return rows;
     }
+
     public static Collection<Sensor> getAll() {
         return sensors.values();
     }
@@ -0,0 +1,191 @@
+package storage;
+
+import devices.Device;
+import utils.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 🕰️ Write-behind wrapper around another {@link DevicePersistence}.
+ * Device updates land in an in-memory dirty set (one entry per device ID, latest wins)
+ * and are pushed to the delegate as a single batch, either every flush interval or as soon
+ * as the dirty set reaches the flush threshold. A JVM shutdown hook performs the final flush.
+ * <p>
+ * The default backend reads both from {@code -Dphoenix.writebehind.flushMs} and
+ * {@code -Dphoenix.writebehind.batchSize} (see {@link #fromProperties}).
+ */
+public class WriteBehindDevicePersistence implements DevicePersistence {
+
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 2_000;
+    public static final int DEFAULT_FLUSH_THRESHOLD = 50;
+    public static final String FLUSH_INTERVAL_PROPERTY = "phoenix.writebehind.flushMs";
+    public static final String FLUSH_THRESHOLD_PROPERTY = "phoenix.writebehind.batchSize";
+
+    private final DevicePersistence delegate;
+    private final long flushIntervalMs;
+    private final int flushThreshold;
+
+    // 🧾 Pending writes, coalesced by device ID
+    private final Map<String, Device> dirtyDevices = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+    private final AtomicBoolean flushQueued = new AtomicBoolean(false);
+
+    private ScheduledExecutorService flusher;
+    private Thread shutdownHook;
+
+    public WriteBehindDevicePersistence(DevicePersistence delegate) {
+        this(delegate, DEFAULT_FLUSH_INTERVAL_MS, DEFAULT_FLUSH_THRESHOLD);
+    }
+
+    public WriteBehindDevicePersistence(DevicePersistence delegate, long flushIntervalMs, int flushThreshold) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("❌ Write-behind persistence needs a delegate.");
+        }
+        if (flushIntervalMs <= 0 || flushThreshold <= 0) {
+            throw new IllegalArgumentException("❌ Flush interval and threshold must be positive.");
+        }
+        this.delegate = delegate;
+        this.flushIntervalMs = flushIntervalMs;
+        this.flushThreshold = flushThreshold;
+    }
+
+    // 🏗️ Interval and batch size from system properties; a missing or non-positive value keeps the default
+    public static WriteBehindDevicePersistence fromProperties(DevicePersistence delegate) {
+        long intervalMs = Long.getLong(FLUSH_INTERVAL_PROPERTY, DEFAULT_FLUSH_INTERVAL_MS);
+        if (intervalMs <= 0) {
+            Log.warn("⚠️ Ignoring " + FLUSH_INTERVAL_PROPERTY + "=" + intervalMs + " — using " + DEFAULT_FLUSH_INTERVAL_MS + "ms");
+            intervalMs = DEFAULT_FLUSH_INTERVAL_MS;
+        }
+        int threshold = Integer.getInteger(FLUSH_THRESHOLD_PROPERTY, DEFAULT_FLUSH_THRESHOLD);
+        if (threshold <= 0) {
+            Log.warn("⚠️ Ignoring " + FLUSH_THRESHOLD_PROPERTY + "=" + threshold + " — using " + DEFAULT_FLUSH_THRESHOLD);
+            threshold = DEFAULT_FLUSH_THRESHOLD;
+        }
+        return new WriteBehindDevicePersistence(delegate, intervalMs, threshold);
+    }
+
+    // ▶️ Start the periodic flusher and register the shutdown flush
+    public synchronized void start() {
+        if (flusher != null) return;
+
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "DevicePersistence-Flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+
+        shutdownHook = new Thread(this::flushSafely, "DevicePersistence-ShutdownFlush");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+
+        Log.debug("🕰️ Write-behind persistence started (interval=" + flushIntervalMs
+                + "ms, threshold=" + flushThreshold + ")");
+    }
+
+    // ⏹️ Stop the flusher and write whatever is still pending
+    public synchronized void stop() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+            flusher = null;
+        }
+        if (shutdownHook != null) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException ignored) {
+                // JVM already shutting down — the hook is running right now
+            }
+            shutdownHook = null;
+        }
+        flushSafely();
+    }
+
+    @Override
+    public boolean updateDevice(Device device) {
+        if (device == null || device.getId() == null) {
+            Log.warn("⛔ Ignoring write-behind update for invalid device: " + device);
+            return false;
+        }
+
+        dirtyDevices.put(device.getId(), device);
+
+        if (dirtyDevices.size() >= flushThreshold) {
+            requestFlush();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean removeSensorLink(String deviceId) {
+        // 🔁 Land queued row updates first so the unlink is applied on top of them
+        flush();
+        return delegate.removeSensorLink(deviceId);
+    }
+
+    @Override
+    public boolean removeDevice(String deviceId) {
+        // 🔒 Under the flush lock: a running flush finishes first, and none can re-append the row once it is gone
+        synchronized (flushLock) {
+            dirtyDevices.remove(deviceId); // a queued write must not outlive the device
+            return delegate.removeDevice(deviceId);
+        }
+    }
+
+    @Override
+    public void flush() {
+        synchronized (flushLock) {
+            if (dirtyDevices.isEmpty()) return;
+
+            List<Device> batch = new ArrayList<>(dirtyDevices.size());
+            for (Map.Entry<String, Device> entry : dirtyDevices.entrySet()) {
+                // Only take the exact instance we saw — a newer update stays queued for the next round
+                if (dirtyDevices.remove(entry.getKey(), entry.getValue())) {
+                    batch.add(entry.getValue());
+                }
+            }
+            if (batch.isEmpty()) return;
+
+            boolean success = delegate.updateDevices(batch);
+
+            if (success) {
+                Log.debug("💾 Write-behind flush committed " + batch.size() + " device(s).");
+            } else {
+                // ♻️ Keep the failed rows unless a newer update replaced them meanwhile
+                batch.forEach(device -> dirtyDevices.putIfAbsent(device.getId(), device));
+                Log.error("🚨 Write-behind flush failed; " + batch.size() + " device(s) kept for retry.");
+            }
+        }
+    }
+
+    public int getPendingCount() {
+        return dirtyDevices.size();
+    }
+
+    private void requestFlush() {
+        ScheduledExecutorService executor = flusher;
+        if (executor == null) {
+            flushSafely(); // Not started (e.g. tests) → flush inline
+            return;
+        }
+        if (flushQueued.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                flushQueued.set(false);
+                flushSafely();
+            });
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            Log.error("💥 Write-behind flush crashed: " + e.getMessage());
+        }
+    }
+}
@@ -6,12 +6,12 @@ import devices.DeviceType;
 import devices.SmartLight;
 import devices.actions.LiveDeviceState;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.NumberToTextConverter;
 import sensors.Sensor;
 import storage.xlc.*;
 import storage.xlc.sheetsCommand.DeviceSheetCommand;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.time.Clock;
 import java.util.*;
@@ -49,7 +49,7 @@ public class XlCreator {
         List<Device> devices = new ArrayList<>();
         Set<String> seenIds = new HashSet<>();
 
-        File file = new File(config.SystemPaths.EXCEL_FILE_PATH);
+        File file = XlWorkbookUtils.getFilePath().toFile();
         System.out.println("📂 Reading Excel file from: " + file.getAbsolutePath());
 
         if (!file.exists()) {
@@ -57,64 +57,10 @@ public class XlCreator {
             return Collections.emptyList();
         }
 
-        try (FileInputStream fis = new FileInputStream(file);
-             Workbook workbook = WorkbookFactory.create(fis)) {
-
-            // 🎯 Load Devices sheet
-            Sheet sheet = workbook.getSheet("Devices");
-            if (sheet == null) {
-                System.err.println("🚫 Sheet 'Devices' not found! Available sheets:");
-                for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
-                    System.out.println("📄 Sheet[" + i + "]: " + workbook.getSheetName(i));
-                }
-                return Collections.emptyList();
-            }
-
-            // 📊 Map header columns
-            Map<DeviceSheetCommand, Integer> columnMap = getColumnIndexMap(sheet);
-            if (!columnMap.containsKey(DeviceSheetCommand.TYPE) || !columnMap.containsKey(DeviceSheetCommand.DEVICE_ID)) {
-                System.err.println("❌ Missing required columns in 'Devices' sheet.");
-                return Collections.emptyList();
-            }
-
-            // 🚦 Parse rows from Devices sheet
-            for (Row row : sheet) {
-                int rowIndex = row.getRowNum();
-                if (rowIndex == 0 || row == null) continue;
-
-                String typeStr = getCellValue(row, columnMap.get(DeviceSheetCommand.TYPE)).trim();
-                String rawId   = getCellValue(row, columnMap.get(DeviceSheetCommand.DEVICE_ID)).trim();
-
-                if (typeStr.isEmpty() || rawId.isEmpty()) {
-                    System.err.println("⚠️ Row " + rowIndex + " missing type or ID. Skipping.");
-                    continue;
-                }
-
-                DeviceType type = DeviceType.fromString(typeStr);
-                if (type == DeviceType.SMART_LIGHT) {
-                    System.out.println("🚫 Row " + rowIndex + " skipped (SmartLight handled separately).");
-                    continue;
-                }
-
-                if (seenIds.contains(rawId)) {
-                    System.err.println("❌ Duplicate ID found in row " + rowIndex + ": " + rawId);
-                    continue;
-                }
-
-                seenIds.add(rawId);
-
-                try {
-                    Device device = parseDeviceRow(row, columnMap);
-                    if (device != null) {
-                        devices.add(device);
-                        DeviceStorage.getDevices().put(device.getId(), device);
-                    } else {
-                        System.err.println("⚠️ Row " + rowIndex + " failed to create a device.");
-                    }
-                } catch (Exception ex) {
-                    System.err.println("🚫 Error parsing row " + rowIndex + ": " + ex.getMessage());
-                }
-            }
+        try {
+            List<Device> parsed = WorkbookSession.read(workbook -> readDevicesSheet(workbook, seenIds));
+            if (parsed == null) return Collections.emptyList();
+            devices.addAll(parsed);
 
             // 🌟 Load SmartLights from dedicated sheet
             Map<String, SmartLight> smartLights = XlSmartLightManager.loadSmartLights();
@@ -134,18 +80,75 @@ public class XlCreator {
             System.err.println("📛 Failed to read Excel file: " + e.getMessage());
         }
         // 🔁 Sync live state from loaded devices
-        devices.forEach(device -> {
-            if (device.isOn()) {
-                LiveDeviceState.turnOn(device);
-            } else {
-                LiveDeviceState.turnOff(device);
-            }
-        });
+        devices.forEach(LiveDeviceState::sync);
 
 
         return devices;
     }
 
+    // 📖 Parse the Devices sheet (SmartLights excluded) — runs under the session read lock
+    private static List<Device> readDevicesSheet(Workbook workbook, Set<String> seenIds) {
+        List<Device> parsed = new ArrayList<>();
+
+        // 🎯 Load Devices sheet
+        Sheet sheet = workbook.getSheet("Devices");
+        if (sheet == null) {
+            System.err.println("🚫 Sheet 'Devices' not found! Available sheets:");
+            for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
+                System.out.println("📄 Sheet[" + i + "]: " + workbook.getSheetName(i));
+            }
+            return null;
+        }
+
+        // 📊 Map header columns
+        Map<DeviceSheetCommand, Integer> columnMap = getColumnIndexMap(sheet);
+        if (!columnMap.containsKey(DeviceSheetCommand.TYPE) || !columnMap.containsKey(DeviceSheetCommand.DEVICE_ID)) {
+            System.err.println("❌ Missing required columns in 'Devices' sheet.");
+            return null;
+        }
+
+        // 🚦 Parse rows from Devices sheet
+        for (Row row : sheet) {
+            int rowIndex = row.getRowNum();
+            if (rowIndex == 0 || row == null) continue;
+
+            String typeStr = getCellValue(row, columnMap.get(DeviceSheetCommand.TYPE)).trim();
+            String rawId   = getCellValue(row, columnMap.get(DeviceSheetCommand.DEVICE_ID)).trim();
+
+            if (typeStr.isEmpty() || rawId.isEmpty()) {
+                System.err.println("⚠️ Row " + rowIndex + " missing type or ID. Skipping.");
+                continue;
+            }
+
+            DeviceType type = DeviceType.fromString(typeStr);
+            if (type == DeviceType.SMART_LIGHT) {
+                System.out.println("🚫 Row " + rowIndex + " skipped (SmartLight handled separately).");
+                continue;
+            }
+
+            if (seenIds.contains(rawId)) {
+                System.err.println("❌ Duplicate ID found in row " + rowIndex + ": " + rawId);
+                continue;
+            }
+
+            seenIds.add(rawId);
+
+            try {
+                Device device = parseDeviceRow(row, columnMap);
+                if (device != null) {
+                    parsed.add(device);
+                    DeviceStorage.getDevices().put(device.getId(), device);
+                } else {
+                    System.err.println("⚠️ Row " + rowIndex + " failed to create a device.");
+                }
+            } catch (Exception ex) {
+                System.err.println("🚫 Error parsing row " + rowIndex + ": " + ex.getMessage());
+            }
+        }
+
+        return parsed;
+    }
+
     public static boolean delegateDeviceUpdate(Device device) {
 
         try {
@@ -168,6 +171,26 @@ public class XlCreator {
         }
     }
 
+    public static boolean delegateDeviceUpdates(Collection<Device> devices) {
+        if (devices == null || devices.isEmpty()) return true;
+
+        try {
+            if (deviceUpdater != null) {
+                boolean result = true;
+                for (Device device : devices) {
+                    result &= deviceUpdater.apply(device);
+                }
+                return result;
+            }
+
+            return deviceManager.updateDevices(devices);
+
+        } catch (Exception e) {
+            System.err.println("💥 XlCreator.updateDevices → Exception during batch update: " + e.getMessage());
+            return false;
+        }
+    }
+
     public static boolean removeDevice(String deviceId) {
         return (deviceRemover != null) ? deviceRemover.apply(deviceId)
                 : deviceManager.removeDevice(deviceId);
@@ -293,8 +316,13 @@ public class XlCreator {
         if (index == null) return "";
         Cell cell = row.getCell(index);
         if (cell == null) return "";
-        cell.setCellType(CellType.STRING);
-        return cell.getStringCellValue().trim();
+        // 🔒 Read without converting the cell — the workbook is shared, readers must not mutate it
+        return switch (cell.getCellType()) {
+            case STRING -> cell.getStringCellValue().trim();
+            case NUMERIC -> NumberToTextConverter.toText(cell.getNumericCellValue());
+            case BOOLEAN -> cell.getBooleanCellValue() ? "TRUE" : "FALSE";
+            default -> cell.toString().trim();
+        };
     }
     public static Map<DeviceSheetCommand, Integer> getColumnIndexMap(Sheet sheet) {
         Map<DeviceSheetCommand, Integer> indexMap = new HashMap<>();
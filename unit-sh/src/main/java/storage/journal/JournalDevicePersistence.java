@@ -0,0 +1,150 @@
+package storage.journal;
+
+import devices.Device;
+import storage.DevicePersistence;
+import storage.ExcelDevicePersistence;
+import storage.WriteBehindDevicePersistence;
+import storage.xlc.XlWorkbookUtils;
+import utils.Log;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 📒 {@link DevicePersistence} backed by the local {@link JournalStore}.
+ * A state toggle is one small append to the change log; the workbook is kept as an export format,
+ * refreshed in the background by a slow write-behind Excel writer (disable with {@code phoenix.journal.export=false}).
+ * Only device rows are journaled — sensors, Sense_Control rows and tasks are still read from and written to Excel.
+ */
+public class JournalDevicePersistence implements DevicePersistence {
+
+    public static final String DIR_PROPERTY = "phoenix.journal.dir";
+    public static final String SYNC_PROPERTY = "phoenix.journal.sync";
+    public static final String EXPORT_PROPERTY = "phoenix.journal.export";
+
+    private static final long EXPORT_INTERVAL_MS = 30_000;
+    private static final int EXPORT_THRESHOLD = 500;
+
+    private final JournalStore journal;
+    private final DevicePersistence exporter; // null when Excel export is off
+
+    public JournalDevicePersistence(JournalStore journal, DevicePersistence exporter) {
+        this.journal = journal;
+        this.exporter = exporter;
+    }
+
+    // 🏗️ Default wiring: journal next to the workbook, fsync per append, background Excel export
+    public static JournalDevicePersistence openDefault() throws IOException {
+        Path dir = Paths.get(System.getProperty(DIR_PROPERTY, defaultJournalDir().toString()));
+        boolean sync = Boolean.parseBoolean(System.getProperty(SYNC_PROPERTY, "true"));
+        boolean export = Boolean.parseBoolean(System.getProperty(EXPORT_PROPERTY, "true"));
+
+        DevicePersistence exporter = null;
+        if (export) {
+            WriteBehindDevicePersistence excel = new WriteBehindDevicePersistence(
+                    new ExcelDevicePersistence(), EXPORT_INTERVAL_MS, EXPORT_THRESHOLD);
+            excel.start();
+            exporter = excel;
+        }
+
+        Log.info("📒 Using journal storage at " + dir + (export ? " (Excel export on)" : ""));
+        return new JournalDevicePersistence(JournalStore.open(dir, sync), exporter);
+    }
+
+    private static Path defaultJournalDir() {
+        Path workbook = XlWorkbookUtils.getFilePath().toAbsolutePath();
+        Path parent = workbook.getParent();
+        return parent != null ? parent.resolve("journal") : Paths.get("journal");
+    }
+
+    @Override
+    public boolean updateDevice(Device device) {
+        try {
+            journal.putDevice(device);
+        } catch (IOException e) {
+            Log.error("❌ Journal append failed for device " + device.getId() + ": " + e.getMessage());
+            return false;
+        }
+        if (exporter != null) exporter.updateDevice(device);
+        return true;
+    }
+
+    @Override
+    public boolean updateDevices(Collection<Device> devices) {
+        try {
+            journal.putDevices(devices);
+        } catch (IOException e) {
+            Log.error("❌ Journal batch append failed: " + e.getMessage());
+            return false;
+        }
+        if (exporter != null) exporter.updateDevices(devices);
+        return true;
+    }
+
+    // 🔗 The unlink itself is journaled by the device update that cleared its sensor; only the sheet row is left
+    @Override
+    public boolean removeSensorLink(String deviceId) {
+        return exporter == null || exporter.removeSensorLink(deviceId);
+    }
+
+    @Override
+    public boolean removeDevice(String deviceId) {
+        try {
+            journal.removeDevice(deviceId);
+        } catch (IOException e) {
+            Log.error("❌ Journal append failed for device removal " + deviceId + ": " + e.getMessage());
+            return false;
+        }
+        return exporter == null || exporter.removeDevice(deviceId);
+    }
+
+    @Override
+    public void flush() {
+        try {
+            journal.sync();
+        } catch (IOException e) {
+            Log.error("❌ Journal sync failed: " + e.getMessage());
+        }
+        if (exporter != null) exporter.flush();
+    }
+
+    /**
+     * 🩺 Overlay the journal's recovered state onto devices built from the workbook.
+     * The journal wins for anything it has recorded; devices it has never seen are seeded into it.
+     */
+    public void restoreInto(Map<String, Device> devices) {
+        Map<String, JournalState.DeviceEntry> recorded = journal.snapshotState().getDevices();
+        int restored = 0;
+
+        for (Device device : devices.values()) {
+            JournalState.DeviceEntry entry = recorded.get(device.getId());
+            if (entry == null) continue;
+
+            device.setState(entry.on());
+            device.setAutomationEnabled(entry.autoEnabled());
+            device.setAutoOnThreshold(entry.autoThreshold(), true);
+            device.setAutoOffThreshold(entry.autoOffThreshold());
+            device.setAutomationSensorId(entry.sensorId());
+            restored++;
+        }
+
+        if (recorded.size() < devices.size()) {
+            try {
+                journal.putDevices(devices.values().stream()
+                        .filter(d -> !recorded.containsKey(d.getId()))
+                        .toList());
+            } catch (IOException e) {
+                Log.error("❌ Failed to seed journal with workbook devices: " + e.getMessage());
+            }
+        }
+
+        Log.info("📒 Restored " + restored + " device(s) from journal");
+    }
+
+    public JournalStore getJournal() {
+        return journal;
+    }
+}
@@ -0,0 +1,24 @@
+package storage.journal;
+
+// 🧾 One byte per change-log record — never renumber, only append new codes
+public enum JournalRecordType {
+    DEVICE_PUT(1),
+    DEVICE_REMOVE(2);
+
+    private final byte code;
+
+    JournalRecordType(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte code() {
+        return code;
+    }
+
+    public static JournalRecordType fromCode(byte code) {
+        for (JournalRecordType type : values()) {
+            if (type.code == code) return type;
+        }
+        throw new IllegalArgumentException("❌ Unknown journal record type: " + code);
+    }
+}
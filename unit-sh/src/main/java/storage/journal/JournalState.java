@@ -0,0 +1,101 @@
+package storage.journal;
+
+import devices.Device;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 🗃️ Compacted view of everything the journal knows: the last recorded entry per device ID. The device's
+ * AutoOp link lives in the entry itself (flag + sensor ID), next to both ends of its ON/OFF band. Replaying a record is an idempotent
+ * upsert/remove, so a snapshot followed by any suffix of the change log always lands on the same state.
+ */
+public class JournalState {
+
+    public record DeviceEntry(String id, String type, String name, String brand, String model,
+                              boolean on, boolean autoEnabled, double autoThreshold, double autoOffThreshold,
+                              String sensorId) {
+
+        public static DeviceEntry of(Device device) {
+            return new DeviceEntry(
+                    device.getId(),
+                    device.getType() != null ? device.getType().name() : null,
+                    device.getName(),
+                    device.getBrand(),
+                    device.getModel(),
+                    device.isOn(),
+                    device.isAutomationEnabled(),
+                    device.getAutoThreshold(),
+                    device.getAutoOffThreshold(),
+                    device.getAutomationSensorId());
+        }
+
+        void write(DataOutput out) throws IOException {
+            writeString(out, id);
+            writeString(out, type);
+            writeString(out, name);
+            writeString(out, brand);
+            writeString(out, model);
+            out.writeBoolean(on);
+            out.writeBoolean(autoEnabled);
+            out.writeDouble(autoThreshold);
+            out.writeDouble(autoOffThreshold);
+            writeString(out, sensorId);
+        }
+
+        static DeviceEntry read(DataInput in) throws IOException {
+            return new DeviceEntry(readString(in), readString(in), readString(in), readString(in), readString(in),
+                    in.readBoolean(), in.readBoolean(), in.readDouble(), in.readDouble(), readString(in));
+        }
+    }
+
+    private final Map<String, DeviceEntry> devices = new LinkedHashMap<>();
+
+    // 🔁 Apply one decoded change-log record
+    void apply(JournalRecordType type, DataInput in) throws IOException {
+        switch (type) {
+            case DEVICE_PUT -> {
+                DeviceEntry e = DeviceEntry.read(in);
+                devices.put(e.id(), e);
+            }
+            case DEVICE_REMOVE -> devices.remove(readString(in));
+        }
+    }
+
+    // 💾 Snapshot body: entry count followed by the entries
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(devices.size());
+        for (DeviceEntry e : devices.values()) e.write(out);
+    }
+
+    static JournalState readFrom(DataInput in) throws IOException {
+        JournalState state = new JournalState();
+        for (int i = in.readInt(); i > 0; i--) {
+            DeviceEntry e = DeviceEntry.read(in);
+            state.devices.put(e.id(), e);
+        }
+        return state;
+    }
+
+    JournalState copy() {
+        JournalState copy = new JournalState();
+        copy.devices.putAll(devices);
+        return copy;
+    }
+
+    public Map<String, DeviceEntry> getDevices() { return Collections.unmodifiableMap(devices); }
+
+    // 🔧 Nullable UTF string: presence flag + modified UTF-8
+    static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeUTF(value);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
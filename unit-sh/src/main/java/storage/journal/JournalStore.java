@@ -0,0 +1,282 @@
+package storage.journal;
+
+import devices.Device;
+import utils.Log;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Collection;
+import java.util.zip.CRC32;
+
+/**
+ * 📒 Append-only change log + compacted snapshot of device state (ON/OFF, AutoOp flag, threshold, linked sensor).
+ * Sensors, Sense_Control rows and scheduled tasks are still owned by the workbook.
+ * <p>
+ * {@code changes.log} is a header followed by framed records: {@code [int length][byte type][payload][int crc32]},
+ * where the CRC covers type + payload. {@code snapshot.bin} holds the full {@link JournalState} at the moment
+ * of the last compaction. Recovery loads the snapshot, replays the log and truncates any torn or corrupt tail,
+ * so startup cost is bounded by the log size rather than by the whole history.
+ */
+public class JournalStore implements Closeable {
+
+    public static final String LOG_FILE = "changes.log";
+    public static final String SNAPSHOT_FILE = "snapshot.bin";
+    public static final long DEFAULT_COMPACT_THRESHOLD_BYTES = 4L * 1024 * 1024;
+
+    private static final int LOG_MAGIC = 0x50484A4C;      // "PHJL"
+    private static final int SNAPSHOT_MAGIC = 0x5048534E; // "PHSN"
+    private static final int FORMAT_VERSION = 3; // 2: device-only records and snapshot, 3: + OFF threshold
+    private static final int LOG_HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 1024 * 1024;
+
+    private final Path dir;
+    private final Path logPath;
+    private final Path snapshotPath;
+    private final boolean syncOnAppend;
+    private final long compactThresholdBytes;
+
+    private JournalState state;
+    private FileChannel log;
+
+    private JournalStore(Path dir, boolean syncOnAppend, long compactThresholdBytes) {
+        this.dir = dir;
+        this.logPath = dir.resolve(LOG_FILE);
+        this.snapshotPath = dir.resolve(SNAPSHOT_FILE);
+        this.syncOnAppend = syncOnAppend;
+        this.compactThresholdBytes = compactThresholdBytes;
+    }
+
+    public static JournalStore open(Path dir, boolean syncOnAppend) throws IOException {
+        return open(dir, syncOnAppend, DEFAULT_COMPACT_THRESHOLD_BYTES);
+    }
+
+    public static JournalStore open(Path dir, boolean syncOnAppend, long compactThresholdBytes) throws IOException {
+        Files.createDirectories(dir);
+        JournalStore store = new JournalStore(dir, syncOnAppend, compactThresholdBytes);
+        store.recover();
+        return store;
+    }
+
+    // 🩺 Snapshot + log replay, dropping whatever tail didn't make it to disk intact
+    private void recover() throws IOException {
+        state = Files.exists(snapshotPath) ? readSnapshot() : new JournalState();
+
+        log = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (log.size() < LOG_HEADER_BYTES) {
+            resetLog();
+            return;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_BYTES);
+        log.read(header, 0);
+        header.flip();
+        if (header.getInt() != LOG_MAGIC || header.getInt() != FORMAT_VERSION) {
+            throw new IOException("❌ Not a journal log (bad magic/version): " + logPath);
+        }
+
+        long validEnd = replay();
+        if (validEnd < log.size()) {
+            Log.warn("⚠️ Journal tail is torn or corrupt — truncating " + (log.size() - validEnd) + " bytes");
+            log.truncate(validEnd);
+            log.force(true);
+        }
+        log.position(validEnd);
+
+        Log.debug("📒 Journal recovered: " + state.getDevices().size() + " devices");
+    }
+
+    private long replay() throws IOException {
+        long position = LOG_HEADER_BYTES;
+        long size = log.size();
+        ByteBuffer lengthBuf = ByteBuffer.allocate(4);
+
+        while (position + 4 <= size) {
+            lengthBuf.clear();
+            log.read(lengthBuf, position);
+            lengthBuf.flip();
+            int length = lengthBuf.getInt();
+            if (length < 1 || length > MAX_RECORD_BYTES || position + 4 + length + 4 > size) break;
+
+            ByteBuffer frame = ByteBuffer.allocate(length + 4);
+            while (frame.hasRemaining()) {
+                if (log.read(frame, position + 4 + frame.position()) < 0) break;
+            }
+            frame.flip();
+
+            byte[] body = new byte[length];
+            frame.get(body);
+            int storedCrc = frame.getInt();
+            if (crc(body) != storedCrc) break;
+
+            try {
+                JournalRecordType type = JournalRecordType.fromCode(body[0]);
+                state.apply(type, new DataInputStream(new ByteArrayInputStream(body, 1, length - 1)));
+            } catch (IllegalArgumentException | IOException e) {
+                Log.warn("⚠️ Unreadable journal record at offset " + position + ": " + e.getMessage());
+                break;
+            }
+            position += 4 + length + 4;
+        }
+        return position;
+    }
+
+    private void resetLog() throws IOException {
+        log.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_BYTES);
+        header.putInt(LOG_MAGIC).putInt(FORMAT_VERSION).flip();
+        log.write(header, 0);
+        log.force(true);
+        log.position(LOG_HEADER_BYTES);
+    }
+
+    // ──────────────── Appends ────────────────
+
+    public synchronized void putDevice(Device device) throws IOException {
+        JournalState.DeviceEntry entry = JournalState.DeviceEntry.of(device);
+        append(JournalRecordType.DEVICE_PUT, entry::write);
+        commit();
+    }
+
+    // 📦 Many devices, one fsync
+    public synchronized void putDevices(Collection<Device> devices) throws IOException {
+        for (Device device : devices) {
+            JournalState.DeviceEntry entry = JournalState.DeviceEntry.of(device);
+            append(JournalRecordType.DEVICE_PUT, entry::write);
+        }
+        commit();
+    }
+
+    public synchronized void removeDevice(String deviceId) throws IOException {
+        append(JournalRecordType.DEVICE_REMOVE, out -> JournalState.writeString(out, deviceId));
+        commit();
+    }
+
+    @FunctionalInterface
+    private interface PayloadWriter {
+        void write(DataOutput out) throws IOException;
+    }
+
+    private void append(JournalRecordType type, PayloadWriter payload) throws IOException {
+        ensureOpen();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(type.code());
+        payload.write(out);
+        out.flush();
+        byte[] body = bytes.toByteArray();
+
+        ByteBuffer frame = ByteBuffer.allocate(4 + body.length + 4);
+        frame.putInt(body.length).put(body).putInt(crc(body)).flip();
+        while (frame.hasRemaining()) {
+            log.write(frame);
+        }
+
+        // Same bytes that recovery would replay — keeps memory and disk in lockstep
+        state.apply(type, new DataInputStream(new ByteArrayInputStream(body, 1, body.length - 1)));
+    }
+
+    private void commit() throws IOException {
+        if (syncOnAppend) {
+            log.force(false);
+        }
+        if (log.size() >= compactThresholdBytes) {
+            compact();
+        }
+    }
+
+    // ──────────────── Maintenance ────────────────
+
+    public synchronized void sync() throws IOException {
+        ensureOpen();
+        log.force(false);
+    }
+
+    // 🗜️ Write the current state as the new snapshot, then start an empty log
+    public synchronized void compact() throws IOException {
+        ensureOpen();
+        writeSnapshot();
+        resetLog();
+        Log.debug("🗜️ Journal compacted into " + snapshotPath.getFileName());
+    }
+
+    private void writeSnapshot() throws IOException {
+        ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+        DataOutputStream body = new DataOutputStream(bodyBytes);
+        state.writeTo(body);
+        body.flush();
+        byte[] payload = bodyBytes.toByteArray();
+
+        Path tmp = dir.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(12 + payload.length + 4);
+            buffer.putInt(SNAPSHOT_MAGIC).putInt(FORMAT_VERSION).putInt(payload.length)
+                    .put(payload).putInt(crc(payload)).flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+
+        try {
+            Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private JournalState readSnapshot() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("❌ Not a journal snapshot (bad magic/version): " + snapshotPath);
+            }
+            byte[] payload = new byte[in.readInt()];
+            in.readFully(payload);
+            if (crc(payload) != in.readInt()) {
+                throw new IOException("❌ Journal snapshot checksum mismatch: " + snapshotPath);
+            }
+            return JournalState.readFrom(new DataInputStream(new ByteArrayInputStream(payload)));
+        }
+    }
+
+    // ──────────────── Accessors ────────────────
+
+    // 📸 Detached copy — callers can iterate without holding the store lock
+    public synchronized JournalState snapshotState() {
+        return state.copy();
+    }
+
+    public synchronized long getLogSize() throws IOException {
+        ensureOpen();
+        return log.size();
+    }
+
+    public Path getDirectory() {
+        return dir;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (log == null) return;
+        try {
+            log.force(true);
+        } finally {
+            log.close();
+            log = null;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (log == null) {
+            throw new IOException("❌ Journal is closed: " + dir);
+        }
+    }
+
+    private static int crc(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+}
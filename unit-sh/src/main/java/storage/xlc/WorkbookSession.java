@@ -0,0 +1,235 @@
+package storage.xlc;
+
+import metrics.LatencyHistogram;
+import metrics.Metrics;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import utils.Log;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 📒 WorkbookSession — the one parsed copy of the Excel workbook shared by every storage manager.
+ *
+ * Readers and writers borrow the workbook through {@link #read} / {@link #write} under a
+ * read/write lock instead of opening and parsing the file themselves. The session remembers the
+ * file's modification time and reparses only when the file was changed outside the process
+ * (or the path was switched). Writes are saved once, when the outermost write returns.
+ *
+ * Readers must not mutate the workbook, and a write must not be started from inside a read
+ * (read locks cannot be upgraded) — collect what you need, leave the read, then write.
+ */
+public final class WorkbookSession {
+
+    @FunctionalInterface
+    public interface WorkbookReader<T> {
+        T read(Workbook workbook) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface WorkbookWriter {
+        // Return false to signal "nothing changed / failed" — the workbook is then not saved
+        boolean write(Workbook workbook) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface SheetReader<T> {
+        T read(Sheet sheet) throws IOException;
+    }
+
+    private static final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private static Workbook workbook;
+    private static Path loadedPath;
+    private static long loadedMtime = -1;
+    private static long loadedSize = -1;
+    private static int writeDepth = 0;
+    private static int loadCount = 0;
+    private static int saveCount = 0;
+
+    // 📈 Time spent writing the file to disk (the part of a write that callers actually wait on)
+    private static final LatencyHistogram SAVE_LATENCY = Metrics.histogram("workbook.session.save");
+
+    static {
+        Metrics.gauge("workbook.session.loads", () -> loadCount);
+        Metrics.gauge("workbook.session.saves", () -> saveCount);
+    }
+
+    private WorkbookSession() {
+        // Static holder – prevent instantiation
+    }
+
+    // 📖 Run a read-only action against the shared workbook
+    public static <T> T read(WorkbookReader<T> reader) throws IOException {
+        acquireFreshReadLock();
+        try {
+            return reader.read(workbook);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 📄 Read a single sheet; the reader gets null when the sheet does not exist
+    public static <T> T readSheet(String sheetName, SheetReader<T> reader) throws IOException {
+        return read(wb -> reader.read(wb.getSheet(sheetName)));
+    }
+
+    // ✍️ Mutate the shared workbook and persist it once the outermost write completes
+    public static boolean write(WorkbookWriter writer) throws IOException {
+        if (lock.getReadHoldCount() > 0 && !lock.isWriteLockedByCurrentThread()) {
+            throw new IllegalStateException("❌ WorkbookSession.write() called while holding a read — locks cannot be upgraded.");
+        }
+
+        lock.writeLock().lock();
+        writeDepth++;
+        try {
+            reloadIfStale();
+
+            boolean changed;
+            try {
+                changed = writer.write(workbook);
+            } catch (IOException | RuntimeException e) {
+                discard(); // ♻️ In-memory copy may be half-edited — reparse from disk next time
+                throw e;
+            }
+
+            if (changed && writeDepth == 1) {
+                save();
+            }
+            return changed;
+        } finally {
+            writeDepth--;
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 🧹 Drop the cached workbook; the next access reparses the file
+    public static void invalidate() {
+        lock.writeLock().lock();
+        try {
+            discard();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // 🔢 How many times the file has been parsed (diagnostics & tests)
+    public static int getLoadCount() {
+        return loadCount;
+    }
+
+    // 💾 How many times the file has been written (diagnostics & tests)
+    public static int getSaveCount() {
+        return saveCount;
+    }
+
+    // ─── Internals ───
+
+    private static void acquireFreshReadLock() throws IOException {
+        lock.readLock().lock();
+
+        // Nested read (or read inside our own write): never try to reload from here
+        if (lock.getReadHoldCount() > 1 || lock.isWriteLockedByCurrentThread()) {
+            if (workbook == null) {
+                lock.readLock().unlock();
+                throw new IllegalStateException("❌ Workbook was discarded during a nested read.");
+            }
+            return;
+        }
+
+        if (!isStale()) return;
+
+        // 🔁 Stale: swap to the write lock, reload, then downgrade back to a read lock
+        lock.readLock().unlock();
+        lock.writeLock().lock();
+        try {
+            reloadIfStale();
+            lock.readLock().lock();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static boolean isStale() {
+        Path path = XlWorkbookUtils.getFilePath();
+        if (workbook == null || !path.equals(loadedPath)) return true;
+
+        try {
+            // Size too: coarse mtime granularity can hide a rewrite within the same tick
+            return Files.getLastModifiedTime(path).toMillis() != loadedMtime
+                    || Files.size(path) != loadedSize;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private static void reloadIfStale() throws IOException {
+        if (!isStale()) return;
+
+        Path path = XlWorkbookUtils.getFilePath();
+        if (!Files.exists(path)) {
+            discard();
+            throw new FileNotFoundException("Workbook not found: " + path);
+        }
+
+        if (workbook != null) {
+            Log.info("🔄 Workbook changed on disk — reloading: " + path);
+        }
+        discard();
+
+        long mtime = Files.getLastModifiedTime(path).toMillis();
+        long size = Files.size(path);
+        try (InputStream in = Files.newInputStream(path)) {
+            workbook = WorkbookFactory.create(in);
+        }
+        loadedPath = path;
+        loadedMtime = mtime;
+        loadedSize = size;
+        loadCount++;
+        Log.debug("📂 Workbook parsed (#" + loadCount + "): " + path);
+    }
+
+    private static void save() throws IOException {
+        XlStreamingLoader.release(); // 🧹 a streamed startup snapshot no longer matches the file
+        Path path = loadedPath;
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        long start = System.nanoTime();
+
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            workbook.write(out);
+        }
+        try {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException atomicUnsupported) {
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        loadedMtime = Files.getLastModifiedTime(path).toMillis();
+        loadedSize = Files.size(path);
+        saveCount++;
+        Metrics.recordSince(SAVE_LATENCY, start);
+        Log.debug("💾 Workbook saved: " + path);
+    }
+
+    private static void discard() {
+        if (workbook != null) {
+            try {
+                workbook.close();
+            } catch (IOException ignored) {
+                // Nothing useful to do — the copy is being thrown away anyway
+            }
+        }
+        workbook = null;
+        loadedPath = null;
+        loadedMtime = -1;
+        loadedSize = -1;
+    }
+}
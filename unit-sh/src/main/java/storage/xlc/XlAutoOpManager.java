@@ -4,16 +4,14 @@ import autoOp.AutoOpLinker;
 import devices.Device;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import sensors.Sensor;
 import utils.Log;
 import storage.DeviceStorage;
 import storage.SensorStorage;
 
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import static storage.xlc.XlWorkbookUtils.*;
 
@@ -43,71 +41,71 @@ public class XlAutoOpManager {
         return true;
     }
     public static void restoreSensorLinks() {
-        try (FileInputStream fis = new FileInputStream(getFilePath().toFile());
-             Workbook workbook = new XSSFWorkbook(fis)) {
-
-            Sheet sheet = workbook.getSheet(SHEET_SENSE);
-            if (sheet == null) {
-                Log.warn("⚠️ No Sens_Ctrl sheet found during restoration.");
-                return;
-            }
-
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0) continue;
+        List<String[]> links;
+        try {
+            // 📖 Collect (SLAVE_ID, SENSOR_ID) pairs first; linking happens outside the workbook lock
+            links = XlStreamingLoader.readSheet(SHEET_SENSE, sheet -> {
+                List<String[]> pairs = new ArrayList<>();
+                if (sheet == null) {
+                    Log.warn("⚠️ No Sens_Ctrl sheet found during restoration.");
+                    return pairs;
+                }
+                for (XlRow row : sheet) {
+                    if (row.getRowNum() == 0) continue;
+                    pairs.add(new String[]{ row.text(0), row.text(5) }); // SLAVE_ID, SENSOR_ID
+                }
+                return pairs;
+            });
+        } catch (IOException e) {
+            Log.error("❌ Failed to restore links from Sens_Ctrl: " + e.getMessage());
+            return;
+        }
 
-                String linkedDeviceId = getCellValue(row, 0); // SLAVE_ID
-                String sensorId       = getCellValue(row, 5); // SENSOR_ID
+        for (String[] link : links) {
+            String linkedDeviceId = link[0];
+            String sensorId       = link[1];
 
-                Device device = DeviceStorage.getDeviceById(linkedDeviceId);
-                Sensor sensor = SensorStorage.getSensorById(sensorId);
+            Device device = DeviceStorage.getDeviceById(linkedDeviceId);
+            Sensor sensor = SensorStorage.getSensorById(sensorId);
 
-                if (device != null && sensor != null) {
-                    device.setAutomationSensorId(sensor.getSensorId());
-                    device.setAutomationEnabled(true);
-                    device.enableAutoMode();
+            if (device != null && sensor != null) {
+                device.setAutomationSensorId(sensor.getSensorId());
+                device.setAutomationEnabled(true);
+                device.enableAutoMode();
 
-                    Log.debug("🧬 Sensor '" + sensor.getSensorId() + "' instance hash: " + System.identityHashCode(sensor));
-                    Log.info("💡 Before link, sensor '" + sensor.getSensorId() + "' had " + sensor.getLinkedDevice().size() + " linked devices");
+                Log.debug("🧬 Sensor '" + sensor.getSensorId() + "' instance hash: " + System.identityHashCode(sensor));
+                Log.info("💡 Before link, sensor '" + sensor.getSensorId() + "' had " + sensor.getLinkedDevice().size() + " linked devices");
 
-                    sensor.linkLinkedDevice(device);
+                sensor.linkLinkedDevice(device);
 
-                    Log.info("🔗 After link, sensor '" + sensor.getSensorId() + "' has " + sensor.getLinkedDevice().size() + " linked devices");
-                    Log.info("✅ Restored AutoOp link → " + device.getName() + " ← " + sensor.getSensorName());
-                } else {
-                    Log.warn("🔍 Could not restore link for Device ID '" + linkedDeviceId + "' and Sensor ID '" + sensorId + "'");
-                }
+                Log.info("🔗 After link, sensor '" + sensor.getSensorId() + "' has " + sensor.getLinkedDevice().size() + " linked devices");
+                Log.info("✅ Restored AutoOp link → " + device.getName() + " ← " + sensor.getSensorName());
+            } else {
+                Log.warn("🔍 Could not restore link for Device ID '" + linkedDeviceId + "' and Sensor ID '" + sensorId + "'");
             }
-
-        } catch (IOException e) {
-            Log.error("❌ Failed to restore links from Sens_Ctrl: " + e.getMessage());
         }
     }
 
 
     public static boolean updateSensorValueInSheet(Sensor sensor) {
-        try (FileInputStream fis = new FileInputStream(getFilePath().toFile());
-             Workbook workbook = new XSSFWorkbook(fis)) {
-
-            Sheet sheet = workbook.getSheet("Sensors");
-            if (sheet == null) return false;
-
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0) continue;
-                String id = getCellValue(row, 1); // ID column
-                if (id.equalsIgnoreCase(sensor.getSensorId())) {
-                    row.getCell(4).setCellValue(sensor.getCurrentValue()); // CURRENT_VALUE
-                    row.getCell(6).setCellValue(sensor.getUpdatedTimestamp().toString()); // UPDATED_TS
-                    break;
-                }
-            }
-
-            try (FileOutputStream fos = new FileOutputStream(getFilePath().toFile())) {
-                workbook.write(fos);
-            }
+        try {
+            return WorkbookSession.write(workbook -> {
+                Sheet sheet = workbook.getSheet("Sensors");
+                if (sheet == null) return false;
 
-            Log.debug("📥 Sensor " + sensor.getSensorName() + " updated in Excel");
-            return true;
+                for (Row row : sheet) {
+                    if (row.getRowNum() == 0) continue;
+                    String id = getCellValue(row, 1); // ID column
+                    if (id.equalsIgnoreCase(sensor.getSensorId())) {
+                        row.getCell(4).setCellValue(sensor.getCurrentValue()); // CURRENT_VALUE
+                        row.getCell(6).setCellValue(sensor.getUpdatedTimestamp().toString()); // UPDATED_TS
+                        break;
+                    }
+                }
 
+                Log.debug("📥 Sensor " + sensor.getSensorName() + " updated in Excel");
+                return true;
+            });
         } catch (IOException e) {
             Log.error("❌ Failed to update sensor sheet: " + e.getMessage());
             return false;
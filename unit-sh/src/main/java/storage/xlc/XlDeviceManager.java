@@ -6,18 +6,16 @@ import devices.actions.ApprovedDeviceModel;
 import devices.actions.LiveDeviceState;
 import devices.actions.SmartLightAction;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import storage.DeviceStorage;
 import storage.xlc.sheetsCommand.DeviceSheetCommand;
 import storage.xlc.sheetsCommand.SmartLightSheetCommand;
 import storage.xlc.sheetsCommand.XlTabNames;
 import ui.gui.managers.GuiStateManager;
 import utils.Log;
+import utils.DeviceIdManager;
 import utils.TimestampUtils;
 
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.nio.file.Path;
 import java.time.Clock;
 import java.time.ZonedDateTime;
 import java.util.*;
@@ -28,120 +26,130 @@ import static storage.xlc.XlWorkbookUtils.updateWorkbook;
 // ... other imports
 
 public class XlDeviceManager {
-    private static final Path FILE_PATH = XlWorkbookUtils.getFilePath();
     private static final Clock clock = utils.ClockUtil.getClock();
 
 
+    // 🧾 Raw Devices-sheet row, captured under the session read lock
+    private record DeviceRow(int rowIndex, String typeStr, String id, String name, String brand, String model,
+                             String autoEnabledStr, double autoOn, double autoOff, String stateValue) {}
+
     public static List<Device> loadDevicesFromExcel() {
         List<Device> devices = new ArrayList<>();
         Set<String> seenIds = new HashSet<>();
-        Log.debug("📁 Loading devices from Excel file: " + FILE_PATH);
+        Log.debug("📁 Loading devices from Excel file: " + XlWorkbookUtils.getFilePath());
 
-        try (FileInputStream fis = new FileInputStream(FILE_PATH.toFile());
-             Workbook workbook = new XSSFWorkbook(fis)) {
+        List<DeviceRow> rows;
+        try {
+            rows = XlStreamingLoader.readSheet(XlTabNames.DEVICES.name(), XlDeviceManager::readDeviceRows);
+        } catch (IOException e) {
+            Log.error("🛑 Excel read error: " + e.getMessage());
+            rows = List.of();
+        }
 
-            Sheet sheet = workbook.getSheet(XlTabNames.DEVICES.name());
-            if (sheet == null) {
-                Log.warn("⚠️ Sheet '" + XlTabNames.DEVICES.name() + "' not found.");
-                return devices;
-            }
+        // 🏗️ Build devices outside the read lock — creating some types writes back to the workbook
+        for (DeviceRow r : rows) {
+            try {
+                boolean autoEnabled = "1".equals(r.autoEnabledStr()) || "true".equalsIgnoreCase(r.autoEnabledStr());
 
-            Map<DeviceSheetCommand, Integer> columnMap = DeviceSheetCommand.getColumnMap();
+                DeviceType type = DeviceType.fromString(r.typeStr());
+                if (type == null || type == DeviceType.UNKNOWN) {
+                    throw new IllegalArgumentException("❌ Invalid or unsupported device type: " + r.typeStr());
+                }
 
-            for (Row row : sheet) {
-                int rowIndex = row.getRowNum();
-                if (rowIndex == 0 || row == null) continue;
-
-                try {
-                    String typeStr = getCellValue(row, columnMap.get(DeviceSheetCommand.TYPE)).trim();
-                    if (typeStr.isBlank()) continue;
-
-                    String id = getCellValue(row, columnMap.get(DeviceSheetCommand.DEVICE_ID)).trim();
-                    String name = getCellValue(row, columnMap.get(DeviceSheetCommand.NAME));
-                    String brand = getCellValue(row, columnMap.get(DeviceSheetCommand.BRAND));
-                    String model = getCellValue(row, columnMap.get(DeviceSheetCommand.MODEL));
-                    String autoEnabledStr = getCellValue(row, columnMap.get(DeviceSheetCommand.AUTO_ENABLED)).trim();
-
-                    boolean autoEnabled = "1".equals(autoEnabledStr) || "true".equalsIgnoreCase(autoEnabledStr);
-
-                    double autoOn = XlWorkbookUtils.getSafeNumeric(
-                            row.getCell(columnMap.get(DeviceSheetCommand.AUTO_ON)),
-                            DeviceDefaults.getDefaultAutoOn(DeviceType.fromString(typeStr))
-                    );
-
-                    double autoOff = XlWorkbookUtils.getSafeNumeric(
-                            row.getCell(columnMap.get(DeviceSheetCommand.AUTO_OFF)),
-                            DeviceDefaults.getDefaultAutoOff(DeviceType.fromString(typeStr))
-                    );
-
-                    DeviceType type = DeviceType.fromString(typeStr);
-                    if (type == null || type == DeviceType.UNKNOWN) {
-                        throw new IllegalArgumentException("❌ Invalid or unsupported device type: " + typeStr);
-                    }
+                if (seenIds.contains(r.id())) {
+                    throw new IllegalArgumentException("❌ Duplicate ID in this session: " + r.id());
+                }
 
-                    if (seenIds.contains(id)) {
-                        throw new IllegalArgumentException("❌ Duplicate ID in this session: " + id);
-                    }
+                ApprovedDeviceModel adm = ApprovedDeviceModel.lookup(r.brand(), r.model());
+                if (adm == null) {
+                    Log.warn("🚫 No matching ApprovedDeviceModel for brand/model: " + r.brand() + "/" + r.model());
+                } else {
+                    Log.debug("✅ Approved model found: " + adm.getBrand() + " / " + adm.getModel());
+                }
 
-                    ApprovedDeviceModel adm = ApprovedDeviceModel.lookup(brand, model);
-                    if (adm == null) {
-                        Log.warn("🚫 No matching ApprovedDeviceModel for brand/model: " + brand + "/" + model);
-                    } else {
-                        Log.debug("✅ Approved model found: " + adm.getBrand() + " / " + adm.getModel());
-                    }
+                Device device = DeviceFactory.createDeviceByType(
+                        type, r.id(), r.name(), clock, DeviceStorage.getDevices(), r.brand(), r.model()
+                );
+                if (device == null) {
+                    throw new IllegalStateException("❌ Device creation returned null for ID: " + r.id());
+                }
 
-                    Device device = DeviceFactory.createDeviceByType(
-                            type, id, name, clock, DeviceStorage.getDevices(), brand, model
-                    );
-                    if (device == null) {
-                        throw new IllegalStateException("❌ Device creation returned null for ID: " + id);
-                    }
+                device.setState("ON".equalsIgnoreCase(r.stateValue()));
 
-                    String stateValue = getCellValue(row, columnMap.get(DeviceSheetCommand.STATE)).trim();
-                    device.setState("ON".equalsIgnoreCase(stateValue));
-
-                    device.setBrand(brand);
-                    device.setModel(model);
-                    device.setAutomationEnabled(autoEnabled);
-                    device.setAutoThreshold(autoOn, autoEnabled);
-                    device.setAutoThreshold(autoOff, autoEnabled);
-
-                    devices.add(device);
-                    seenIds.add(id);
-                    DeviceStorage.getDevices().put(id, device);
-
-                    // 🧠 GUI sync begins here
-                    GuiStateManager.registerNewDevice(device);
-                    if (device.isOn()) {
-                        LiveDeviceState.turnOn(device);
-                    } else {
-                        LiveDeviceState.turnOff(device);
-                    }
+                device.setBrand(r.brand());
+                device.setModel(r.model());
+                device.setAutomationEnabled(autoEnabled);
+                device.setAutoOnThreshold(r.autoOn(), autoEnabled);
+                device.setAutoOffThreshold(r.autoOff());
 
-                    Log.info("✅ Loaded & registered device: " + device.getId() + " (" + device.getType() + ")");
+                devices.add(device);
+                seenIds.add(r.id());
+                DeviceStorage.getDevices().put(r.id(), device);
 
-                } catch (Exception ex) {
-                    Log.warn("🚫 Failed to parse row " + rowIndex + ": " + ex.getMessage());
-                }
-            }
+                // 🧠 GUI sync begins here
+                GuiStateManager.registerNewDevice(device);
+                LiveDeviceState.sync(device);
 
-        } catch (IOException e) {
-            Log.error("🛑 Excel read error: " + e.getMessage());
+                Log.info("✅ Loaded & registered device: " + device.getId() + " (" + device.getType() + ")");
+
+            } catch (Exception ex) {
+                Log.warn("🚫 Failed to parse row " + r.rowIndex() + ": " + ex.getMessage());
+            }
         }
 
         // 🌟 Load SmartLights separately and add them in
         Map<String, SmartLight> smartLights = XlSmartLightManager.loadSmartLights();
         devices.addAll(smartLights.values());
 
-        // 🖼️ Final GUI refresh
-        GuiStateManager.refreshDeviceMatrix();
-
         Log.info("📦 Total devices loaded: " + devices.size());
         return devices;
     }
 
+    private static List<DeviceRow> readDeviceRows(Iterable<XlRow> sheet) {
+        List<DeviceRow> rows = new ArrayList<>();
+        if (sheet == null) {
+            Log.warn("⚠️ Sheet '" + XlTabNames.DEVICES.name() + "' not found.");
+            return rows;
+        }
+
+        Map<DeviceSheetCommand, Integer> columnMap = DeviceSheetCommand.getColumnMap();
+
+        for (XlRow row : sheet) {
+            int rowIndex = row.getRowNum();
+            if (rowIndex == 0) continue;
+
+            try {
+                String typeStr = row.text(columnMap.get(DeviceSheetCommand.TYPE)).trim();
+                if (typeStr.isBlank()) continue;
+
+                DeviceType type = DeviceType.fromString(typeStr);
+                rows.add(new DeviceRow(
+                        rowIndex,
+                        typeStr,
+                        row.text(columnMap.get(DeviceSheetCommand.DEVICE_ID)).trim(),
+                        row.text(columnMap.get(DeviceSheetCommand.NAME)),
+                        row.text(columnMap.get(DeviceSheetCommand.BRAND)),
+                        row.text(columnMap.get(DeviceSheetCommand.MODEL)),
+                        row.text(columnMap.get(DeviceSheetCommand.AUTO_ENABLED)).trim(),
+                        row.number(columnMap.get(DeviceSheetCommand.AUTO_ON),
+                                DeviceDefaults.getDefaultAutoOn(type)),
+                        row.number(columnMap.get(DeviceSheetCommand.AUTO_OFF),
+                                DeviceDefaults.getDefaultAutoOff(type)),
+                        row.text(columnMap.get(DeviceSheetCommand.STATE)).trim()
+                ));
+            } catch (Exception ex) {
+                Log.warn("🚫 Failed to parse row " + rowIndex + ": " + ex.getMessage());
+            }
+        }
+        return rows;
+    }
+
     public static void writeDeviceRow(Device device, Row row) {
-        System.out.println("🧾 Writing Device [" + device.getName() + "] (ID: " + device.getId() + ", MosesType: " + device.getType().name() + ", Threshold: " + device.getAutoThreshold() + ") → Sheet: " + row.getSheet().getSheetName());
+        if (Log.isDebugEnabled()) {
+            Log.debug("🧾 Writing Device [{}] (ID: {}, Type: {}, Brand: {}, Model: {}, Threshold: {}) → Sheet: {}",
+                    device.getName(), device.getId(), device.getType(), device.getBrand(), device.getModel(),
+                    device.getAutoThreshold(), row.getSheet().getSheetName());
+        }
         Map<DeviceSheetCommand, Integer> columnMap = DeviceSheetCommand.getColumnMap();
         Clock clock = device instanceof Device ? device.getClock() : Clock.systemDefaultZone();
 
@@ -149,12 +157,11 @@ public class XlDeviceManager {
         row.createCell(columnMap.get(DeviceSheetCommand.TYPE)).setCellValue(device.getType().name());
         row.createCell(columnMap.get(DeviceSheetCommand.DEVICE_ID)).setCellValue(device.getId());
         row.createCell(columnMap.get(DeviceSheetCommand.NAME)).setCellValue(device.getName());
-        Log.info("🧠 Writing Device Row for device '" + device.getName() + "' (" + device.getId() + ") | Brand: " + device.getBrand() + ", Model: " + device.getModel());
         row.createCell(columnMap.get(DeviceSheetCommand.BRAND)).setCellValue(device.getBrand());
         row.createCell(columnMap.get(DeviceSheetCommand.MODEL)).setCellValue(device.getModel());
         row.createCell(columnMap.get(DeviceSheetCommand.AUTO_ENABLED)).setCellValue(device.isAutomationEnabled());
         row.createCell(columnMap.get(DeviceSheetCommand.AUTO_ON)).setCellValue(device.getAutoThreshold());
-        row.createCell(columnMap.get(DeviceSheetCommand.AUTO_OFF)).setCellValue(device.getAutoThreshold());
+        row.createCell(columnMap.get(DeviceSheetCommand.AUTO_OFF)).setCellValue(device.getAutoOffThreshold());
         row.createCell(columnMap.get(DeviceSheetCommand.ACTIONS)).setCellValue(String.join(", ", device.getAvailableActions()));
         row.createCell(columnMap.get(DeviceSheetCommand.STATE)).setCellValue(device.isOn() ? "ON" : "OFF");
 
@@ -177,12 +184,16 @@ public class XlDeviceManager {
     }
 
     public static boolean updateDevice(Device device) throws IOException {
+        return updateDevices(List.of(device));
+    }
+
+    // 📦 Update (or append) many devices in a single workbook open/write
+    public static boolean updateDevices(Collection<Device> batch) throws IOException {
         return updateWorkbook((workbook, tasks, sheet, sensors, senseControl, smartControl) -> {
             Map<DeviceSheetCommand, Integer> columnMap = DeviceSheetCommand.getColumnMap();
-            boolean updated = false;
-
-            String deviceId = device.getId().trim();
 
+            // 🗂️ Index existing rows once so each device lookup is O(1)
+            Map<String, Row> rowsById = new HashMap<>();
             for (Row row : sheet) {
                 if (row.getRowNum() == 0) continue;
 
@@ -196,7 +207,14 @@ public class XlDeviceManager {
                 }
 
                 String rowId = getCellValue(row, columnMap.get(DeviceSheetCommand.DEVICE_ID)).trim();
-                if (rowId.equalsIgnoreCase(deviceId)) {
+                rowsById.putIfAbsent(rowId.toUpperCase(), row);
+            }
+
+            for (Device device : batch) {
+                String deviceId = device.getId().trim();
+                Row row = rowsById.get(deviceId.toUpperCase());
+
+                if (row != null) {
                     // 🔄 Update existing device
                     setCell(row, columnMap.get(DeviceSheetCommand.TYPE), device.getType().name());
                     setCell(row, columnMap.get(DeviceSheetCommand.NAME), device.getName());
@@ -204,7 +222,7 @@ public class XlDeviceManager {
                     setCell(row, columnMap.get(DeviceSheetCommand.MODEL), device.getModel());
                     setCell(row, columnMap.get(DeviceSheetCommand.AUTO_ENABLED), device.isAutomationEnabled());
                     setCell(row, columnMap.get(DeviceSheetCommand.AUTO_ON), device.getAutoThreshold());
-                    setCell(row, columnMap.get(DeviceSheetCommand.AUTO_OFF), device.getAutoThreshold());
+                    setCell(row, columnMap.get(DeviceSheetCommand.AUTO_OFF), device.getAutoOffThreshold());
                     setCell(row, columnMap.get(DeviceSheetCommand.ACTIONS), device.getSupportedActionsAsText());
                     setCell(row, columnMap.get(DeviceSheetCommand.STATE), device.isOn() ? "ON" : "OFF");
                     setCell(row, columnMap.get(DeviceSheetCommand.ADDED_TS), ZonedDateTime.now(clock).toString());
@@ -212,29 +230,26 @@ public class XlDeviceManager {
                     setCell(row, columnMap.get(DeviceSheetCommand.REMOVED_TS), "");
 
                     Log.info("✅ Device updated in Excel: " + deviceId);
-                    updated = true;
-                    break;
+                } else {
+                    Log.warn("⚠️ No matching device found for update, appending new: " + deviceId);
+
+                    Row newRow = sheet.createRow(sheet.getLastRowNum() + 1);
+                    setCell(newRow, columnMap.get(DeviceSheetCommand.TYPE), device.getType().name());
+                    setCell(newRow, columnMap.get(DeviceSheetCommand.DEVICE_ID), deviceId);
+                    setCell(newRow, columnMap.get(DeviceSheetCommand.NAME), device.getName());
+                    setCell(newRow, columnMap.get(DeviceSheetCommand.BRAND), device.getBrand());
+                    setCell(newRow, columnMap.get(DeviceSheetCommand.MODEL), device.getModel());
+                    setCell(newRow, columnMap.get(DeviceSheetCommand.AUTO_ENABLED), device.isAutomationEnabled());
+                    setCell(newRow, columnMap.get(DeviceSheetCommand.AUTO_ON), device.getAutoThreshold());
+                    setCell(newRow, columnMap.get(DeviceSheetCommand.AUTO_OFF), device.getAutoOffThreshold());
+                    setCell(newRow, columnMap.get(DeviceSheetCommand.ACTIONS), device.getSupportedActionsAsText());
+                    setCell(newRow, columnMap.get(DeviceSheetCommand.STATE), device.isOn() ? "ON" : "OFF");
+                    setCell(newRow, columnMap.get(DeviceSheetCommand.UPDATED_TS), java.time.ZonedDateTime.now(clock).toString());
+
+                    rowsById.put(deviceId.toUpperCase(), newRow);
+                    Log.info("✨ New device appended to Excel: " + deviceId);
                 }
             }
-
-            if (!updated) {
-                Log.warn("⚠️ No matching device found for update, appending new: " + deviceId);
-
-                Row newRow = sheet.createRow(sheet.getLastRowNum() + 1);
-                setCell(newRow, columnMap.get(DeviceSheetCommand.TYPE), device.getType().name());
-                setCell(newRow, columnMap.get(DeviceSheetCommand.DEVICE_ID), deviceId);
-                setCell(newRow, columnMap.get(DeviceSheetCommand.NAME), device.getName());
-                setCell(newRow, columnMap.get(DeviceSheetCommand.BRAND), device.getBrand());
-                setCell(newRow, columnMap.get(DeviceSheetCommand.MODEL), device.getModel());
-                setCell(newRow, columnMap.get(DeviceSheetCommand.AUTO_ENABLED), device.isAutomationEnabled());
-                setCell(newRow, columnMap.get(DeviceSheetCommand.AUTO_ON), device.getAutoThreshold());
-                setCell(newRow, columnMap.get(DeviceSheetCommand.AUTO_OFF), device.getAutoThreshold());
-                setCell(newRow, columnMap.get(DeviceSheetCommand.ACTIONS), device.getSupportedActionsAsText());
-                setCell(newRow, columnMap.get(DeviceSheetCommand.STATE), device.isOn() ? "ON" : "OFF");
-                setCell(newRow, columnMap.get(DeviceSheetCommand.UPDATED_TS), java.time.ZonedDateTime.now(clock).toString());
-
-                Log.info("✨ New device appended to Excel: " + deviceId);
-            }
         });
     }
 
@@ -283,16 +298,8 @@ public class XlDeviceManager {
         }
     }
 
-    public static String getNextAvailableId(String prefix, Set<String> existingIds) {
-        int max = existingIds.stream()
-                .filter(id -> id.startsWith(prefix))
-                .map(id -> id.replace(prefix, ""))
-                .filter(s -> s.matches("\\d+"))
-                .mapToInt(Integer::parseInt)
-                .max()
-                .orElse(0);
-
-        String nextId = prefix + String.format("%03d", max + 1);
+    public static String getNextAvailableId(String prefix) {
+        String nextId = DeviceIdManager.getNextAvailableId(prefix);
         Log.debug("🔢 Generated next device ID: " + nextId);
         return nextId;
     }
@@ -305,13 +312,15 @@ public class XlDeviceManager {
         }
 
         // 🧭 Fallback: attempt to reconstruct from Excel only if not found in memory
-        Workbook workbook = XlWorkbookUtils.loadWorkbook();
-        if (workbook == null) {
-            Log.error("❌ Cannot load workbook to retrieve original device.");
+        try {
+            return WorkbookSession.readSheet("Devices", deviceSheet -> reconstructSmartLight(deviceSheet, deviceId));
+        } catch (IOException e) {
+            Log.error("❌ Cannot load workbook to retrieve original device: " + e.getMessage());
             return null;
         }
+    }
 
-        Sheet deviceSheet = workbook.getSheet("Devices");
+    private static SmartLight reconstructSmartLight(Sheet deviceSheet, String deviceId) {
         if (deviceSheet == null) {
             Log.error("❌ Device sheet not found in workbook.");
             return null;
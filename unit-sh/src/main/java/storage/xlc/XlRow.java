@@ -0,0 +1,65 @@
+package storage.xlc;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+
+import java.util.Iterator;
+
+/**
+ * 📄 Read-only view of one sheet row, shared by the DOM workbook and the streaming loader.
+ * Sheet loaders parse through this so the same code runs over either source.
+ */
+public interface XlRow {
+
+    int getRowNum();
+
+    // One past the last populated column, as in Row.getLastCellNum(); -1 for an empty row
+    int getLastCellNum();
+
+    // 🔤 Cell as text — strings trimmed, numbers rounded to whole numbers, booleans as "true"/"false", blanks ""
+    String text(int column);
+
+    // 🔢 Numeric cell, or a numeric string; anything else yields the fallback
+    double number(int column, double fallback);
+
+    // 🧩 DOM adapter
+    static XlRow of(Row row) {
+        return new XlRow() {
+            @Override
+            public int getRowNum() {
+                return row.getRowNum();
+            }
+
+            @Override
+            public int getLastCellNum() {
+                return row.getLastCellNum();
+            }
+
+            @Override
+            public String text(int column) {
+                return column < 0 ? "" : XlWorkbookUtils.getCellValue(row, column);
+            }
+
+            @Override
+            public double number(int column, double fallback) {
+                return column < 0 ? fallback : XlWorkbookUtils.getSafeNumeric(row.getCell(column), fallback);
+            }
+        };
+    }
+
+    static Iterable<XlRow> rows(Sheet sheet) {
+        return () -> new Iterator<>() {
+            private final Iterator<Row> it = sheet.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public XlRow next() {
+                return of(it.next());
+            }
+        };
+    }
+}
@@ -0,0 +1,70 @@
+package storage.xlc;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import storage.xlc.sheetsCommand.SceneSheetCommand;
+import utils.Log;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 🎬 Reads and writes the "Scenes" sheet: one row per group member, scene step or scene trigger,
+ * in {@link SceneSheetCommand} column order. Interpreting the rows is up to the scenes package.
+ */
+public class XlSceneManager {
+
+    public static final String SHEET_SCENES = "Scenes";
+    private static final int COLUMNS = SceneSheetCommand.values().length;
+
+    // 📥 Every non-empty data row as KIND, ID, NAME, TARGET, VALUE (missing cells → "")
+    public static List<String[]> loadRows() {
+        List<String[]> rows = new ArrayList<>();
+        try {
+            XlStreamingLoader.readSheet(SHEET_SCENES, sheet -> {
+                if (sheet == null) return null;
+
+                for (XlRow row : sheet) {
+                    if (row.getRowNum() == 0) continue;
+                    String[] values = new String[COLUMNS];
+                    for (int c = 0; c < COLUMNS; c++) {
+                        values[c] = row.text(c).trim();
+                    }
+                    if (!values[0].isEmpty()) rows.add(values);
+                }
+                return null;
+            });
+        } catch (IOException e) {
+            Log.error("❌ Failed to load scenes: " + e.getMessage());
+        }
+        return rows;
+    }
+
+    // 💾 Replace the sheet's data rows (header kept or created)
+    public static boolean saveRows(List<String[]> rows) {
+        try {
+            return WorkbookSession.write(workbook -> {
+                Sheet sheet = XlWorkbookUtils.ensureSheet(workbook, SHEET_SCENES, SceneSheetCommand.values());
+
+                for (int i = sheet.getLastRowNum(); i > 0; i--) {
+                    Row row = sheet.getRow(i);
+                    if (row != null) sheet.removeRow(row);
+                }
+
+                int rowIndex = 1;
+                for (String[] values : rows) {
+                    Row row = sheet.createRow(rowIndex++);
+                    for (int c = 0; c < values.length && c < COLUMNS; c++) {
+                        row.createCell(c).setCellValue(values[c] != null ? values[c] : "");
+                    }
+                }
+                Log.debug("🎬 Scenes sheet written with " + rows.size() + " row(s).");
+                return true;
+            });
+        } catch (IOException e) {
+            Log.error("❌ Failed to save scenes: " + e.getMessage());
+            return false;
+        }
+    }
+}
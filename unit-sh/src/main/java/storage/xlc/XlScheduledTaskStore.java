@@ -0,0 +1,173 @@
+package storage.xlc;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import storage.xlc.sheetsCommand.ScheduledTasksCommand;
+import utils.Log;
+
+import java.io.IOException;
+import java.util.*;
+
+import static storage.xlc.XlWorkbookUtils.getCellValue;
+import static storage.xlc.XlWorkbookUtils.setCell;
+
+/**
+ * 🗓️ Row-level access to the "Scheduled_Tasks" sheet, keyed by TaskID.
+ * <p>
+ * {@link #apply} touches only the rows of the tasks it is given — changed tasks are updated in place
+ * (or appended), removed tasks are deleted — and leaves every other row alone. Columns are found by
+ * header label, so Status/Priority and any extra columns survive. Sheets written before TaskIDs were
+ * stored have to be migrated with a full rewrite ({@code replaceAll}); partial updates refuse them.
+ */
+public class XlScheduledTaskStore {
+
+    public static final String SHEET_TASKS = "Scheduled_Tasks";
+
+    // 🚫 Never write into a workbook that is missing the core sheets (wrong or half-created file)
+    private static final String[] REQUIRED_SHEETS = {"Devices", "Sensors", "Sens_Ctrl", SHEET_TASKS, "Smart_Light_Control"};
+
+    // Every column apply() writes; a sheet missing one can only be fixed by a full rewrite
+    private static final ScheduledTasksCommand[] WRITTEN_COLUMNS = {
+            ScheduledTasksCommand.TASK_ID, ScheduledTasksCommand.DEVICE_ID, ScheduledTasksCommand.ACTION,
+            ScheduledTasksCommand.TIME, ScheduledTasksCommand.REPEAT};
+
+    // taskId is "" for rows written before TaskIDs were stored
+    public record TaskRow(String taskId, String targetId, String action, String time, String repeat) {}
+
+    private XlScheduledTaskStore() {
+    }
+
+    // 📥 Every data row; null when the sheet does not exist
+    public static List<TaskRow> loadRows() throws IOException {
+        return XlStreamingLoader.readSheet(SHEET_TASKS, sheet -> {
+            if (sheet == null) return null;
+
+            List<TaskRow> rows = new ArrayList<>();
+            Map<String, Integer> columns = new HashMap<>();
+            for (XlRow row : sheet) {
+                if (row.getRowNum() == 0) {
+                    for (int c = 0; c < row.getLastCellNum(); c++) {
+                        columns.putIfAbsent(row.text(c), c);
+                    }
+                    continue;
+                }
+                String targetId = text(row, columns, ScheduledTasksCommand.DEVICE_ID);
+                if (targetId.isEmpty()) continue;
+
+                rows.add(new TaskRow(
+                        text(row, columns, ScheduledTasksCommand.TASK_ID),
+                        targetId,
+                        text(row, columns, ScheduledTasksCommand.ACTION),
+                        text(row, columns, ScheduledTasksCommand.TIME),
+                        text(row, columns, ScheduledTasksCommand.REPEAT)));
+            }
+            return rows;
+        });
+    }
+
+    // 💾 Upsert + delete by TaskID in one workbook write; replaceAll drops every existing row first
+    public static boolean apply(Collection<TaskRow> upserts, Collection<String> deletedIds, boolean replaceAll) {
+        try {
+            return WorkbookSession.write(workbook -> {
+                if (!hasRequiredSheets(workbook)) return false;
+
+                Sheet sheet = workbook.getSheet(SHEET_TASKS);
+                Map<String, Integer> columns = columns(sheet);
+                if (replaceAll) {
+                    resetSheet(sheet);
+                    columns = columns(sheet);
+                }
+                for (ScheduledTasksCommand column : WRITTEN_COLUMNS) {
+                    if (!columns.containsKey(column.label())) {
+                        Log.warn("⚠️ Tasks sheet has no " + column.label() + " column — a full rewrite is needed.");
+                        return false;
+                    }
+                }
+
+                int idColumn = columns.get(ScheduledTasksCommand.TASK_ID.label());
+                deleteRows(sheet, idColumn, new HashSet<>(deletedIds));
+
+                Map<String, Row> rowsById = new HashMap<>();
+                for (int i = 1; i <= sheet.getLastRowNum(); i++) {
+                    Row row = sheet.getRow(i);
+                    if (row != null) rowsById.put(getCellValue(row, idColumn), row);
+                }
+
+                for (TaskRow task : upserts) {
+                    Row row = rowsById.get(task.taskId());
+                    if (row == null) {
+                        row = sheet.createRow(sheet.getLastRowNum() + 1);
+                        rowsById.put(task.taskId(), row);
+                    }
+                    setCell(row, idColumn, task.taskId());
+                    setCell(row, columns.get(ScheduledTasksCommand.DEVICE_ID.label()), task.targetId());
+                    setCell(row, columns.get(ScheduledTasksCommand.ACTION.label()), task.action());
+                    setCell(row, columns.get(ScheduledTasksCommand.TIME.label()), task.time());
+                    setCell(row, columns.get(ScheduledTasksCommand.REPEAT.label()), task.repeat());
+                }
+
+                Log.debug("🗓️ Tasks sheet: " + upserts.size() + " upserted, " + deletedIds.size() + " deleted"
+                        + (replaceAll ? " (full rewrite)" : "") + ".");
+                return true;
+            });
+        } catch (IOException e) {
+            Log.error("❌ Failed to save scheduled tasks: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean hasRequiredSheets(Workbook workbook) {
+        boolean ok = true;
+        for (String name : REQUIRED_SHEETS) {
+            if (workbook.getSheet(name) == null) {
+                System.err.println("🚫 Missing critical sheet: " + name);
+                ok = false;
+            }
+        }
+        if (!ok) System.err.println("❌ Scheduled tasks were NOT saved to avoid data loss.");
+        return ok;
+    }
+
+    private static Map<String, Integer> columns(Sheet sheet) {
+        Map<String, Integer> columns = new HashMap<>();
+        Row header = sheet.getRow(0);
+        if (header != null) {
+            for (int c = 0; c < header.getLastCellNum(); c++) {
+                columns.putIfAbsent(getCellValue(header, c), c);
+            }
+        }
+        return columns;
+    }
+
+    // 🧹 Enum header, no data rows
+    private static void resetSheet(Sheet sheet) {
+        for (int i = sheet.getLastRowNum(); i >= 0; i--) {
+            Row row = sheet.getRow(i);
+            if (row != null) sheet.removeRow(row);
+        }
+        Row header = sheet.createRow(0);
+        ScheduledTasksCommand[] all = ScheduledTasksCommand.values();
+        for (int i = 0; i < all.length; i++) {
+            header.createCell(i).setCellValue(all[i].label());
+        }
+    }
+
+    // 🗑️ Bottom-up so shifting never skips a row
+    private static void deleteRows(Sheet sheet, int idColumn, Set<String> ids) {
+        if (ids.isEmpty()) return;
+        for (int i = sheet.getLastRowNum(); i > 0; i--) {
+            Row row = sheet.getRow(i);
+            if (row == null || !ids.contains(getCellValue(row, idColumn))) continue;
+
+            sheet.removeRow(row);
+            int last = sheet.getLastRowNum();
+            if (i < last) sheet.shiftRows(i + 1, last, -1);
+        }
+    }
+
+    private static String text(XlRow row, Map<String, Integer> columns, ScheduledTasksCommand column) {
+        Integer index = columns.get(column.label());
+        return index == null ? "" : row.text(index).trim();
+    }
+}
@@ -5,14 +5,11 @@ import devices.actions.ApprovedDeviceModel;
 import devices.actions.SmartLightColorMode;
 import devices.actions.SmartLightEffect;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import storage.DeviceStorage;
 import storage.xlc.sheetsCommand.SmartLightSheetCommand;
 import utils.Log;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.time.Clock;
 import java.util.ArrayList;
@@ -31,74 +28,88 @@ public class XlSmartLightManager {
     public static Map<String, SmartLight> loadSmartLights() {
         Map<String, SmartLight> loadedLights = new HashMap<>();
 
-        try (FileInputStream fis = new FileInputStream(XlWorkbookUtils.getFilePath().toFile());
-             Workbook workbook = new XSSFWorkbook(fis)) {
+        try {
+            XlStreamingLoader.readSheet(SHEET_SMART_LIGHTS, controlSheet -> {
+                readSmartLights(controlSheet, loadedLights);
+                return null;
+            });
+        } catch (IOException e) {
+            Log.error("❌ Could not load SmartLights: " + e.getMessage());
+        }
 
-            Sheet controlSheet = workbook.getSheet(SHEET_SMART_LIGHTS);
-            if (controlSheet == null) {
-                Log.warn("⚠️ Sheet 'Smart_light_Control' not found.");
-                return loadedLights;
-            }
+        return loadedLights;
+    }
 
-            Map<SmartLightSheetCommand, Integer> columnMap = SmartLightSheetCommand.getColumnMap();
+    private static void readSmartLights(Iterable<XlRow> controlSheet, Map<String, SmartLight> loadedLights) {
+        if (controlSheet == null) {
+            Log.warn("⚠️ Sheet 'Smart_light_Control' not found.");
+            return;
+        }
+
+        Map<SmartLightSheetCommand, Integer> columnMap = SmartLightSheetCommand.getColumnMap();
 
-            for (Row controlRow : controlSheet) {
-                if (controlRow.getRowNum() == 0) continue;
+        for (XlRow controlRow : controlSheet) {
+            if (controlRow.getRowNum() == 0) continue;
 
+            try {
+                String deviceId  = controlRow.text(columnMap.get(SmartLightSheetCommand.DEVICE_ID)).trim();
+                String name      = controlRow.text(columnMap.get(SmartLightSheetCommand.NAME)).trim();
+                String brand     = controlRow.text(columnMap.get(SmartLightSheetCommand.BRAND)).trim();
+                String model     = controlRow.text(columnMap.get(SmartLightSheetCommand.MODEL)).trim();
+                String redStr    = controlRow.text(columnMap.get(SmartLightSheetCommand.RED)).trim();
+                String greenStr  = controlRow.text(columnMap.get(SmartLightSheetCommand.GREEN)).trim();
+                String blueStr   = controlRow.text(columnMap.get(SmartLightSheetCommand.BLUE)).trim();
+
+                int red   = parseIntFromCell(redStr, 255);
+                int green = parseIntFromCell(greenStr, 222);
+                int blue  = parseIntFromCell(blueStr, 111);
+
+                // 🚀 Load automation settings straight from control sheet
+                boolean automationEnabled = false;
+                double autoOnThreshold = 1024.0;
+
+                String autoEnabledStr = controlRow.text(columnMap.get(SmartLightSheetCommand.AUTO_ENABLED)).trim();
+                String autoOnStr      = controlRow.text(columnMap.get(SmartLightSheetCommand.AUTO_ON)).trim();
+
+                automationEnabled = "1".equals(autoEnabledStr) || "true".equalsIgnoreCase(autoEnabledStr);
                 try {
-                    String deviceId  = getCellValue(controlRow, columnMap.get(SmartLightSheetCommand.DEVICE_ID)).trim();
-                    String name      = getCellValue(controlRow, columnMap.get(SmartLightSheetCommand.NAME)).trim();
-                    String brand     = getCellValue(controlRow, columnMap.get(SmartLightSheetCommand.BRAND)).trim();
-                    String model     = getCellValue(controlRow, columnMap.get(SmartLightSheetCommand.MODEL)).trim();
-                    String redStr    = getCellValue(controlRow, columnMap.get(SmartLightSheetCommand.RED)).trim();
-                    String greenStr  = getCellValue(controlRow, columnMap.get(SmartLightSheetCommand.GREEN)).trim();
-                    String blueStr   = getCellValue(controlRow, columnMap.get(SmartLightSheetCommand.BLUE)).trim();
-
-                    int red   = parseIntFromCell(redStr, 255);
-                    int green = parseIntFromCell(greenStr, 222);
-                    int blue  = parseIntFromCell(blueStr, 111);
-
-                    // 🚀 Load automation settings straight from control sheet
-                    boolean automationEnabled = false;
-                    double autoOnThreshold = 1024.0;
-
-                    String autoEnabledStr = getCellValue(controlRow, columnMap.get(SmartLightSheetCommand.AUTO_ENABLED)).trim();
-                    String autoOnStr      = getCellValue(controlRow, columnMap.get(SmartLightSheetCommand.AUTO_ON)).trim();
-
-                    automationEnabled = "1".equals(autoEnabledStr) || "true".equalsIgnoreCase(autoEnabledStr);
-                    try {
-                        autoOnThreshold = Double.parseDouble(autoOnStr);
-                    } catch (Exception ignored) {}
-
-                    ApprovedDeviceModel approvedModel = ApprovedDeviceModel.lookup(brand, model);
-                    SmartLight light = new SmartLight(deviceId, name, approvedModel, clock, automationEnabled);
-                    SmartLightColorMode mode = SmartLightColorMode.matchColorMode(red, green, blue);
-
-                    light.setColorMode(mode);
-                    light.setLiteFx(SmartLightEffect.NONE);
-                    light.setAutoThreshold(autoOnThreshold, true);
-
-                    System.out.printf("🌈 SmartLight [%s] initialized → Mode: %s | RGB(%d,%d,%d) | FX: %s | Power: OFF%n",
-                            light.getName(),
-                            mode.getLabel(),
-                            mode.getRed(), mode.getGreen(), mode.getBlue(),
-                            SmartLightEffect.NONE.name());
-
-                    loadedLights.put(deviceId, light);
-                    Log.debug("📥 SmartLight loaded: " + deviceId + " | AutoOp: " + automationEnabled + " | ON=" + autoOnThreshold);
-
-                } catch (Exception e) {
-                    Log.warn("❌ Invalid SmartLight row #" + controlRow.getRowNum() + ": " + e.getMessage());
-                }
+                    autoOnThreshold = Double.parseDouble(autoOnStr);
+                } catch (Exception ignored) {}
+
+                ApprovedDeviceModel approvedModel = ApprovedDeviceModel.lookup(brand, model);
+                SmartLight light = new SmartLight(deviceId, name, approvedModel, clock, automationEnabled);
+                SmartLightColorMode mode = SmartLightColorMode.matchColorMode(red, green, blue);
+
+                light.setColorMode(mode);
+                light.setLiteFx(SmartLightEffect.NONE);
+                light.setAutoThreshold(autoOnThreshold, true);
+
+                System.out.printf("🌈 SmartLight [%s] initialized → Mode: %s | RGB(%d,%d,%d) | FX: %s | Power: OFF%n",
+                        light.getName(),
+                        mode.getLabel(),
+                        mode.getRed(), mode.getGreen(), mode.getBlue(),
+                        SmartLightEffect.NONE.name());
+
+                loadedLights.put(deviceId, light);
+                Log.debug("📥 SmartLight loaded: " + deviceId + " | AutoOp: " + automationEnabled + " | ON=" + autoOnThreshold);
+
+            } catch (Exception e) {
+                Log.warn("❌ Invalid SmartLight row #" + controlRow.getRowNum() + ": " + e.getMessage());
             }
+        }
+    }
 
+    // 💾 Rewrite a SmartLight's control row in the shared workbook and save it
+    public static boolean updateSmartLight(SmartLight light) {
+        try {
+            return WorkbookSession.write(workbook -> updateSmartLight(workbook, light));
         } catch (IOException e) {
-            Log.error("❌ Could not load SmartLights: " + e.getMessage());
+            Log.error("❌ Failed to update SmartLight: " + e.getMessage());
+            return false;
         }
-
-        return loadedLights;
     }
 
+    // ✏️ Rewrite the control row inside the given workbook — saving is left to the caller's session write
     public static boolean updateSmartLight(Workbook workbook, SmartLight light) {
         boolean updated = false;
         try {
@@ -116,17 +127,15 @@ public class XlSmartLightManager {
             writeDeviceSmartLightControlRow(light, row);
 
             // 🧠 Debug: Log full SmartLight state before saving
-            Log.debug("🧠 SmartLight update: ID=" + light.getId()
-                    + ", AUTO_ENABLED=" + light.isAutomationEnabled()
-                    + ", THRESHOLD=" + light.getAutoThreshold()
-                    + ", COLOR_MODE=" + light.getColorMode().getLabel()
-                    + ", RGB=[" + light.getColorMode().getRed() + "," + light.getColorMode().getGreen() + "," + light.getColorMode().getBlue() + "]"
-                    + ", FX_MODE=" + light.getLiteFx().name()
-                    + ", ACTIONS=" + light.getSupportedActionsAsText());
-
-            XlWorkbookUtils.saveWorkbook(workbook, XlWorkbookUtils.getFilePath().toString());
+            if (Log.isDebugEnabled()) {
+                SmartLightColorMode mode = light.getColorMode();
+                Log.debug("🧠 SmartLight update: ID={}, AUTO_ENABLED={}, THRESHOLD={}, COLOR_MODE={}, RGB=[{},{},{}], FX_MODE={}, ACTIONS={}",
+                        light.getId(), light.isAutomationEnabled(), light.getAutoThreshold(), mode.getLabel(),
+                        mode.getRed(), mode.getGreen(), mode.getBlue(), light.getLiteFx(), light.getSupportedActionsAsText());
+            }
+
             updated = true;
-            Log.info("🌈 SmartLight control updated for device: " + light.getId());
+            Log.debug("🌈 SmartLight control updated for device: {}", light.getId());
         } catch (Exception e) {
             Log.error("❌ Failed to update SmartLight: " + e.getMessage());
         }
@@ -134,6 +143,16 @@ public class XlSmartLightManager {
     }
 
 
+    // ➕ Append a control row for a brand-new SmartLight (no duplicate scan) — saving is left to the caller
+    public static void appendSmartLight(Workbook workbook, SmartLight light) {
+        Sheet sheet = workbook.getSheet(SHEET_SMART_LIGHTS);
+        if (sheet == null) {
+            sheet = workbook.createSheet(SHEET_SMART_LIGHTS);
+            createHeaderRow(sheet);
+        }
+        writeDeviceSmartLightControlRow(light, sheet.createRow(sheet.getLastRowNum() + 1));
+    }
+
     private static void removeDuplicateSmartLightRows(Sheet sheet, String deviceId, Map<SmartLightSheetCommand, Integer> columnMap) {
         List<Integer> rowsToRemove = new ArrayList<>();
 
@@ -145,9 +164,6 @@ public class XlSmartLightManager {
 
             if (type == null || id == null || id.isBlank()) continue;
 
-            // 🔍 Optional: Print row summary for debugging
-            System.out.println("👀 Row " + row.getRowNum() + " → TYPE=" + type + ", ID=" + id);
-
             if (type.equals("SMART_LIGHT") && deviceId.equals(id)) {
                 rowsToRemove.add(row.getRowNum());
             }
@@ -177,26 +193,22 @@ public class XlSmartLightManager {
     // ✍️ Write SmartLight with DEVICE_ID only
     public static boolean writeSmartLight(SmartLight light) {
         try {
-            Workbook workbook = XlWorkbookUtils.getWorkbook(XlWorkbookUtils.getFilePath().toString());
-
-            // === Smart_Light_Control Sheet ===
-            Sheet controlSheet = workbook.getSheet(SHEET_SMART_LIGHTS);
-            if (controlSheet == null) {
-                controlSheet = workbook.createSheet(SHEET_SMART_LIGHTS);
-                createHeaderRow(controlSheet);
-            }
-            Map<SmartLightSheetCommand, Integer> controlColumnMap = SmartLightSheetCommand.getColumnMap();
-            removeDuplicateSmartLightRows(controlSheet, light.getId(), controlColumnMap);
+            WorkbookSession.write(workbook -> {
+                // === Smart_Light_Control Sheet ===
+                Sheet controlSheet = workbook.getSheet(SHEET_SMART_LIGHTS);
+                if (controlSheet == null) {
+                    controlSheet = workbook.createSheet(SHEET_SMART_LIGHTS);
+                    createHeaderRow(controlSheet);
+                }
+                Map<SmartLightSheetCommand, Integer> controlColumnMap = SmartLightSheetCommand.getColumnMap();
+                removeDuplicateSmartLightRows(controlSheet, light.getId(), controlColumnMap);
 
-            int controlRowIndex = controlSheet.getLastRowNum() + 1;
-            Row controlRow = controlSheet.createRow(controlRowIndex);
-            writeDeviceSmartLightControlRow(light, controlRow);
+                int controlRowIndex = controlSheet.getLastRowNum() + 1;
+                Row controlRow = controlSheet.createRow(controlRowIndex);
+                writeDeviceSmartLightControlRow(light, controlRow);
 
-            // === Final Save ===
-            try (FileOutputStream fos = new FileOutputStream(XlWorkbookUtils.getFilePath().toFile())) {
-                workbook.write(fos);
-                workbook.close();
-            }
+                return true; // 💾 Saved by the session
+            });
 
             Log.info("✅ SmartLight written to Devices and Control: " + light.getId());
             return true;
@@ -328,13 +340,7 @@ public class XlSmartLightManager {
             return;
         }
 
-        Workbook workbook = XlWorkbookUtils.loadWorkbook();
-        if (workbook == null) {
-            Log.error("❌ Could not load workbook for SmartLight record.");
-            return;
-        }
-
-        boolean success = updateSmartLight(workbook, smartLight);
+        boolean success = updateSmartLight(smartLight);
         if (success) {
             System.out.println("✅ SmartLight record safely created and written for device ID: " + deviceId);
         } else {
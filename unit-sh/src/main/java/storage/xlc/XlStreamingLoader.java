@@ -0,0 +1,308 @@
+package storage.xlc;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+import utils.Log;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * 🚀 Cold-start loader that reads the workbook with POI's SAX event API instead of building a DOM.
+ * <p>
+ * {@link #preload()} walks the startup sheets (Devices, Smart_Light_Control, Sensors, Sens_Ctrl, Scheduled_Tasks, Scenes)
+ * in one pass and keeps just their cell text. Sheet loaders go through {@link #readSheet}: while that snapshot
+ * matches the file on disk they parse it, otherwise they fall back to the shared {@link WorkbookSession} DOM.
+ * The snapshot is dropped on the first save and by {@link #release()} once startup is done.
+ * {@link #stream} is the constant-memory variant — rows are handed over one at a time and never kept.
+ */
+public final class XlStreamingLoader {
+
+    public static final Set<String> STARTUP_SHEETS = Set.of(
+            "Devices", "Smart_Light_Control", "Sensors", "Sens_Ctrl", "Scheduled_Tasks", "Scenes");
+
+    @FunctionalInterface
+    public interface RowsReader<T> {
+        // rows is null when the sheet does not exist
+        T read(Iterable<XlRow> rows) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface RowHandler {
+        void row(String sheetName, XlRow row);
+    }
+
+    // 📸 Cell text of the startup sheets, tied to the file state it was read from
+    private record Snapshot(Path path, long mtime, long size, Set<String> sheetNames, Map<String, List<XlRow>> rows) {}
+
+    private static volatile Snapshot snapshot;
+
+    private XlStreamingLoader() {
+        // Static holder – prevent instantiation
+    }
+
+    // 🔥 One streaming pass over the current workbook; false if it cannot be read
+    public static boolean preload() {
+        Path path = XlWorkbookUtils.getFilePath();
+        try {
+            long mtime = Files.getLastModifiedTime(path).toMillis();
+            long size = Files.size(path);
+
+            Map<String, List<XlRow>> rows = new HashMap<>();
+            Set<String> sheetNames = stream(path, STARTUP_SHEETS, (sheet, row) ->
+                    rows.computeIfAbsent(key(sheet), k -> new ArrayList<>()).add(row));
+            for (String name : sheetNames) {
+                if (isStartupSheet(name)) rows.putIfAbsent(key(name), List.of());
+            }
+
+            snapshot = new Snapshot(path, mtime, size, sheetNames, rows);
+            Log.debug("🚀 Streamed " + rows.values().stream().mapToInt(List::size).sum()
+                    + " rows from " + rows.size() + " sheet(s): " + path);
+            return true;
+        } catch (IOException e) {
+            Log.warn("⚠️ Streaming preload failed: " + e.getMessage());
+            snapshot = null;
+            return false;
+        }
+    }
+
+    // 🧹 Forget the snapshot (end of startup, or the file was rewritten)
+    public static void release() {
+        snapshot = null;
+    }
+
+    // 📄 Parse one sheet from the streamed snapshot when it is still current, else from the shared DOM
+    public static <T> T readSheet(String sheetName, RowsReader<T> reader) throws IOException {
+        Snapshot current = freshSnapshot();
+        if (current != null) {
+            String k = key(sheetName);
+            List<XlRow> rows = current.rows().get(k);
+            if (rows != null) return reader.read(rows);
+            if (current.sheetNames().stream().noneMatch(n -> key(n).equals(k))) return reader.read(null);
+            // Sheet exists but was not part of the preload — fall through to the DOM
+        }
+        return WorkbookSession.readSheet(sheetName, sheet -> reader.read(sheet == null ? null : XlRow.rows(sheet)));
+    }
+
+    // 🌊 Stream the wanted sheets row by row; returns the names of every sheet in the file
+    public static Set<String> stream(Path path, Set<String> wantedSheets, RowHandler handler) throws IOException {
+        Set<String> wanted = new HashSet<>();
+        for (String name : wantedSheets) wanted.add(key(name));
+
+        Set<String> sheetNames = new LinkedHashSet<>();
+        try (OPCPackage pkg = OPCPackage.open(path.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            SharedStrings strings = new ReadOnlySharedStringsTable(pkg);
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+
+            while (sheets.hasNext()) {
+                try (InputStream in = sheets.next()) {
+                    String name = sheets.getSheetName();
+                    sheetNames.add(name);
+                    if (!wanted.contains(key(name))) continue;
+
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(new SheetHandler(strings, row -> handler.row(name, row)));
+                    parser.parse(new InputSource(in));
+                }
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException | RuntimeException e) {
+            throw new IOException("Cannot stream workbook " + path + ": " + e.getMessage(), e);
+        }
+        return sheetNames;
+    }
+
+    private static Snapshot freshSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) return null;
+        try {
+            Path path = XlWorkbookUtils.getFilePath();
+            if (path.equals(current.path())
+                    && Files.getLastModifiedTime(path).toMillis() == current.mtime()
+                    && Files.size(path) == current.size()) {
+                return current;
+            }
+        } catch (IOException ignored) {
+            // Treat as stale
+        }
+        snapshot = null;
+        return null;
+    }
+
+    private static boolean isStartupSheet(String name) {
+        String k = key(name);
+        return STARTUP_SHEETS.stream().anyMatch(s -> key(s).equals(k));
+    }
+
+    // Sheet lookups are case-insensitive, like Workbook.getSheet
+    private static String key(String sheetName) {
+        return sheetName.toLowerCase(Locale.ROOT);
+    }
+
+    // ─── 🧾 Streamed row ───
+
+    private static final class StreamedRow implements XlRow {
+        private final int rowNum;
+        private final CellType[] types;
+        private final String[] values;
+
+        StreamedRow(int rowNum, CellType[] types, String[] values) {
+            this.rowNum = rowNum;
+            this.types = types;
+            this.values = values;
+        }
+
+        @Override
+        public int getRowNum() {
+            return rowNum;
+        }
+
+        @Override
+        public int getLastCellNum() {
+            return values.length == 0 ? -1 : values.length;
+        }
+
+        @Override
+        public String text(int column) {
+            if (column < 0 || column >= values.length || values[column] == null) return "";
+            String raw = values[column];
+            return switch (types[column]) {
+                case STRING -> raw.trim();
+                case NUMERIC, FORMULA -> roundedText(raw);
+                case BOOLEAN -> Boolean.toString("1".equals(raw) || "true".equalsIgnoreCase(raw));
+                default -> "";
+            };
+        }
+
+        // Numbers (and cached formula results) rounded to whole numbers; anything else as text
+        private static String roundedText(String raw) {
+            try {
+                return String.valueOf((int) Math.round(Double.parseDouble(raw)));
+            } catch (NumberFormatException e) {
+                return raw.trim();
+            }
+        }
+
+        @Override
+        public double number(int column, double fallback) {
+            // Formula cells yield the fallback, matching XlWorkbookUtils.getSafeNumeric
+            if (column < 0 || column >= values.length || values[column] == null) return fallback;
+            if (types[column] != CellType.NUMERIC && types[column] != CellType.STRING) return fallback;
+            try {
+                return Double.parseDouble(values[column].trim());
+            } catch (NumberFormatException e) {
+                return fallback;
+            }
+        }
+    }
+
+    // ─── 🧵 SAX handler for one worksheet part ───
+
+    private static final class SheetHandler extends DefaultHandler {
+        private final SharedStrings strings;
+        private final java.util.function.Consumer<XlRow> sink;
+
+        private final List<CellType> types = new ArrayList<>();
+        private final List<String> values = new ArrayList<>();
+        private final StringBuilder text = new StringBuilder();
+
+        private int rowNum = -1;
+        private int column = -1;
+        private String cellType;
+        private boolean formula;
+        private boolean collecting;
+
+        SheetHandler(SharedStrings strings, java.util.function.Consumer<XlRow> sink) {
+            this.strings = strings;
+            this.sink = sink;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attrs) {
+            switch (localName) {
+                case "row" -> {
+                    String r = attrs.getValue("r");
+                    rowNum = r != null ? Integer.parseInt(r) - 1 : rowNum + 1;
+                    types.clear();
+                    values.clear();
+                    column = -1;
+                }
+                case "c" -> {
+                    String ref = attrs.getValue("r");
+                    column = ref != null ? new CellReference(ref).getCol() : column + 1;
+                    cellType = attrs.getValue("t");
+                    formula = false;
+                    text.setLength(0);
+                }
+                case "v", "t" -> collecting = true;
+                case "f" -> formula = true;
+                default -> { }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (collecting) text.append(ch, start, length);
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v", "t" -> collecting = false;
+                case "c" -> storeCell();
+                case "row" -> {
+                    sink.accept(new StreamedRow(rowNum,
+                            types.toArray(new CellType[0]),
+                            values.toArray(new String[0])));
+                }
+                default -> { }
+            }
+        }
+
+        private void storeCell() {
+            if (text.length() == 0) return;
+
+            CellType type;
+            String value;
+            if (cellType == null || "n".equals(cellType)) {
+                type = CellType.NUMERIC;
+                value = text.toString();
+            } else if ("s".equals(cellType)) {
+                type = CellType.STRING;
+                value = strings.getItemAt(Integer.parseInt(text.toString().trim())).getString();
+            } else if ("str".equals(cellType) || "inlineStr".equals(cellType)) {
+                type = CellType.STRING;
+                value = text.toString();
+            } else if ("b".equals(cellType)) {
+                type = CellType.BOOLEAN;
+                value = text.toString();
+            } else {
+                return; // errors and anything unknown read as blank
+            }
+            if (formula && type != CellType.BOOLEAN) type = CellType.FORMULA;
+
+            while (values.size() <= column) {
+                values.add(null);
+                types.add(CellType.BLANK);
+            }
+            values.set(column, value);
+            types.set(column, type);
+        }
+    }
+}
@@ -1,10 +1,9 @@
 package storage.xlc;
 
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import utils.Log;
 
-import java.io.*;
+import java.io.IOException;
 import java.util.*;
 
 import static storage.xlc.XlWorkbookUtils.*;
@@ -15,22 +14,22 @@ public class XlTaskSchedulerManager {
     public static List<Map<String, String>> loadTasks() {
         List<Map<String, String>> tasks = new ArrayList<>();
 
-        try (FileInputStream fis = new FileInputStream(getFilePath().toFile());
-             Workbook workbook = new XSSFWorkbook(fis)) {
-
-            Sheet sheet = workbook.getSheet(SHEET_TASKS);
-            if (sheet == null) return tasks;
+        try {
+            XlStreamingLoader.readSheet(SHEET_TASKS, sheet -> {
+                if (sheet == null) return null;
 
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0) continue;
-                Map<String, String> task = new HashMap<>();
-                task.put("DEVICE_ID", getCellValue(row, 0));
-                task.put("DEVICE_NAME", getCellValue(row, 1));
-                task.put("ACTION", getCellValue(row, 2));
-                task.put("SCHEDULED", getCellValue(row, 3));
-                task.put("REPEAT", getCellValue(row, 4));
-                tasks.add(task);
-            }
+                for (XlRow row : sheet) {
+                    if (row.getRowNum() == 0) continue;
+                    Map<String, String> task = new HashMap<>();
+                    task.put("DEVICE_ID", row.text(0));
+                    task.put("DEVICE_NAME", row.text(1));
+                    task.put("ACTION", row.text(2));
+                    task.put("SCHEDULED", row.text(3));
+                    task.put("REPEAT", row.text(4));
+                    tasks.add(task);
+                }
+                return null;
+            });
 
         } catch (IOException e) {
             Log.error("❌ Failed to load tasks: " + e.getMessage());
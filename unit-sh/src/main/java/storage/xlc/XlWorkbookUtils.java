@@ -1,5 +1,7 @@
 package storage.xlc;
 
+import metrics.LatencyHistogram;
+import metrics.Metrics;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
@@ -14,6 +16,8 @@ import java.util.*;
 
 public class XlWorkbookUtils {
 
+    private static final LatencyHistogram UPDATE_LATENCY = Metrics.histogram("workbook.update");
+
     private static Path filePath = Paths.get("/home/nira/Documents/Shay/Fleur/unit-sh/unit-sh/shsXl.xlsx");
 
     public static Path getFilePath() {
@@ -154,6 +158,7 @@ public class XlWorkbookUtils {
                 createEnumSheet(workbook, "Smart_Light_Control", SmartLightSheetCommand.class);
                 createEnumSheet(workbook, "Sensors", SensorSheetCommand.class);
                 createEnumSheet(workbook, "Sens_Ctrl", AutoOpControlCommand.class);
+                createEnumSheet(workbook, "Scenes", SceneSheetCommand.class);
 
                 try (FileOutputStream fos = new FileOutputStream(file)) {
                     workbook.write(fos);
@@ -189,15 +194,6 @@ public class XlWorkbookUtils {
             return WorkbookFactory.create(fis);
         }
     }
-    public static Workbook loadWorkbook() {
-        try {
-            String path = getFilePath().toString(); // Assuming getFilePath() returns the right path
-            return getWorkbook(path);
-        } catch (IOException e) {
-            Log.error("❌ Failed to load workbook: " + e.getMessage());
-            return null;
-        }
-    }
 
 
     @FunctionalInterface
@@ -215,33 +211,26 @@ public class XlWorkbookUtils {
     public static boolean updateWorkbook(WorkbookSheetConsumer consumer) throws IOException {
         if (!ensureFileExists()) return false;
 
-        File file = getFilePath().toFile();
-
-        try (FileInputStream fis = new FileInputStream(file);
-             Workbook workbook = WorkbookFactory.create(fis)) {
-
-            // 🔧 Load all necessary sheets
-            Sheet tasks           = ensureSheet(workbook, "Scheduled_Tasks", ScheduledTasksCommand.values());
-            Sheet devices         = ensureSheet(workbook, "Devices", DeviceSheetCommand.values());
-            Sheet sensors         = ensureSheet(workbook, "Sensors", SensorSheetCommand.values()); // if defined
-            Sheet senseControl    = ensureSheet(workbook, "AutoOp_Ctrl", null);
-            Sheet smartLightCtrl  = ensureSheet(workbook, "Smart_Light_Control", null);
-
-            // 🛠️ Pass the workbook and sheets to the consumer
-            consumer.accept(workbook, tasks, devices, sensors, senseControl, smartLightCtrl);
-
-            // 💾 Save changes
-            System.out.println("📤 Writing workbook to: " + file);
-
-            try (FileOutputStream fos = new FileOutputStream(file)) {
-                workbook.write(fos);
-            }
-
-            return true;
+        long start = System.nanoTime();
+        try {
+            return WorkbookSession.write(workbook -> {
+                // 🔧 Load all necessary sheets
+                Sheet tasks           = ensureSheet(workbook, "Scheduled_Tasks", ScheduledTasksCommand.values());
+                Sheet devices         = ensureSheet(workbook, "Devices", DeviceSheetCommand.values());
+                Sheet sensors         = ensureSheet(workbook, "Sensors", SensorSheetCommand.values()); // if defined
+                Sheet senseControl    = ensureSheet(workbook, "AutoOp_Ctrl", null);
+                Sheet smartLightCtrl  = ensureSheet(workbook, "Smart_Light_Control", null);
+
+                // 🛠️ Pass the shared workbook and sheets to the consumer — the session saves it afterwards
+                consumer.accept(workbook, tasks, devices, sensors, senseControl, smartLightCtrl);
+                return true;
+            });
 
         } catch (IOException e) {
             System.err.println("❌ Exception during workbook update: " + e.getMessage());
             return false;
+        } finally {
+            Metrics.recordSince(UPDATE_LATENCY, start);
         }
     }
     public static Sheet ensureSheet(Workbook workbook, String name, Enum<?>[] headers) {
@@ -264,6 +253,13 @@ public class XlWorkbookUtils {
 
     // 🧪 Health checker
     public static boolean isExcelFileHealthy(File file) {
+        // The live workbook is validated by streaming it, so the check doubles as the cold-start preload
+        if (file.toPath().toAbsolutePath().equals(getFilePath().toAbsolutePath())) {
+            if (XlStreamingLoader.preload()) return true;
+            System.err.println("❌ Excel health check failed: " + file);
+            return false;
+        }
+
         try (FileInputStream fis = new FileInputStream(file)) {
             new XSSFWorkbook(fis).close();
             return true;
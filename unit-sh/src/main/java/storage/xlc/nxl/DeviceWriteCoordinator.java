@@ -3,33 +3,35 @@ package storage.xlc.nxl;
 import devices.Device;
 import devices.SmartLight;
 import org.apache.poi.ss.usermodel.*;
+import sensors.Sensor;
+import storage.xlc.WorkbookSession;
 import storage.xlc.XlDeviceManager;
+import storage.xlc.XlSensorManager;
 import storage.xlc.XlSmartLightManager;
-import storage.xlc.XlWorkbookUtils;
+
+import java.util.Collection;
 
 public class DeviceWriteCoordinator {
     public static void writeDeviceToWorkbook(Device device) {
         try {
-            Workbook workbook = XlWorkbookUtils.getWorkbook(XlWorkbookUtils.getFilePath().toString());
-
-            // ✅ Always write to Devices sheet
-            Sheet deviceSheet = workbook.getSheet("Devices");
-            if (deviceSheet == null) {
-                deviceSheet = workbook.createSheet("Devices");
-                // Optional: createHeaderRow(deviceSheet);
-            }
-
-            int lastRow = deviceSheet.getLastRowNum();
-            Row row = deviceSheet.createRow(lastRow + 1);
-            XlDeviceManager.writeDeviceRow(device, row); // ← This gets called every time now
-
-            // 🌈 SmartLight gets extra treatment
-            if (device instanceof SmartLight sl) {
-                XlSmartLightManager.updateSmartLight(workbook, sl);
-            }
-
-            // 💾 Save changes
-            XlWorkbookUtils.saveWorkbook(workbook, XlWorkbookUtils.getFilePath().toString());
+            WorkbookSession.write(workbook -> {
+                // ✅ Always write to Devices sheet
+                Sheet deviceSheet = workbook.getSheet("Devices");
+                if (deviceSheet == null) {
+                    deviceSheet = workbook.createSheet("Devices");
+                    // Optional: createHeaderRow(deviceSheet);
+                }
+
+                int lastRow = deviceSheet.getLastRowNum();
+                Row row = deviceSheet.createRow(lastRow + 1);
+                XlDeviceManager.writeDeviceRow(device, row); // ← This gets called every time now
+
+                // 🌈 SmartLight gets extra treatment
+                if (device instanceof SmartLight sl) {
+                    XlSmartLightManager.updateSmartLight(workbook, sl);
+                }
+                return true; // 💾 Saved once by the session
+            });
             System.out.println("📁 Saved device to workbook: " + device.getId());
 
         } catch (Exception e) {
@@ -37,4 +39,36 @@ public class DeviceWriteCoordinator {
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+
+    // 📦 Append a whole batch of new devices and sensors, then save once
+    public static boolean writeBatchToWorkbook(Collection<Device> devices, Collection<Sensor> sensors) {
+        try {
+            boolean saved = WorkbookSession.write(workbook -> {
+                Sheet deviceSheet = workbook.getSheet("Devices");
+                if (deviceSheet == null) {
+                    deviceSheet = workbook.createSheet("Devices");
+                }
+
+                int next = deviceSheet.getLastRowNum() + 1;
+                for (Device device : devices) {
+                    XlDeviceManager.writeDeviceRow(device, deviceSheet.createRow(next++));
+                    if (device instanceof SmartLight sl) {
+                        XlSmartLightManager.appendSmartLight(workbook, sl);
+                    }
+                }
+
+                for (Sensor sensor : sensors) {
+                    XlSensorManager.appendSensorRow(workbook, sensor);
+                }
+                return true; // 💾 One save for the whole batch
+            });
+            System.out.println("📁 Saved " + devices.size() + " device(s) and " + sensors.size() + " sensor(s) to workbook");
+            return saved;
+
+        } catch (Exception e) {
+            System.out.println("❌ Failed to write batch: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+}
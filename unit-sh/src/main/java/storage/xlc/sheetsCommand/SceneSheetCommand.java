@@ -0,0 +1,24 @@
+package storage.xlc.sheetsCommand;
+
+public enum SceneSheetCommand {
+    KIND("Kind"),      // GROUP | SCENE | TRIGGER
+    ID("ID"),          // GRxxx / SCxxx
+    NAME("Name"),
+    TARGET("Target"),  // device, group or sensor ID
+    VALUE("Value");    // step action or trigger condition
+
+    private final String label;
+
+    SceneSheetCommand(String label) {
+        this.label = label;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
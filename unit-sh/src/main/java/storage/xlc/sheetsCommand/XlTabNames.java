@@ -5,7 +5,8 @@ public enum XlTabNames {
     DEVICES("Devices"),
     SMART_LIGHT_CONTROL("Smart_Light_Control"),
     SENSORS("Sensors"),
-    SENSE_CONTROL("Sense_Control");
+    SENSE_CONTROL("Sense_Control"),
+    SCENES("Scenes");
 
     private final String label;
 
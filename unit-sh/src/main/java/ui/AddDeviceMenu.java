@@ -121,7 +121,6 @@ public class AddDeviceMenu {
             GuiStateManager.registerNewDevice(newDevice);
             LiveDeviceState.turnOn(newDevice); // or turnOff if preferred
             DeviceStorage.getDevices().put(newDevice.getId(), newDevice); // safe redundancy
-            GuiStateManager.refreshDeviceMatrix();
             System.out.println("✅ " + newDevice.getName() + " (" + newDevice.getId() + ") added to GUI button map successfully!");
 
         } catch (NumberFormatException e) {
@@ -4,12 +4,16 @@ import devices.Device;
 import sensors.Sensor;
 import sensors.SensorFactory;
 import sensors.MeasurementUnit;
+import storage.BulkImporter;
 import storage.DeviceStorage;
 import storage.SensorStorage;
 import storage.XlCreator;
 import storage.xlc.XlAutoOpManager;
 import storage.xlc.XlSensorManager;
+import ui.gui.managers.GuiStateManager;
 
+import java.nio.file.Path;
+import java.time.Clock;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
@@ -26,7 +30,8 @@ public class DeviceMenu {
             System.out.println("2 - Embed  Device or Sensor");
             System.out.println("3 - Update Device or Sensor");
             System.out.println("4 - Remove Device or Sensor");
-            System.out.println("5 - Back");
+            System.out.println("5 - Bulk Import from CSV");
+            System.out.println("6 - Back");
             System.out.print("Choose an option: ");
             String choice = scanner.nextLine().trim();
 
@@ -85,7 +90,7 @@ public class DeviceMenu {
                             boolean synced = xlCreator.updateAutoOpThresholds(
                                     device.getId(),
                                     device.getAutoThreshold(),
-                                    device.getAutoThreshold()
+                                    device.getAutoOffThreshold()
                             );
                             System.out.println(synced
                                     ? "🔄 Sense_Control threshold synced (AUTO-OFF mirrored)."
@@ -196,8 +201,7 @@ public class DeviceMenu {
                     boolean removed = false;
 
                     if (isDevice) {
-                        removed = XlCreator.removeDevice(removeId);
-                        DeviceStorage.getDevices().remove(removeId);
+                        removed = DeviceStorage.removeDevice(removeId);
                     } else if (isSensor) {
                         removed = XlCreator.removeSensor(removeId);
                         SensorStorage.getSensors().remove(removeId);
@@ -210,9 +214,39 @@ public class DeviceMenu {
                 }
 
 
-                case "5" -> back = true;
-                default -> System.out.println("❌ Invalid option. Please choose 1-5.");
+                case "5" -> {
+                    System.out.print("Path to CSV file: ");
+                    String path = scanner.nextLine().trim();
+                    bulkImport(path, devices, deviceThreads);
+                }
+                case "6" -> back = true;
+                default -> System.out.println("❌ Invalid option. Please choose 1-6.");
             }
         }
     }
+
+    // 📦 Provision every row of a CSV file with a single workbook save
+    static void bulkImport(String path, Map<String, Device> devices, List<Thread> deviceThreads) {
+        if (path.isEmpty()) {
+            System.out.println("❌ No file given.");
+            return;
+        }
+
+        BulkImporter.Result result = BulkImporter.importCsv(Path.of(path), Clock.systemDefaultZone());
+        if (!result.isSuccess()) {
+            System.out.println("❌ Import rejected — nothing was added:");
+            result.errors().forEach(error -> System.out.println("   • " + error));
+            return;
+        }
+
+        for (Device device : result.devices()) {
+            devices.put(device.getId(), device);
+            Thread thread = new Thread(device);
+            thread.start();
+            deviceThreads.add(thread);
+        }
+        GuiStateManager.refreshGuiFromMemory();
+
+        System.out.printf("✅ Imported %d device(s) and %d sensor(s).%n", result.devices().size(), result.sensors().size());
+    }
 }
@@ -28,13 +28,7 @@ public class DeviceViewer {
         SensorStorage.loadSensorsFromExcel();
 
         // 🔁 Sync live state with device data
-        DeviceStorage.getDevices().values().forEach(device -> {
-            if (device.isOn()) {
-                LiveDeviceState.turnOn(device);
-            } else {
-                LiveDeviceState.turnOff(device);
-            }
-        });
+        DeviceStorage.getDevices().values().forEach(LiveDeviceState::sync);
 
         // 🧩 Combine devices and sensors
         Map<String, Object> combined = new LinkedHashMap<>();
@@ -57,6 +51,8 @@ public class DeviceViewer {
             return;
         }
 
+        LiveDeviceState.Snapshot live = LiveDeviceState.snapshot(); // 📸 one consistent ON/OFF view for the whole table
+
         System.out.println("📋 Devices and Sensors in System Memory:");
         System.out.printf("%-16s%-20s%-8s%-9s%n", "  TYPE", "NAME", "   ID", " STATE");
         System.out.println("-----------------------------------------------------");
@@ -71,7 +67,7 @@ public class DeviceViewer {
                     if (item instanceof Device device) {
                         type = device.getType().name();
                         name = device.getName();
-                        state = LiveDeviceState.isOn(device) ? "ON" : "OFF";
+                        state = live.isOn(device) ? "ON" : "OFF";
                     } else if (item instanceof Sensor sensor) {
                         type = "SENSOR";
                         name = sensor.getSensorName();
@@ -30,7 +30,9 @@ public class Menu {
             System.out.println("2. Monitor Device");
             System.out.println("3. Scheduler");
             System.out.println("4. Test Device");
-            System.out.println("5. Exit");
+            System.out.println("5. Runtime Stats");
+            System.out.println("6. Scenes");
+            System.out.println("7. Exit");
             System.out.print("Please Select an option: ");
 
             String choice = inputScanner.nextLine().trim();
@@ -87,7 +89,11 @@ public class Menu {
                     }
                 }
 
-                case "5" -> {
+                case "5" -> StatsMenu.showStats();
+                case "6" -> SceneMenu.SceneMenu(scheduler, inputScanner);
+
+                case "7" -> {
+                    DeviceStorage.flushPersistence();
                     System.out.println("👋 Exiting Smart Home System. Goodbye!");
                     return;
                 }
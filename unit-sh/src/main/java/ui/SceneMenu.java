@@ -0,0 +1,162 @@
+package ui;
+
+import devices.DeviceCommandBatch;
+import scenes.DeviceGroup;
+import scenes.Scene;
+import scenes.SceneManager;
+import scenes.SceneTrigger;
+import scheduler.Scheduler;
+import storage.SensorStorage;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Scanner;
+
+public class SceneMenu {
+
+    public static void SceneMenu(Scheduler scheduler, Scanner inputScanner) {
+        boolean back = false;
+
+        while (!back) {
+            System.out.println("\n=== Scenes Menu ===");
+            System.out.println("1 - View Groups & Scenes");
+            System.out.println("2 - Create a Group");
+            System.out.println("3 - Create a Scene");
+            System.out.println("4 - Add a Sensor Trigger");
+            System.out.println("5 - Activate a Scene");
+            System.out.println("6 - Schedule a Scene");
+            System.out.println("7 - Back");
+            System.out.print("Choose an option: ");
+            String input = inputScanner.nextLine().trim();
+
+            switch (input) {
+                case "1" -> printAll();
+                case "2" -> createGroupFlow(inputScanner);
+                case "3" -> createSceneFlow(inputScanner);
+                case "4" -> addTriggerFlow(inputScanner);
+                case "5" -> activateFlow(inputScanner);
+                case "6" -> scheduleFlow(scheduler, inputScanner);
+                case "7" -> back = true;
+                default -> System.out.println("❌ Invalid option. Please choose 1-7.");
+            }
+        }
+    }
+
+    public static void SceneMenu(Scheduler scheduler) {
+        SceneMenu(scheduler, new Scanner(System.in));
+    }
+
+    private static void printAll() {
+        if (SceneManager.getGroups().isEmpty() && SceneManager.getScenes().isEmpty()) {
+            System.out.println("📭 No groups or scenes yet.");
+            return;
+        }
+        SceneManager.getGroups().forEach(System.out::println);
+        for (Scene scene : SceneManager.getScenes()) {
+            System.out.println(scene);
+            scene.getSteps().forEach(step -> System.out.println("   • " + step.target() + " → " + step.action()));
+        }
+    }
+
+    private static void createGroupFlow(Scanner scanner) {
+        System.out.print("Group name: ");
+        String name = scanner.nextLine().trim();
+        System.out.print("Device IDs (comma separated): ");
+        String[] ids = Arrays.stream(scanner.nextLine().split(","))
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .toArray(String[]::new);
+
+        if (name.isEmpty() || ids.length == 0) {
+            System.out.println("❌ A group needs a name and at least one device.");
+            return;
+        }
+        DeviceGroup group = SceneManager.createGroup(name, ids);
+        System.out.println("✅ Group created: " + group);
+    }
+
+    private static void createSceneFlow(Scanner scanner) {
+        System.out.print("Scene name: ");
+        String name = scanner.nextLine().trim();
+        if (name.isEmpty()) {
+            System.out.println("❌ Scene name cannot be empty.");
+            return;
+        }
+
+        Scene scene = SceneManager.createScene(name);
+        System.out.println("➕ Add steps as <device-or-group> <action> (ON, OFF, COLOR=..., EFFECT=..., TEMP=...); empty line to finish.");
+        while (true) {
+            System.out.print("Step: ");
+            String line = scanner.hasNextLine() ? scanner.nextLine().trim() : "";
+            if (line.isEmpty()) break;
+
+            String[] parts = line.split("\\s+", 2);
+            if (parts.length < 2) {
+                System.out.println("❌ Expected a target and an action.");
+                continue;
+            }
+            scene.addStep(parts[0], parts[1]);
+        }
+        System.out.println("✅ Scene created: " + scene);
+    }
+
+    private static void addTriggerFlow(Scanner scanner) {
+        Scene scene = askScene(scanner);
+        if (scene == null) return;
+
+        System.out.print("Sensor ID: ");
+        String sensorId = scanner.nextLine().trim();
+        if (!SensorStorage.getSensors().containsKey(sensorId)) {
+            System.out.println("❌ Sensor not found: " + sensorId);
+            return;
+        }
+        System.out.print("Condition (<, <=, > or >= and a value, e.g. <300 or >25): ");
+        String condition = scanner.nextLine().trim();
+
+        try {
+            SceneTrigger trigger = SceneTrigger.parse(scene.getId(), sensorId, condition);
+            SceneManager.addTrigger(trigger);
+            System.out.println("✅ Trigger added: " + trigger);
+        } catch (IllegalArgumentException e) {
+            System.out.println("❌ " + e.getMessage());
+        }
+    }
+
+    private static void activateFlow(Scanner scanner) {
+        Scene scene = askScene(scanner);
+        if (scene == null) return;
+
+        List<DeviceCommandBatch.Result> results = SceneManager.activate(scene.getId());
+        long applied = results.stream().filter(DeviceCommandBatch.Result::isApplied).count();
+        System.out.println("🎬 " + applied + "/" + results.size() + " command(s) applied.");
+    }
+
+    private static void scheduleFlow(Scheduler scheduler, Scanner scanner) {
+        Scene scene = askScene(scanner);
+        if (scene == null) return;
+
+        try {
+            LocalDateTime time = ScheduleMenu.getScheduledTime(scanner);
+            String repeat = ScheduleMenu.getRepeatFrequency(scanner);
+            scheduler.scheduleScene(scene, time, repeat);
+        } catch (DateTimeParseException e) {
+            System.out.println("❌ Invalid time. Use HH:mm.");
+        }
+    }
+
+    private static Scene askScene(Scanner scanner) {
+        if (SceneManager.getScenes().isEmpty()) {
+            System.out.println("📭 No scenes yet.");
+            return null;
+        }
+        SceneManager.getScenes().forEach(System.out::println);
+        System.out.print("Scene ID: ");
+        Scene scene = SceneManager.getScene(scanner.nextLine().trim());
+        if (scene == null) {
+            System.out.println("❌ Scene not found.");
+        }
+        return scene;
+    }
+}
@@ -104,7 +104,7 @@ public class ScheduleMenu {
         }
     }
 
-    private static LocalDateTime getScheduledTime(Scanner scanner) {
+    static LocalDateTime getScheduledTime(Scanner scanner) {
         System.out.println("\nSelect Task Date:");
         System.out.println("1 - Set Task for Today");
         System.out.println("2 - Choose Specific Date");
@@ -146,19 +146,24 @@ public class ScheduleMenu {
     }
 
     private static String getNewRepeat(Scanner scanner) {
-        System.out.print("🔁 Enter new repeat (none, daily, weekly, monthly): ");
+        System.out.print("🔁 Enter new repeat (none, daily, weekly, monthly, cron:<m h dom mon dow>, days:mon-fri@07:30, sunset-30m): ");
         return scanner.nextLine().trim().toLowerCase();
     }
 
-    private static String getRepeatFrequency(Scanner scanner) {
+    static String getRepeatFrequency(Scanner scanner) {
         System.out.println("\nRepeat Task?");
         System.out.println("1 - None");
         System.out.println("2 - Daily");
         System.out.println("3 - Monthly");
+        System.out.println("4 - Custom (cron:<m h dom mon dow>, days:mon-fri@07:30, sunrise+15m, sunset-30m)");
         System.out.print("Choose an option: ");
         return switch (scanner.nextLine().trim()) {
             case "2" -> "daily";
             case "3" -> "monthly";
+            case "4" -> {
+                System.out.print("🔁 Repeat: ");
+                yield scanner.nextLine().trim().toLowerCase();
+            }
             default -> "none";
         };
     }
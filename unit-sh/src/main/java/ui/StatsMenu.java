@@ -0,0 +1,32 @@
+package ui;
+
+import metrics.Metrics;
+
+import java.util.Map;
+
+public class StatsMenu {
+
+    // 📈 Prints the current metrics snapshot, one block per subsystem (workbook, device, autoop, scheduler, ...)
+    public static void showStats() {
+        Map<String, Number> snapshot = Metrics.snapshot();
+
+        System.out.println("\n=== Runtime Stats ===");
+        if (snapshot.isEmpty()) {
+            System.out.println("📭 Nothing recorded yet.");
+            return;
+        }
+
+        String section = null;
+        for (Map.Entry<String, Number> entry : snapshot.entrySet()) {
+            String name = entry.getKey();
+            int dot = name.indexOf('.');
+            String prefix = dot < 0 ? name : name.substring(0, dot);
+            if (!prefix.equals(section)) {
+                section = prefix;
+                System.out.println("── " + section + " ──");
+            }
+            System.out.printf("   %-36s %s%n", name, entry.getValue());
+        }
+        System.out.println("(latencies in µs; per_min = last 60 s)");
+    }
+}
@@ -170,7 +170,7 @@ public class AddDeviceMenuPage extends JPanel {
             };
 
             Clock clock = ClockUtil.getClock();
-            String uniqueId = DeviceIdManager.getNextAvailableId(prefix, DeviceStorage.getDevices().keySet());
+            String uniqueId = DeviceIdManager.getNextAvailableId(prefix);
 
             Device newDevice = DeviceFactory.createDevice(
                     type,
@@ -201,7 +201,6 @@ public class AddDeviceMenuPage extends JPanel {
             GuiStateManager.registerNewDevice(newDevice);
             LiveDeviceState.turnOn(newDevice); // or turnOff if preferred
             DeviceStorage.getDevices().put(newDevice.getId(), newDevice); // redundant if already added, but safe
-            GuiStateManager.refreshDeviceMatrix(); // 🔁 Rebuild the button map
             System.out.println("✅ " + newDevice.getName() + " (" + newDevice.getId() + ") added to GUI button map successfully!");
 
 
@@ -34,13 +34,7 @@ public class ChooseDevice4UpdatePage extends JPanel {
 
         centerPanel.add(createCategoryButton("LIGHT", () -> {
             DeviceStorage.reloadFromExcel(); // 🔄 FIRST: Fresh data in memory
-            DeviceStorage.getDevices().values().forEach(device -> {
-                if (device.isOn()) {
-                    LiveDeviceState.turnOn(device);
-                } else {
-                    LiveDeviceState.turnOff(device);
-                }
-            });
+            DeviceStorage.getDevices().values().forEach(LiveDeviceState::sync);
             ChooseLightsUpdatePage page = ChooseLightsUpdatePage.loadFresh(0, 120, DeviceType.LIGHT, DeviceType.SMART_LIGHT);            PageNavigator.registerPage(120, page);
             PageNavigator.goToPage(120);
         }));
@@ -1,15 +1,18 @@
 package ui.gui.guiDeviceControl;
 
 import devices.Device;
+import devices.DeviceEvents;
 import devices.actions.LiveDeviceState;
 import storage.xlc.XlDeviceManager;
 import ui.gui.PageNavigator;
+import ui.gui.managers.GuiChangeStream;
 import ui.gui.managers.GuiStateManager;
 import ui.gui.managers.GuiUtils;
 import utils.Theme;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.List;
 
 public class LightControlPage extends JPanel {
     private Device device;
@@ -26,6 +29,18 @@ public class LightControlPage extends JPanel {
         add(createHeader(), BorderLayout.NORTH);
         add(createControlPanel(), BorderLayout.CENTER);
         add(createFooter(), BorderLayout.SOUTH);
+
+        GuiChangeStream.subscribe(this::onChanges); // 📣 follows AutoOp / scheduler toggles while open
+    }
+
+    private void onChanges(List<DeviceEvents.Change> changes) {
+        for (DeviceEvents.Change change : changes) {
+            if (change.kind() == DeviceEvents.Kind.DEVICE_STATE && change.id().equals(device.getId())) {
+                statusLabel.setText(getStatusText());
+                statusLabel.setForeground(getStatusColor());
+                return;
+            }
+        }
     }
 
     private JPanel createHeader() {
@@ -119,10 +134,7 @@ public class LightControlPage extends JPanel {
         JButton backBtn = new JButton("←");
         backBtn.setFont(new Font("Arial", Font.PLAIN, 12));
         backBtn.setToolTipText("Go back");
-        backBtn.addActionListener(e -> {
-            GuiStateManager.refreshDeviceMatrix(); // ✅ Refresh matrix
-            PageNavigator.goToPage(120);           // ✅ Navigate to matrix page
-        });
+        backBtn.addActionListener(e -> PageNavigator.goToPage(120)); // ✅ Matrix is kept current by change events
 
         JButton homeBtn = new JButton("Home");
         homeBtn.setFont(new Font("Arial", Font.PLAIN, 12));
@@ -1,10 +1,12 @@
 package ui.gui.managers;
 
 import devices.Device;
+import devices.DeviceEvents;
 import devices.DeviceType;
 import devices.actions.LiveDeviceState;
 import storage.DeviceStorage;
 import ui.gui.PageNavigator;
+import utils.Log;
 import utils.Theme;
 
 import javax.swing.*;
@@ -12,19 +14,29 @@ import java.awt.*;
 import java.awt.event.ActionListener;
 import java.util.List;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ButtonMapManager {
     private static final int PAGE_SIZE = 10;
     private static final int BASE_LIGHT_PAGE_ID = 120;
     private static final int BASE_LIGHT_SMART_PAGE_ID = 140;
 
+    // 🧩 A rendered device grid — kept so change events can patch it in place instead of rebuilding the page
+    private record Grid(JPanel panel, List<DeviceType> types, int pageIndex, int basePageId, Map<String, JButton> buttons) {}
+
+    // Latest grid per page ID; re-rendering a page replaces its entry
+    private static final Map<Integer, Grid> liveGrids = new ConcurrentHashMap<>();
+
+    static {
+        GuiChangeStream.subscribe(ButtonMapManager::applyChanges);
+    }
+
     // 🧭 Improved navigation
     private static void goToPage(List<DeviceType> types, int pageIndex, int basePageId) {
         int pageId = basePageId + pageIndex;
 
         // ✅ Rebuild the grid panel
-        JPanel gridPanel = renderGridFromDevices(getDevicesByTypes(types.toArray(new DeviceType[0])), pageIndex, basePageId, types);
+        JPanel gridPanel = renderPageForTypes(types.toArray(new DeviceType[0]), pageIndex, basePageId);
 
         // ✅ Register the page
         PageNavigator.registerPage(pageId, gridPanel);
@@ -46,19 +58,26 @@ public class ButtonMapManager {
 
     // 🧠 Filter by type
     private static List<Device> getDevicesByTypes(DeviceType... types) {
-//        DeviceStorage.reloadFromExcel(); // 🔁 Always reload
-        Set<DeviceType> typeSet = new HashSet<>(Arrays.asList(types));
-
-        return DeviceStorage.getDevices().values().stream()
-                .filter(d -> typeSet.contains(d.getType()))
-                .sorted(Comparator.comparing(Device::getId))
-                .collect(Collectors.toList());
+        return DeviceStorage.getDevicesByTypes(types); // type index, already sorted by ID
     }
 
     // 🔧 Page renderer
     public static JPanel renderPageForTypes(DeviceType[] types, int pageIndex, int basePageId) {
+        JPanel gridPanel = new JPanel(new GridLayout(4, 3, 20, 20));
+        gridPanel.setBackground(Theme.BACKGROUND_DARK);
+        gridPanel.setBorder(BorderFactory.createEmptyBorder(40, 80, 40, 80));
+        gridPanel.setPreferredSize(new Dimension(800, 360));
+
+        Grid grid = new Grid(gridPanel, Arrays.asList(types), pageIndex, basePageId, new ConcurrentHashMap<>());
+        fillGrid(grid);
+        liveGrids.put(basePageId + pageIndex, grid);
+        return gridPanel;
+    }
+
+    // 📦 The devices a page shows; the page index is clamped to the last page
+    private static List<Device> devicesOnPage(List<DeviceType> types, int pageIndex) {
         // Get all devices matching the given types
-        List<Device> allFiltered = getDevicesByTypes(types);
+        List<Device> allFiltered = getDevicesByTypes(types.toArray(new DeviceType[0]));
 
         // Clamp page index to valid range
         int maxPage = Math.max(0, (int) Math.ceil((double) allFiltered.size() / PAGE_SIZE) - 1);
@@ -71,30 +90,31 @@ public class ButtonMapManager {
                 .toList();
 
         // Debug logs
-        System.out.println("🔍 Button map keys: " + GuiStateManager.getDeviceButtonMap().keySet());
-        System.out.println("📦 Filtered devices for types: " + allFiltered.stream().map(Device::getId).toList());
-        System.out.println("📦 Requested page index: " + pageIndex + " | Clamped to: " + clampedPageIndex);
-        System.out.println("📦 Devices on page: " + devices.stream().map(Device::getId).toList());
-
-        // Render the grid panel
-        return renderGridFromDevices(devices, clampedPageIndex, basePageId, Arrays.asList(types));
+        if (Log.isDebugEnabled()) {
+            Log.debug("📦 Filtered devices for types: {}", allFiltered.stream().map(Device::getId).toList());
+            Log.debug("📦 Requested page index: {} | Clamped to: {}", pageIndex, clampedPageIndex);
+            Log.debug("📦 Devices on page: {}", devices.stream().map(Device::getId).toList());
+        }
+        return devices;
     }
 
-    private static JPanel renderGridFromDevices(List<Device> devices, int pageIndex, int basePageId, List<DeviceType> types) {
-        int pageId = basePageId + pageIndex;
-
-        JPanel gridPanel = new JPanel(new GridLayout(4, 3, 20, 20));
-        gridPanel.setBackground(Theme.BACKGROUND_DARK);
-        gridPanel.setBorder(BorderFactory.createEmptyBorder(40, 80, 40, 80));
-        gridPanel.setPreferredSize(new Dimension(800, 360));
+    // 🧱 (Re)populate a grid's 12 cells from the current device list
+    private static void fillGrid(Grid grid) {
+        List<Device> devices = devicesOnPage(grid.types(), grid.pageIndex());
+        List<DeviceType> types = grid.types();
+        int pageIndex = grid.pageIndex();
+        int basePageId = grid.basePageId();
+        JPanel gridPanel = grid.panel();
 
-        System.out.println("🧱 Grid built with devices: " + devices.stream().map(Device::getId).toList());
+        gridPanel.removeAll();
+        grid.buttons().clear();
 
         for (int i = 0; i < 9; i++) {
             if (i < devices.size()) {
                 Device device = devices.get(i);
                 JButton button = GuiStateManager.getButtonForDevice(device.getId());
                 JButton clone = button != null ? cloneButton(button, device) : createNameButton(device, i);
+                grid.buttons().put(device.getId(), clone);
                 gridPanel.add(clone);
             } else {
                 gridPanel.add(createPlaceholder());
@@ -108,15 +128,48 @@ public class ButtonMapManager {
         if (devices.size() >= 10) {
             Device device = devices.get(9);
             JButton button = GuiStateManager.getButtonForDevice(device.getId());
-            gridPanel.add(button != null ? button : createNameButton(device, 9));
+            JButton tenth = button != null ? button : createNameButton(device, 9);
+            grid.buttons().put(device.getId(), tenth);
+            gridPanel.add(tenth);
         } else {
             gridPanel.add(createPlaceholder());
         }
 
         // → Navigation button
         gridPanel.add(createNavButton("→", hasNextPage(types, pageIndex), () -> goToPage(types, pageIndex + 1, basePageId)));
+    }
 
-        return gridPanel;
+    // 📣 EDT, once per frame: recolour toggled buttons; re-fill only grids whose device types gained or lost a device
+    private static void applyChanges(List<DeviceEvents.Change> changes) {
+        boolean reset = false;
+        Set<DeviceType> reshaped = EnumSet.noneOf(DeviceType.class);
+        List<String> toggled = new ArrayList<>();
+
+        for (DeviceEvents.Change change : changes) {
+            switch (change.kind()) {
+                case RESET -> reset = true;
+                case DEVICE_ADDED, DEVICE_REMOVED -> {
+                    if (change.type() != null) reshaped.add(change.type());
+                    else reset = true;
+                }
+                case DEVICE_STATE -> toggled.add(change.id());
+                case SENSOR_VALUE -> { }
+            }
+        }
+
+        for (Grid grid : liveGrids.values()) {
+            if (reset || grid.types().stream().anyMatch(reshaped::contains)) {
+                fillGrid(grid);
+                grid.panel().revalidate();
+                grid.panel().repaint();
+                continue;
+            }
+            for (String id : toggled) {
+                JButton button = grid.buttons().get(id);
+                Device device = button != null ? DeviceStorage.getDevice(id) : null;
+                if (device != null) paintState(button, device);
+            }
+        }
     }
 
     private static JButton cloneButton(JButton original, Device device) {
@@ -128,12 +181,7 @@ public class ButtonMapManager {
         clone.setContentAreaFilled(true);
 
         // Reapply theme based on device state
-        boolean isOn = LiveDeviceState.isOn(device);
-        if (device.getType() == DeviceType.SMART_LIGHT) {
-            clone.setBackground(isOn ? Theme.SMART_ON_GREEN : Theme.SMART_OFF_GREEN);
-        } else {
-            clone.setBackground(isOn ? Theme.BASIC_ON_GREEN : Theme.BASIC_OFF_GREEN);
-        }
+        paintState(clone, device);
 
         for (ActionListener al : original.getActionListeners()) {
             clone.addActionListener(al);
@@ -142,6 +190,16 @@ public class ButtonMapManager {
         return clone;
     }
 
+    // 🎨 ON/OFF colour for a device button
+    private static void paintState(JButton button, Device device) {
+        boolean isOn = LiveDeviceState.isOn(device);
+        if (device.getType() == DeviceType.SMART_LIGHT) {
+            button.setBackground(isOn ? Theme.SMART_ON_GREEN : Theme.SMART_OFF_GREEN);
+        } else {
+            button.setBackground(isOn ? Theme.BASIC_ON_GREEN : Theme.BASIC_OFF_GREEN);
+        }
+    }
+
     private static boolean hasNextPage(List<DeviceType> types, int pageIndex) {
         long totalDevices = getDevicesByTypes(types.toArray(new DeviceType[0])).size();
         int totalPages = (int) Math.ceil((double) totalDevices / PAGE_SIZE);
@@ -158,13 +216,7 @@ public class ButtonMapManager {
         if (device != null) {
             button.setText("<html><center>" + device.getName() + "</center></html>");
 
-            boolean isOn = LiveDeviceState.isOn(device);
-
-            if (device.getType() == DeviceType.SMART_LIGHT) {
-                button.setBackground(isOn ? Theme.SMART_ON_GREEN : Theme.SMART_OFF_GREEN);
-            } else {
-                button.setBackground(isOn ? Theme.BASIC_ON_GREEN : Theme.BASIC_OFF_GREEN);
-            }
+            paintState(button, device);
 
             button.addActionListener(e -> {
                 System.out.println("🔧 Selected for update: " + device.getName() + " [" + device.getId() + "]");
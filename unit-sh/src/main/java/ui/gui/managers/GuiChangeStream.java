@@ -0,0 +1,103 @@
+package ui.gui.managers;
+
+import devices.DeviceEvents;
+import devices.DeviceEvents.Change;
+import devices.DeviceEvents.Kind;
+import utils.Log;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 🎞️ Brings {@link DeviceEvents} onto the Swing EDT. Changes from any thread are merged per device
+ * and handed to subscribers as one batch per frame ({@value #FRAME_MS} ms), so a burst of AutoOp toggles
+ * costs one pass over the affected buttons instead of a repaint per event. Sensor readings are coalesced
+ * the same way in their own map, keyed by the sensor ID as published (no key string built per reading).
+ */
+public final class GuiChangeStream {
+
+    public static final int FRAME_MS = 16;
+
+    // Called on the EDT with every change merged since the previous frame
+    @FunctionalInterface
+    public interface Subscriber {
+        void onChanges(List<Change> changes);
+    }
+
+    private static final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private static final Map<String, Change> pending = new LinkedHashMap<>(); // guarded by itself
+    private static final Map<String, Change> pendingReadings = new LinkedHashMap<>(); // latest per sensor, guarded by `pending`
+    private static final AtomicBoolean frameScheduled = new AtomicBoolean();
+    private static final Timer frame = new Timer(FRAME_MS, e -> flush());
+
+    static {
+        frame.setRepeats(false);
+        DeviceEvents.subscribe(GuiChangeStream::enqueue);
+    }
+
+    private GuiChangeStream() {
+    }
+
+    public static void subscribe(Subscriber subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    public static void unsubscribe(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    // 📥 Any thread; never blocks on the EDT
+    static void enqueue(Change change) {
+        if (change.kind() == Kind.SENSOR_VALUE) {
+            if (subscribers.isEmpty()) return; // no GUI open — readings are not worth a lock
+            synchronized (pending) {
+                pendingReadings.put(change.id(), change);
+            }
+        } else {
+            synchronized (pending) {
+                pending.merge(keyOf(change), change, GuiChangeStream::merge);
+            }
+        }
+        if (frameScheduled.compareAndSet(false, true)) {
+            frame.restart();
+        }
+    }
+
+    private static String keyOf(Change change) {
+        return change.kind() == Kind.RESET ? "*" : change.id();
+    }
+
+    // An add/remove already redraws the device, so a later ON/OFF for it adds nothing
+    private static Change merge(Change earlier, Change later) {
+        boolean earlierReshapes = earlier.kind() == Kind.DEVICE_ADDED || earlier.kind() == Kind.DEVICE_REMOVED;
+        return earlierReshapes && later.kind() == Kind.DEVICE_STATE ? earlier : later;
+    }
+
+    private static void flush() {
+        List<Change> batch;
+        synchronized (pending) {
+            frameScheduled.set(false);
+            if (pending.isEmpty() && pendingReadings.isEmpty()) return;
+            List<Change> merged = new ArrayList<>(pending.size() + pendingReadings.size());
+            merged.addAll(pending.values());
+            merged.addAll(pendingReadings.values());
+            batch = Collections.unmodifiableList(merged);
+            pending.clear();
+            pendingReadings.clear();
+        }
+
+        for (Subscriber subscriber : subscribers) {
+            try {
+                subscriber.onChanges(batch);
+            } catch (RuntimeException e) {
+                Log.warn("⚠️ GUI change subscriber failed: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -36,11 +36,7 @@ public class GuiStateManager {
         DeviceStorage.getDevices().putIfAbsent(id, device);
 
         // 🔋 Sync live state
-        if (device.isOn()) {
-            LiveDeviceState.turnOn(device);
-        } else {
-            LiveDeviceState.turnOff(device);
-        }
+        LiveDeviceState.sync(device);
 
         // 🖼️ Create and store GUI button
         JButton button = createDeviceButton(device); // You’ll need to implement this
@@ -14,16 +14,9 @@ public class GuiUtils {
             DeviceStorage.reloadFromExcel();
 
             // 🔁 Sync live state
-            DeviceStorage.getDevices().values().forEach(d -> {
-                if (d.isOn()) {
-                    LiveDeviceState.turnOn(d);
-                } else {
-                    LiveDeviceState.turnOff(d);
-                }
-            });
+            DeviceStorage.getDevices().values().forEach(LiveDeviceState::sync);
 
-            GuiStateManager.refreshDeviceMatrix();
-            GuiStateManager.refreshDeviceControlPage(device);
+            GuiStateManager.refreshDeviceControlPage(device); // the matrix patches itself from DeviceEvents
         } catch (IOException ex) {
             System.err.println("❌ Failed to sync GUI: " + ex.getMessage());
         }
@@ -5,11 +5,57 @@ import devices.DeviceType;
 import sensors.SensorType;
 
 import java.util.*;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 🆔 Hands out sequential IDs per prefix ({@code LI001}, {@code LITs002}, {@code TS003} …).
+ * <p>
+ * Each prefix has its own counter, seeded once from the IDs known at that point (highest numeric suffix),
+ * after which allocation is a single atomic increment — no scan and no global lock. IDs registered later
+ * through {@link #addKnownIds} / {@link #setExistingDevices} push the counters forward, so a generated ID
+ * never collides with a known one. Bulk imports can take a whole block at once with {@link #reserveRange}.
+ */
 public class DeviceIdManager {
 
     private static final DeviceIdManager instance = new DeviceIdManager();
-    private final Set<String> assignedIds = new HashSet<>();
+    private final Set<String> assignedIds = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<String, AtomicInteger> counters = new ConcurrentHashMap<>();
+    private final Object seedLock = new Object(); // counter seeding vs. bulk registration
+
+    // 📦 A contiguous block of IDs: prefix + first … prefix + (first + count - 1)
+    public record IdRange(String prefix, int first, int count) implements Iterable<String> {
+        public String get(int index) {
+            if (index < 0 || index >= count) {
+                throw new IndexOutOfBoundsException("Index " + index + " outside range of " + count);
+            }
+            return format(prefix, first + index);
+        }
+
+        public List<String> ids() {
+            List<String> ids = new ArrayList<>(count);
+            for (String id : this) ids.add(id);
+            return ids;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < count;
+                }
+
+                @Override
+                public String next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    return get(next++);
+                }
+            };
+        }
+    }
 
     private DeviceIdManager() {}
 
@@ -18,50 +64,115 @@ public class DeviceIdManager {
     }
 
     // ✅ Load known device IDs
-    public synchronized void setExistingDevices(List<Device> existingDevices) {
+    public void setExistingDevices(List<Device> existingDevices) {
         if (existingDevices == null || existingDevices.isEmpty()) {
             Log.warn("⚠️ No existing devices loaded. ID manager will retain current state.");
             return;
         }
 
-        existingDevices.stream()
-                .map(Device::getId)
-                .filter(Objects::nonNull)
-                .forEach(assignedIds::add);
+        List<String> ids = new ArrayList<>(existingDevices.size());
+        for (Device device : existingDevices) {
+            if (device.getId() != null) ids.add(device.getId());
+        }
+        register(ids);
 
         Log.debug("📦 Existing device IDs updated → Count: " + assignedIds.size());
-        Log.debug("🧾 Assigned IDs snapshot: " + assignedIds);
     }
 
     // ✅ Generate ID from DeviceType enum
-    public synchronized String generateIdForType(DeviceType type) {
+    public String generateIdForType(DeviceType type) {
         String prefix = resolveDevicePrefix(type);
         return generateNextId(prefix);
     }
 
     // ✅ Generate ID for sensors via SensorType enum
-    public synchronized String generateIdForSensorType(SensorType type) {
+    public String generateIdForSensorType(SensorType type) {
         String prefix = resolveSensorPrefix(type);
         return generateNextId(prefix);
     }
 
+    // 📦 Reserve `count` consecutive IDs in one step (bulk imports)
+    public IdRange reserveRange(String prefix, int count) {
+        if (prefix == null || prefix.isBlank()) {
+            throw new IllegalArgumentException("❌ Prefix cannot be null or empty.");
+        }
+        if (count <= 0) {
+            throw new IllegalArgumentException("❌ Range size must be positive: " + count);
+        }
+
+        int last = counterFor(prefix).addAndGet(count);
+        IdRange range = new IdRange(prefix, last - count + 1, count);
+        for (String id : range) assignedIds.add(id);
+        return range;
+    }
+
+    public IdRange reserveRangeForType(DeviceType type, int count) {
+        return reserveRange(resolveDevicePrefix(type), count);
+    }
+
+    public IdRange reserveRangeForSensorType(SensorType type, int count) {
+        return reserveRange(resolveSensorPrefix(type), count);
+    }
+
     // 🧠 Core ID generator based on prefix
     private String generateNextId(String prefix) {
-        int max = assignedIds.stream()
-                .filter(id -> id.startsWith(prefix))
-                .map(id -> id.substring(prefix.length()))
-                .filter(suffix -> suffix.matches("\\d+"))
-                .mapToInt(Integer::parseInt)
-                .max()
-                .orElse(0);
-
-        String newId = String.format("%s%03d", prefix, max + 1);
+        String newId = format(prefix, counterFor(prefix).incrementAndGet());
         assignedIds.add(newId);
         return newId;
     }
 
+    // 🌱 First use of a prefix scans the known IDs once; afterwards the counter is authoritative
+    private AtomicInteger counterFor(String prefix) {
+        AtomicInteger counter = counters.get(prefix);
+        if (counter != null) return counter;
+
+        synchronized (seedLock) {
+            return counters.computeIfAbsent(prefix, p -> {
+                int max = 0;
+                for (String id : assignedIds) {
+                    max = Math.max(max, suffixOf(id, p));
+                }
+                return new AtomicInteger(max);
+            });
+        }
+    }
+
+    // ➕ Record IDs and move any seeded counter they belong to past them
+    private void register(Collection<String> ids) {
+        synchronized (seedLock) {
+            for (String id : ids) {
+                if (id == null || !assignedIds.add(id)) continue;
+                for (Map.Entry<String, AtomicInteger> entry : counters.entrySet()) {
+                    int suffix = suffixOf(id, entry.getKey());
+                    if (suffix > 0) entry.getValue().accumulateAndGet(suffix, Math::max);
+                }
+            }
+        }
+    }
+
+    // Numeric part of prefix + digits, or -1 when the ID does not have that shape
+    private static int suffixOf(String id, String prefix) {
+        int len = id.length();
+        int start = prefix.length();
+        if (len == start || len - start > 9 || !id.startsWith(prefix)) return -1;
+
+        int value = 0;
+        for (int i = start; i < len; i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    // Same shape as String.format("%s%03d", prefix, number)
+    private static String format(String prefix, int number) {
+        String digits = Integer.toString(number);
+        return digits.length() >= 3 ? prefix + digits : prefix + "000".substring(digits.length()) + digits;
+    }
+
     // 💬 For GUI uses that pass raw string types
-    public synchronized String generateId(String typeName) {
+    public String generateId(String typeName) {
         if (typeName == null || typeName.isBlank()) {
             throw new IllegalArgumentException("❌ Device type name cannot be blank.");
         }
@@ -108,31 +219,36 @@ public class DeviceIdManager {
         };
     }
 
-    public synchronized boolean isIdTaken(String id) {
+    // 🧹 Forget every known ID and counter (tests & benchmarks)
+    public void clear() {
+        synchronized (seedLock) {
+            counters.clear();
+            assignedIds.clear();
+        }
+    }
+
+    public boolean isIdTaken(String id) {
         return assignedIds.contains(id);
     }
 
-    public synchronized void addKnownIds(Collection<String> ids) {
-        ids.stream()
-                .filter(Objects::nonNull)
-                .forEach(assignedIds::add);
+    public void addKnownIds(Collection<String> ids) {
+        register(ids);
     }
-    public synchronized String generateIdWithPrefix(String prefix) {
+
+    public String generateIdWithPrefix(String prefix) {
         if (prefix == null || prefix.isBlank()) {
             throw new IllegalArgumentException("❌ Prefix cannot be null or empty.");
         }
         System.out.println("🔗 ID generation requested with prefix: " + prefix);
         return generateNextId(prefix);
     }
-    public static String getNextAvailableId(String prefix, Set<String> usedIds) {
-        int counter = 1;
-        String candidate;
 
-        do {
-            candidate = String.format("%s%03d", prefix, counter++);
-        } while (usedIds.contains(candidate));
-
-        return candidate;
+    // 🔢 Next ID for a prefix — counter only; existing IDs must already be registered (load time / addKnownIds)
+    public static String getNextAvailableId(String prefix) {
+        if (prefix == null || prefix.isBlank()) {
+            throw new IllegalArgumentException("❌ Prefix cannot be null or empty.");
+        }
+        return instance.generateNextId(prefix);
     }
 
 }
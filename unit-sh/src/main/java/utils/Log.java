@@ -1,38 +1,203 @@
 package utils;
 
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.builder.api.AppenderComponentBuilder;
+import org.apache.logging.log4j.core.config.builder.api.ConfigurationBuilder;
+import org.apache.logging.log4j.core.config.builder.api.ConfigurationBuilderFactory;
+import org.apache.logging.log4j.core.config.builder.impl.BuiltConfiguration;
+import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.apache.poi.ss.usermodel.Workbook;
 
+/**
+ * 📝 Application log with a runtime level.
+ * <p>
+ * Every enabled message goes to an asynchronous, non-blocking log4j2 file appender
+ * ({@code -Dphoenix.log.file}, default {@code logs/phoenixsh.log}; {@code none} disables it).
+ * Messages at or above the console level are also printed straight away, so they stay in order with
+ * the menus' own output. Levels: {@code -Dphoenix.log.level} (default INFO),
+ * {@code -Dphoenix.log.console} (default INFO), or {@link #setLevel} / {@link #setConsoleLevel} while running.
+ * <p>
+ * Messages take {@code {}} placeholders. A disabled level returns before anything is formatted; the
+ * fixed-arity overloads avoid the varargs array, and callers passing primitives on hot paths should
+ * still guard with {@link #isDebugEnabled()} to skip the boxing.
+ */
 public class Log {
-    public static final boolean DEBUG_MODE = false; // Set true when needed
+
+    public enum Level { TRACE, DEBUG, INFO, WARN, ERROR, OFF }
+
+    public static final String LEVEL_PROPERTY = "phoenix.log.level";
+    public static final String CONSOLE_PROPERTY = "phoenix.log.console";
+    public static final String FILE_PROPERTY = "phoenix.log.file";
+
+    private static volatile int level = parseLevel(System.getProperty(LEVEL_PROPERTY), Level.INFO).ordinal();
+    private static volatile int consoleLevel = parseLevel(System.getProperty(CONSOLE_PROPERTY), Level.INFO).ordinal();
+    private static final Logger fileLogger = createFileLogger(System.getProperty(FILE_PROPERTY, "logs/phoenixsh.log"));
+
+    private Log() {
+    }
+
+    // ─── ⚙️ Runtime configuration ───
+
+    public static void setLevel(Level newLevel) {
+        level = newLevel.ordinal();
+    }
+
+    public static Level getLevel() {
+        return Level.values()[level];
+    }
+
+    public static void setConsoleLevel(Level newLevel) {
+        consoleLevel = newLevel.ordinal();
+    }
+
+    public static Level getConsoleLevel() {
+        return Level.values()[consoleLevel];
+    }
+
+    public static boolean isEnabled(Level l) {
+        return l.ordinal() >= level && l != Level.OFF;
+    }
+
+    public static boolean isDebugEnabled() {
+        return Level.DEBUG.ordinal() >= level;
+    }
+
+    // ─── 🐞 DEBUG ───
 
     public static void debug(String message) {
-        if (DEBUG_MODE) System.out.println(message);
+        if (isDebugEnabled()) write(Level.DEBUG, message);
+    }
+
+    public static void debug(String pattern, Object arg) {
+        if (isDebugEnabled()) write(Level.DEBUG, format(pattern, arg));
+    }
+
+    public static void debug(String pattern, Object arg1, Object arg2) {
+        if (isDebugEnabled()) write(Level.DEBUG, format(pattern, arg1, arg2));
+    }
+
+    public static void debug(String pattern, Object... args) {
+        if (isDebugEnabled()) write(Level.DEBUG, format(pattern, args));
+    }
+
+    public static void debugf(String format, Object... args) {
+        if (isDebugEnabled()) write(Level.DEBUG, String.format(format, args).stripTrailing());
     }
 
+    public static void debugSheetNames(Workbook workbook) {
+        if (!isDebugEnabled()) return;
+        StringBuilder sb = new StringBuilder("💾 Sheets in memory:");
+        for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
+            sb.append("\n - ").append(workbook.getSheetName(i));
+        }
+        write(Level.DEBUG, sb.toString());
+    }
+
+    // ─── ℹ️ INFO / ⚠️ WARN / ❌ ERROR ───
+
     public static void info(String message) {
-        System.out.println("ℹ️ " + message);
+        if (isEnabled(Level.INFO)) write(Level.INFO, message);
+    }
+
+    public static void info(String pattern, Object arg) {
+        if (isEnabled(Level.INFO)) write(Level.INFO, format(pattern, arg));
+    }
+
+    public static void info(String pattern, Object... args) {
+        if (isEnabled(Level.INFO)) write(Level.INFO, format(pattern, args));
     }
 
     public static void warn(String message) {
-        System.out.println("⚠️ " + message);
+        if (isEnabled(Level.WARN)) write(Level.WARN, message);
+    }
+
+    public static void warn(String pattern, Object... args) {
+        if (isEnabled(Level.WARN)) write(Level.WARN, format(pattern, args));
     }
 
     public static void error(String message) {
-        System.err.println("❌ " + message);
+        if (isEnabled(Level.ERROR)) write(Level.ERROR, message);
     }
-    public static void debugSheetNames(Workbook workbook) {
-        if (DEBUG_MODE) {
-            System.out.println("💾 Sheets in memory:");
-            for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
-                System.out.println(" - " + workbook.getSheetName(i));
+
+    public static void error(String pattern, Object... args) {
+        if (isEnabled(Level.ERROR)) write(Level.ERROR, format(pattern, args));
+    }
+
+    // ─── Internals ───
+
+    private static String format(String pattern, Object... args) {
+        return ParameterizedMessage.format(pattern, args);
+    }
+
+    private static void write(Level l, String message) {
+        if (l.ordinal() >= consoleLevel) {
+            switch (l) {
+                case INFO -> System.out.println("ℹ️ " + message);
+                case WARN -> System.out.println("⚠️ " + message);
+                case ERROR -> System.err.println("❌ " + message);
+                default -> System.out.println(message);
             }
         }
+        if (fileLogger != null) {
+            fileLogger.log(toLog4j(l), message);
+        }
     }
-    public static void debugf(String format, Object... args) {
-        if (DEBUG_MODE) {
-            System.out.printf(format, args);
+
+    private static org.apache.logging.log4j.Level toLog4j(Level l) {
+        return switch (l) {
+            case TRACE -> org.apache.logging.log4j.Level.TRACE;
+            case DEBUG -> org.apache.logging.log4j.Level.DEBUG;
+            case INFO -> org.apache.logging.log4j.Level.INFO;
+            case WARN -> org.apache.logging.log4j.Level.WARN;
+            case ERROR -> org.apache.logging.log4j.Level.ERROR;
+            case OFF -> org.apache.logging.log4j.Level.OFF;
+        };
+    }
+
+    static Level parseLevel(String text, Level fallback) {
+        if (text == null || text.isBlank()) return fallback;
+        try {
+            return Level.valueOf(text.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return fallback;
         }
     }
 
+    // 📁 Async (non-blocking, bounded) → rolling file; the file is only created once something is logged
+    private static Logger createFileLogger(String file) {
+        if (file == null || file.isBlank() || file.equalsIgnoreCase("none")) return null;
+        try {
+            ConfigurationBuilder<BuiltConfiguration> builder = ConfigurationBuilderFactory.newConfigurationBuilder();
+            builder.setConfigurationName("PhoenixSH");
+            builder.setStatusLevel(org.apache.logging.log4j.Level.ERROR);
 
+            AppenderComponentBuilder rolling = builder.newAppender("File", "RollingFile")
+                    .addAttribute("fileName", file)
+                    .addAttribute("filePattern", file + ".%i")
+                    .addAttribute("createOnDemand", true)
+                    .addAttribute("immediateFlush", false)
+                    .add(builder.newLayout("PatternLayout").addAttribute("pattern", "%d{ISO8601} %-5level [%t] %msg%n"))
+                    .addComponent(builder.newComponent("Policies")
+                            .addComponent(builder.newComponent("SizeBasedTriggeringPolicy").addAttribute("size", "10 MB")))
+                    .addComponent(builder.newComponent("DefaultRolloverStrategy").addAttribute("max", 5));
+            builder.add(rolling);
+            builder.add(builder.newAppender("Async", "Async")
+                    .addAttribute("blocking", false)
+                    .addAttribute("bufferSize", 8192)
+                    .addComponent(builder.newAppenderRef("File")));
+            builder.add(builder.newRootLogger(org.apache.logging.log4j.Level.ALL).add(builder.newAppenderRef("Async")));
+
+            // 🧷 Our own context: the shared one may already exist (POI logs through log4j as soon as a workbook
+            // is opened), and Configurator.initialize would then silently keep its default console-only config
+            LoggerContext context = new LoggerContext("PhoenixSH");
+            builder.setLoggerContext(context);
+            context.start(builder.build());
+            Runtime.getRuntime().addShutdownHook(new Thread(context::stop, "Log-Flush")); // drain the async buffer
+            return context.getLogger("PhoenixSH");
+        } catch (RuntimeException | LinkageError e) {
+            System.err.println("❌ File logging disabled: " + e.getMessage());
+            return null;
+        }
+    }
 }
@@ -0,0 +1,16 @@
+package utils;
+
+import javax.mail.MessagingException;
+
+/**
+ * ✉️ Delivers one finished message. Implementations may keep a connection open between calls;
+ * {@link #close()} releases it.
+ */
+public interface MailSender extends AutoCloseable {
+
+    void send(String recipient, String subject, String body) throws MessagingException;
+
+    @Override
+    default void close() {
+    }
+}
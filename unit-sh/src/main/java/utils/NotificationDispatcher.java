@@ -0,0 +1,217 @@
+package utils;
+
+import metrics.Metrics;
+
+import javax.mail.MessagingException;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 📬 Sends e-mail notifications off the caller's thread.
+ * <p>
+ * {@link #enqueue} only offers to a bounded queue (a full queue drops and counts, it never blocks a UI
+ * toggle). One background thread owns the {@link MailSender} and rate-limits per recipient: the first
+ * notification after a quiet period goes out at once, everything arriving within the next window is
+ * folded into a single digest ("12 notification(s) in the last 30 s"). Failed sends are retried with
+ * exponential backoff before the message is given up.
+ * <p>
+ * Tuning: {@code -Dphoenix.notify.queue} (capacity), {@code -Dphoenix.notify.window.ms},
+ * {@code -Dphoenix.notify.retries}, {@code -Dphoenix.notify.retry.ms}.
+ */
+public class NotificationDispatcher implements AutoCloseable {
+
+    public record Notification(String recipient, String subject, String body, String summary, LocalTime at) {}
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static NotificationDispatcher instance;
+
+    private final BlockingQueue<Notification> queue;
+    private final MailSender sender;
+    private final long windowMillis;
+    private final int maxAttempts;
+    private final long retryDelayMillis;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    // Dispatcher-thread state only
+    private final Map<String, List<Notification>> pending = new LinkedHashMap<>();
+    private final Map<String, Long> nextAllowed = new HashMap<>();
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong messagesSent = new AtomicLong();
+    private final AtomicLong digestsSent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public NotificationDispatcher(MailSender sender, int capacity, long windowMillis, int maxAttempts, long retryDelayMillis) {
+        this.sender = sender;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.windowMillis = windowMillis;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryDelayMillis = retryDelayMillis;
+
+        worker = new Thread(this::run, "Notification-Dispatcher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // 🧩 Shared instance configured from system properties; flushed on JVM exit
+    public static synchronized NotificationDispatcher getInstance() {
+        if (instance == null) {
+            instance = new NotificationDispatcher(
+                    SmtpMailSender.fromProperties(),
+                    Integer.getInteger("phoenix.notify.queue", 1024),
+                    Long.getLong("phoenix.notify.window.ms", 30_000L),
+                    Integer.getInteger("phoenix.notify.retries", 3),
+                    Long.getLong("phoenix.notify.retry.ms", 2_000L));
+            NotificationDispatcher created = instance;
+            Runtime.getRuntime().addShutdownHook(new Thread(created::close, "Notification-Flush"));
+
+            Metrics.gauge("notify.enqueued", created::getEnqueued);
+            Metrics.gauge("notify.dropped", created::getDropped);
+            Metrics.gauge("notify.sent", created::getMessagesSent);
+            Metrics.gauge("notify.digests", created::getDigestsSent);
+            Metrics.gauge("notify.failed", created::getFailed);
+            Metrics.gauge("notify.queue_depth", created::getQueueDepth);
+        }
+        return instance;
+    }
+
+    // 📨 Non-blocking; false when the queue is full (or the dispatcher is closed)
+    public boolean enqueue(String recipient, String subject, String body, String summary) {
+        if (!running || !queue.offer(new Notification(recipient, subject, body, summary, LocalTime.now()))) {
+            dropped.incrementAndGet();
+            Log.warn("⚠️ Notification dropped (" + (running ? "queue full" : "dispatcher closed") + "): " + summary);
+            return false;
+        }
+        enqueued.incrementAndGet();
+        return true;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                Notification next = waitForNext();
+                if (next != null) {
+                    add(next);
+                    List<Notification> burst = new ArrayList<>();
+                    queue.drainTo(burst);
+                    burst.forEach(this::add);
+                }
+                sendDue(false);
+            } catch (InterruptedException e) {
+                break;
+            } catch (RuntimeException e) {
+                Log.error("❌ Notification dispatcher error: " + e.getMessage());
+            }
+        }
+
+        // 🛑 Closing: whatever is queued or held back goes out now, then the connection is released
+        Thread.interrupted(); // the close() interrupt must not cut the final retries short
+        List<Notification> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        rest.forEach(this::add);
+        sendDue(true);
+        sender.close();
+    }
+
+    // ⏳ Block until something arrives or the earliest held-back digest is due
+    private Notification waitForNext() throws InterruptedException {
+        long wait = Long.MAX_VALUE;
+        long now = System.currentTimeMillis();
+        for (String recipient : pending.keySet()) {
+            wait = Math.min(wait, nextAllowed.getOrDefault(recipient, 0L) - now);
+        }
+        if (wait == Long.MAX_VALUE) return queue.take();
+        return wait <= 0 ? queue.poll() : queue.poll(wait, TimeUnit.MILLISECONDS);
+    }
+
+    private void add(Notification notification) {
+        pending.computeIfAbsent(notification.recipient(), k -> new ArrayList<>()).add(notification);
+    }
+
+    // 📤 Send every recipient whose window is open (or all of them when flushing)
+    private void sendDue(boolean flush) {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<String, List<Notification>>> it = pending.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, List<Notification>> entry = it.next();
+            String recipient = entry.getKey();
+            if (!flush && now < nextAllowed.getOrDefault(recipient, 0L)) continue;
+
+            it.remove();
+            deliver(recipient, entry.getValue());
+            nextAllowed.put(recipient, System.currentTimeMillis() + windowMillis);
+        }
+    }
+
+    private void deliver(String recipient, List<Notification> notifications) {
+        String subject;
+        String body;
+        if (notifications.size() == 1) {
+            subject = notifications.get(0).subject();
+            body = notifications.get(0).body();
+        } else {
+            subject = "Notification Digest - PhoenixSH (" + notifications.size() + ")";
+            StringBuilder sb = new StringBuilder("🔔 " + notifications.size() + " notification(s) in the last "
+                    + Math.max(1, windowMillis / 1000) + " s:\n\n");
+            for (Notification n : notifications) {
+                sb.append("• [").append(n.at().format(TIME)).append("] ").append(n.summary()).append('\n');
+            }
+            body = sb.toString();
+        }
+
+        long delay = retryDelayMillis;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                sender.send(recipient, subject, body);
+                messagesSent.incrementAndGet();
+                if (notifications.size() > 1) digestsSent.incrementAndGet();
+                Log.info("📧 Email sent to " + recipient + " (" + notifications.size() + " notification(s))");
+                return;
+            } catch (MessagingException | RuntimeException e) {
+                Log.warn("⚠️ Email to " + recipient + " failed (attempt " + attempt + "/" + maxAttempts + "): " + e.getMessage());
+                if (attempt == maxAttempts || !sleep(delay)) break;
+                delay *= 2;
+            }
+        }
+        failed.addAndGet(notifications.size());
+        Log.error("❌ Gave up on " + notifications.size() + " notification(s) for " + recipient);
+    }
+
+    private boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // 🛑 Stop accepting, send whatever is still held back, release the connection
+    @Override
+    public void close() {
+        if (!running) return;
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(15_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 📊 Counters
+    public long getEnqueued() { return enqueued.get(); }
+    public long getDropped() { return dropped.get(); }
+    public long getMessagesSent() { return messagesSent.get(); }
+    public long getDigestsSent() { return digestsSent.get(); }
+    public long getFailed() { return failed.get(); }
+    public int getQueueDepth() { return queue.size(); }
+}
@@ -2,16 +2,29 @@ package utils;
 
 public class NotificationService {
 
+    private final String emailRecipient; // null → console only
+
+    public NotificationService() {
+        this(null);
+    }
+
+    // 📧 Device alerts and errors are also e-mailed (queued, digested) to this address
+    public NotificationService(String emailRecipient) {
+        this.emailRecipient = emailRecipient;
+    }
+
     public void notify(String message) {
         System.out.println("[🔔 NOTIFICATION] " + message);
     }
 
     public void notify(String deviceId, String message) {
         System.out.println("[🔔 DEVICE " + deviceId + "] " + message);
+        email("Device Alert - PhoenixSH", "🔔 Device " + deviceId + ":\n\n" + message, deviceId + ": " + message);
     }
 
     public void notifyError(String message) {
         System.err.println("[❌ ERROR] " + message);
+        email("Error - PhoenixSH", "❌ " + message, "ERROR: " + message);
     }
 
     public void notifySuccess(String message) {
@@ -21,4 +34,10 @@ public class NotificationService {
     public void notifyWarning(String message) {
         System.out.println("[⚠️ WARNING] " + message);
     }
+
+    private void email(String subject, String body, String summary) {
+        if (emailRecipient != null) {
+            NotificationDispatcher.getInstance().enqueue(emailRecipient, subject, body, summary);
+        }
+    }
 }
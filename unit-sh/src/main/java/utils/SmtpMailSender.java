@@ -0,0 +1,111 @@
+package utils;
+
+import javax.mail.*;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import java.util.Properties;
+
+/**
+ * 📮 SMTP sender that builds the mail {@link Session} once and keeps one {@link Transport} connected,
+ * reconnecting only when the server dropped it. Not thread-safe — owned by the dispatcher thread.
+ * <p>
+ * Settings come from {@code -Dphoenix.smtp.host/port/ssl/user/password/from}; no credentials are built in.
+ * Without a user the server is used without auth, and with neither host nor user configured
+ * {@link #fromProperties()} logs mails to the console instead. A local stand-in works with
+ * {@code -Dphoenix.smtp.host=localhost -Dphoenix.smtp.port=2525 -Dphoenix.smtp.ssl=false}.
+ */
+public class SmtpMailSender implements MailSender {
+
+    private static final String DEFAULT_HOST = "smtp.gmail.com";
+    private static final String DEFAULT_PORT = "465";
+
+    private final Session session;
+    private final String host;
+    private final int port;
+    private final String user;
+    private final String password;
+    private final String from;
+    private Transport transport;
+    private int connectCount;
+
+    public SmtpMailSender(String host, int port, boolean ssl, String user, String password, String from) {
+        this.host = host;
+        this.port = port;
+        this.user = user == null || user.isBlank() ? null : user;
+        this.password = password;
+        this.from = from;
+
+        Properties props = new Properties();
+        props.put("mail.smtp.host", host);
+        props.put("mail.smtp.port", String.valueOf(port));
+        props.put("mail.smtp.auth", String.valueOf(this.user != null));
+        props.put("mail.smtp.ssl.enable", String.valueOf(ssl));
+        props.put("mail.smtp.starttls.enable", String.valueOf(ssl));
+        props.put("mail.smtp.connectiontimeout", "10000");
+        props.put("mail.smtp.timeout", "10000");
+        this.session = Session.getInstance(props);
+    }
+
+    public static MailSender fromProperties() {
+        String host = System.getProperty("phoenix.smtp.host");
+        String user = System.getProperty("phoenix.smtp.user", "");
+        if (host == null && user.isBlank()) {
+            Log.warn("⚠️ No SMTP server configured (-Dphoenix.smtp.host/user) — notifications go to the console.");
+            return (recipient, subject, body) ->
+                    System.out.println("📧 [console] To: " + recipient + " | " + subject + "\n" + body);
+        }
+
+        return new SmtpMailSender(
+                host != null ? host : DEFAULT_HOST,
+                Integer.parseInt(System.getProperty("phoenix.smtp.port", DEFAULT_PORT)),
+                Boolean.parseBoolean(System.getProperty("phoenix.smtp.ssl", "true")),
+                user,
+                System.getProperty("phoenix.smtp.password"),
+                System.getProperty("phoenix.smtp.from", user.isBlank() ? "phoenixsh@localhost" : user));
+    }
+
+    @Override
+    public void send(String recipient, String subject, String body) throws MessagingException {
+        Message message = new MimeMessage(session);
+        message.setFrom(new InternetAddress(from));
+        message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(recipient));
+        message.setSubject(subject);
+        message.setText(body);
+        message.saveChanges();
+
+        try {
+            connected().sendMessage(message, message.getAllRecipients());
+        } catch (MessagingException e) {
+            close(); // 🔌 next attempt starts from a fresh connection
+            throw e;
+        }
+    }
+
+    // 🔁 isConnected() pings the server (NOOP), so an idle-dropped connection is noticed here
+    private Transport connected() throws MessagingException {
+        if (transport != null && transport.isConnected()) return transport;
+
+        close();
+        transport = session.getTransport("smtp");
+        transport.connect(host, port, user, password);
+        connectCount++;
+        Log.debug("📮 SMTP connected to " + host + ":" + port + " (#" + connectCount + ")");
+        return transport;
+    }
+
+    // 🔢 Connections opened so far (diagnostics & tests)
+    public int getConnectCount() {
+        return connectCount;
+    }
+
+    @Override
+    public void close() {
+        if (transport == null) return;
+        try {
+            transport.close();
+        } catch (MessagingException ignored) {
+            // Connection is being dropped anyway
+        }
+        transport = null;
+    }
+}
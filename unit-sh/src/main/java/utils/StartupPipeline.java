@@ -0,0 +1,183 @@
+package utils;
+
+import metrics.Metrics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 🚦 Dependency-aware startup graph. Each phase starts as soon as the phases it depends on have finished,
+ * so independent phases (e.g. parsing different sheets) run side by side on a small daemon pool.
+ * A failed phase skips everything downstream of it; unrelated phases still run.
+ * <p>
+ * {@link #run()} blocks until the graph is done and returns per-phase timings. When
+ * {@code -Dphoenix.startup.timings=<file>} is set, one CSV line per run is appended there for
+ * release-over-release comparison.
+ */
+public class StartupPipeline {
+
+    public enum Outcome { OK, FAILED, SKIPPED }
+
+    public record PhaseTiming(String name, String thread, long startMs, long durationMs, Outcome outcome, Throwable error) {}
+
+    private record Phase(String name, Runnable action, List<String> dependsOn) {}
+
+    private final Map<String, Phase> phases = new LinkedHashMap<>();
+    private final int threads;
+
+    public StartupPipeline() {
+        this(Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())));
+    }
+
+    public StartupPipeline(int threads) {
+        this.threads = threads;
+    }
+
+    // ➕ Dependencies must already be declared, so the graph cannot contain cycles
+    public StartupPipeline phase(String name, Runnable action, String... dependsOn) {
+        if (phases.containsKey(name)) {
+            throw new IllegalArgumentException("❌ Duplicate startup phase: " + name);
+        }
+        for (String dep : dependsOn) {
+            if (!phases.containsKey(dep)) {
+                throw new IllegalArgumentException("❌ Phase '" + name + "' depends on unknown phase '" + dep + "'");
+            }
+        }
+        phases.put(name, new Phase(name, action, List.of(dependsOn)));
+        return this;
+    }
+
+    // ▶️ Run every phase and wait for the whole graph
+    public Report run() {
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "Startup-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        long origin = System.nanoTime();
+        Map<String, PhaseTiming> timings = new ConcurrentHashMap<>();
+        Map<String, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+
+        try {
+            for (Phase phase : phases.values()) {
+                CompletableFuture<?>[] deps = phase.dependsOn().stream().map(futures::get).toArray(CompletableFuture[]::new);
+
+                CompletableFuture<Void> future = CompletableFuture.allOf(deps).handleAsync((ignored, upstream) -> {
+                    long start = System.nanoTime();
+                    String thread = Thread.currentThread().getName();
+                    if (upstream != null) {
+                        timings.put(phase.name(), new PhaseTiming(phase.name(), thread, millis(start - origin), 0,
+                                Outcome.SKIPPED, null));
+                        throw new CompletionException(upstream);
+                    }
+                    try {
+                        phase.action().run();
+                        timings.put(phase.name(), new PhaseTiming(phase.name(), thread, millis(start - origin),
+                                millis(System.nanoTime() - start), Outcome.OK, null));
+                        return null;
+                    } catch (RuntimeException e) {
+                        timings.put(phase.name(), new PhaseTiming(phase.name(), thread, millis(start - origin),
+                                millis(System.nanoTime() - start), Outcome.FAILED, e));
+                        Log.error("💥 Startup phase '" + phase.name() + "' failed: " + e.getMessage());
+                        throw e;
+                    }
+                }, pool);
+                futures.put(phase.name(), future);
+            }
+
+            try {
+                CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new)).join();
+            } catch (CompletionException ignored) {
+                // Failures are recorded per phase
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        List<PhaseTiming> ordered = new ArrayList<>();
+        for (String name : phases.keySet()) {
+            ordered.add(timings.getOrDefault(name, new PhaseTiming(name, "-", 0, 0, Outcome.SKIPPED, null)));
+        }
+
+        Report report = new Report(ordered, millis(System.nanoTime() - origin));
+        report.log();
+        report.publish();
+        report.appendTo(System.getProperty("phoenix.startup.timings"));
+        return report;
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    // ─── 📊 Result ───
+
+    public static class Report {
+        private final List<PhaseTiming> timings;
+        private final long totalMs;
+
+        Report(List<PhaseTiming> timings, long totalMs) {
+            this.timings = List.copyOf(timings);
+            this.totalMs = totalMs;
+        }
+
+        public List<PhaseTiming> getTimings() {
+            return timings;
+        }
+
+        public long getTotalMs() {
+            return totalMs;
+        }
+
+        public boolean isSuccessful() {
+            return timings.stream().allMatch(t -> t.outcome() == Outcome.OK);
+        }
+
+        public Optional<PhaseTiming> get(String phase) {
+            return timings.stream().filter(t -> t.name().equals(phase)).findFirst();
+        }
+
+        void log() {
+            Log.info("⏱️ Startup finished in " + totalMs + " ms");
+            for (PhaseTiming t : timings) {
+                Log.info(String.format("   %-14s %-8s +%5d ms  %5d ms  [%s]",
+                        t.name(), t.outcome(), t.startMs(), t.durationMs(), t.thread()));
+            }
+        }
+
+        // 📈 startup.<phase>_ms gauges (-1 when the phase did not complete) for the stats menu / endpoint
+        void publish() {
+            Metrics.gauge("startup.total_ms", () -> totalMs);
+            for (PhaseTiming t : timings) {
+                long ms = t.outcome() == Outcome.OK ? t.durationMs() : -1;
+                Metrics.gauge("startup." + t.name() + "_ms", () -> ms);
+            }
+        }
+
+        // 📈 timestamp,total,phase1,phase2,... (durations in ms, -1 when the phase did not complete)
+        void appendTo(String file) {
+            if (file == null || file.isBlank()) return;
+
+            StringBuilder line = new StringBuilder(Instant.now().toString()).append(',').append(totalMs);
+            for (PhaseTiming t : timings) {
+                line.append(',').append(t.name()).append('=')
+                        .append(t.outcome() == Outcome.OK ? t.durationMs() : -1);
+            }
+            line.append(System.lineSeparator());
+
+            try {
+                Files.writeString(Path.of(file), line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                Log.warn("⚠️ Could not record startup timings: " + e.getMessage());
+            }
+        }
+    }
+}
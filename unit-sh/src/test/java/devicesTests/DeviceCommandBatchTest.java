@@ -0,0 +1,130 @@
+package devicesTests;
+
+import devices.Device;
+import devices.DeviceCommandBatch;
+import devices.DeviceCommandBatch.Result;
+import devices.DeviceCommandBatch.Status;
+import devices.DeviceType;
+import devices.actions.DeviceAction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import storage.DeviceStorage;
+
+import java.time.Clock;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeviceCommandBatchTest {
+
+    private static final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+    // 🧪 Records the actions it receives; "BOOM" fails
+    private static class RecordingDevice extends Device {
+        final List<String> actions = new CopyOnWriteArrayList<>();
+
+        RecordingDevice(String id) {
+            super(id, "Batch " + id, DeviceType.UNKNOWN, Clock.systemDefaultZone(), 1000.0, 1000.0, false);
+        }
+
+        @Override
+        public List<String> getAvailableActions() {
+            return List.of("ON", "OFF");
+        }
+
+        @Override
+        public void simulate(String action) {
+            if (action.equals("BOOM")) throw new IllegalStateException("boom");
+            actions.add(action);
+            threads.add(Thread.currentThread());
+            try {
+                Thread.sleep(30);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private RecordingDevice a;
+    private RecordingDevice b;
+    private RecordingDevice c;
+
+    @BeforeEach
+    void setUp() {
+        Device.clearDeviceRegistryForTests();
+        DeviceStorage.getDevices().clear();
+        threads.clear();
+        a = new RecordingDevice("GD801");
+        b = new RecordingDevice("GD802");
+        c = new RecordingDevice("GD803");
+        for (Device d : List.of(a, b, c)) {
+            DeviceStorage.getDevices().put(d.getId(), d);
+        }
+    }
+
+    @Test
+    void commands_shouldKeepPerDeviceOrderAndRunDevicesInParallel() {
+        List<Result> results = new DeviceCommandBatch()
+                .add("GD801", "ON")
+                .add("GD802", "ON")
+                .add("GD801", "OFF")
+                .add("GD803", "ON")
+                .add("GD801", "ON")
+                .add("GD802", "OFF")
+                .execute();
+
+        assertEquals(List.of("ON", "OFF", "ON"), a.actions);
+        assertEquals(List.of("ON", "OFF"), b.actions);
+        assertEquals(List.of("ON"), c.actions);
+        assertTrue(a.isOn());
+        assertFalse(b.isOn());
+        assertTrue(threads.size() > 1, "devices should not share a single thread");
+
+        assertEquals(6, results.size());
+        assertEquals(List.of("GD801", "GD802", "GD801", "GD803", "GD801", "GD802"),
+                results.stream().map(Result::deviceId).toList());
+        assertTrue(results.stream().allMatch(Result::isApplied));
+    }
+
+    @Test
+    void failures_shouldBeReportedPerCommandWithoutStoppingTheBatch() {
+        List<Result> results = new DeviceCommandBatch()
+                .add("GD801", "BOOM")
+                .add("GD801", "ON")
+                .add("NOPE", DeviceAction.OFF)
+                .execute();
+
+        assertEquals(Status.FAILED, results.get(0).status());
+        assertEquals(Status.APPLIED, results.get(1).status());
+        assertEquals(Status.UNKNOWN_DEVICE, results.get(2).status());
+        assertEquals(List.of("ON"), a.actions);
+    }
+
+    @Test
+    void forAll_shouldApplyTheSameActionToEveryDevice() {
+        a.setOn(true);
+        b.setOn(true);
+
+        List<Result> results = DeviceCommandBatch.forAll(List.of(a, b, c), DeviceAction.OFF).execute();
+
+        assertEquals(3, results.size());
+        assertFalse(a.isOn() || b.isOn() || c.isOn());
+    }
+
+    @Test
+    void writesInsideABatch_shouldBeCollectedInsteadOfPersisted() {
+        Set<Device> touched = new HashSet<>();
+
+        DeviceStorage.runBatched(touched, () -> {
+            DeviceStorage.updateDeviceState("GD801", "ON");
+            DeviceStorage.updateDeviceState("GD802", "ON");
+            DeviceStorage.updateDeviceState("GD801", "OFF");
+        });
+
+        assertEquals(Set.of(a, b), touched);
+    }
+}
@@ -0,0 +1,123 @@
+package devicesTests;
+
+import devices.Device;
+import devices.DeviceEvents;
+import devices.DeviceEvents.Change;
+import devices.DeviceEvents.Kind;
+import devices.DeviceType;
+import devices.actions.LiveDeviceState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import sensors.LightSensor;
+import sensors.MeasurementUnit;
+import storage.DeviceRegistry;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DeviceEventsTest {
+
+    private final List<Change> received = new CopyOnWriteArrayList<>();
+    private final DeviceEvents.Listener listener = change -> {
+        if (change.id() == null || change.id().startsWith("EV")) received.add(change);
+    };
+
+    @BeforeEach
+    void setUp() {
+        DeviceEvents.subscribe(listener);
+    }
+
+    @AfterEach
+    void tearDown() {
+        DeviceEvents.unsubscribe(listener);
+    }
+
+    private Device device(String id, DeviceType type) {
+        Device device = mock(Device.class);
+        when(device.getId()).thenReturn(id);
+        when(device.getType()).thenReturn(type);
+        return device;
+    }
+
+    @Test
+    void registry_shouldAnnounceAddsRemovesAndClears() {
+        DeviceRegistry registry = new DeviceRegistry();
+        Device light = device("EV001", DeviceType.LIGHT);
+
+        registry.put("EV001", light);
+        registry.put("EV001", light); // same instance again (Device.setOn does this) → no event
+        registry.remove("EV001");
+        registry.clear();
+
+        assertEquals(List.of(
+                new Change(Kind.DEVICE_ADDED, "EV001", DeviceType.LIGHT),
+                new Change(Kind.DEVICE_REMOVED, "EV001", DeviceType.LIGHT),
+                new Change(Kind.RESET, null, null)), received);
+    }
+
+    @Test
+    void registryListeners_shouldRunOutsideTheRegistryLock() throws Exception {
+        DeviceRegistry registry = new DeviceRegistry();
+        List<Boolean> otherWriterFinished = new CopyOnWriteArrayList<>();
+        DeviceEvents.Listener writesBack = change -> {
+            if (change.kind() != Kind.DEVICE_ADDED || !"EVL001".equals(change.id())) return;
+            // Another thread writing to the registry would block here if we were still inside its lock
+            Thread other = new Thread(() -> registry.put("EVL-OTHER", device("EVL-OTHER", DeviceType.LIGHT)));
+            other.start();
+            try {
+                other.join(2_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            otherWriterFinished.add(!other.isAlive());
+        };
+        DeviceEvents.subscribe(writesBack);
+        try {
+            registry.putIfAbsent("EVL001", device("EVL001", DeviceType.LIGHT));
+            registry.replace("EVL001", device("EVL001", DeviceType.LIGHT));
+            registry.replace("EVL001", registry.get("EVL001"), device("EVL001", DeviceType.LIGHT));
+        } finally {
+            DeviceEvents.unsubscribe(writesBack);
+        }
+
+        assertEquals(List.of(true, true, true), otherWriterFinished);
+    }
+
+    @Test
+    void liveState_shouldAnnounceOnlyRealChanges() {
+        LiveDeviceState.set("EV-LIVE", true);
+        LiveDeviceState.set("EV-LIVE", true);
+        LiveDeviceState.set("EV-LIVE", false);
+
+        assertEquals(2, received.stream().filter(c -> c.kind() == Kind.DEVICE_STATE).count());
+    }
+
+    @Test
+    void sensorReadings_shouldAnnounceSensorValueChanges() {
+        LightSensor sensor = new LightSensor("EV-SENSOR", "Porch", MeasurementUnit.LUX, 0, Clock.systemUTC());
+
+        sensor.setCurrentValue(120);
+        sensor.acceptReading(System.currentTimeMillis(), 80);
+
+        assertEquals(List.of(new Change(Kind.SENSOR_VALUE, "EV-SENSOR", null),
+                new Change(Kind.SENSOR_VALUE, "EV-SENSOR", null)), received);
+    }
+
+    @Test
+    void failingListener_shouldNotStopOthers() {
+        DeviceEvents.Listener broken = change -> { throw new IllegalStateException("boom"); };
+        DeviceEvents.subscribe(broken);
+        try {
+            DeviceEvents.publish(Kind.DEVICE_STATE, "EV-BROKEN");
+        } finally {
+            DeviceEvents.unsubscribe(broken);
+        }
+
+        assertEquals(List.of(new Change(Kind.DEVICE_STATE, "EV-BROKEN", null)), received);
+    }
+}
@@ -0,0 +1,112 @@
+package devicesTests.actionsTests;
+
+import devices.actions.LiveDeviceState;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiveDeviceStateTest {
+
+    @Test
+    void snapshot_shouldNotChangeAfterLaterUpdates() {
+        LiveDeviceState.set("LDS-SNAP-1", true);
+        LiveDeviceState.Snapshot before = LiveDeviceState.snapshot();
+
+        LiveDeviceState.set("LDS-SNAP-1", false);
+        LiveDeviceState.set("LDS-SNAP-2", true);
+
+        assertTrue(before.isOn("LDS-SNAP-1"));
+        assertFalse(before.isOn("LDS-SNAP-2"));
+        assertTrue(before.activeIds().contains("LDS-SNAP-1"));
+
+        LiveDeviceState.Snapshot after = LiveDeviceState.snapshot();
+        assertFalse(after.isOn("LDS-SNAP-1"));
+        assertTrue(after.isOn("LDS-SNAP-2"));
+        assertTrue(after.version() >= before.version() + 2);
+    }
+
+    @Test
+    void redundantUpdate_shouldKeepTheVersion() {
+        LiveDeviceState.set("LDS-SAME", true);
+        long version = LiveDeviceState.getVersion();
+
+        assertFalse(LiveDeviceState.set("LDS-SAME", true));
+        assertEquals(version, LiveDeviceState.getVersion());
+    }
+
+    @Test
+    void manyNewIds_shouldAllBeReportedAcrossGrowth() {
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < 5_000; i++) {
+            String id = "LDS-GROW-" + i;
+            LiveDeviceState.set(id, true);
+            expected.add(id);
+        }
+
+        Set<String> active = LiveDeviceState.getActiveDevices();
+        assertTrue(active.containsAll(expected));
+        for (String id : expected) LiveDeviceState.set(id, false);
+    }
+
+    @Test
+    void activeDevices_shouldBeImmutable() {
+        LiveDeviceState.set("LDS-IMMUTABLE", true);
+        Set<String> active = LiveDeviceState.getActiveDevices();
+
+        assertThrows(UnsupportedOperationException.class, () -> active.add("LDS-OTHER"));
+    }
+
+    @Test
+    void concurrentWritersAndIteratingReaders_shouldNotInterfere() throws InterruptedException {
+        int writers = 4, perWriter = 200, rounds = 50;
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread reader = new Thread(() -> {
+            long lastVersion = -1;
+            try {
+                while (running.get()) {
+                    LiveDeviceState.Snapshot snap = LiveDeviceState.snapshot();
+                    assertTrue(snap.version() >= lastVersion, "versions must never go backwards");
+                    lastVersion = snap.version();
+                    assertEquals(snap.count(), snap.activeIds().size());
+                }
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        });
+        reader.start();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            Thread t = new Thread(() -> {
+                for (int r = 0; r < rounds; r++) {
+                    for (int i = 0; i < perWriter; i++) {
+                        LiveDeviceState.set("LDS-C" + writer + "-" + i, r % 2 == 0);
+                    }
+                }
+            });
+            threads.add(t);
+            t.start();
+        }
+        for (Thread t : threads) t.join();
+        running.set(false);
+        reader.join();
+
+        assertNull(failure.get());
+        // rounds is even, so the last round switched everything OFF
+        for (int w = 0; w < writers; w++) {
+            for (int i = 0; i < perWriter; i++) {
+                assertFalse(LiveDeviceState.snapshot().isOn("LDS-C" + w + "-" + i));
+            }
+        }
+    }
+}
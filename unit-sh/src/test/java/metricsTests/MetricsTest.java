@@ -0,0 +1,92 @@
+package metricsTests;
+
+import metrics.Counter;
+import metrics.LatencyHistogram;
+import metrics.Metrics;
+import metrics.MetricsHttpServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsTest {
+
+    @Test
+    void histogramPercentilesStayWithinBucketPrecision() {
+        LatencyHistogram h = Metrics.histogram("test.histogram.percentiles");
+        for (int i = 1; i <= 10_000; i++) {
+            h.record(i);
+        }
+
+        assertEquals(10_000, h.getCount());
+        assertEquals(10_000, h.getMax());
+        assertEquals(5_000.5, h.getMean(), 0.001);
+        assertEquals(5_000, h.percentile(0.50), 5_000 * 0.07);
+        assertEquals(9_900, h.percentile(0.99), 9_900 * 0.07);
+        assertEquals(10_000, h.percentile(1.0));
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        LatencyHistogram h = Metrics.histogram("test.histogram.small");
+        h.record(3);
+        h.record(7);
+        h.record(-5); // clamped to 0
+
+        assertEquals(0, h.percentile(0.01));
+        assertEquals(3, h.percentile(0.50));
+        assertEquals(7, h.percentile(0.99));
+    }
+
+    @Test
+    void counterTracksTotalAndLastMinute() {
+        Counter c = Metrics.counter("test.counter");
+        c.increment();
+        c.add(4);
+
+        assertSame(c, Metrics.counter("test.counter"));
+        assertEquals(5, c.get());
+        assertEquals(5, c.lastMinute());
+    }
+
+    @Test
+    void snapshotFlattensEveryMetricAndSurvivesBrokenGauges() {
+        Metrics.counter("test.snapshot.counter").increment();
+        Metrics.histogram("test.snapshot.latency").recordMillis(2);
+        Metrics.gauge("test.snapshot.gauge", () -> 42);
+        Metrics.gauge("test.snapshot.broken", () -> { throw new IllegalStateException("boom"); });
+
+        Map<String, Number> snapshot = Metrics.snapshot();
+
+        assertEquals(1L, snapshot.get("test.snapshot.counter.total"));
+        assertEquals(1L, snapshot.get("test.snapshot.latency.count"));
+        assertEquals(2_000L, snapshot.get("test.snapshot.latency.max_us"));
+        assertEquals(42L, snapshot.get("test.snapshot.gauge"));
+        assertTrue(Double.isNaN(snapshot.get("test.snapshot.broken").doubleValue()));
+    }
+
+    @Test
+    void httpEndpointServesRenderedSnapshot() throws IOException {
+        Metrics.counter("test.http.hits").add(3);
+
+        try (MetricsHttpServer server = new MetricsHttpServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            URL url = new URL("http://127.0.0.1:" + server.getPort() + "/metrics");
+            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+            assertEquals(200, conn.getResponseCode());
+
+            String body;
+            try (InputStream in = conn.getInputStream()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            assertTrue(body.contains("test.http.hits.total 3\n"), body);
+        }
+    }
+}
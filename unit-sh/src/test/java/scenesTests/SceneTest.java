@@ -0,0 +1,202 @@
+package scenesTests;
+
+import devices.Device;
+import devices.DeviceCommandBatch.Result;
+import devices.SmartLight;
+import devices.Thermostat;
+import devices.actions.SmartLightColorMode;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import scenes.DeviceGroup;
+import scenes.Scene;
+import scenes.SceneManager;
+import scenes.SceneTrigger;
+import scheduler.Scheduler;
+import storage.DeviceStorage;
+import storage.xlc.WorkbookSession;
+import storage.xlc.XlWorkbookUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SceneTest {
+
+    private static final Path PROD_XLSX_PATH = Paths.get("/home/nira/Documents/Shay/Fleur/unit-sh/unit-sh/shsXl.xlsx");
+    private Path tempFile;
+    private final Clock clock = Clock.systemDefaultZone();
+    private SmartLight lamp;
+    private SmartLight ceiling;
+    private Thermostat thermostat;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Scene edits write the Scenes sheet → keep them in a scratch workbook
+        tempFile = Files.createTempFile("scenes-", ".xlsx");
+        try (Workbook wb = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(tempFile)) {
+            wb.createSheet("Devices");
+            wb.write(out);
+        }
+        XlWorkbookUtils.overrideFilePath(tempFile);
+        WorkbookSession.invalidate();
+
+        Device.clearDeviceRegistryForTests();
+        DeviceStorage.getDevices().clear();
+        SceneManager.clear();
+
+        lamp = new SmartLight("SL901", "Lamp", clock, false, 300, 300, true);
+        ceiling = new SmartLight("SL902", "Ceiling", clock, false, 300, 300, true);
+        thermostat = new Thermostat("TH901", "Living Thermostat", 19, null, clock, true);
+        for (Device d : List.of(lamp, ceiling, thermostat)) {
+            DeviceStorage.getDevices().put(d.getId(), d);
+        }
+        lamp.setColorMode(SmartLightColorMode.COOL_WHITE);
+        ceiling.setColorMode(SmartLightColorMode.COOL_WHITE);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        SceneManager.clear();
+        WorkbookSession.invalidate();
+        Files.deleteIfExists(tempFile);
+        XlWorkbookUtils.overrideFilePath(PROD_XLSX_PATH);
+    }
+
+    @Test
+    void activate_shouldApplyEveryStepThroughGroups() {
+        DeviceGroup living = SceneManager.createGroup("Living room", "SL901", "SL902");
+        Scene evening = SceneManager.createScene("Living room evening")
+                .addStep(living.getId(), "COLOR=Warm White")
+                .addStep(living.getId(), "ON")
+                .addStep("TH901", "TEMP=22");
+
+        List<Result> results = SceneManager.activate(evening.getId());
+
+        assertEquals(5, results.size());
+        assertTrue(results.stream().allMatch(Result::isApplied));
+        assertEquals(SmartLightColorMode.WARM_WHITE, lamp.getColorMode());
+        assertEquals(SmartLightColorMode.WARM_WHITE, ceiling.getColorMode());
+        assertTrue(lamp.isOn() && ceiling.isOn());
+        assertEquals(22, thermostat.getUserTemp());
+    }
+
+    @Test
+    void invalidSteps_shouldBeDroppedAtCompileTime() {
+        Scene scene = SceneManager.createScene("Broken")
+                .addStep("TH901", "COLOR=Sunset")   // not a light
+                .addStep("SL901", "TEMP=20")        // not a thermostat
+                .addStep("XX999", "ON")             // unknown device
+                .addStep("SL901", "DANCE")          // unknown action
+                .addStep("SL901", "ON");
+
+        assertEquals(1, scene.getCompiledSize());
+    }
+
+    @Test
+    void replacedDevice_shouldBeReResolved() {
+        DeviceGroup group = SceneManager.createGroup("Lamps", "SL901");
+        Scene scene = SceneManager.createScene("Lamps on").addStep(group.getId(), "ON");
+        assertEquals(1, scene.getCompiledSize());
+
+        SmartLight reloaded = new SmartLight("SL901", "Lamp", clock, false, 300, 300, true);
+        DeviceStorage.getDevices().put(reloaded.getId(), reloaded); // e.g. after reloadFromExcel
+        group.addMember("SL902");
+
+        scene.activate();
+
+        assertTrue(reloaded.isOn());
+        assertTrue(ceiling.isOn());
+        assertFalse(lamp.isOn());
+    }
+
+    @Test
+    void trigger_shouldFireOnlyWhenEnteringTheCondition() {
+        SceneTrigger trigger = SceneTrigger.parse("SC001", "LS001", "<300");
+
+        assertFalse(trigger.shouldFire(500));
+        assertTrue(trigger.shouldFire(250));
+        assertFalse(trigger.shouldFire(100));
+        assertFalse(trigger.shouldFire(300));
+        assertTrue(trigger.shouldFire(299.5));
+        assertEquals("<300.0", trigger.expression());
+        assertThrows(IllegalArgumentException.class, () -> SceneTrigger.parse("SC001", "LS001", "=5"));
+    }
+
+    @Test
+    void trigger_shouldParseEveryComparison() {
+        assertEquals(SceneTrigger.Condition.ABOVE, SceneTrigger.parse("SC001", "TS001", ">25").getCondition());
+        assertEquals(SceneTrigger.Condition.AT_OR_BELOW, SceneTrigger.parse("SC001", "TS001", "<= 25").getCondition());
+        assertEquals(SceneTrigger.Condition.AT_OR_ABOVE, SceneTrigger.parse("SC001", "TS001", ">=25").getCondition());
+
+        SceneTrigger above = SceneTrigger.parse("SC001", "TS001", ">25");
+        assertFalse(above.shouldFire(25));
+        assertTrue(above.shouldFire(25.5));
+        assertEquals(">25.0", above.expression());
+    }
+
+    @Test
+    void scheduledScene_shouldActivateWhenDue() throws Exception {
+        Scene scene = SceneManager.createScene("Morning").addStep("SL901", "ON").addStep("TH901", "TEMP=21");
+        Scheduler scheduler = new Scheduler(DeviceStorage.getDevices(), new HashMap<>());
+        scheduler.scheduleScene(scene, LocalDateTime.now().minusSeconds(1), "none");
+
+        var check = Scheduler.class.getDeclaredMethod("tick", List.class);
+        check.setAccessible(true);
+        check.invoke(scheduler, new ArrayList<>());
+
+        assertTrue(lamp.isOn());
+        assertEquals(21, thermostat.getUserTemp());
+    }
+
+    @Test
+    void everyEdit_shouldSurviveAReloadFromTheSheet() {
+        DeviceGroup living = SceneManager.createGroup("Living room", "SL901", "SL902");
+        Scene evening = SceneManager.createScene("Evening")
+                .addStep(living.getId(), "COLOR=Warm White")
+                .addStep("TH901", "TEMP=22");
+        SceneManager.addTrigger(SceneTrigger.parse(evening.getId(), "LS901", "<300"));
+        living.addMember("SL903");
+
+        SceneManager.clear();
+        SceneManager.loadFromExcel();
+
+        DeviceGroup group = SceneManager.getGroup(living.getId());
+        assertEquals("Living room", group.getName());
+        assertEquals(List.of("SL901", "SL902", "SL903"), group.getMemberIds());
+
+        Scene scene = SceneManager.getScene(evening.getId());
+        assertEquals("Evening", scene.getName());
+        assertEquals(List.of(new Scene.Step(living.getId(), "COLOR=Warm White"), new Scene.Step("TH901", "TEMP=22")),
+                scene.getSteps());
+
+        List<SceneTrigger> triggers = SceneManager.getTriggers("LS901");
+        assertEquals(1, triggers.size());
+        assertEquals(evening.getId(), triggers.get(0).getSceneId());
+        assertEquals("<300.0", triggers.get(0).expression());
+    }
+
+    @Test
+    void emptySceneAndGroup_shouldSurviveAReloadFromTheSheet() {
+        Scene empty = SceneManager.createScene("Not yet");
+        DeviceGroup group = SceneManager.createGroup("Spare");
+
+        SceneManager.clear();
+        SceneManager.loadFromExcel();
+
+        assertEquals("Not yet", SceneManager.getScene(empty.getId()).getName());
+        assertTrue(SceneManager.getScene(empty.getId()).getSteps().isEmpty());
+        assertTrue(SceneManager.getGroup(group.getId()).getMemberIds().isEmpty());
+    }
+}
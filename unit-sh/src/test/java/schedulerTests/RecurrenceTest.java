@@ -0,0 +1,100 @@
+package schedulerTests;
+
+import org.junit.jupiter.api.Test;
+import scheduler.Recurrence;
+import scheduler.ScheduledTask;
+import scheduler.SolarCalculator;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurrenceTest {
+
+    private static final ZoneId AMSTERDAM = ZoneId.of("Europe/Amsterdam");
+
+    @Test
+    void legacySteps_shouldSkipMissedOccurrences() {
+        LocalDateTime previous = LocalDateTime.of(2025, 1, 1, 8, 0);
+        LocalDateTime now = LocalDateTime.of(2025, 1, 3, 9, 0);
+
+        assertEquals(LocalDateTime.of(2025, 1, 4, 8, 0), Recurrence.parse("Daily").next(previous, now, AMSTERDAM));
+        assertEquals(LocalDateTime.of(2025, 1, 8, 8, 0), Recurrence.parse("weekly").next(previous, now, AMSTERDAM));
+        assertEquals(LocalDateTime.of(2025, 2, 1, 8, 0), Recurrence.parse("monthly").next(previous, now, AMSTERDAM));
+        assertNull(Recurrence.parse("none").next(previous, now, AMSTERDAM));
+    }
+
+    @Test
+    void cron_shouldFindNextMatchingMinute() {
+        Recurrence every15 = Recurrence.parse("cron:*/15 7-9 * * mon-fri");
+        LocalDateTime friday = LocalDateTime.of(2025, 7, 4, 9, 50);   // Friday
+
+        assertEquals(LocalDateTime.of(2025, 7, 7, 7, 0), every15.next(null, friday, AMSTERDAM));
+        assertEquals(LocalDateTime.of(2025, 7, 4, 8, 15),
+                every15.next(null, LocalDateTime.of(2025, 7, 4, 8, 0), AMSTERDAM));
+
+        Recurrence leapDay = Recurrence.parse("cron:0 12 29 feb *");
+        assertEquals(LocalDateTime.of(2028, 2, 29, 12, 0),
+                leapDay.next(null, LocalDateTime.of(2025, 3, 1, 0, 0), AMSTERDAM));
+
+        // both day fields restricted → either matches; 7 is Sunday
+        Recurrence firstOrSunday = Recurrence.parse("cron:30 6 1 * 7");
+        assertEquals(LocalDateTime.of(2025, 7, 6, 6, 30),
+                firstOrSunday.next(null, LocalDateTime.of(2025, 7, 1, 7, 0), AMSTERDAM));
+    }
+
+    @Test
+    void weekdayMask_shouldCompileToCron() {
+        Recurrence mwf = Recurrence.parse("days:mon,wed,fri@07:30");
+        LocalDateTime wednesdayLate = LocalDateTime.of(2025, 7, 2, 8, 0);
+
+        assertEquals(LocalDateTime.of(2025, 7, 4, 7, 30), mwf.next(null, wednesdayLate, AMSTERDAM));
+        assertEquals("days:mon,wed,fri@07:30", mwf.spec());
+    }
+
+    @Test
+    void sunriseAndSunset_shouldMatchAlmanacWithinMinutes() {
+        LocalDate midsummer = LocalDate.of(2024, 6, 21);
+        LocalDateTime rise = SolarCalculator.sunrise(midsummer, 52.37, 4.90, AMSTERDAM);
+        LocalDateTime set = SolarCalculator.sunset(midsummer, 52.37, 4.90, AMSTERDAM);
+
+        assertWithin(LocalTime.of(5, 18), rise.toLocalTime(), 3);
+        assertWithin(LocalTime.of(22, 6), set.toLocalTime(), 3);
+        assertNull(SolarCalculator.sunset(midsummer, 78.2, 15.6, ZoneId.of("Arctic/Longyearbyen")));
+    }
+
+    @Test
+    void sunsetOffset_shouldUseConfiguredLocation() {
+        System.setProperty(Recurrence.LAT_PROPERTY, "52.37");
+        System.setProperty(Recurrence.LON_PROPERTY, "4.90");
+        try {
+            Recurrence beforeSunset = Recurrence.parse("sunset-30m");
+            LocalDateTime next = beforeSunset.next(null, LocalDateTime.of(2024, 6, 21, 12, 0), AMSTERDAM);
+
+            assertEquals(LocalDate.of(2024, 6, 21), next.toLocalDate());
+            assertWithin(LocalTime.of(21, 36), next.toLocalTime(), 3);
+        } finally {
+            System.clearProperty(Recurrence.LAT_PROPERTY);
+            System.clearProperty(Recurrence.LON_PROPERTY);
+        }
+    }
+
+    @Test
+    void invalidRepeat_shouldFallBackToOneShot() {
+        assertThrows(IllegalArgumentException.class, () -> Recurrence.parse("cron:61 * * * *"));
+        assertThrows(IllegalArgumentException.class, () -> Recurrence.parse("fortnightly"));
+
+        ScheduledTask task = new ScheduledTask("TS001", null, "ON", LocalDateTime.now(), "fortnightly");
+        assertEquals("fortnightly", task.getRepeat());
+        assertSame(Recurrence.NONE, task.getRecurrence());
+    }
+
+    private static void assertWithin(LocalTime expected, LocalTime actual, int minutes) {
+        long diff = Math.abs(Duration.between(expected, actual).toMinutes());
+        assertTrue(diff <= minutes, "expected ~" + expected + " but was " + actual);
+    }
+}
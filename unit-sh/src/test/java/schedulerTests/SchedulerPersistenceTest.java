@@ -0,0 +1,185 @@
+package schedulerTests;
+
+import devices.Device;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import scheduler.ScheduledTask;
+import scheduler.Scheduler;
+import storage.DeviceStorage;
+import storage.xlc.WorkbookSession;
+import storage.xlc.XlWorkbookUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SchedulerPersistenceTest {
+
+    private static final Path PROD_XLSX_PATH = Paths.get("/home/nira/Documents/Shay/Fleur/unit-sh/unit-sh/shsXl.xlsx");
+    private Path tempFile;
+    private Scheduler scheduler;
+    private Device device;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tempFile = Files.createTempFile("tasks-", ".xlsx");
+        writeWorkbook(new String[]{"TaskID", "DeviceID", "Action", "Time", "Repeat", "Status", "Priority"});
+        XlWorkbookUtils.overrideFilePath(tempFile);
+        WorkbookSession.invalidate();
+
+        device = mock(Device.class);
+        when(device.getId()).thenReturn("LI950");
+        when(device.getName()).thenReturn("Persisted Light");
+        DeviceStorage.getDevices().put("LI950", device);
+        scheduler = new Scheduler(new HashMap<>(), new HashMap<>());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        DeviceStorage.getDevices().remove("LI950");
+        WorkbookSession.invalidate();
+        Files.deleteIfExists(tempFile);
+        XlWorkbookUtils.overrideFilePath(PROD_XLSX_PATH);
+    }
+
+    @Test
+    void firedTask_shouldOnlyTouchItsOwnRow() throws Exception {
+        scheduler.scheduleTask(device, "ON", LocalDateTime.now().plusHours(2), "daily");
+        scheduler.scheduleTask(device, "OFF", LocalDateTime.now().minusSeconds(1), "none");
+        String keptId = getScheduledTasks().get(0).getTaskId();
+        markStatus(keptId, "keep-me");
+
+        invokeDueTaskCheck();
+
+        List<String[]> rows = readRows();
+        assertEquals(1, rows.size());
+        assertEquals(keptId, rows.get(0)[0]);
+        assertEquals("LI950", rows.get(0)[1]);
+        assertEquals("keep-me", rows.get(0)[5]); // untouched column of an untouched row
+    }
+
+    @Test
+    void tickWithNothingDue_shouldNotWrite() throws Exception {
+        scheduler.scheduleTask(device, "ON", LocalDateTime.now().plusHours(1), "none");
+        int saves = WorkbookSession.getSaveCount();
+
+        invokeDueTaskCheck();
+        invokeDueTaskCheck();
+
+        assertEquals(saves, WorkbookSession.getSaveCount());
+    }
+
+    @Test
+    void legacySheetWithoutTaskIds_shouldBeMigratedOnNextSave() throws Exception {
+        writeWorkbook(new String[]{"DeviceID", "DeviceID", "Action", "Time", "Repeat"},
+                new String[]{"LI950", "Persisted Light", "ON", "2030-01-01 08:00", "daily"});
+        WorkbookSession.invalidate();
+
+        scheduler.loadTasksFromExcel();
+        List<ScheduledTask> tasks = getScheduledTasks();
+        assertEquals(1, tasks.size());
+        String migratedId = tasks.get(0).getTaskId();
+        assertTrue(migratedId.startsWith("TS"));
+
+        scheduler.scheduleTask(device, "OFF", LocalDateTime.of(2030, 1, 1, 22, 0), "none");
+
+        List<String[]> rows = readRows();
+        assertEquals(2, rows.size());
+        assertEquals(migratedId, rows.get(0)[0]);
+        assertEquals("LI950", rows.get(0)[1]);
+        assertEquals("2030-01-01 08:00", rows.get(0)[3]);
+        assertEquals(getScheduledTasks().get(1).getTaskId(), rows.get(1)[0]);
+    }
+
+    @Test
+    void sheetMissingAColumn_shouldBeRewrittenInFullOnTheNextSave() throws Exception {
+        writeWorkbook(new String[]{"TaskID", "DeviceID", "Action", "Time"}); // no Repeat column
+        WorkbookSession.invalidate();
+
+        scheduler.scheduleTask(device, "ON", LocalDateTime.of(2030, 1, 1, 8, 0), "daily"); // refused, not lost
+        scheduler.scheduleTask(device, "OFF", LocalDateTime.of(2030, 1, 1, 22, 0), "none");
+
+        List<String[]> rows = readRows();
+        assertEquals(2, rows.size());
+        assertEquals("ON", rows.get(0)[2]);
+        assertEquals("daily", rows.get(0)[4]);
+    }
+
+    // ─── helpers ───
+
+    private void writeWorkbook(String[] header, String[]... rows) throws IOException {
+        try (Workbook wb = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(tempFile)) {
+            for (String name : new String[]{"Devices", "Sensors", "Sens_Ctrl", "Smart_Light_Control"}) {
+                wb.createSheet(name);
+            }
+            Sheet tasks = wb.createSheet("Scheduled_Tasks");
+            writeRow(tasks.createRow(0), header);
+            for (int i = 0; i < rows.length; i++) {
+                writeRow(tasks.createRow(i + 1), rows[i]);
+            }
+            wb.write(out);
+        }
+    }
+
+    private static void writeRow(Row row, String[] values) {
+        for (int c = 0; c < values.length; c++) {
+            row.createCell(c).setCellValue(values[c]);
+        }
+    }
+
+    private void markStatus(String taskId, String status) throws IOException {
+        WorkbookSession.write(wb -> {
+            for (Row row : wb.getSheet("Scheduled_Tasks")) {
+                if (row.getRowNum() > 0 && taskId.equals(row.getCell(0).getStringCellValue())) {
+                    row.createCell(5).setCellValue(status);
+                }
+            }
+            return true;
+        });
+    }
+
+    private List<String[]> readRows() throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        try (InputStream in = Files.newInputStream(tempFile); Workbook wb = WorkbookFactory.create(in)) {
+            for (Row row : wb.getSheet("Scheduled_Tasks")) {
+                if (row.getRowNum() == 0) continue;
+                String[] values = new String[7];
+                for (int c = 0; c < values.length; c++) {
+                    values[c] = XlWorkbookUtils.getCellValue(row, c);
+                }
+                rows.add(values);
+            }
+        }
+        return rows;
+    }
+
+    private void invokeDueTaskCheck() throws Exception {
+        var method = Scheduler.class.getDeclaredMethod("tick", List.class);
+        method.setAccessible(true);
+        method.invoke(scheduler, new ArrayList<>());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ScheduledTask> getScheduledTasks() throws Exception {
+        var field = Scheduler.class.getDeclaredField("scheduledTasks");
+        field.setAccessible(true);
+        return (List<ScheduledTask>) field.get(scheduler);
+    }
+}
@@ -0,0 +1,109 @@
+package schedulerTests;
+
+import devices.Device;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import scheduler.ScheduledTask;
+import scheduler.Scheduler;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SchedulerQueueTest {
+
+    private Scheduler scheduler;
+    private Device device;
+
+    @BeforeEach
+    void setUp() {
+        device = mock(Device.class);
+        when(device.getId()).thenReturn("LI900");
+        when(device.getName()).thenReturn("Queue Light");
+        scheduler = new Scheduler(new HashMap<>(), new HashMap<>());
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stopSchedulerLoop();
+    }
+
+    @Test
+    void dueOneShotTask_shouldFireOnceAndBeRemoved() {
+        scheduler.scheduleTask(device, "ON", LocalDateTime.now().minusSeconds(5), "none");
+
+        invokeDueTaskCheck();
+        invokeDueTaskCheck();
+
+        verify(device, times(1)).performAction("ON");
+        assertTrue(getScheduledTasks().isEmpty());
+    }
+
+    @Test
+    void futureTask_shouldNotFireEarly() {
+        scheduler.scheduleTask(device, "ON", LocalDateTime.now().plusHours(1), "none");
+
+        invokeDueTaskCheck();
+
+        verify(device, never()).performAction(anyString());
+        assertEquals(1, getScheduledTasks().size());
+    }
+
+    @Test
+    void recurringTask_shouldRescheduleInPlacePastMissedRuns() {
+        LocalDateTime threeDaysAgo = LocalDateTime.now().minusDays(3);
+        scheduler.scheduleTask(device, "OFF", threeDaysAgo, "daily");
+        ScheduledTask task = getScheduledTasks().get(0);
+
+        invokeDueTaskCheck();
+
+        verify(device, times(1)).performAction("OFF");
+        assertSame(task, getScheduledTasks().get(0));
+        assertTrue(task.getTime().isAfter(LocalDateTime.now()));
+        assertTrue(task.getTime().isBefore(LocalDateTime.now().plusDays(1).plusMinutes(1)));
+    }
+
+    @Test
+    void updatedTask_shouldFireAtItsNewTimeOnly() {
+        scheduler.scheduleTask(device, "ON", LocalDateTime.now().plusHours(1), "none");
+        scheduler.updateTask(0, LocalDateTime.now().minusSeconds(1), "none");
+
+        invokeDueTaskCheck();
+
+        verify(device, times(1)).performAction("ON");
+    }
+
+    @Test
+    void loop_shouldWakeWhenTaskIsDue() {
+        scheduler.startSchedulerLoop();
+        scheduler.scheduleTask(device, "ON", LocalDateTime.now().plusNanos(300_000_000), "none");
+
+        verify(device, timeout(3_000).times(1)).performAction("ON");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ScheduledTask> getScheduledTasks() {
+        try {
+            var field = Scheduler.class.getDeclaredField("scheduledTasks");
+            field.setAccessible(true);
+            return (List<ScheduledTask>) field.get(scheduler);
+        } catch (Exception e) {
+            throw new RuntimeException("Unable to access scheduledTasks", e);
+        }
+    }
+
+    private void invokeDueTaskCheck() {
+        try {
+            var method = Scheduler.class.getDeclaredMethod("tick", List.class);
+            method.setAccessible(true);
+            method.invoke(scheduler, new ArrayList<>());
+        } catch (Exception e) {
+            throw new RuntimeException("Unable to invoke the scheduler tick", e);
+        }
+    }
+}
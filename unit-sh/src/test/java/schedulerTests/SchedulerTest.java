@@ -87,7 +87,7 @@ public class SchedulerTest {
     }
 
     @Test
-    void checkAndRunDueTasks_shouldTriggerDeviceAction() {
+    void tick_shouldTriggerDeviceAction() {
         scheduler.scheduleTask(device, "OFF", LocalDateTime.now().minusSeconds(10), "none");
         invokeDueTaskCheck();
         assertTrue(device.wasActionPerformed());
@@ -108,11 +108,11 @@ public class SchedulerTest {
 
     private void invokeDueTaskCheck() {
         try {
-            var method = Scheduler.class.getDeclaredMethod("checkAndRunDueTasks");
+            var method = Scheduler.class.getDeclaredMethod("tick", List.class);
             method.setAccessible(true);
-            method.invoke(scheduler);
+            method.invoke(scheduler, new ArrayList<>());
         } catch (Exception e) {
-            throw new RuntimeException("Unable to invoke checkAndRunDueTasks", e);
+            throw new RuntimeException("Unable to invoke the scheduler tick", e);
         }
     }
 }
@@ -0,0 +1,100 @@
+package sensorsTests;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import sensors.SensorHistory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SensorHistoryTest {
+
+    private Path file;
+
+    @BeforeEach
+    void setup() throws IOException {
+        file = Files.createTempFile("sensor-", ".hist");
+        Files.delete(file);
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void range_shouldReturnReadingsInWindowOldestFirst() throws IOException {
+        SensorHistory history = SensorHistory.open(file, 8, 2);
+        for (int i = 0; i < 10; i++) {
+            history.record(1_000L * i, i * 10.0);
+        }
+
+        long[] ts = new long[16];
+        double[] values = new double[16];
+        int n = history.range(3_000, 6_000, ts, values);
+
+        assertEquals(4, n);
+        assertEquals(3_000, ts[0]);
+        assertEquals(60.0, values[3]);
+    }
+
+    @Test
+    void fullRing_shouldOverwriteOldestReadings() throws IOException {
+        SensorHistory history = SensorHistory.open(file, 4, 2); // capacity 8
+        for (int i = 0; i < 20; i++) {
+            history.record(i, i);
+        }
+
+        List<Double> seen = new ArrayList<>();
+        history.forEachInRange(Long.MIN_VALUE, Long.MAX_VALUE, (t, v) -> seen.add(v));
+
+        assertEquals(8, history.size());
+        assertEquals(List.of(12.0, 13.0, 14.0, 15.0, 16.0, 17.0, 18.0, 19.0), seen);
+        assertEquals(19.0, history.latest());
+    }
+
+    @Test
+    void downsample_shouldAggregatePerBucket() throws IOException {
+        SensorHistory history = SensorHistory.open(file, 16, 1);
+        history.record(0, 10);
+        history.record(500, 30);
+        history.record(1_200, 5);
+        history.record(3_100, 7); // bucket [3000, 4000), bucket [2000, 3000) stays empty
+
+        List<SensorHistory.Window> windows = history.downsample(0, 4_000, 1_000);
+
+        assertEquals(3, windows.size());
+        assertEquals(new SensorHistory.Window(0, 1_000, 10, 30, 20, 2), windows.get(0));
+        assertEquals(1, windows.get(1).samples());
+        assertEquals(3_000, windows.get(2).startMs());
+    }
+
+    @Test
+    void reopen_shouldKeepRecordedHistory() throws IOException {
+        SensorHistory first = SensorHistory.open(file, 8, 2);
+        first.record(100, 1.5);
+        first.record(200, 2.5);
+        first.force();
+
+        SensorHistory reopened = SensorHistory.open(file, 8, 2);
+        assertEquals(2, reopened.size());
+        assertEquals(2.5, reopened.latest());
+    }
+
+    @Test
+    void clockGoingBackwards_shouldNotBreakOrdering() throws IOException {
+        SensorHistory history = SensorHistory.open(file, 8, 1);
+        history.record(1_000, 1);
+        history.record(900, 2); // stored at 1000
+
+        long[] ts = new long[4];
+        double[] values = new double[4];
+        assertEquals(2, history.range(1_000, 1_000, ts, values));
+    }
+}
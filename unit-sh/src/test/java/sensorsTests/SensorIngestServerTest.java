@@ -0,0 +1,161 @@
+package sensorsTests;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import sensors.LightSensor;
+import sensors.MeasurementUnit;
+import sensors.Sensor;
+import sensors.SensorHistory;
+import sensors.ingest.IngestClient;
+import sensors.ingest.SensorIngestServer;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SensorIngestServerTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.ofEpochMilli(9_000_000), ZoneOffset.UTC);
+
+    private final List<Sensor> sensors = new CopyOnWriteArrayList<>();
+    private final AtomicLong sensorsVersion = new AtomicLong();
+    private SensorIngestServer server;
+    private LightSensor sensor;
+
+    @BeforeAll
+    static void isolateHistory() throws IOException {
+        System.setProperty(SensorHistory.DIR_PROPERTY, Files.createTempDirectory("ingest-hist").toString());
+    }
+
+    @BeforeEach
+    void setup() throws IOException {
+        sensor = new LightSensor("LS" + System.nanoTime(), "Gateway", MeasurementUnit.LUX, 0, CLOCK);
+        sensors.add(sensor);
+        server = new SensorIngestServer(() -> sensors, sensorsVersion::get, CLOCK);
+        server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    }
+
+    @AfterEach
+    void teardown() {
+        server.close();
+    }
+
+    private static void await(LongSupplier counter, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (counter.getAsLong() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, counter.getAsLong());
+    }
+
+    @Test
+    void tcp_shouldDecodeLinesSplitAcrossWrites() throws Exception {
+        String id = sensor.getSensorId();
+        try (IngestClient client = IngestClient.tcp(server.getPort())) {
+            client.send(id, 1_000, 120.5);
+            client.sendRaw(id + ",2000,2").flush();
+            Thread.sleep(50); // let the server see the half line
+            client.sendRaw("50.25\r\n");
+            client.send(id, 3_000, -7);
+        }
+
+        await(server::getAcceptedCount, 3);
+        assertEquals(-7, sensor.getCurrentValue());
+
+        long[] ts = new long[4];
+        double[] values = new double[4];
+        int n = sensor.getHistory().range(0, 10_000, ts, values);
+        assertEquals(3, n);
+        assertArrayEquals(new double[]{120.5, 250.25, -7, 0}, values);
+        assertEquals(2_000, ts[1]);
+    }
+
+    @Test
+    void udp_shouldAcceptLastLineWithoutNewlineAndStampMissingTimestamps() throws Exception {
+        String id = sensor.getSensorId();
+        try (IngestClient client = IngestClient.udp(server.getPort())) {
+            client.sendRaw(id + ",5000,300\n" + id + ",,410");
+        }
+
+        await(server::getAcceptedCount, 2);
+        assertEquals(410, sensor.getCurrentValue());
+        long[] ts = new long[2];
+        assertEquals(2, sensor.getHistory().range(0, CLOCK.millis(), ts, new double[2]));
+        assertEquals(CLOCK.millis(), ts[1]);
+    }
+
+    @Test
+    void badInput_shouldBeCountedAndSkipped() throws Exception {
+        String id = sensor.getSensorId();
+        try (IngestClient client = IngestClient.tcp(server.getPort())) {
+            client.sendRaw("garbage\n")
+                    .sendRaw(id + ",12x,5\n")
+                    .sendRaw(id + ",1,\n")
+                    .sendRaw("UNKNOWN,1,5\n")
+                    .send(id, 10, 42);
+        }
+
+        await(server::getAcceptedCount, 1);
+        await(server::getMalformedCount, 3);
+        assertEquals(1, server.getUnknownSensorCount());
+        assertEquals(42, sensor.getCurrentValue());
+    }
+
+    @Test
+    void sensorAddedAfterStart_shouldBeResolvedOnceTheRegistryChanges() throws Exception {
+        LightSensor late = new LightSensor("LS" + System.nanoTime(), "Late", MeasurementUnit.LUX, 0, CLOCK);
+        sensors.add(late);
+        sensorsVersion.incrementAndGet();
+
+        try (IngestClient client = IngestClient.tcp(server.getPort())) {
+            client.send(late.getSensorId(), 1, 77);
+        }
+
+        await(server::getAcceptedCount, 1);
+        assertEquals(77, late.getCurrentValue());
+    }
+
+    @Test
+    void removedSensor_shouldStopResolvingEvenThoughTheTableHadIt() throws Exception {
+        try (IngestClient client = IngestClient.tcp(server.getPort())) {
+            client.send(sensor.getSensorId(), 1, 10);
+        }
+        await(server::getAcceptedCount, 1);
+
+        sensors.remove(sensor);
+        sensorsVersion.incrementAndGet();
+        try (IngestClient client = IngestClient.tcp(server.getPort())) {
+            client.send(sensor.getSensorId(), 2, 20);
+        }
+
+        await(server::getUnknownSensorCount, 1);
+        assertEquals(10, sensor.getCurrentValue());
+    }
+
+    @Test
+    void connectionGauge_shouldCountOnlyOpenConnections() throws Exception {
+        try (IngestClient first = IngestClient.tcp(server.getPort())) {
+            first.send(sensor.getSensorId(), 1, 1).flush();
+            await(server::getAcceptedCount, 1);
+            assertEquals(1, server.getConnectionCount());
+        }
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (server.getConnectionCount() != 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0, server.getConnectionCount());
+    }
+}
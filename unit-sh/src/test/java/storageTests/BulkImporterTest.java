@@ -0,0 +1,130 @@
+package storageTests;
+
+import devices.Device;
+import devices.DeviceType;
+import devices.SmartLight;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.*;
+import sensors.SensorFactory;
+import storage.BulkImporter;
+import storage.DeviceStorage;
+import storage.SensorStorage;
+import storage.xlc.WorkbookSession;
+import storage.xlc.XlWorkbookUtils;
+import storage.xlc.sheetsCommand.DeviceSheetCommand;
+import storage.xlc.sheetsCommand.SensorSheetCommand;
+import storage.xlc.sheetsCommand.SmartLightSheetCommand;
+import utils.DeviceIdManager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.file.*;
+import java.time.Clock;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkImporterTest {
+
+    private static final Path PROD_XLSX_PATH = Paths.get("/home/nira/Documents/Shay/Fleur/unit-sh/unit-sh/shsXl.xlsx");
+    private final Clock clock = Clock.systemDefaultZone();
+    private Path tempFile;
+
+    @BeforeEach
+    void setup() throws IOException {
+        tempFile = Files.createTempFile("bulk-", ".xlsx");
+        try (XSSFWorkbook wb = new XSSFWorkbook(); OutputStream out = Files.newOutputStream(tempFile)) {
+            XlWorkbookUtils.createEnumSheet(wb, "Devices", DeviceSheetCommand.class);
+            XlWorkbookUtils.createEnumSheet(wb, "Smart_Light_Control", SmartLightSheetCommand.class);
+            XlWorkbookUtils.createEnumSheet(wb, "Sensors", SensorSheetCommand.class);
+            wb.write(out);
+        }
+        XlWorkbookUtils.overrideFilePath(tempFile);
+        WorkbookSession.invalidate();
+        DeviceStorage.clear();
+        SensorStorage.clear();
+        DeviceIdManager.getInstance().clear();
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        SensorStorage.getSensors().keySet().forEach(SensorFactory::clearSensorById);
+        DeviceStorage.clear();
+        SensorStorage.clear();
+        WorkbookSession.invalidate();
+        Files.deleteIfExists(tempFile);
+        XlWorkbookUtils.overrideFilePath(PROD_XLSX_PATH);
+    }
+
+    @Test
+    void validCsv_shouldCreateEverythingWithOneSave() throws IOException {
+        String csv = """
+                # building A
+                type,name,brand,model,auto_on,auto_enabled,sensor_type,value
+                LIGHT,Hall,Philips,LED Bulb,300,true,,
+                Smart Light,"Lobby, north",Philips,Hue,,,,
+                LIGHT,Stairs,Osram,Classic A60,,,,
+                SENSOR,Hall Lux,,,,,LIGHT,420
+                """;
+        int loads = WorkbookSession.getLoadCount();
+
+        BulkImporter.Result result = BulkImporter.importCsv(new StringReader(csv), clock);
+
+        assertTrue(result.isSuccess(), () -> "Errors: " + result.errors());
+        assertEquals(List.of("LI001", "SL001", "LI002"), result.devices().stream().map(Device::getId).toList());
+        assertEquals("LITs001", result.sensors().get(0).getSensorId());
+        assertEquals(420.0, result.sensors().get(0).getCurrentValue());
+        assertEquals(300.0, result.devices().get(0).getAutoThreshold());
+        assertTrue(result.devices().get(0).isAutomationEnabled());
+        assertInstanceOf(SmartLight.class, result.devices().get(1));
+        assertEquals("Lobby, north", result.devices().get(1).getName());
+        assertEquals(loads + 1, WorkbookSession.getLoadCount(), "Import must not reparse the workbook per row");
+
+        assertEquals(3, DeviceStorage.getDevices().size());
+        assertNotNull(SensorStorage.getSensor("LITs001"));
+
+        List<Integer> rows = WorkbookSession.read(wb -> List.of(
+                wb.getSheet("Devices").getLastRowNum(),
+                wb.getSheet("Smart_Light_Control").getLastRowNum(),
+                wb.getSheet("Sensors").getLastRowNum()));
+        assertEquals(List.of(3, 1, 1), rows);
+    }
+
+    @Test
+    void anyInvalidRow_shouldRejectTheWholeFile() throws IOException {
+        String csv = """
+                type,name,brand,model,auto_on
+                LIGHT,Hall,Philips,LED Bulb,300
+                LIGHT,Porch,Philips,Hue,300
+                DRYER,Hall,Bosch,Series 6,
+                THERMOSTAT,Office,Google,Nest Gen3,warm
+                """;
+
+        BulkImporter.Result result = BulkImporter.importCsv(new StringReader(csv), clock);
+
+        assertFalse(result.isSuccess());
+        assertEquals(3, result.errors().size(), () -> "Errors: " + result.errors());
+        assertTrue(result.errors().get(0).startsWith("line 3"), "Hue is a SMART_LIGHT model, not a LIGHT");
+        assertTrue(result.errors().get(1).contains("already in use"));
+        assertTrue(result.devices().isEmpty());
+        assertTrue(DeviceStorage.getDevices().isEmpty());
+        int lastRow = WorkbookSession.read(wb -> wb.getSheet("Devices").getLastRowNum());
+        assertEquals(0, lastRow);
+        assertEquals("LI001", DeviceIdManager.getInstance().generateIdForType(DeviceType.LIGHT),
+                "A rejected file must not consume IDs");
+    }
+
+    @Test
+    void importedIds_shouldContinueAfterExistingDevices() throws IOException {
+        BulkImporter.importCsv(new StringReader("type,name,brand,model\nDRYER,Basement,Bosch,Series 6\n"), clock);
+
+        BulkImporter.Result second = BulkImporter.importCsv(new StringReader("""
+                type,name,brand,model
+                DRYER,Attic,Whirlpool,FreshCare+
+                DRYER,Garage,Bosch,Series 6
+                """), clock);
+
+        assertEquals(List.of("DR002", "DR003"), second.devices().stream().map(Device::getId).toList());
+    }
+}
@@ -0,0 +1,139 @@
+package storageTests;
+
+import devices.Device;
+import devices.DeviceType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import sensors.Sensor;
+import storage.DeviceRegistry;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DeviceRegistryTest {
+
+    private DeviceRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new DeviceRegistry();
+    }
+
+    private Device device(String id, DeviceType type) {
+        Device device = mock(Device.class);
+        when(device.getId()).thenReturn(id);
+        when(device.getType()).thenReturn(type);
+        return device;
+    }
+
+    private Sensor sensor(String id) {
+        Sensor sensor = mock(Sensor.class);
+        when(sensor.getSensorId()).thenReturn(id);
+        return sensor;
+    }
+
+    @Test
+    void byType_shouldReturnDevicesSortedById() {
+        registry.put("LI003", device("LI003", DeviceType.LIGHT));
+        registry.put("LI001", device("LI001", DeviceType.LIGHT));
+        registry.put("DR001", device("DR001", DeviceType.DRYER));
+        registry.put("SL001", device("SL001", DeviceType.SMART_LIGHT));
+
+        assertEquals(List.of("LI001", "LI003"), ids(registry.getByType(DeviceType.LIGHT)));
+        assertEquals(List.of("LI001", "LI003", "SL001"),
+                ids(registry.getByTypes(DeviceType.SMART_LIGHT, DeviceType.LIGHT)));
+    }
+
+    @Test
+    void reindex_shouldTrackLinkAndAutomationChanges() {
+        Device light = device("LI001", DeviceType.LIGHT);
+        registry.put("LI001", light);
+        assertNull(registry.getFirstLinkedTo("SE001"));
+
+        Sensor sensor = sensor("SE001");
+        when(light.getLinkedSensor()).thenReturn(sensor);
+        when(light.isAutomationEnabled()).thenReturn(true);
+        registry.reindex(light);
+
+        assertSame(light, registry.getFirstLinkedTo("se001"));
+        assertEquals(List.of(light), registry.getAutomationEnabled());
+
+        when(light.getLinkedSensor()).thenReturn(null);
+        when(light.isAutomationEnabled()).thenReturn(false);
+        registry.reindex(light);
+
+        assertTrue(registry.getLinkedTo("SE001").isEmpty());
+        assertTrue(registry.getAutomationEnabled().isEmpty());
+    }
+
+    @Test
+    void linkedTo_shouldReturnEveryDeviceOnTheSensor() {
+        Device first = device("LI001", DeviceType.LIGHT);
+        Device second = device("LI002", DeviceType.LIGHT);
+        when(first.getAutomationSensorId()).thenReturn("SE001");
+        when(second.getAutomationSensorId()).thenReturn("SE001");
+        registry.put("LI002", second);
+        registry.put("LI001", first);
+
+        assertEquals(List.of(first, second), registry.getLinkedTo("SE001"));
+        assertEquals("SE001", registry.getLinkIndex().getSensorId("LI002"));
+
+        registry.remove("LI001");
+        assertEquals(List.of(second), registry.getLinkedTo("SE001"));
+    }
+
+    @Test
+    void removeThroughIterator_shouldDropIndexEntries() {
+        registry.put("LI001", device("LI001", DeviceType.LIGHT));
+        registry.put("LI002", device("LI002", DeviceType.LIGHT));
+
+        Iterator<Device> it = registry.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().getId().equals("LI001")) it.remove();
+        }
+
+        assertEquals(1, registry.size());
+        assertEquals(List.of("LI002"), ids(registry.getByType(DeviceType.LIGHT)));
+    }
+
+    @Test
+    void replacingDevice_shouldMoveItBetweenTypeBuckets() {
+        registry.put("XX001", device("XX001", DeviceType.LIGHT));
+        registry.put("XX001", device("XX001", DeviceType.DRYER));
+
+        assertTrue(registry.getByType(DeviceType.LIGHT).isEmpty());
+        assertEquals(1, registry.getByType(DeviceType.DRYER).size());
+    }
+
+    @Test
+    void concurrentWriters_shouldLeaveIndexesConsistent() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            pool.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    String id = "LI" + (i % 50);
+                    if ((i + thread) % 3 == 0) registry.remove(id);
+                    else registry.put(id, device(id, DeviceType.LIGHT));
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(registry.size(), registry.getByType(DeviceType.LIGHT).size());
+        for (Device d : registry.getByType(DeviceType.LIGHT)) {
+            assertSame(d, registry.get(d.getId()));
+        }
+    }
+
+    private static List<String> ids(List<Device> devices) {
+        return devices.stream().map(Device::getId).toList();
+    }
+}
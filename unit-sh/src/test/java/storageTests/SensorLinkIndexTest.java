@@ -0,0 +1,59 @@
+package storageTests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import storage.SensorLinkIndex;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SensorLinkIndexTest {
+
+    private SensorLinkIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SensorLinkIndex();
+    }
+
+    @Test
+    void oneSensor_shouldReturnAllLinkedDevices() {
+        index.link("LI002", "SE001");
+        index.link("LI001", "SE001");
+        index.link("LI003", "se001");
+
+        assertEquals(List.of("LI001", "LI002", "LI003"), List.copyOf(index.getDeviceIds("SE001")));
+        assertEquals("SE001", index.getSensorId("LI001"));
+    }
+
+    @Test
+    void relinking_shouldMoveDeviceBetweenSensors() {
+        index.link("LI001", "SE001");
+        index.link("LI001", "SE002");
+
+        assertTrue(index.getDeviceIds("SE001").isEmpty());
+        assertEquals(Set.of("LI001"), index.getDeviceIds("SE002"));
+        assertEquals("SE002", index.getSensorId("LI001"));
+    }
+
+    @Test
+    void unlink_shouldClearBothDirections() {
+        index.link("LI001", "SE001");
+        index.link("LI002", "SE001");
+
+        index.unlink("LI001");
+        index.link("LI002", null); // null sensor also unlinks
+
+        assertNull(index.getSensorId("LI001"));
+        assertFalse(index.isLinked("LI002"));
+        assertTrue(index.getDeviceIds("SE001").isEmpty());
+    }
+
+    @Test
+    void returnedSet_shouldBeReadOnly() {
+        index.link("LI001", "SE001");
+        assertThrows(UnsupportedOperationException.class, () -> index.getDeviceIds("SE001").add("LI999"));
+    }
+}
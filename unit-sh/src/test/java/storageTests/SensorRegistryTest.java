@@ -0,0 +1,49 @@
+package storageTests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import sensors.Sensor;
+import storage.SensorRegistry;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SensorRegistryTest {
+
+    private SensorRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SensorRegistry();
+    }
+
+    @Test
+    void version_shouldMoveOnlyOnRealChanges() {
+        Sensor sensor = mock(Sensor.class);
+
+        registry.put("SE001", sensor);
+        registry.put("SE001", sensor); // same instance → no change
+        registry.remove("SE999");      // absent → no change
+        assertEquals(1, registry.getVersion());
+
+        registry.put("SE001", mock(Sensor.class));
+        registry.remove("SE001");
+        assertEquals(3, registry.getVersion());
+    }
+
+    @Test
+    void version_shouldSeeWritesThroughViewsAndDefaultMethods() {
+        Sensor sensor = mock(Sensor.class);
+
+        registry.computeIfAbsent("SE001", id -> sensor);
+        registry.computeIfAbsent("SE001", id -> mock(Sensor.class)); // present → no change
+        assertEquals(1, registry.getVersion());
+
+        registry.values().removeIf(s -> s == sensor);
+        assertTrue(registry.isEmpty());
+        assertEquals(2, registry.getVersion());
+
+        registry.clear();
+        assertEquals(3, registry.getVersion());
+    }
+}
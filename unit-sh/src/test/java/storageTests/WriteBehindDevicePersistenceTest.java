@@ -0,0 +1,164 @@
+package storageTests;
+
+import devices.Device;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import storage.DevicePersistence;
+import storage.WriteBehindDevicePersistence;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class WriteBehindDevicePersistenceTest {
+
+    // 🧪 Records every batch handed to it
+    private static class RecordingPersistence implements DevicePersistence {
+        final List<List<Device>> batches = new ArrayList<>();
+        final List<String> unlinked = new ArrayList<>();
+        final List<String> removed = new ArrayList<>();
+        boolean failNext = false;
+
+        @Override
+        public boolean updateDevice(Device device) {
+            return updateDevices(List.of(device));
+        }
+
+        @Override
+        public boolean updateDevices(Collection<Device> devices) {
+            if (failNext) {
+                failNext = false;
+                return false;
+            }
+            batches.add(new ArrayList<>(devices));
+            return true;
+        }
+
+        @Override
+        public boolean removeSensorLink(String deviceId) {
+            unlinked.add(deviceId);
+            return true;
+        }
+
+        @Override
+        public boolean removeDevice(String deviceId) {
+            removed.add(deviceId);
+            return true;
+        }
+    }
+
+    private RecordingPersistence delegate;
+    private WriteBehindDevicePersistence persistence;
+
+    @BeforeEach
+    void setUp() {
+        delegate = new RecordingPersistence();
+        persistence = new WriteBehindDevicePersistence(delegate, 60_000, 3);
+    }
+
+    private Device device(String id) {
+        Device device = mock(Device.class);
+        when(device.getId()).thenReturn(id);
+        return device;
+    }
+
+    @Test
+    void updateDevice_shouldNotWriteUntilFlushed() {
+        persistence.updateDevice(device("LI001"));
+
+        assertTrue(delegate.batches.isEmpty());
+        assertEquals(1, persistence.getPendingCount());
+    }
+
+    @Test
+    void repeatedUpdates_shouldCoalesceByDeviceId() {
+        Device light = device("LI001");
+        persistence.updateDevice(light);
+        persistence.updateDevice(light);
+        persistence.updateDevice(light);
+
+        persistence.flush();
+
+        assertEquals(1, delegate.batches.size());
+        assertEquals(List.of(light), delegate.batches.get(0));
+        assertEquals(0, persistence.getPendingCount());
+    }
+
+    @Test
+    void reachingThreshold_shouldFlushOneBatch() {
+        persistence.updateDevice(device("LI001"));
+        persistence.updateDevice(device("LI002"));
+        assertTrue(delegate.batches.isEmpty());
+
+        persistence.updateDevice(device("LI003"));
+
+        assertEquals(1, delegate.batches.size());
+        assertEquals(3, delegate.batches.get(0).size());
+    }
+
+    @Test
+    void failedFlush_shouldKeepDevicesForRetry() {
+        persistence.updateDevice(device("LI001"));
+        delegate.failNext = true;
+
+        persistence.flush();
+        assertEquals(1, persistence.getPendingCount());
+
+        persistence.flush();
+        assertEquals(1, delegate.batches.size());
+        assertEquals(0, persistence.getPendingCount());
+    }
+
+    @Test
+    void removeSensorLink_shouldFlushPendingUpdatesFirst() {
+        persistence.updateDevice(device("LI001"));
+
+        assertTrue(persistence.removeSensorLink("LI001"));
+
+        assertEquals(1, delegate.batches.size());
+        assertEquals(List.of("LI001"), delegate.unlinked);
+    }
+
+    @Test
+    void removeDevice_shouldDropTheQueuedWriteAndDeleteTheRow() {
+        persistence.updateDevice(device("LI001"));
+
+        assertTrue(persistence.removeDevice("LI001"));
+        persistence.flush();
+
+        assertEquals(List.of("LI001"), delegate.removed);
+        assertTrue(delegate.batches.isEmpty(), "a removed device must not be written back");
+    }
+
+    @Test
+    void fromProperties_shouldUseTheConfiguredBatchSizeAndIgnoreInvalidOnes() {
+        System.setProperty(WriteBehindDevicePersistence.FLUSH_THRESHOLD_PROPERTY, "2");
+        try {
+            WriteBehindDevicePersistence configured = WriteBehindDevicePersistence.fromProperties(delegate);
+            configured.updateDevice(device("LI001"));
+            configured.updateDevice(device("LI002"));
+            assertEquals(1, delegate.batches.size(), "batch size 2 reached → flushed");
+
+            System.setProperty(WriteBehindDevicePersistence.FLUSH_THRESHOLD_PROPERTY, "0");
+            WriteBehindDevicePersistence fallback = WriteBehindDevicePersistence.fromProperties(delegate);
+            fallback.updateDevice(device("LI003"));
+            fallback.updateDevice(device("LI004"));
+            assertEquals(2, fallback.getPendingCount(), "invalid size falls back to the default of 50");
+        } finally {
+            System.clearProperty(WriteBehindDevicePersistence.FLUSH_THRESHOLD_PROPERTY);
+        }
+    }
+
+    @Test
+    void stop_shouldFlushRemainingUpdates() {
+        persistence.start();
+        persistence.updateDevice(device("LI001"));
+
+        persistence.stop();
+
+        assertEquals(1, delegate.batches.size());
+    }
+}
@@ -0,0 +1,186 @@
+package storageTests.journalTests;
+
+import devices.Device;
+import devices.DeviceType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import storage.journal.JournalDevicePersistence;
+import storage.journal.JournalState;
+import storage.journal.JournalStore;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JournalStoreTest {
+
+    private Path dir;
+
+    @BeforeEach
+    void setup() throws IOException {
+        dir = Files.createTempDirectory("journal-");
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    private Device device(String id, boolean on, double threshold) {
+        Device device = mock(Device.class);
+        when(device.getId()).thenReturn(id);
+        when(device.getType()).thenReturn(DeviceType.LIGHT);
+        when(device.getName()).thenReturn("Light " + id);
+        when(device.isOn()).thenReturn(on);
+        when(device.isAutomationEnabled()).thenReturn(true);
+        when(device.getAutoThreshold()).thenReturn(threshold);
+        when(device.getAutoOffThreshold()).thenReturn(threshold + 100);
+        when(device.getAutomationSensorId()).thenReturn("SE001");
+        return device;
+    }
+
+    @Test
+    void reopen_shouldRecoverLatestStatePerDevice() throws IOException {
+        try (JournalStore store = JournalStore.open(dir, true)) {
+            store.putDevice(device("LI001", false, 300));
+            store.putDevice(device("LI001", true, 450));
+            store.putDevices(List.of(device("LI002", true, 100), device("LI003", false, 200)));
+            store.removeDevice("LI003");
+        }
+
+        try (JournalStore store = JournalStore.open(dir, true)) {
+            JournalState state = store.snapshotState();
+            assertEquals(2, state.getDevices().size());
+            JournalState.DeviceEntry li001 = state.getDevices().get("LI001");
+            assertTrue(li001.on());
+            assertEquals(450, li001.autoThreshold());
+            assertEquals(550, li001.autoOffThreshold());
+            assertEquals("LIGHT", li001.type());
+            assertNull(li001.brand());
+            assertEquals("SE001", li001.sensorId());
+            assertFalse(state.getDevices().containsKey("LI003"));
+        }
+    }
+
+    @Test
+    void removedDevice_shouldNotBeRestoredOntoANewDeviceWithTheSameId() throws IOException {
+        try (JournalStore store = JournalStore.open(dir, true)) {
+            JournalDevicePersistence persistence = new JournalDevicePersistence(store, null);
+            persistence.updateDevice(device("LI010", true, 300));
+            assertTrue(persistence.removeDevice("LI010"));
+        }
+
+        try (JournalStore store = JournalStore.open(dir, true)) {
+            Device fresh = device("LI010", false, 500);
+            new JournalDevicePersistence(store, null).restoreInto(Map.of("LI010", fresh));
+
+            verify(fresh, never()).setState(anyBoolean());
+            assertFalse(store.snapshotState().getDevices().get("LI010").on(), "re-seeded from the new device");
+        }
+    }
+
+    @Test
+    void restore_shouldBringBackACustomOnOffBand() throws IOException {
+        try (JournalStore store = JournalStore.open(dir, true)) {
+            new JournalDevicePersistence(store, null).updateDevice(device("LI020", true, 250)); // band 250 → 350
+        }
+
+        try (JournalStore store = JournalStore.open(dir, true)) {
+            Device restored = device("LI020", false, 500);
+            new JournalDevicePersistence(store, null).restoreInto(Map.of("LI020", restored));
+
+            verify(restored).setAutoOnThreshold(250, true);
+            verify(restored).setAutoOffThreshold(350);
+        }
+    }
+
+    @Test
+    void tornTail_shouldBeTruncatedOnRecovery() throws IOException {
+        long validSize;
+        try (JournalStore store = JournalStore.open(dir, true)) {
+            store.putDevice(device("LI001", true, 300));
+            validSize = store.getLogSize();
+            store.putDevice(device("LI002", true, 300));
+        }
+
+        // Simulate a crash halfway through the second record
+        Path log = dir.resolve(JournalStore.LOG_FILE);
+        try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+
+        try (JournalStore store = JournalStore.open(dir, true)) {
+            assertEquals(validSize, store.getLogSize());
+            assertEquals(List.of("LI001"), List.copyOf(store.snapshotState().getDevices().keySet()));
+
+            store.putDevice(device("LI004", false, 10));
+        }
+
+        try (JournalStore store = JournalStore.open(dir, true)) {
+            assertTrue(store.snapshotState().getDevices().containsKey("LI004"), "Appends after truncation must survive");
+        }
+    }
+
+    @Test
+    void corruptRecord_shouldStopReplayAtLastGoodRecord() throws IOException {
+        try (JournalStore store = JournalStore.open(dir, true)) {
+            store.putDevice(device("LI001", true, 300));
+            store.putDevice(device("LI002", true, 300));
+        }
+
+        Path log = dir.resolve(JournalStore.LOG_FILE);
+        byte[] bytes = Files.readAllBytes(log);
+        bytes[bytes.length - 8] ^= 0x7F; // flip a payload byte in the last record
+        Files.write(log, bytes);
+
+        try (JournalStore store = JournalStore.open(dir, true)) {
+            assertEquals(List.of("LI001"), List.copyOf(store.snapshotState().getDevices().keySet()));
+        }
+    }
+
+    @Test
+    void compact_shouldShrinkLogAndKeepState() throws IOException {
+        try (JournalStore store = JournalStore.open(dir, false)) {
+            for (int i = 0; i < 200; i++) {
+                store.putDevice(device("LI001", i % 2 == 0, i));
+            }
+            long before = store.getLogSize();
+
+            store.compact();
+
+            assertTrue(store.getLogSize() < before);
+            assertTrue(Files.exists(dir.resolve(JournalStore.SNAPSHOT_FILE)));
+            store.putDevice(device("LI002", true, 5)); // tail after the snapshot
+        }
+
+        try (JournalStore store = JournalStore.open(dir, false)) {
+            JournalState state = store.snapshotState();
+            assertEquals(199, state.getDevices().get("LI001").autoThreshold());
+            assertFalse(state.getDevices().get("LI001").on());
+            assertTrue(state.getDevices().containsKey("LI002"));
+        }
+    }
+
+    @Test
+    void logOverThreshold_shouldCompactAutomatically() throws IOException {
+        try (JournalStore store = JournalStore.open(dir, false, 2_048)) {
+            for (int i = 0; i < 100; i++) {
+                store.putDevice(device("LI" + (i % 3), true, i));
+            }
+            assertTrue(store.getLogSize() < 2_048);
+            assertEquals(3, store.snapshotState().getDevices().size());
+        }
+    }
+}
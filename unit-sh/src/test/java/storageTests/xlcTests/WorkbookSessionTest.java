@@ -0,0 +1,122 @@
+package storageTests.xlcTests;
+
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.*;
+import storage.xlc.WorkbookSession;
+import storage.xlc.XlWorkbookUtils;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkbookSessionTest {
+
+    private static final Path PROD_XLSX_PATH = Paths.get("/home/nira/Documents/Shay/Fleur/unit-sh/unit-sh/shsXl.xlsx");
+    private Path tempFile;
+
+    @BeforeEach
+    void setup() throws IOException {
+        tempFile = Files.createTempFile("session-", ".xlsx");
+        writeWorkbook(tempFile, "LI001");
+        XlWorkbookUtils.overrideFilePath(tempFile);
+        WorkbookSession.invalidate();
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        WorkbookSession.invalidate();
+        Files.deleteIfExists(tempFile);
+        XlWorkbookUtils.overrideFilePath(PROD_XLSX_PATH);
+    }
+
+    @Test
+    void repeatedReads_shouldParseFileOnce() throws IOException {
+        int before = WorkbookSession.getLoadCount();
+
+        String first = WorkbookSession.readSheet("Devices", sheet -> sheet.getRow(1).getCell(1).getStringCellValue());
+        String second = WorkbookSession.readSheet("Devices", sheet -> sheet.getRow(1).getCell(1).getStringCellValue());
+
+        assertEquals("LI001", first);
+        assertEquals("LI001", second);
+        assertEquals(before + 1, WorkbookSession.getLoadCount());
+    }
+
+    @Test
+    void write_shouldPersistToDiskWithoutReparsing() throws IOException {
+        WorkbookSession.read(wb -> null);
+        int loads = WorkbookSession.getLoadCount();
+
+        WorkbookSession.write(wb -> {
+            wb.getSheet("Devices").createRow(2).createCell(1).setCellValue("LI002");
+            return true;
+        });
+
+        try (InputStream in = Files.newInputStream(tempFile);
+             Workbook onDisk = WorkbookFactory.create(in)) {
+            assertEquals("LI002", onDisk.getSheet("Devices").getRow(2).getCell(1).getStringCellValue());
+        }
+
+        String cached = WorkbookSession.readSheet("Devices", sheet -> sheet.getRow(2).getCell(1).getStringCellValue());
+        assertEquals("LI002", cached);
+        assertEquals(loads, WorkbookSession.getLoadCount(), "Own save must not trigger a reload");
+    }
+
+    @Test
+    void externalChange_shouldTriggerReload() throws IOException {
+        WorkbookSession.read(wb -> null);
+
+        writeWorkbook(tempFile, "LI777-EXTERNALLY-EDITED");
+
+        String id = WorkbookSession.readSheet("Devices", sheet -> sheet.getRow(1).getCell(1).getStringCellValue());
+        assertEquals("LI777-EXTERNALLY-EDITED", id);
+    }
+
+    @Test
+    void failedWrite_shouldDiscardInMemoryEdits() {
+        assertThrows(IOException.class, () -> WorkbookSession.write(wb -> {
+            wb.getSheet("Devices").getRow(1).getCell(1).setCellValue("BROKEN");
+            throw new IOException("simulated failure");
+        }));
+
+        String id = assertDoesNotThrow(() ->
+                WorkbookSession.readSheet("Devices", sheet -> sheet.getRow(1).getCell(1).getStringCellValue()));
+        assertEquals("LI001", id);
+    }
+
+    @Test
+    void writeInsideRead_shouldBeRejected() {
+        assertThrows(IllegalStateException.class, () ->
+                WorkbookSession.read(wb -> WorkbookSession.write(inner -> true)));
+    }
+
+    @Test
+    void updateWorkbook_shouldGoThroughSharedSession() throws IOException {
+        WorkbookSession.read(wb -> null);
+        int loads = WorkbookSession.getLoadCount();
+
+        assertTrue(XlWorkbookUtils.updateWorkbook((wb, tasks, devices, sensors, senseControl, smartLightCtrl) ->
+                devices.getRow(1).getCell(2).setCellValue("Renamed")));
+
+        String name = WorkbookSession.readSheet("Devices", sheet -> sheet.getRow(1).getCell(2).getStringCellValue());
+        assertEquals("Renamed", name);
+        assertEquals(loads, WorkbookSession.getLoadCount());
+    }
+
+    private static void writeWorkbook(Path path, String deviceId) throws IOException {
+        try (Workbook wb = new XSSFWorkbook()) {
+            XlWorkbookUtils.createSheetWithHeaders(wb, "Devices", new String[]{"TYPE", "DEVICE_ID", "NAME"});
+            Row row = wb.getSheet("Devices").createRow(1);
+            row.createCell(0).setCellValue("LIGHT");
+            row.createCell(1).setCellValue(deviceId);
+            row.createCell(2).setCellValue("Hall Light");
+
+            try (FileOutputStream fos = new FileOutputStream(path.toFile())) {
+                wb.write(fos);
+            }
+        }
+    }
+}
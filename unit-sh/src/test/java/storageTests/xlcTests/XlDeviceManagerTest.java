@@ -12,15 +12,14 @@ import org.junit.jupiter.api.Test;
 import storage.DeviceStorage;
 import storage.xlc.XlDeviceManager;
 import storage.xlc.XlWorkbookUtils;
+import utils.DeviceIdManager;
 import utils.Log;
 
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -103,8 +102,8 @@ class XlDeviceManagerTest {
 
     @Test
     void testGetNextAvailableId() {
-        Set<String> ids = new HashSet<>(List.of("LI001", "LI002", "LI099"));
-        String next = XlDeviceManager.getNextAvailableId("LI", ids);
+        DeviceIdManager.getInstance().addKnownIds(List.of("LI001", "LI002", "LI099"));
+        String next = XlDeviceManager.getNextAvailableId("LI");
         assertEquals("LI100", next);
     }
 
@@ -0,0 +1,142 @@
+package storageTests.xlcTests;
+
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.*;
+import storage.xlc.WorkbookSession;
+import storage.xlc.XlRow;
+import storage.xlc.XlStreamingLoader;
+import storage.xlc.XlWorkbookUtils;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class XlStreamingLoaderTest {
+
+    private static final Path PROD_XLSX_PATH = Paths.get("/home/nira/Documents/Shay/Fleur/unit-sh/unit-sh/shsXl.xlsx");
+    private Path tempFile;
+
+    @BeforeEach
+    void setup() throws IOException {
+        tempFile = Files.createTempFile("streaming-", ".xlsx");
+        writeWorkbook(tempFile);
+        XlWorkbookUtils.overrideFilePath(tempFile);
+        WorkbookSession.invalidate();
+        XlStreamingLoader.release();
+    }
+
+    @AfterEach
+    void cleanup() throws IOException {
+        XlStreamingLoader.release();
+        WorkbookSession.invalidate();
+        Files.deleteIfExists(tempFile);
+        XlWorkbookUtils.overrideFilePath(PROD_XLSX_PATH);
+    }
+
+    @Test
+    void preload_shouldServeStartupSheetsWithoutDomLoad() throws IOException {
+        assertTrue(XlStreamingLoader.preload());
+        int loads = WorkbookSession.getLoadCount();
+
+        List<String> ids = XlStreamingLoader.readSheet("DEVICES", rows -> column(rows, 1));
+        List<String> sensors = XlStreamingLoader.readSheet("Sensors", rows -> column(rows, 2));
+        Object missing = XlStreamingLoader.readSheet("Scheduled Tasks", rows -> rows);
+
+        assertEquals(List.of("DEVICE_ID", "LI001", "DR002"), ids);
+        assertEquals(List.of("ID", "SE001"), sensors);
+        assertNull(missing, "Sheet absent from the file must be reported as null");
+        assertEquals(loads, WorkbookSession.getLoadCount(), "Snapshot reads must not parse the DOM");
+    }
+
+    @Test
+    void streamedRows_shouldMatchDomRows() throws IOException {
+        List<String> dom = XlStreamingLoader.readSheet("Devices", XlStreamingLoaderTest::describe);
+
+        assertTrue(XlStreamingLoader.preload());
+        List<String> streamed = XlStreamingLoader.readSheet("Devices", XlStreamingLoaderTest::describe);
+
+        assertEquals(dom, streamed);
+    }
+
+    @Test
+    void save_shouldDropSnapshotAndFallBackToSession() throws IOException {
+        assertTrue(XlStreamingLoader.preload());
+
+        WorkbookSession.write(wb -> {
+            wb.getSheet("Devices").getRow(1).getCell(1).setCellValue("LI999");
+            return true;
+        });
+
+        List<String> ids = XlStreamingLoader.readSheet("Devices", rows -> column(rows, 1));
+        assertEquals("LI999", ids.get(1));
+    }
+
+    @Test
+    void stream_shouldVisitOnlyRequestedSheets() throws IOException {
+        List<String> seen = new ArrayList<>();
+        Set<String> names = XlStreamingLoader.stream(tempFile, Set.of("Sens_Ctrl"),
+                (sheet, row) -> seen.add(sheet + ":" + row.getRowNum()));
+
+        assertEquals(List.of("Sens_Ctrl:0", "Sens_Ctrl:1"), seen);
+        assertTrue(names.containsAll(Set.of("Devices", "Smart_Light_Control", "Sensors", "Sens_Ctrl", "Scheduled_Tasks")));
+    }
+
+    @Test
+    void corruptFile_shouldFailPreload() throws IOException {
+        Files.writeString(tempFile, "not a workbook");
+        assertFalse(XlStreamingLoader.preload());
+    }
+
+    private static List<String> column(Iterable<XlRow> rows, int column) {
+        List<String> values = new ArrayList<>();
+        for (XlRow row : rows) values.add(row.text(column));
+        return values;
+    }
+
+    private static List<String> describe(Iterable<XlRow> rows) {
+        List<String> lines = new ArrayList<>();
+        for (XlRow row : rows) {
+            StringBuilder line = new StringBuilder(row.getRowNum() + "|" + row.getLastCellNum());
+            for (int c = 0; c < 8; c++) line.append('|').append(row.text(c)).append('|').append(row.number(c, -1));
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    private static void writeWorkbook(Path path) throws IOException {
+        try (Workbook wb = new XSSFWorkbook()) {
+            XlWorkbookUtils.createSheetWithHeaders(wb, "Devices",
+                    new String[]{"TYPE", "DEVICE_ID", "NAME", "BRAND", "MODEL", "AUTO_ENABLED", "AUTO_ON"});
+            Sheet devices = wb.getSheet("Devices");
+            Row light = devices.createRow(1);
+            light.createCell(0).setCellValue("LIGHT");
+            light.createCell(1).setCellValue("LI001");
+            light.createCell(2).setCellValue("  Hall Light ");
+            light.createCell(5).setCellValue(true);
+            light.createCell(6).setCellValue(512.4);
+            Row dryer = devices.createRow(3); // gap row on purpose
+            dryer.createCell(0).setCellValue("DRYER");
+            dryer.createCell(1).setCellValue("DR002");
+            dryer.createCell(6).setCellValue("700");
+            dryer.createCell(7).setCellFormula("1+1");
+
+            XlWorkbookUtils.createSheetWithHeaders(wb, "Smart_Light_Control", new String[]{"DEVICE_ID"});
+            XlWorkbookUtils.createSheetWithHeaders(wb, "Sensors", new String[]{"TYPE", "UNIT", "ID"});
+            wb.getSheet("Sensors").createRow(1).createCell(2).setCellValue("SE001");
+            XlWorkbookUtils.createSheetWithHeaders(wb, "Sens_Ctrl", new String[]{"SLAVE_ID"});
+            wb.getSheet("Sens_Ctrl").createRow(1).createCell(0).setCellValue("LI001");
+            XlWorkbookUtils.createSheetWithHeaders(wb, "Scheduled_Tasks", new String[]{"DeviceID"});
+
+            wb.getCreationHelper().createFormulaEvaluator().evaluateAll();
+            try (FileOutputStream fos = new FileOutputStream(path.toFile())) {
+                wb.write(fos);
+            }
+        }
+    }
+}
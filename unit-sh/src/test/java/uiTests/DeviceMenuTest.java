@@ -58,7 +58,7 @@ class DeviceMenuTest {
 
     @Test
     void whenInvalidChoiceEntered_menuShowsError() {
-        String paddedInput = String.join("\n", "foo", "5", "", "", "", "", "");
+        String paddedInput = String.join("\n", "foo", "6", "", "", "", "", "");
         System.setIn(new ByteArrayInputStream(paddedInput.getBytes()));
 
         DeviceMenu.DevicesMenu(testDevices, dummyThreads);
@@ -70,7 +70,7 @@ class DeviceMenuTest {
 
     @Test
     void whenChoosingBack_MenuLoopsOnceAndExits() {
-        System.setIn(new ByteArrayInputStream("5\n".getBytes()));
+        System.setIn(new ByteArrayInputStream("6\n".getBytes()));
         DeviceMenu.DevicesMenu(testDevices, dummyThreads);
 
         String output = out.toString();
@@ -80,7 +80,7 @@ class DeviceMenuTest {
 
     @Test
     void whenListOptionChosen_displayAllDevicesIsCalled() {
-        System.setIn(new ByteArrayInputStream("1\n5\n".getBytes()));
+        System.setIn(new ByteArrayInputStream("1\n6\n".getBytes()));
 
         DeviceViewer.setDisplayHook(() -> System.out.println("🎯 displayAllDevicesAndSensors() CALLED"));
 
@@ -97,7 +97,7 @@ class DeviceMenuTest {
 
         XlCreator.setDeviceRemover(removalId -> removalId.equals(id));
 
-        System.setIn(new ByteArrayInputStream(("4\n" + id + "\n5\n").getBytes()));
+        System.setIn(new ByteArrayInputStream(("4\n" + id + "\n6\n").getBytes()));
         DeviceMenu.DevicesMenu(testDevices, dummyThreads);
 
         assertTrue(out.toString().contains("🗑️ Removed successfully"));
@@ -118,7 +118,7 @@ class DeviceMenuTest {
                         "NewBrand\n" +
                         "NewModel\n" +
                         "reset\n" +
-                        "5\n").getBytes()));
+                        "6\n").getBytes()));
 
         DeviceMenu.DevicesMenu(testDevices, dummyThreads);
 
@@ -142,7 +142,7 @@ class DeviceMenuTest {
                         "Sun\n" +
                         "lumens\n" +
                         "888\n" +
-                        "5\n").getBytes()));
+                        "6\n").getBytes()));
 
         DeviceMenu.DevicesMenu(testDevices, dummyThreads);
 
@@ -160,7 +160,7 @@ class DeviceMenuTest {
 
         XlCreator.setDeviceUpdater(dev -> true);
         System.setIn(new ByteArrayInputStream((
-                "3\n" + id + "\n\n\n\nnotanumber\n5\n").getBytes()));
+                "3\n" + id + "\n\n\n\nnotanumber\n6\n").getBytes()));
 
         DeviceMenu.DevicesMenu(testDevices, dummyThreads);
 
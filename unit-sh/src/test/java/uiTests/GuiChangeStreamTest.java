@@ -0,0 +1,96 @@
+package uiTests;
+
+import devices.DeviceEvents;
+import devices.DeviceEvents.Change;
+import devices.DeviceEvents.Kind;
+import devices.DeviceType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ui.gui.managers.GuiChangeStream;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GuiChangeStreamTest {
+
+    private final List<List<Change>> batches = new CopyOnWriteArrayList<>();
+    private final List<Boolean> onEdt = new CopyOnWriteArrayList<>();
+    private final GuiChangeStream.Subscriber subscriber = changes -> {
+        List<Change> ours = changes.stream().filter(c -> c.id() != null && c.id().startsWith("GS")).toList();
+        if (!ours.isEmpty()) {
+            batches.add(ours);
+            onEdt.add(SwingUtilities.isEventDispatchThread());
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        GuiChangeStream.unsubscribe(subscriber);
+    }
+
+    @Test
+    void burstOfToggles_shouldArriveMergedOnTheEdt() throws Exception {
+        GuiChangeStream.subscribe(subscriber);
+
+        Thread publisher = new Thread(() -> {
+            for (int i = 0; i < 1_000; i++) {
+                DeviceEvents.publish(Kind.DEVICE_STATE, "GS" + (i % 10));
+            }
+        });
+        publisher.start();
+        publisher.join();
+
+        List<Change> all = awaitChanges(10);
+        assertEquals(10, all.size(), "one entry per device per frame");
+        assertTrue(batches.size() <= 2, "a burst should take no more than a couple of frames: " + batches.size());
+        assertFalse(onEdt.contains(false));
+    }
+
+    @Test
+    void addFollowedByToggle_shouldStayAnAdd() throws Exception {
+        GuiChangeStream.subscribe(subscriber);
+
+        SwingUtilities.invokeAndWait(() -> {
+            // Published inside one EDT task, so the frame timer cannot fire in between
+            DeviceEvents.publish(Kind.DEVICE_ADDED, "GS-NEW", DeviceType.LIGHT);
+            DeviceEvents.publish(Kind.DEVICE_STATE, "GS-NEW");
+        });
+
+        assertEquals(List.of(new Change(Kind.DEVICE_ADDED, "GS-NEW", DeviceType.LIGHT)), awaitChanges(1));
+    }
+
+    @Test
+    void burstOfReadings_shouldArriveAsTheLatestPerSensorNextToDeviceChanges() throws Exception {
+        GuiChangeStream.subscribe(subscriber);
+
+        SwingUtilities.invokeAndWait(() -> {
+            for (int i = 0; i < 100; i++) {
+                DeviceEvents.publish(Kind.SENSOR_VALUE, "GS-SENSOR");
+            }
+            DeviceEvents.publish(Kind.DEVICE_STATE, "GS-SENSOR"); // same ID, different stream — kept apart
+        });
+
+        assertEquals(List.of(new Change(Kind.DEVICE_STATE, "GS-SENSOR", null),
+                new Change(Kind.SENSOR_VALUE, "GS-SENSOR", null)), awaitChanges(2));
+    }
+
+    private List<Change> awaitChanges(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (count() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(GuiChangeStream.FRAME_MS * 3L); // let any stray extra frame land
+        List<Change> all = new ArrayList<>();
+        batches.forEach(all::addAll);
+        return all;
+    }
+
+    private int count() {
+        return batches.stream().mapToInt(List::size).sum();
+    }
+}
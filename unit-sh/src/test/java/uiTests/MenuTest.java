@@ -30,7 +30,7 @@ class MenuTest {
 
     @Test
     void whenUserChoosesExit_thenMenuExitsGracefully() {
-        Scanner input = scannerFrom("5\n");
+        Scanner input = scannerFrom("7\n");
         Menu.show(new HashMap<>(), new ArrayList<>(), mock(Scheduler.class), input);
         // ✅ Success = no exception and returns cleanly
     }
@@ -38,7 +38,7 @@ class MenuTest {
     @Test
     void whenUserSelectsDeviceMenu_thenDeviceMenuIsTriggered() {
         try (MockedStatic<DeviceMenu> menu = mockStatic(DeviceMenu.class)) {
-            Scanner input = scannerFrom("1\n5\n"); // call menu, then exit
+            Scanner input = scannerFrom("1\n7\n"); // call menu, then exit
             Menu.show(new HashMap<>(), new ArrayList<>(), mock(Scheduler.class), input);
             menu.verify(() -> DeviceMenu.DevicesMenu(any(), any()));
         }
@@ -47,7 +47,7 @@ class MenuTest {
     @Test
     void whenUserSelectsMonitor_thenDelegatesToDeviceMonitor() {
         try (MockedStatic<DeviceMonitor> monitor = mockStatic(DeviceMonitor.class)) {
-            Scanner input = scannerFrom("2\n5\n"); // select → exit
+            Scanner input = scannerFrom("2\n7\n"); // select → exit
             Menu.show(new HashMap<>(), new ArrayList<>(), mock(Scheduler.class), input);
             monitor.verify(() -> DeviceMonitor.showMonitorDeviceMenu(any(), any()));
         }
@@ -56,7 +56,7 @@ class MenuTest {
     @Test
     void whenUserSelectsScheduler_thenDelegatesToScheduleMenu() {
         try (MockedStatic<ScheduleMenu> schedule = mockStatic(ScheduleMenu.class)) {
-            Scanner input = scannerFrom("3\n5\n");
+            Scanner input = scannerFrom("3\n7\n");
             Menu.show(new HashMap<>(), new ArrayList<>(), mock(Scheduler.class), input);
             schedule.verify(() -> ScheduleMenu.ScheduleMenu(any(), any()));
         }
@@ -89,7 +89,7 @@ class MenuTest {
             deviceStorage.when(DeviceStorage::getDevices).thenReturn(devices);
             sensorStorage.when(SensorStorage::getSensors).thenReturn(sensors);
 
-            Scanner input = scannerFrom("4\nD1\n5\n"); // test device, then exit
+            Scanner input = scannerFrom("4\nD1\n7\n"); // test device, then exit
             Menu.show(devices, new ArrayList<>(), mock(Scheduler.class), input);
 
             verify(device).testDevice();
@@ -109,7 +109,7 @@ class MenuTest {
         try (MockedStatic<DeviceStorage> deviceStorage = mockStatic(DeviceStorage.class)) {
             deviceStorage.when(DeviceStorage::getDevices).thenReturn(devices);
 
-            Scanner input = scannerFrom("4\nD9\n5\n"); // attempt to test ON device
+            Scanner input = scannerFrom("4\nD9\n7\n"); // attempt to test ON device
             Menu.show(devices, new ArrayList<>(), mock(Scheduler.class), input);
 
             verify(device, never()).testDevice();
@@ -133,7 +133,7 @@ class MenuTest {
             deviceStorage.when(DeviceStorage::getDevices).thenReturn(Collections.emptyMap());
             sensorStorage.when(SensorStorage::getSensors).thenReturn(sensors);
 
-            Scanner input = scannerFrom("4\nSENSE\n5\n");
+            Scanner input = scannerFrom("4\nSENSE\n7\n");
             Menu.show(new HashMap<>(), new ArrayList<>(), mock(Scheduler.class), input);
 
             verify(sensor).testSensorBehavior();
@@ -0,0 +1,88 @@
+package uiTests;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import scenes.Scene;
+import scenes.SceneManager;
+import scheduler.Scheduler;
+import ui.SceneMenu;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SceneMenuTest {
+
+    private Scanner scannerFrom(String input) {
+        return new Scanner(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @BeforeEach
+    void setUp() {
+        SceneManager.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SceneManager.clear();
+    }
+
+    @Test
+    void createScene_shouldRegisterTheStepsEntered() {
+        // Choice 3 (create scene) → name → two steps → empty line → back
+        String input = """
+            3
+            Evening
+            LI001 ON
+            TH001 TEMP=21
+
+            7
+            """;
+
+        SceneMenu.SceneMenu(mock(Scheduler.class), scannerFrom(input));
+
+        assertEquals(1, SceneManager.getScenes().size());
+        Scene scene = SceneManager.getScenes().iterator().next();
+        assertEquals("Evening", scene.getName());
+        assertEquals(List.of(new Scene.Step("LI001", "ON"), new Scene.Step("TH001", "TEMP=21")), scene.getSteps());
+    }
+
+    @Test
+    void scheduleScene_shouldHandTheSceneToTheScheduler() {
+        Scene scene = SceneManager.createScene("Morning");
+        Scheduler scheduler = mock(Scheduler.class);
+
+        // Choice 6 (schedule) → scene ID → today → time → daily → back
+        String input = "6\n" + scene.getId() + "\n1\n07:30\n2\n7\n";
+
+        SceneMenu.SceneMenu(scheduler, scannerFrom(input));
+
+        verify(scheduler).scheduleScene(eq(scene), any(LocalDateTime.class), eq("daily"));
+    }
+
+    @Test
+    void triggerOnUnknownSensor_shouldBeRejected() {
+        Scene scene = SceneManager.createScene("Porch");
+
+        // Choice 4 (add trigger) → scene ID → sensor that does not exist → back
+        SceneMenu.SceneMenu(mock(Scheduler.class), scannerFrom("4\n" + scene.getId() + "\nNOPE999\n7\n"));
+
+        assertTrue(SceneManager.getTriggers("NOPE999").isEmpty());
+    }
+
+    @Test
+    void unknownScene_shouldNotReachTheScheduler() {
+        SceneManager.createScene("Morning");
+        Scheduler scheduler = mock(Scheduler.class);
+
+        SceneMenu.SceneMenu(scheduler, scannerFrom("6\nSC999\n7\n"));
+
+        verifyNoInteractions(scheduler);
+    }
+}
@@ -0,0 +1,192 @@
+package utilsTests;
+
+import autoOp.AutoOpEngine;
+import autoOp.CoalescingSlot;
+import org.junit.jupiter.api.Test;
+import sensors.MeasurementUnit;
+import sensors.Sensor;
+import sensors.SensorType;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AutoOpEngineTest {
+
+    // 🧪 Records evaluations; the first one can be held open to back the queue up
+    private static class GateSensor extends Sensor {
+        final List<Double> evaluated = new CopyOnWriteArrayList<>();
+        final List<Thread> threads = new CopyOnWriteArrayList<>();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch gate;
+
+        GateSensor(String id, CountDownLatch gate) {
+            super(id, SensorType.LIGHT, "Gate " + id, MeasurementUnit.LUX, 0, Clock.systemDefaultZone());
+            this.gate = gate;
+        }
+
+        @Override
+        public void evaluateLinkedDevices(double value) {
+            evaluated.add(value);
+            threads.add(Thread.currentThread());
+            entered.countDown();
+            try {
+                gate.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override public double readCurrentValue() { return currentValue; }
+        @Override public double getCurrentReading() { return currentValue; }
+        @Override public void simulateValue(double value) { currentValue = value; }
+    }
+
+    @Test
+    void publish_shouldNotWaitForEvaluation() throws InterruptedException {
+        AutoOpEngine engine = new AutoOpEngine(1, 8, AutoOpEngine.OverflowPolicy.BLOCK);
+        CountDownLatch gate = new CountDownLatch(1);
+        GateSensor sensor = new GateSensor("SE901", gate);
+
+        long start = System.nanoTime();
+        engine.publish(sensor, 42);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsedMs < 1_000, "publish blocked for " + elapsedMs + "ms");
+        assertTrue(sensor.entered.await(2, TimeUnit.SECONDS));
+        assertNotSame(Thread.currentThread(), sensor.threads.get(0));
+
+        gate.countDown();
+        assertTrue(engine.awaitIdle(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void staleReadings_shouldBeMergedIntoLatest() throws InterruptedException {
+        AutoOpEngine engine = new AutoOpEngine(1, 8, AutoOpEngine.OverflowPolicy.BLOCK);
+        CountDownLatch gate = new CountDownLatch(1);
+        GateSensor sensor = new GateSensor("SE902", gate);
+
+        engine.publish(sensor, 1);
+        assertTrue(sensor.entered.await(2, TimeUnit.SECONDS)); // worker is busy with reading #1
+        for (int i = 2; i <= 100; i++) {
+            engine.publish(sensor, i);
+        }
+        gate.countDown();
+
+        assertTrue(engine.awaitIdle(2, TimeUnit.SECONDS));
+        assertEquals(List.of(1.0, 100.0), sensor.evaluated);
+        assertEquals(98, engine.getMergedCount());
+    }
+
+    @Test
+    void fullQueue_withDropPolicy_shouldDropNewSensorReadings() throws InterruptedException {
+        AutoOpEngine engine = new AutoOpEngine(1, 1, AutoOpEngine.OverflowPolicy.DROP);
+        CountDownLatch gate = new CountDownLatch(1);
+        GateSensor busy = new GateSensor("SE903", gate);
+        GateSensor queued = new GateSensor("SE904", gate);
+        GateSensor overflow = new GateSensor("SE905", gate);
+
+        engine.publish(busy, 1);
+        assertTrue(busy.entered.await(2, TimeUnit.SECONDS));
+        engine.publish(queued, 2);   // fills the single slot
+        engine.publish(overflow, 3); // nowhere to go
+
+        gate.countDown();
+        assertTrue(engine.awaitIdle(2, TimeUnit.SECONDS));
+        assertEquals(1, engine.getDroppedCount());
+        assertTrue(overflow.evaluated.isEmpty());
+        assertEquals(List.of(2.0), queued.evaluated);
+    }
+
+    @Test
+    void fullQueue_withBlock_shouldWaitForRoomAndStayOnTheStripe() throws InterruptedException {
+        AutoOpEngine engine = new AutoOpEngine(1, 1, AutoOpEngine.OverflowPolicy.BLOCK, Duration.ofSeconds(2));
+        CountDownLatch gate = new CountDownLatch(1);
+        GateSensor busy = new GateSensor("SE906", gate);
+        GateSensor queued = new GateSensor("SE907", gate);
+        GateSensor overflow = new GateSensor("SE908", new CountDownLatch(0));
+
+        engine.publish(busy, 1);
+        assertTrue(busy.entered.await(2, TimeUnit.SECONDS));
+        engine.publish(queued, 2);
+
+        Thread publisher = new Thread(() -> engine.publish(overflow, 3));
+        publisher.start();
+        publisher.join(200);
+        assertTrue(publisher.isAlive(), "publisher should wait for room on the full stripe");
+        assertTrue(overflow.evaluated.isEmpty());
+
+        gate.countDown();
+        publisher.join(2_000);
+        assertTrue(engine.awaitIdle(2, TimeUnit.SECONDS));
+        assertEquals(List.of(3.0), overflow.evaluated);
+        assertNotSame(publisher, overflow.threads.get(0));
+        assertEquals(0, engine.getDroppedCount());
+    }
+
+    @Test
+    void fullQueue_withBlock_shouldDropAfterTheTimeoutAndAcceptLaterReadings() throws InterruptedException {
+        AutoOpEngine engine = new AutoOpEngine(1, 1, AutoOpEngine.OverflowPolicy.BLOCK, Duration.ofMillis(20));
+        CountDownLatch gate = new CountDownLatch(1);
+        GateSensor busy = new GateSensor("SE911", gate);
+        GateSensor queued = new GateSensor("SE912", gate);
+        GateSensor overflow = new GateSensor("SE913", new CountDownLatch(0));
+
+        engine.publish(busy, 1);
+        assertTrue(busy.entered.await(2, TimeUnit.SECONDS));
+        engine.publish(queued, 2);
+        engine.publish(overflow, 3); // times out
+
+        assertEquals(1, engine.getDroppedCount());
+        assertFalse(overflow.getPendingReading().isPending(), "slot handed back so the sensor is not stranded");
+
+        gate.countDown();
+        assertTrue(engine.awaitIdle(2, TimeUnit.SECONDS));
+        engine.publish(overflow, 4);
+        assertTrue(engine.awaitIdle(2, TimeUnit.SECONDS));
+        assertEquals(List.of(4.0), overflow.evaluated);
+    }
+
+    @Test
+    void coalescingSlot_shouldKeepLatestValueAndCountMerges() {
+        CoalescingSlot slot = new CoalescingSlot();
+
+        assertTrue(slot.offer(1));
+        assertFalse(slot.offer(Double.NaN));
+        assertFalse(slot.offer(-0.5));
+        assertTrue(slot.isPending());
+        assertEquals(-0.5, slot.take());
+        assertFalse(slot.isPending());
+
+        assertTrue(slot.offer(Double.NaN)); // a NaN reading is still a pending reading
+        assertTrue(slot.isPending());
+        assertEquals(2, slot.getMergedCount());
+    }
+
+    @Test
+    void burst_shouldReportMergesPerSensor() throws InterruptedException {
+        AutoOpEngine engine = new AutoOpEngine(1, 8, AutoOpEngine.OverflowPolicy.BLOCK);
+        CountDownLatch gate = new CountDownLatch(1);
+        GateSensor sensor = new GateSensor("SE909", gate);
+        GateSensor quiet = new GateSensor("SE910", new CountDownLatch(0));
+
+        engine.publish(sensor, 0);
+        assertTrue(sensor.entered.await(2, TimeUnit.SECONDS));
+        for (int i = 1; i <= 50; i++) {
+            engine.publish(sensor, i);
+        }
+        engine.publish(quiet, 7);
+        gate.countDown();
+
+        assertTrue(engine.awaitIdle(2, TimeUnit.SECONDS));
+        assertEquals(49, sensor.getPendingReading().getMergedCount());
+        assertEquals(0, quiet.getPendingReading().getMergedCount());
+        assertEquals(List.of(7.0), quiet.evaluated);
+        assertEquals(3, engine.getProcessedCount());
+    }
+}
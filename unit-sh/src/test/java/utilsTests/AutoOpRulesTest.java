@@ -0,0 +1,143 @@
+package utilsTests;
+
+import autoOp.AutoOpRules;
+import autoOp.AutoOpRules.Decision;
+import autoOp.AutoOpRules.Policy;
+import devices.Device;
+import devices.Light;
+import sensors.LightSensor;
+import sensors.MeasurementUnit;
+import utils.Log;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AutoOpRulesTest {
+
+    private static final class StepClock extends Clock {
+        Instant now = Instant.parse("2030-01-01T18:00:00Z");
+
+        void advance(Duration d) { now = now.plus(d); }
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return now; }
+    }
+
+    private StepClock clock;
+    private Device light;
+
+    @BeforeEach
+    void setUp() {
+        clock = new StepClock();
+        light = new Light("LI901", "Porch", clock, false, 400, 600, true);
+    }
+
+    // Flip the device the way setOn does, without touching storage
+    private void switchTo(boolean on) {
+        light.setState(on ? "ON" : "OFF");
+        light.setState(on);
+    }
+
+    @Test
+    void readingsInsideTheBand_shouldHoldTheCurrentState() {
+        AutoOpRules rules = new AutoOpRules(new Policy(Duration.ZERO, Duration.ZERO));
+
+        assertEquals(Decision.TURN_ON, rules.evaluate(light, 399));
+        switchTo(true);
+
+        assertEquals(Decision.HELD_IN_BAND, rules.evaluate(light, 450));
+        assertEquals(Decision.HELD_IN_BAND, rules.evaluate(light, 599));
+        assertEquals(Decision.TURN_OFF, rules.evaluate(light, 600));
+        assertEquals(2, rules.getHeldInBandCount());
+        assertEquals(2, rules.getTransitionCount());
+    }
+
+    @Test
+    void offBelowOn_shouldCollapseToSingleSwitchingPoint() {
+        light.setAutoOnThreshold(500, true);
+        light.setAutoOffThreshold(300);
+        AutoOpRules rules = new AutoOpRules(new Policy(Duration.ZERO, Duration.ZERO));
+        switchTo(true);
+
+        assertEquals(500, light.getAutoOffThreshold());
+        assertEquals(Decision.TURN_OFF, rules.evaluate(light, 500));
+    }
+
+    @Test
+    void debounce_shouldRequireTheSameDirectionForTheWholeWindow() {
+        AutoOpRules rules = new AutoOpRules(new Policy(Duration.ofSeconds(3), Duration.ZERO));
+
+        assertEquals(Decision.DEBOUNCED, rules.evaluate(light, 100));
+        clock.advance(Duration.ofSeconds(2));
+        assertEquals(Decision.HOLD, rules.evaluate(light, 450)); // noise back into the band resets the window
+        assertEquals(Decision.DEBOUNCED, rules.evaluate(light, 100));
+        clock.advance(Duration.ofSeconds(2));
+        assertEquals(Decision.DEBOUNCED, rules.evaluate(light, 100));
+        clock.advance(Duration.ofSeconds(1));
+        assertEquals(Decision.TURN_ON, rules.evaluate(light, 100));
+        assertEquals(3, rules.getDebouncedCount());
+    }
+
+    @Test
+    void minDwell_shouldBlockChangesRightAfterASwitch() {
+        AutoOpRules rules = new AutoOpRules(new Policy(Duration.ZERO, Duration.ofSeconds(10)));
+        switchTo(true);
+
+        clock.advance(Duration.ofSeconds(4));
+        assertEquals(Decision.DWELLING, rules.evaluate(light, 900));
+        clock.advance(Duration.ofSeconds(6));
+        assertEquals(Decision.TURN_OFF, rules.evaluate(light, 900));
+        assertEquals(1, rules.getSuppressedCount());
+    }
+
+    @Test
+    void perDevicePolicy_shouldOverrideTheDefault() {
+        AutoOpRules rules = new AutoOpRules(new Policy(Duration.ZERO, Duration.ZERO));
+        rules.setPolicy(light.getId(), new Policy(Duration.ofMinutes(1), Duration.ZERO));
+
+        assertEquals(Decision.DEBOUNCED, rules.evaluate(light, 100));
+        rules.setPolicy(light.getId(), null);
+        assertEquals(Decision.TURN_ON, rules.evaluate(light, 100));
+    }
+
+    @Test
+    void singleValueEdit_shouldKeepTheBandWidth() {
+        light.setAutoThreshold(1000, true);
+
+        assertEquals(1000, light.getAutoThreshold());
+        assertEquals(1200, light.getAutoOffThreshold());
+    }
+
+    @Test
+    void steadyReading_shouldSwitchOnceTheDwellWindowEnds() throws InterruptedException {
+        // Real clock, storage-free device: the re-check comes from the engine's timer, not from a new reading
+        Log.isDebugEnabled(); // start logging up front so its init does not eat the dwell window
+        Device lamp = new Light("LI950", "Steady", Clock.systemUTC(), false, 400, 600, true) {
+            @Override public boolean isAutomationEnabled() { return true; }
+            @Override public void turnOn() { setState("ON"); setState(true); }
+            @Override public void turnOff() { setState("OFF"); setState(false); }
+        };
+        AutoOpRules.getInstance().setPolicy("LI950", new Policy(Duration.ZERO, Duration.ofMillis(500)));
+
+        LightSensor sensor = new LightSensor("SE950", "Steady sensor", MeasurementUnit.LUX, 100, Clock.systemUTC());
+        sensor.linkDevice(lamp);
+        try {
+            lamp.setState("OFF"); // just switched OFF → inside the dwell window
+            sensor.evaluateLinkedDevices(100); // wants ON, held by the dwell; no further reading follows
+            assertFalse(lamp.isOn());
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(3);
+            while (!lamp.isOn() && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertTrue(lamp.isOn(), "held transition was never re-checked");
+        } finally {
+            AutoOpRules.getInstance().forget("LI950");
+        }
+    }
+}
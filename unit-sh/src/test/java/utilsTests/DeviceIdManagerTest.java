@@ -5,7 +5,10 @@ import devices.DeviceType;
 import org.junit.jupiter.api.*;
 import utils.DeviceIdManager;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -17,7 +20,7 @@ class DeviceIdManagerTest {
     @BeforeEach
     void setup() {
         manager = DeviceIdManager.getInstance();
-        manager.setExistingDevices(List.of()); // 🧼 Clear assigned IDs
+        manager.clear(); // 🧼 Clear assigned IDs
     }
 
     @Test
@@ -70,4 +73,54 @@ class DeviceIdManagerTest {
         assertTrue(manager.isIdTaken(id));
         assertFalse(manager.isIdTaken("WM999"));
     }
+
+    @Test
+    void whenRangeIsReserved_thenNextIdFollowsIt() {
+        manager.addKnownIds(List.of("SL002"));
+
+        DeviceIdManager.IdRange range = manager.reserveRangeForType(DeviceType.SMART_LIGHT, 3);
+
+        assertEquals(List.of("SL003", "SL004", "SL005"), range.ids());
+        assertTrue(manager.isIdTaken("SL004"));
+        assertEquals("SL006", manager.generateIdForType(DeviceType.SMART_LIGHT));
+    }
+
+    @Test
+    void whenIdsAreAddedLater_thenSeededCounterMovesPastThem() {
+        assertEquals("LI001", manager.generateId("LIGHT"));
+
+        manager.addKnownIds(List.of("LI040", "LITs900")); // LITs belongs to the sensor prefix, not LI
+        assertEquals("LI041", manager.generateId("LIGHT"));
+        assertEquals("LITs901", manager.generateIdWithPrefix("LITs"));
+    }
+
+    @Test
+    void whenIdsAreRegisteredOnce_thenNextAvailableIdComesFromTheCounter() {
+        manager.addKnownIds(List.of("TS001", "TS002", "TS099"));
+
+        assertEquals("TS100", DeviceIdManager.getNextAvailableId("TS"));
+        assertEquals("TS101", DeviceIdManager.getNextAvailableId("TS"));
+        assertTrue(manager.isIdTaken("TS101"));
+    }
+
+    @Test
+    void whenManyThreadsAllocate_thenIdsAreUnique() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<List<String>>> results = new java.util.ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            results.add(pool.submit(() -> {
+                List<String> ids = new java.util.ArrayList<>();
+                for (int i = 0; i < 500; i++) ids.add(manager.generateIdForType(DeviceType.DRYER));
+                ids.addAll(manager.reserveRange("DR", 10).ids());
+                return ids;
+            }));
+        }
+        pool.shutdown();
+
+        Set<String> all = new HashSet<>();
+        for (Future<List<String>> f : results) all.addAll(f.get(30, TimeUnit.SECONDS));
+
+        assertEquals(8 * 510, all.size());
+        assertEquals(String.format("DR%03d", 8 * 510 + 1), manager.generateIdForType(DeviceType.DRYER));
+    }
 }
@@ -4,8 +4,19 @@ import org.apache.poi.ss.usermodel.Workbook;
 import org.junit.jupiter.api.*;
 import utils.Log;
 
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.PrintStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -25,6 +36,8 @@ class LogTest {
 
     @AfterEach
     void restoreStreams() {
+        Log.setLevel(Log.Level.INFO);
+        Log.setConsoleLevel(Log.Level.INFO);
         System.setOut(originalOut);
         System.setErr(originalErr);
         outContent.reset();
@@ -67,4 +80,80 @@ class LogTest {
         Log.debugSheetNames(workbook); // DEBUG_MODE is off
         assertEquals("", outContent.toString());
     }
+
+    @Test
+    void parameterizedMessage_shouldFillPlaceholders() {
+        Log.info("Sensor {} read {}", "LS001", 42.5);
+        assertTrue(outContent.toString().contains("ℹ️ Sensor LS001 read 42.5"));
+    }
+
+    @Test
+    void setLevel_shouldEnableDebugAtRuntime() {
+        Log.setLevel(Log.Level.DEBUG);
+        Log.setConsoleLevel(Log.Level.DEBUG);
+
+        Log.debug("Row {} of {}", 3, 10);
+
+        assertTrue(Log.isDebugEnabled());
+        assertTrue(outContent.toString().contains("Row 3 of 10"));
+    }
+
+    @Test
+    void disabledLevel_shouldNotFormatArguments() {
+        Object explosive = new Object() {
+            @Override
+            public String toString() {
+                throw new AssertionError("formatted while disabled");
+            }
+        };
+        Log.debug("Never {}", explosive);
+        Log.setLevel(Log.Level.ERROR);
+        Log.warn("Never {}", explosive);
+
+        assertEquals("", outContent.toString());
+    }
+
+    @Test
+    void consoleLevel_shouldHideLowerLevelsFromConsole() {
+        Log.setConsoleLevel(Log.Level.WARN);
+
+        Log.info("Quiet");
+        Log.warn("Loud");
+
+        assertFalse(outContent.toString().contains("Quiet"));
+        assertTrue(outContent.toString().contains("⚠️ Loud"));
+    }
+
+    // 🧪 Runs in a fresh JVM: POI opens a workbook (creating log4j's shared context) before Log is touched
+    public static class PoiFirstProbe {
+        public static void main(String[] args) throws Exception {
+            new XSSFWorkbook().close();
+            Log.setConsoleLevel(Log.Level.OFF);
+            Log.info("probe line after POI");
+        }
+    }
+
+    @Test
+    void fileAppender_shouldWorkWhenPoiInitializedLog4jFirst(@org.junit.jupiter.api.io.TempDir Path dir) throws Exception {
+        Path logFile = dir.resolve("probe.log");
+
+        Set<String> cp = new LinkedHashSet<>(Set.of(System.getProperty("java.class.path").split(File.pathSeparator)));
+        if (Thread.currentThread().getContextClassLoader() instanceof URLClassLoader loader) {
+            for (URL url : loader.getURLs()) cp.add(new File(url.toURI()).getPath());
+        }
+
+        Process probe = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", String.join(File.pathSeparator, cp),
+                "-D" + Log.FILE_PROPERTY + "=" + logFile,
+                PoiFirstProbe.class.getName())
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(probe.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertTrue(probe.waitFor(30, TimeUnit.SECONDS), output);
+        assertEquals(0, probe.exitValue(), output);
+
+        assertTrue(Files.exists(logFile), "log file not created; probe output:\n" + output);
+        assertTrue(Files.readString(logFile).contains("probe line after POI"));
+    }
 }
@@ -0,0 +1,183 @@
+package utilsTests;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import utils.MailSender;
+import utils.NotificationDispatcher;
+import utils.SmtpMailSender;
+
+import javax.mail.MessagingException;
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationDispatcherTest {
+
+    private NotificationDispatcher dispatcher;
+    private FakeSmtpServer smtp;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (dispatcher != null) dispatcher.close();
+        if (smtp != null) smtp.close();
+    }
+
+    @Test
+    void burst_shouldBecomeOneDigestOverOneConnection() throws Exception {
+        smtp = new FakeSmtpServer();
+        SmtpMailSender sender = new SmtpMailSender("localhost", smtp.getPort(), false, null, null, "phoenix@localhost");
+        dispatcher = new NotificationDispatcher(sender, 64, 500, 3, 10);
+
+        dispatcher.enqueue("me@localhost", "Device Action", "LI001 → ON", "Lamp → ON");
+        waitFor(() -> dispatcher.getMessagesSent() == 1); // counted once send() returned, not when the server saw DATA
+        for (int i = 0; i < 5; i++) {
+            dispatcher.enqueue("me@localhost", "Device Action", "body " + i, "Light " + i + " → OFF");
+        }
+        waitFor(() -> dispatcher.getDigestsSent() == 1);
+
+        assertTrue(smtp.messages.get(0).contains("LI001"));
+        String digest = smtp.messages.get(1);
+        assertTrue(digest.contains("Notification Digest"), digest);
+        assertTrue(digest.contains("Light 4"), digest);
+        assertEquals(1, dispatcher.getDigestsSent());
+        assertEquals(1, smtp.connections.get());
+        assertEquals(1, sender.getConnectCount());
+    }
+
+    @Test
+    void noServerConfigured_shouldFallBackToTheConsoleWithoutCredentials() throws Exception {
+        String host = System.clearProperty("phoenix.smtp.host");
+        String user = System.clearProperty("phoenix.smtp.user");
+        try {
+            MailSender sender = SmtpMailSender.fromProperties();
+            assertFalse(sender instanceof SmtpMailSender);
+            sender.send("me@localhost", "Device Action", "LI001 → ON"); // console only, no connection
+        } finally {
+            if (host != null) System.setProperty("phoenix.smtp.host", host);
+            if (user != null) System.setProperty("phoenix.smtp.user", user);
+        }
+    }
+
+    @Test
+    void failedSend_shouldBeRetriedWithBackoff() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        MailSender flaky = (to, subject, body) -> {
+            if (attempts.incrementAndGet() < 3) throw new MessagingException("server busy");
+        };
+        dispatcher = new NotificationDispatcher(flaky, 8, 50, 3, 5);
+
+        dispatcher.enqueue("me@localhost", "s", "b", "x");
+        waitFor(() -> dispatcher.getMessagesSent() == 1);
+
+        assertEquals(3, attempts.get());
+        assertEquals(0, dispatcher.getFailed());
+    }
+
+    @Test
+    void fullQueue_shouldDropInsteadOfBlocking() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        MailSender stuck = (to, subject, body) -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        dispatcher = new NotificationDispatcher(stuck, 2, 10, 1, 1);
+
+        dispatcher.enqueue("me@localhost", "s", "b", "first"); // taken by the worker, which then blocks
+        waitFor(() -> dispatcher.getQueueDepth() == 0);
+        assertTrue(dispatcher.enqueue("me@localhost", "s", "b", "2"));
+        assertTrue(dispatcher.enqueue("me@localhost", "s", "b", "3"));
+        assertFalse(dispatcher.enqueue("me@localhost", "s", "b", "4"));
+        assertEquals(1, dispatcher.getDropped());
+
+        release.countDown();
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met in time");
+            Thread.sleep(10);
+        }
+    }
+
+    // 📮 Minimal local SMTP stand-in: accepts everything, records each DATA payload
+    private static final class FakeSmtpServer implements Closeable {
+        final List<String> messages = new CopyOnWriteArrayList<>();
+        final AtomicInteger connections = new AtomicInteger();
+        private final ServerSocket server = new ServerSocket(0);
+
+        FakeSmtpServer() throws IOException {
+            Thread acceptor = new Thread(() -> {
+                while (!server.isClosed()) {
+                    try {
+                        Socket socket = server.accept();
+                        connections.incrementAndGet();
+                        Thread handler = new Thread(() -> serve(socket));
+                        handler.setDaemon(true);
+                        handler.start();
+                    } catch (IOException e) {
+                        return;
+                    }
+                }
+            });
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort() {
+            return server.getLocalPort();
+        }
+
+        private void serve(Socket socket) {
+            try (socket;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                 Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)) {
+                reply(out, "220 localhost fake SMTP");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                    switch (command) {
+                        case "DATA" -> {
+                            reply(out, "354 go ahead");
+                            StringBuilder data = new StringBuilder();
+                            while (!(line = in.readLine()).equals(".")) {
+                                data.append(line).append('\n');
+                            }
+                            messages.add(data.toString());
+                            reply(out, "250 queued");
+                        }
+                        case "QUIT" -> {
+                            reply(out, "221 bye");
+                            return;
+                        }
+                        default -> reply(out, "250 OK");
+                    }
+                }
+            } catch (IOException ignored) {
+                // client went away
+            }
+        }
+
+        private static void reply(Writer out, String line) throws IOException {
+            out.write(line + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package utilsTests;
+
+import org.junit.jupiter.api.Test;
+import utils.StartupPipeline;
+import utils.StartupPipeline.Outcome;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StartupPipelineTest {
+
+    @Test
+    void independentPhases_shouldRunConcurrently() {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Runnable waitForOther = () -> {
+            bothStarted.countDown();
+            try {
+                assertTrue(bothStarted.await(5, TimeUnit.SECONDS), "Phases were serialized");
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+
+        StartupPipeline.Report report = new StartupPipeline(2)
+                .phase("devices", waitForOther)
+                .phase("sensors", waitForOther)
+                .run();
+
+        assertTrue(report.isSuccessful());
+    }
+
+    @Test
+    void dependentPhase_shouldWaitForItsDependencies() {
+        List<String> order = new CopyOnWriteArrayList<>();
+
+        new StartupPipeline(4)
+                .phase("devices", () -> { sleep(50); order.add("devices"); })
+                .phase("sensors", () -> order.add("sensors"))
+                .phase("links", () -> order.add("links"), "devices", "sensors")
+                .phase("scheduler", () -> order.add("scheduler"), "devices")
+                .run();
+
+        assertEquals(4, order.size());
+        assertTrue(order.indexOf("links") > order.indexOf("devices"));
+        assertTrue(order.indexOf("links") > order.indexOf("sensors"));
+        assertTrue(order.indexOf("scheduler") > order.indexOf("devices"));
+    }
+
+    @Test
+    void failedPhase_shouldSkipDependentsOnly() {
+        List<String> ran = new CopyOnWriteArrayList<>();
+
+        StartupPipeline.Report report = new StartupPipeline(2)
+                .phase("devices", () -> { throw new IllegalStateException("boom"); })
+                .phase("sensors", () -> ran.add("sensors"))
+                .phase("scheduler", () -> ran.add("scheduler"), "devices")
+                .run();
+
+        assertFalse(report.isSuccessful());
+        assertEquals(List.of("sensors"), ran);
+        assertEquals(Outcome.FAILED, report.get("devices").orElseThrow().outcome());
+        assertEquals(Outcome.OK, report.get("sensors").orElseThrow().outcome());
+        assertEquals(Outcome.SKIPPED, report.get("scheduler").orElseThrow().outcome());
+    }
+
+    @Test
+    void unknownDependency_shouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () ->
+                new StartupPipeline().phase("scheduler", () -> {}, "devices"));
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}